@@ -0,0 +1,317 @@
+package com.dotcms.content.elasticsearch.business;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import com.dotcms.IntegrationTestBase;
+import com.dotcms.content.elasticsearch.constants.ESMappingConstants;
+import com.dotcms.datagen.StructureDataGen;
+import com.dotcms.util.IntegrationTestInitService;
+import com.dotmarketing.business.APILocator;
+import com.dotmarketing.business.CacheLocator;
+import com.dotmarketing.business.FactoryLocator;
+import com.dotmarketing.cache.FieldsCache;
+import com.dotmarketing.exception.DotHibernateException;
+import com.dotmarketing.portlets.categories.business.CategoryAPI;
+import com.dotmarketing.portlets.categories.model.Category;
+import com.dotmarketing.portlets.contentlet.business.ContentletAPI;
+import com.dotmarketing.portlets.contentlet.model.Contentlet;
+import com.dotmarketing.portlets.contentlet.model.IndexPolicy;
+import com.dotmarketing.portlets.structure.factories.FieldFactory;
+import com.dotmarketing.portlets.structure.model.Field;
+import com.dotmarketing.portlets.structure.model.Relationship;
+import com.dotmarketing.portlets.structure.model.Structure;
+import com.dotmarketing.util.Config;
+import com.dotmarketing.util.UtilMethods;
+import com.liferay.portal.model.User;
+import com.liferay.util.FileUtil;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.elasticsearch.search.SearchHits;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * A contentlet built from the contentlet_source stored in the index has to be the same the
+ * database has, for every kind of field and for the values that are not set
+ */
+public class ESContentletSourceTest extends IntegrationTestBase {
+
+    private static final String KEY_VALUE = "{\"key1\":\"value1\",\"key2\":\"value2\"}";
+
+    private static ContentletAPI contentletAPI;
+    private static CategoryAPI categoryAPI;
+    private static User user;
+    private static boolean hydrateFromSource;
+
+    private static Structure structure;
+    private static Relationship relationship;
+    private static Category parentCategory;
+    private static final List<Category> categories = new ArrayList<>();
+    private static final List<Contentlet> contentlets = new ArrayList<>();
+
+    private final ESContentFactoryImpl instance = new ESContentFactoryImpl();
+
+    @BeforeClass
+    public static void prepare() throws Exception {
+        //Setting web app environment
+        IntegrationTestInitService.getInstance().init();
+
+        contentletAPI = APILocator.getContentletAPI();
+        categoryAPI = APILocator.getCategoryAPI();
+        user = APILocator.getUserAPI().getSystemUser();
+        hydrateFromSource = Config.getBooleanProperty("ELASTICSEARCH_HYDRATE_FROM_SOURCE", false);
+        Config.setProperty("ELASTICSEARCH_HYDRATE_FROM_SOURCE", true);
+
+        final long time = System.currentTimeMillis();
+        parentCategory = new Category();
+        parentCategory.setCategoryName("Source Parent" + time);
+        parentCategory.setKey("sourceparent" + time);
+        parentCategory.setCategoryVelocityVarName("sourceparent" + time);
+        categoryAPI.save(null, parentCategory, user, false);
+        for (final String name : new String[]{"sourcechilda", "sourcechildb"}) {
+            final Category child = new Category();
+            child.setCategoryName(name + time);
+            child.setKey(name + time);
+            child.setCategoryVelocityVarName(name + time);
+            categoryAPI.save(parentCategory, child, user, false);
+            categories.add(child);
+        }
+
+        structure = new StructureDataGen().velocityVarName("contentletSource" + time).nextPersisted();
+        addField("Text", "text", Field.FieldType.TEXT, Field.DataType.TEXT, 1);
+        addField("Text Area", "textArea", Field.FieldType.TEXT_AREA, Field.DataType.LONG_TEXT, 2);
+        addField("Date", "date", Field.FieldType.DATE, Field.DataType.DATE, 3);
+        addField("Time", "time", Field.FieldType.TIME, Field.DataType.DATE, 4);
+        addField("Date Time", "dateTime", Field.FieldType.DATE_TIME, Field.DataType.DATE, 5);
+        addField("Integer", "integer", Field.FieldType.TEXT, Field.DataType.INTEGER, 6);
+        addField("Float", "float", Field.FieldType.TEXT, Field.DataType.FLOAT, 7);
+        addField("Boolean", "boolean", Field.FieldType.RADIO, Field.DataType.BOOL, 8);
+        addField("Key Value", "keyValue", Field.FieldType.KEY_VALUE, Field.DataType.LONG_TEXT, 9);
+        addField("Binary", "binary", Field.FieldType.BINARY, Field.DataType.BINARY, 10);
+        final Field categoryField = new Field("Category", Field.FieldType.CATEGORY, Field.DataType.TEXT, structure,
+                false, false, true, 11, false, false, true);
+        categoryField.setVelocityVarName("category");
+        categoryField.setValues(parentCategory.getInode());
+        FieldFactory.saveField(categoryField);
+        FieldsCache.clearCache();
+
+        relationship = new Relationship();
+        relationship.setParentStructureInode(structure.getInode());
+        relationship.setParentRelationName("sourceParent" + time);
+        relationship.setChildStructureInode(structure.getInode());
+        relationship.setChildRelationName("sourceChild" + time);
+        relationship.setRelationTypeValue("sourceParent" + time + "-sourceChild" + time);
+        relationship.setCardinality(0);
+        FactoryLocator.getRelationshipFactory().save(relationship);
+    }
+
+    private static void addField(final String name, final String velocityVarName, final Field.FieldType type,
+            final Field.DataType dataType, final int sortOrder) throws DotHibernateException {
+
+        final Field field = new Field(name, type, dataType, structure, false, false, true, sortOrder,
+                false, false, false);
+        field.setVelocityVarName(velocityVarName);
+        FieldFactory.saveField(field);
+    }
+
+    @AfterClass
+    public static void cleanup() throws Exception {
+
+        Config.setProperty("ELASTICSEARCH_HYDRATE_FROM_SOURCE", hydrateFromSource);
+        for (final Contentlet contentlet : contentlets) {
+            contentletAPI.archive(contentlet, user, false);
+            contentletAPI.delete(contentlet, user, false);
+        }
+        if (null != relationship) {
+            APILocator.getRelationshipAPI().delete(relationship);
+        }
+        if (null != structure) {
+            StructureDataGen.remove(structure);
+        }
+        for (final Category category : categories) {
+            categoryAPI.delete(category, user, false);
+        }
+        if (null != parentCategory) {
+            categoryAPI.delete(parentCategory, user, false);
+        }
+    }
+
+    @Test
+    public void testContentletFromTheSourceEqualsTheDatabaseOne() throws Exception {
+
+        final Contentlet child = checkin(values("child"), Collections.emptyMap(), Collections.emptyList());
+
+        final Map<String, Object> values = values("parent");
+        final File binary = File.createTempFile("contentletSource", ".txt");
+        FileUtil.write(binary, "Contentlet source binary");
+        values.put("binary", binary);
+        final Contentlet parent = checkin(values,
+                Collections.singletonMap(relationship, Collections.singletonList(child)), categories);
+
+        final Contentlet fromDatabase = fromDatabase(parent.getInode());
+        final Contentlet fromSource = fromSource(parent);
+
+        assertSameContentlet(fromDatabase, fromSource);
+        assertEquals(KEY_VALUE, fromSource.getStringProperty("keyValue"));
+        assertNotNull(fromSource.getBinary("binary"));
+        assertEquals(fromDatabase.getBinary("binary"), fromSource.getBinary("binary"));
+        assertFalse(categoryInodes(fromSource).isEmpty());
+        assertEquals(categoryInodes(fromDatabase), categoryInodes(fromSource));
+        assertFalse(relatedIdentifiers(fromSource, true).isEmpty());
+        assertEquals(relatedIdentifiers(fromDatabase, true), relatedIdentifiers(fromSource, true));
+
+        final Contentlet childFromDatabase = fromDatabase(child.getInode());
+        final Contentlet childFromSource = fromSource(child);
+        assertSameContentlet(childFromDatabase, childFromSource);
+        assertEquals(relatedIdentifiers(childFromDatabase, false), relatedIdentifiers(childFromSource, false));
+    }
+
+    @Test
+    public void testNullAndEmptyValuesFromTheSourceEqualTheDatabaseOnes() throws Exception {
+
+        final Map<String, Object> values = new HashMap<>();
+        values.put("text", "");
+        values.put("textArea", "");
+        final Contentlet contentlet = checkin(values, Collections.emptyMap(), Collections.emptyList());
+
+        final Contentlet fromDatabase = fromDatabase(contentlet.getInode());
+        final Contentlet fromSource = fromSource(contentlet);
+
+        assertSameContentlet(fromDatabase, fromSource);
+        assertNull(fromSource.getDateProperty("date"));
+        assertNull(fromSource.getBinary("binary"));
+        assertEquals(categoryInodes(fromDatabase), categoryInodes(fromSource));
+        assertEquals(relatedIdentifiers(fromDatabase, true), relatedIdentifiers(fromSource, true));
+    }
+
+    private static Map<String, Object> values(final String text) {
+
+        final Date date = new Date();
+        final Map<String, Object> values = new HashMap<>();
+        values.put("text", text);
+        values.put("textArea", "Text area of " + text);
+        values.put("date", date);
+        values.put("time", date);
+        values.put("dateTime", date);
+        values.put("integer", 42L);
+        values.put("float", 4.2f);
+        values.put("boolean", true);
+        values.put("keyValue", KEY_VALUE);
+        return values;
+    }
+
+    private static Contentlet checkin(final Map<String, Object> values,
+            final Map<Relationship, List<Contentlet>> relationships, final List<Category> categories)
+            throws Exception {
+
+        Contentlet contentlet = new Contentlet();
+        contentlet.setStructureInode(structure.getInode());
+        contentlet.setHost(APILocator.getHostAPI().findDefaultHost(user, false).getIdentifier());
+        contentlet.setLanguageId(APILocator.getLanguageAPI().getDefaultLanguage().getId());
+        contentlet.setReviewInterval("1m");
+        for (final Field field : FieldsCache.getFieldsByStructureInode(structure.getInode())) {
+            if (values.containsKey(field.getVelocityVarName())) {
+                contentletAPI.setContentletProperty(contentlet, field, values.get(field.getVelocityVarName()));
+            }
+        }
+        contentlet.setIndexPolicy(IndexPolicy.FORCE);
+        contentlet = contentletAPI.checkin(contentlet, relationships, categories, user, false);
+        contentlets.add(contentlet);
+        return contentlet;
+    }
+
+    /**
+     * Loads the contentlet from the database, not from the cache
+     */
+    private static Contentlet fromDatabase(final String inode) throws Exception {
+
+        CacheLocator.getContentletCache().remove(inode);
+        return contentletAPI.find(inode, user, false);
+    }
+
+    /**
+     * Indexes the contentlet with its source and builds it back from the search hit
+     */
+    @SuppressWarnings("unchecked")
+    private Contentlet fromSource(final Contentlet contentlet) throws Exception {
+
+        contentlet.setIndexPolicy(IndexPolicy.FORCE);
+        APILocator.getContentletIndexAPI().addContentToIndex(contentlet, false);
+
+        final SearchHits hits = instance.indexSearch("+inode:" + contentlet.getInode(), null, 1, 0, "modDate", true);
+        assertEquals(1, hits.getTotalHits());
+        final Map<String, Object> source = (Map<String, Object>) hits.getHits()[0].getSourceAsMap()
+                .get(ESMappingConstants.CONTENTLET_SOURCE);
+        assertNotNull(source);
+
+        final Contentlet fromSource = ESContentletSource.toContentlet(source);
+        assertNotNull(fromSource);
+        return fromSource;
+    }
+
+    private static void assertSameContentlet(final Contentlet expected, final Contentlet contentlet)
+            throws Exception {
+
+        assertEquals(expected.getInode(), contentlet.getInode());
+        assertEquals(expected.getIdentifier(), contentlet.getIdentifier());
+        assertEquals(expected.getStructureInode(), contentlet.getStructureInode());
+        assertEquals(expected.getLanguageId(), contentlet.getLanguageId());
+        assertEquals(expected.getSortOrder(), contentlet.getSortOrder());
+        assertEquals(expected.getOwner(), contentlet.getOwner());
+        assertEquals(expected.getModUser(), contentlet.getModUser());
+        assertEquals(millis(expected.getModDate()), millis(contentlet.getModDate()));
+        assertEquals(millis(expected.getNextReview()), millis(contentlet.getNextReview()));
+        assertEquals(millis(expected.getLastReview()), millis(contentlet.getLastReview()));
+        assertEquals(expected.getReviewInterval(), contentlet.getReviewInterval());
+        assertEquals(expected.getHost(), contentlet.getHost());
+        assertEquals(expected.getFolder(), contentlet.getFolder());
+        assertEquals(disabledWysiwyg(expected), disabledWysiwyg(contentlet));
+
+        for (final Field field : FieldsCache.getFieldsByStructureInode(structure.getInode())) {
+            final String var = field.getVelocityVarName();
+            if (Field.FieldType.BINARY.toString().equals(field.getFieldType())) {
+                assertEquals(var, expected.getBinary(var), contentlet.getBinary(var));
+            } else if (!Field.FieldType.CATEGORY.toString().equals(field.getFieldType())) {
+                assertEquals(var, value(expected.get(var)), value(contentlet.get(var)));
+            }
+        }
+    }
+
+    /**
+     * Dates are compared by their time, as the database can return a {@link java.sql.Timestamp}
+     */
+    private static Object value(final Object value) {
+        return value instanceof Date ? ((Date) value).getTime() : value;
+    }
+
+    private static Long millis(final Date date) {
+        return null == date ? null : date.getTime();
+    }
+
+    private static List<String> disabledWysiwyg(final Contentlet contentlet) {
+        return UtilMethods.isSet(contentlet.getDisabledWysiwyg()) ? contentlet.getDisabledWysiwyg()
+                : Collections.emptyList();
+    }
+
+    private static List<String> categoryInodes(final Contentlet contentlet) throws Exception {
+        return categoryAPI.getParents(contentlet, user, false).stream().map(Category::getInode).sorted()
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> relatedIdentifiers(final Contentlet contentlet, final boolean pullByParent)
+            throws Exception {
+        return contentletAPI.getRelatedContent(contentlet, relationship, pullByParent, user, false).stream()
+                .map(Contentlet::getIdentifier).collect(Collectors.toList());
+    }
+
+}
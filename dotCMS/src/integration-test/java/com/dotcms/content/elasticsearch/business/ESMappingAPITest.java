@@ -0,0 +1,230 @@
+package com.dotcms.content.elasticsearch.business;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.dotcms.IntegrationTestBase;
+import com.dotcms.content.elasticsearch.constants.ESMappingConstants;
+import com.dotcms.content.elasticsearch.util.ESClient;
+import com.dotcms.datagen.StructureDataGen;
+import com.dotcms.util.IntegrationTestInitService;
+import com.dotmarketing.beans.Permission;
+import com.dotmarketing.business.APILocator;
+import com.dotmarketing.business.CacheLocator;
+import com.dotmarketing.business.FactoryLocator;
+import com.dotmarketing.business.PermissionAPI;
+import com.dotmarketing.business.Role;
+import com.dotmarketing.cache.FieldsCache;
+import com.dotmarketing.portlets.categories.business.CategoryAPI;
+import com.dotmarketing.portlets.categories.model.Category;
+import com.dotmarketing.portlets.contentlet.business.ContentletAPI;
+import com.dotmarketing.portlets.contentlet.model.Contentlet;
+import com.dotmarketing.portlets.contentlet.model.IndexPolicy;
+import com.dotmarketing.portlets.languagesmanager.model.Language;
+import com.dotmarketing.portlets.structure.factories.FieldFactory;
+import com.dotmarketing.portlets.structure.model.Field;
+import com.dotmarketing.portlets.structure.model.Relationship;
+import com.dotmarketing.portlets.structure.model.Structure;
+import com.dotmarketing.portlets.workflows.business.WorkflowAPI;
+import com.dotmarketing.portlets.workflows.model.WorkflowTask;
+import com.dotmarketing.util.Config;
+import com.liferay.portal.model.User;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * {@link ESMappingAPIImpl#toMaps(List)} maps a batch with the data prefetched for the whole batch, the
+ * maps have to be the same {@link ESMappingAPIImpl#toMap(Contentlet)} builds one contentlet at a time
+ */
+public class ESMappingAPITest extends IntegrationTestBase {
+
+    private static ContentletAPI contentletAPI;
+    private static CategoryAPI categoryAPI;
+    private static WorkflowAPI workflowAPI;
+    private static User user;
+    private static int minBatchSize;
+
+    private static Structure structure;
+    private static Relationship relationship;
+    private static Category parentCategory;
+    private static WorkflowTask task;
+    private static final List<Category> categories = new ArrayList<>();
+    private static final List<Contentlet> contentlets = new ArrayList<>();
+
+    @BeforeClass
+    public static void prepare() throws Exception {
+        //Setting web app environment
+        IntegrationTestInitService.getInstance().init();
+
+        contentletAPI = APILocator.getContentletAPI();
+        categoryAPI = APILocator.getCategoryAPI();
+        workflowAPI = APILocator.getWorkflowAPI();
+        user = APILocator.getUserAPI().getSystemUser();
+        // every batch is prefetched
+        minBatchSize = Config.getIntProperty("es.mapping.prefetch.min.batch.size", 10);
+        Config.setProperty("es.mapping.prefetch.min.batch.size", 1);
+
+        final long time = System.currentTimeMillis();
+        parentCategory = new Category();
+        parentCategory.setCategoryName("Mapping Parent" + time);
+        parentCategory.setKey("mappingparent" + time);
+        parentCategory.setCategoryVelocityVarName("mappingparent" + time);
+        categoryAPI.save(null, parentCategory, user, false);
+        for (final String name : new String[]{"mappingchilda", "mappingchildb"}) {
+            final Category child = new Category();
+            child.setCategoryName(name + time);
+            child.setKey(name + time);
+            child.setCategoryVelocityVarName(name + time);
+            categoryAPI.save(parentCategory, child, user, false);
+            categories.add(child);
+        }
+
+        structure = new StructureDataGen().velocityVarName("mappingBatch" + time).nextPersisted();
+        final Field textField = new Field("Title", Field.FieldType.TEXT, Field.DataType.TEXT, structure,
+                false, true, true, 1, false, false, true);
+        textField.setVelocityVarName("title");
+        FieldFactory.saveField(textField);
+        final Field categoryField = new Field("Category", Field.FieldType.CATEGORY, Field.DataType.TEXT, structure,
+                false, false, true, 2, false, false, true);
+        categoryField.setVelocityVarName("category");
+        categoryField.setValues(parentCategory.getInode());
+        FieldFactory.saveField(categoryField);
+        FieldsCache.clearCache();
+
+        relationship = new Relationship();
+        relationship.setParentStructureInode(structure.getInode());
+        relationship.setParentRelationName("mappingParent" + time);
+        relationship.setChildStructureInode(structure.getInode());
+        relationship.setChildRelationName("mappingChild" + time);
+        relationship.setRelationTypeValue("mappingParent" + time + "-mappingChild" + time);
+        relationship.setCardinality(0);
+        FactoryLocator.getRelationshipFactory().save(relationship);
+    }
+
+    @AfterClass
+    public static void cleanup() throws Exception {
+
+        Config.setProperty("es.mapping.prefetch.min.batch.size", minBatchSize);
+        if (null != task) {
+            workflowAPI.deleteWorkflowTask(task, user);
+        }
+        for (final Contentlet contentlet : contentlets) {
+            contentletAPI.archive(contentlet, user, false);
+            contentletAPI.delete(contentlet, user, false);
+        }
+        if (null != relationship) {
+            APILocator.getRelationshipAPI().delete(relationship);
+        }
+        if (null != structure) {
+            StructureDataGen.remove(structure);
+        }
+        for (final Category category : categories) {
+            categoryAPI.delete(category, user, false);
+        }
+        if (null != parentCategory) {
+            categoryAPI.delete(parentCategory, user, false);
+        }
+    }
+
+    @Test
+    public void testBatchMapsEqualTheMapsOfEachContentlet() throws Exception {
+
+        final long defaultLanguageId = APILocator.getLanguageAPI().getDefaultLanguage().getId();
+
+        // a relationship and categories
+        final Contentlet child = checkin("child", defaultLanguageId, Collections.emptyMap(), Collections.emptyList());
+        final Contentlet parent = checkin("parent", defaultLanguageId,
+                Collections.singletonMap(relationship, Collections.singletonList(child)), categories);
+
+        // a workflow task
+        final Contentlet withTask = checkin("task", defaultLanguageId, Collections.emptyMap(), Collections.emptyList());
+        task = new WorkflowTask();
+        task.setWebasset(withTask.getIdentifier());
+        task.setLanguageId(withTask.getLanguageId());
+        task.setStatus(workflowAPI.findSteps(workflowAPI.findSystemWorkflowScheme()).get(0).getId());
+        task.setTitle("Mapping task");
+        task.setCreatedBy(user.getUserId());
+        task.setAssignedTo(APILocator.getRoleAPI().loadCMSAdminRole().getId());
+        task.setCreationDate(new Date());
+        task.setModDate(new Date());
+        workflowAPI.saveWorkflowTask(task);
+
+        // inherited and individual permissions
+        final Contentlet inheriting = checkin("inheriting", defaultLanguageId, Collections.emptyMap(),
+                Collections.emptyList());
+        final Contentlet individual = checkin("individual", defaultLanguageId, Collections.emptyMap(),
+                Collections.emptyList());
+        final PermissionAPI permissionAPI = APILocator.getPermissionAPI();
+        final Role role = APILocator.getRoleAPI().loadCMSAnonymousRole();
+        permissionAPI.permissionIndividually(permissionAPI.findParentPermissionable(individual), individual, user);
+        permissionAPI.save(new Permission(individual.getPermissionId(), role.getId(), PermissionAPI.PERMISSION_READ,
+                true), individual, user, false);
+
+        // the same content in two languages
+        final Contentlet english = checkin("english", defaultLanguageId, Collections.emptyMap(),
+                Collections.emptyList());
+        final Language otherLanguage = APILocator.getLanguageAPI().getLanguages().stream()
+                .filter(language -> language.getId() != defaultLanguageId).findFirst().orElse(null);
+        assertNotNull(otherLanguage);
+        Contentlet translated = contentletAPI.checkout(english.getInode(), user, false);
+        translated.setLanguageId(otherLanguage.getId());
+        translated.setStringProperty("title", "translated");
+        translated.setIndexPolicy(IndexPolicy.FORCE);
+        translated = contentletAPI.checkin(translated, user, false);
+        contentlets.add(translated);
+        assertEquals(english.getIdentifier(), translated.getIdentifier());
+
+        final List<Contentlet> batch = new ArrayList<>();
+        for (final Contentlet contentlet : new Contentlet[]{child, parent, withTask, inheriting, individual,
+                english, translated}) {
+            batch.add(contentletAPI.find(contentlet.getInode(), user, false));
+        }
+
+        // nothing cached, so the prefetch loads it all
+        CacheLocator.getPermissionCache().clearCache();
+        final ESMappingAPIImpl mappingAPI = new ESMappingAPIImpl();
+        final Map<String, Map<String, Object>> maps = mappingAPI.toMaps(batch);
+
+        assertEquals(batch.size(), maps.size());
+        for (final Contentlet contentlet : batch) {
+            CacheLocator.getPermissionCache().clearCache();
+            assertEquals(contentlet.getIdentifier() + "_" + contentlet.getLanguageId(),
+                    mappingAPI.toMap(contentlet), maps.get(contentlet.getInode()));
+        }
+        assertFalse(String.valueOf(maps.get(parent.getInode()).get(ESMappingConstants.CATEGORIES)).isEmpty());
+        assertNotNull(maps.get(withTask.getInode()).get(ESMappingConstants.WORKFLOW_STEP));
+
+        // and the batch goes to the index
+        final BulkRequestBuilder bulk = new ESClient().getClient().prepareBulk();
+        APILocator.getContentletIndexAPI().indexContentList(batch, bulk, false, null);
+        assertTrue(bulk.numberOfActions() >= batch.size());
+        final BulkResponse response = bulk.get();
+        assertFalse(response.buildFailureMessage(), response.hasFailures());
+    }
+
+    private static Contentlet checkin(final String title, final long languageId,
+            final Map<Relationship, List<Contentlet>> relationships, final List<Category> categories)
+            throws Exception {
+
+        Contentlet contentlet = new Contentlet();
+        contentlet.setStructureInode(structure.getInode());
+        contentlet.setHost(APILocator.getHostAPI().findDefaultHost(user, false).getIdentifier());
+        contentlet.setLanguageId(languageId);
+        contentlet.setStringProperty("title", title);
+        contentlet.setIndexPolicy(IndexPolicy.FORCE);
+        contentlet = contentletAPI.checkin(contentlet, relationships, categories, user, false);
+        contentlets.add(contentlet);
+        return contentlet;
+    }
+
+}
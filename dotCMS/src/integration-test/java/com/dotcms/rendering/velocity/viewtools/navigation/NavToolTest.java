@@ -280,6 +280,107 @@ public class NavToolTest extends IntegrationTestBase{
         assertEquals(resultChildren, 3);
     }
 
+    @Test
+    public void testDefaultLanguageFallbackFromOneCachedFolder() throws Exception {
+        Config.setProperty("DEFAULT_PAGE_TO_DEFAULT_LANGUAGE", true);
+
+        final User user = APILocator.getUserAPI().getSystemUser();
+        final Host demoHost = APILocator.getHostAPI().findByName("demo.dotcms.com", user, false);
+        final Folder aboutUsFolder = APILocator.getFolderAPI().findFolderByPath("/about-us/", demoHost, user, false);
+        final NavToolCache navToolCache = CacheLocator.getNavToolCache();
+        navToolCache.removeNav(demoHost.getIdentifier(), aboutUsFolder.getInode());
+
+        try {
+            final NavResult english = new NavTool().getNav(demoHost, "/about-us/", 1, user);
+            final NavFolder navFolder = navToolCache.getNavFolder(demoHost.getIdentifier(), aboutUsFolder.getInode());
+            assertNotNull(navFolder);
+
+            // the spanish menu is a view of the same folder, the english pages stand in for the missing ones
+            final NavResult spanish = new NavTool().getNav(demoHost, "/about-us/", 2, user);
+            assertSame(navFolder, navToolCache.getNavFolder(demoHost.getIdentifier(), aboutUsFolder.getInode()));
+            assertEquals(english.getChildren().size(), spanish.getChildren().size());
+            for (final NavResult child : spanish.getChildren()) {
+                if ("htmlpage".equals(child.getType())) {
+                    assertTrue(child.getLanguageId() == 1 || child.getLanguageId() == 2);
+                }
+            }
+
+            // without the fallback the spanish menu only has the items in spanish or in every language
+            Config.setProperty("DEFAULT_PAGE_TO_DEFAULT_LANGUAGE", false);
+            navToolCache.removeNav(demoHost.getIdentifier(), aboutUsFolder.getInode());
+            final NavResult spanishOnly = new NavTool().getNav(demoHost, "/about-us/", 2, user);
+            for (final NavResult child : spanishOnly.getChildren()) {
+                if ("htmlpage".equals(child.getType())) {
+                    assertEquals(2, child.getLanguageId());
+                }
+            }
+            assertTrue(spanishOnly.getChildren().size() <= spanish.getChildren().size());
+        } finally {
+            Config.setProperty("DEFAULT_PAGE_TO_DEFAULT_LANGUAGE", ORIGINAL_DEFAULT_PAGE_TO_DEFAULT_LANGUAGE);
+            navToolCache.removeNav(demoHost.getIdentifier(), aboutUsFolder.getInode());
+        }
+    }
+
+    @Test
+    public void testRemoveNavDropsEveryLanguage() throws Exception {
+
+        final User user = APILocator.getUserAPI().getSystemUser();
+        final Host demoHost = APILocator.getHostAPI().findByName("demo.dotcms.com", user, false);
+        final Folder aboutUsFolder = APILocator.getFolderAPI().findFolderByPath("/about-us/", demoHost, user, false);
+        final NavToolCache navToolCache = CacheLocator.getNavToolCache();
+
+        new NavTool().getNav(demoHost, "/about-us/", 1, user);
+        new NavTool().getNav(demoHost, "/about-us/", 2, user);
+        assertNotNull(navToolCache.getNav(demoHost.getIdentifier(), aboutUsFolder.getInode(), 1));
+        assertNotNull(navToolCache.getNav(demoHost.getIdentifier(), aboutUsFolder.getInode(), 2));
+
+        // a removal for one language drops the folder in all of them
+        navToolCache.removeNav(demoHost.getIdentifier(), aboutUsFolder.getInode(), 1);
+
+        assertNull(navToolCache.getNavFolder(demoHost.getIdentifier(), aboutUsFolder.getInode()));
+        assertNull(navToolCache.getNav(demoHost.getIdentifier(), aboutUsFolder.getInode(), 1));
+        assertNull(navToolCache.getNav(demoHost.getIdentifier(), aboutUsFolder.getInode(), 2));
+    }
+
+    @Test
+    public void testRemoveNavOfHiddenFolderDropsSubfolders() throws Exception {
+
+        final User user = APILocator.getUserAPI().getSystemUser();
+        final Host demoHost = APILocator.getHostAPI().findByName("demo.dotcms.com", user, false);
+        final NavToolCache navToolCache = CacheLocator.getNavToolCache();
+        final String parentPath = "/navtool-test-" + System.currentTimeMillis() + "/";
+
+        final Folder subFolder = APILocator.getFolderAPI().createFolders(parentPath + "sub/", demoHost, user, false);
+        final Folder parentFolder = APILocator.getFolderAPI().findFolderByPath(parentPath, demoHost, user, false);
+        try {
+            for (final Folder folder : new Folder[]{parentFolder, subFolder}) {
+                folder.setShowOnMenu(true);
+                APILocator.getFolderAPI().save(folder, user, false);
+            }
+
+            final NavResult parentNav = new NavTool().getNav(demoHost, parentPath, 1, user);
+            assertEquals(1, parentNav.getChildren().size());
+            new NavTool().getNav(demoHost, parentPath + "sub/", 1, user);
+            assertNotNull(navToolCache.getNavFolder(demoHost.getIdentifier(), parentFolder.getInode()));
+            assertNotNull(navToolCache.getNavFolder(demoHost.getIdentifier(), subFolder.getInode()));
+
+            // a folder still in the menu is dropped alone
+            navToolCache.removeNav(demoHost.getIdentifier(), parentFolder.getInode());
+            assertNull(navToolCache.getNavFolder(demoHost.getIdentifier(), parentFolder.getInode()));
+            assertNotNull(navToolCache.getNavFolder(demoHost.getIdentifier(), subFolder.getInode()));
+
+            // a folder hidden from the menu takes its subfolders with it
+            new NavTool().getNav(demoHost, parentPath, 1, user);
+            parentFolder.setShowOnMenu(false);
+            APILocator.getFolderAPI().save(parentFolder, user, false);
+            navToolCache.removeNav(demoHost.getIdentifier(), parentFolder.getInode());
+            assertNull(navToolCache.getNavFolder(demoHost.getIdentifier(), parentFolder.getInode()));
+            assertNull(navToolCache.getNavFolder(demoHost.getIdentifier(), subFolder.getInode()));
+        } finally {
+            APILocator.getFolderAPI().delete(parentFolder, user, false);
+        }
+    }
+
     @DataProvider
     public static Object[] dataProviderShouldAddFileInAnotherLang() {
         final FileAsset fileAssetInSpanish = new FileAsset();
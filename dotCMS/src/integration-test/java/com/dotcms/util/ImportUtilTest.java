@@ -35,6 +35,7 @@ import com.dotmarketing.portlets.workflows.actionlet.UnpublishContentActionlet;
 import com.dotmarketing.portlets.workflows.business.BaseWorkflowIntegrationTest;
 import com.dotmarketing.portlets.workflows.business.WorkflowAPI;
 import com.dotmarketing.portlets.workflows.model.*;
+import com.dotmarketing.util.Config;
 import com.dotmarketing.util.ImportUtil;
 import com.dotmarketing.util.Logger;
 import com.dotmarketing.util.UUIDGenerator;
@@ -1137,6 +1138,160 @@ public class ImportUtilTest extends BaseWorkflowIntegrationTest {
         }
     }
 
+    /**
+     * The lines imported by several threads leave the same contentlets and counters as the ones
+     * imported one after the other, and a second import of the file with a key field updates
+     * them, with the keys of each batch looked up at once
+     */
+    @Test
+    public void importFile_parallel_same_results_as_sequential()
+            throws DotSecurityException, DotDataException, IOException {
+
+        final long time = System.currentTimeMillis();
+        final ContentType sequentialType = createUniqueCodeContentType("ImportSequential" + time);
+        final ContentType parallelType = createUniqueCodeContentType("ImportParallel" + time);
+        try {
+            final StringBuilder csv = new StringBuilder(TITLE_FIELD_NAME + ", code, " + BODY_FIELD_NAME + "\r\n");
+            for (int i = 0; i < 40; i++) {
+                csv.append("Title-").append(i).append(", Code-").append(i).append(", Body-").append(i).append("\r\n");
+            }
+
+            final HashMap<String, List<String>> sequentialResults = importCsv(sequentialType, csv.toString(), 1);
+            final HashMap<String, List<String>> parallelResults = importCsv(parallelType, csv.toString(), 4);
+
+            validate(parallelResults, false, false, true);
+            assertEquals(sequentialResults.get("counters"), parallelResults.get("counters"));
+            assertEquals(sequentialResults.get("errors"), parallelResults.get("errors"));
+            assertEquals(sequentialResults.get("warnings").size(), parallelResults.get("warnings").size());
+            assertEquals(savedValues(sequentialType, "code"), savedValues(parallelType, "code"));
+            assertEquals(40, savedValues(parallelType, "code").size());
+
+            // the same file with the title as key updates the contentlets
+            final HashMap<String, List<String>> updateResults = importCsv(parallelType,
+                    csv.toString().replace("Body-", "Updated-"), 4, TITLE_FIELD_NAME);
+
+            assertTrue(updateResults.get("counters").contains("newContent=0"));
+            assertTrue(updateResults.get("counters").contains("contentToUpdate=40"));
+            final Set<String> bodies = savedValues(parallelType, BODY_FIELD_NAME);
+            assertEquals(40, bodies.size());
+            for (final String body : bodies) {
+                assertTrue(body.startsWith("Updated-"));
+            }
+        } finally {
+            contentTypeApi.delete(sequentialType);
+            contentTypeApi.delete(parallelType);
+        }
+    }
+
+    /**
+     * Lines with different keys but the same value for a unique field are imported by different
+     * threads, the second one is still ignored
+     */
+    @Test
+    public void importFile_parallel_ignores_inFile_unique_duplicates_with_different_keys()
+            throws DotSecurityException, DotDataException, IOException {
+
+        final long time = System.currentTimeMillis();
+        final ContentType sequentialType = createUniqueCodeContentType("ImportSequentialUnique" + time);
+        final ContentType parallelType = createUniqueCodeContentType("ImportParallelUnique" + time);
+        try {
+            final StringBuilder csv = new StringBuilder(TITLE_FIELD_NAME + ", code, " + BODY_FIELD_NAME + "\r\n");
+            for (int i = 0; i < 20; i++) {
+                // every fifth line repeats the code of the first one
+                final String code = i % 5 == 4 ? "Code-0" : "Code-" + i;
+                csv.append("Title-").append(i).append(", ").append(code).append(", Body-").append(i).append("\r\n");
+            }
+
+            for (final ContentType type : new ContentType[]{sequentialType, parallelType}) {
+                final HashMap<String, List<String>> results = importCsv(type, csv.toString(),
+                        type == sequentialType ? 1 : 4, TITLE_FIELD_NAME);
+
+                int duplicates = 0;
+                for (final String warning : results.get("warnings")) {
+                    if (warning.contains("contains-duplicate-values-for-structure-unique-field")) {
+                        duplicates++;
+                    }
+                }
+                assertEquals(4, duplicates);
+                assertTrue(results.get("counters").contains("newContent=16"));
+
+                final List<Contentlet> saved = contentletAPI.findByStructure(type.inode(), user, false, 0, 0);
+                assertEquals(16, saved.size());
+                assertEquals(16, savedValues(type, "code").size());
+            }
+        } finally {
+            contentTypeApi.delete(sequentialType);
+            contentTypeApi.delete(parallelType);
+        }
+    }
+
+    /**
+     * Imports the csv into the content type with the given threads, in batches of 5 lines
+     */
+    private HashMap<String, List<String>> importCsv(final ContentType contentType, final String csv,
+            final int threads, final String... keyFieldVars) throws DotDataException, IOException {
+
+        final int originalThreads = Config.getIntProperty("CONTENT_IMPORT_THREADS", 1);
+        final int originalBatchSize = Config.getIntProperty("CONTENT_IMPORT_BATCH_SIZE", 500);
+        Config.setProperty("CONTENT_IMPORT_THREADS", threads);
+        Config.setProperty("CONTENT_IMPORT_BATCH_SIZE", 5);
+        try {
+            final String[] keyFields = new String[keyFieldVars.length];
+            for (int i = 0; i < keyFieldVars.length; i++) {
+                keyFields[i] = fieldAPI.byContentTypeAndVar(contentType, keyFieldVars[i]).id();
+            }
+
+            final Reader reader = createTempFile(csv);
+            final CsvReader csvreader = new CsvReader(reader);
+            csvreader.setSafetySwitch(false);
+            final String[] csvHeaders = csvreader.getHeaders();
+
+            return ImportUtil.importFile(0L, defaultSite.getInode(), contentType.inode(), keyFields, false,
+                    false, user, defaultLanguage.getId(), csvHeaders, csvreader, -1, -1, reader, null);
+        } finally {
+            Config.setProperty("CONTENT_IMPORT_THREADS", originalThreads);
+            Config.setProperty("CONTENT_IMPORT_BATCH_SIZE", originalBatchSize);
+        }
+    }
+
+    private Set<String> savedValues(final ContentType contentType, final String fieldVar)
+            throws DotDataException, DotSecurityException {
+
+        final Set<String> values = new HashSet<>();
+        for (final Contentlet contentlet : contentletAPI.findByStructure(contentType.inode(), user, false, 0, 0)) {
+            values.add(contentlet.getStringProperty(fieldVar));
+        }
+        return values;
+    }
+
+    /**
+     * Content type with a title, a unique code and a body, using the schemeStepActionResult1 workflow
+     */
+    private ContentType createUniqueCodeContentType(final String name)
+            throws DotDataException, DotSecurityException {
+
+        ContentType type = ContentTypeBuilder
+                .builder(BaseContentType.getContentTypeClass(BaseContentType.CONTENT.getType()))
+                .description("description").folder(FolderAPI.SYSTEM_FOLDER)
+                .host(Host.SYSTEM_HOST)
+                .name(name).owner("owner")
+                .variable(name)
+                .build();
+        type = contentTypeApi.save(type);
+
+        fieldAPI.save(FieldBuilder.builder(TextField.class).name(TITLE_FIELD_NAME).variable(TITLE_FIELD_NAME)
+                .indexed(true).contentTypeId(type.id()).dataType(DataTypes.TEXT).build(), user);
+        fieldAPI.save(FieldBuilder.builder(TextField.class).name("code").variable("code").unique(true)
+                .contentTypeId(type.id()).dataType(DataTypes.TEXT).build(), user);
+        fieldAPI.save(FieldBuilder.builder(TextField.class).name(BODY_FIELD_NAME).variable(BODY_FIELD_NAME)
+                .contentTypeId(type.id()).dataType(DataTypes.TEXT).build(), user);
+
+        workflowAPI.saveSchemesForStruct(new StructureTransformer(type).asStructure(),
+                Arrays.asList(schemeStepActionResult1.getScheme()));
+
+        return contentTypeApi.find(type.id());
+    }
+
     /**
      * Create content type for import with different actions and with the schemeStepActionResult2
      * workflow associated
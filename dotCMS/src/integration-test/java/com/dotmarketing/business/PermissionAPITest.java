@@ -1,7 +1,9 @@
 package com.dotmarketing.business;
 
 import com.dotcms.IntegrationTestBase;
+import com.dotcms.datagen.ContentletDataGen;
 import com.dotcms.datagen.HTMLPageDataGen;
+import com.dotcms.datagen.StructureDataGen;
 import com.dotcms.repackage.org.apache.commons.io.FileUtils;
 import com.dotcms.util.IntegrationTestInitService;
 import com.dotmarketing.beans.Host;
@@ -901,6 +903,199 @@ public class PermissionAPITest extends IntegrationTestBase {
         APILocator.getFolderAPI().delete(f, sysuser, false);
     }
 
+    /**
+     * filterCollection keeps exactly the items doesUserHavePermission allows one by one, for admin,
+     * anonymous, front end, owner and back end users, respecting the front end roles or not
+     */
+    @Test
+    public void filterCollectionMatchesDoesUserHavePermission() throws Exception {
+        final RoleAPI roleAPI = APILocator.getRoleAPI();
+        final long time = System.currentTimeMillis();
+        Host hh = new Host();
+        hh.setHostname("filtercollection" + time + ".demo.dotcms.com");
+        hh = APILocator.getHostAPI().save(hh, sysuser, false);
+
+        try {
+            final Role limitedRole = getRole("FilterCollectionRole");
+            final User admin = UserTestUtil.getUser("filtercollectionadmin" + time, false, true);
+            roleAPI.addRoleToUser(roleAPI.loadCMSAdminRole(), admin);
+            final User limited = UserTestUtil.getUser("filtercollectionlimited" + time, false, true);
+            roleAPI.addRoleToUser(limitedRole, limited);
+            final User frontEnd = UserTestUtil.getUser("filtercollectionfrontend" + time, false, true);
+            roleAPI.addRoleToUser(roleAPI.loadLoggedinSiteRole(), frontEnd);
+            final User anonymous = APILocator.getUserAPI().getAnonymousUser();
+
+            final Folder anonFolder = createFolder(hh, "/anon/", roleAPI.loadCMSAnonymousRole(),
+                    PermissionAPI.PERMISSION_READ);
+            final Folder frontEndFolder = createFolder(hh, "/frontend/", roleAPI.loadLoggedinSiteRole(),
+                    PermissionAPI.PERMISSION_READ);
+            final Folder ownerFolder = createFolder(hh, "/owner/", roleAPI.loadCMSOwnerRole(),
+                    PermissionAPI.PERMISSION_READ | PermissionAPI.PERMISSION_EDIT);
+            ownerFolder.setOwner(frontEnd.getUserId());
+            APILocator.getFolderAPI().save(ownerFolder, sysuser, false);
+            // folders have no PUBLISH permission, it is checked as EDIT
+            final Folder limitedFolder = createFolder(hh, "/limited/", limitedRole,
+                    PermissionAPI.PERMISSION_READ | PermissionAPI.PERMISSION_EDIT);
+            final Folder inheritingFolder = APILocator.getFolderAPI().createFolders("/inheriting/", hh, sysuser, false);
+
+            final List<Permissionable> items = Arrays.<Permissionable>asList(hh, anonFolder, frontEndFolder,
+                    ownerFolder, limitedFolder, inheritingFolder);
+
+            for (final User user : new User[]{admin, anonymous, frontEnd, limited}) {
+                for (final boolean respectFrontendRoles : new boolean[]{true, false}) {
+                    for (final int permission : new int[]{PermissionAPI.PERMISSION_READ,
+                            PermissionAPI.PERMISSION_EDIT, PermissionAPI.PERMISSION_PUBLISH}) {
+
+                        // the filter loads the permissions missing in the cache in bulk
+                        CacheLocator.getPermissionCache().clearCache();
+                        final List<Permissionable> filtered = permissionAPI
+                                .filterCollection(items, permission, respectFrontendRoles, user);
+
+                        final List<Permissionable> expected = new ArrayList<>();
+                        for (final Permissionable item : items) {
+                            if (permissionAPI.doesUserHavePermission(item, permission, user, respectFrontendRoles)) {
+                                expected.add(item);
+                            }
+                        }
+                        assertEquals(user.getUserId() + ", permission " + permission + ", respectFrontendRoles "
+                                + respectFrontendRoles, expected, filtered);
+                    }
+                }
+            }
+
+            // the cases the folders were set up for
+            assertEquals(items, permissionAPI.filterCollection(items, PermissionAPI.PERMISSION_PUBLISH, false, admin));
+            assertTrue(permissionAPI.filterCollection(items, PermissionAPI.PERMISSION_READ, true, anonymous)
+                    .contains(anonFolder));
+            assertTrue(permissionAPI.filterCollection(items, PermissionAPI.PERMISSION_READ, true, frontEnd)
+                    .contains(frontEndFolder));
+            assertTrue(permissionAPI.filterCollection(items, PermissionAPI.PERMISSION_EDIT, true, frontEnd)
+                    .contains(ownerFolder));
+            assertTrue(permissionAPI.filterCollection(items, PermissionAPI.PERMISSION_PUBLISH, false, limited)
+                    .contains(limitedFolder));
+            assertFalse(permissionAPI.filterCollection(items, PermissionAPI.PERMISSION_READ, false, limited)
+                    .contains(frontEndFolder));
+        } finally {
+            try{
+                HibernateUtil.startTransaction();
+                APILocator.getHostAPI().archive(hh, sysuser, false);
+                APILocator.getHostAPI().delete(hh, sysuser, false);
+                HibernateUtil.closeAndCommitTransaction();
+            }catch(Exception e){
+                HibernateUtil.rollbackTransaction();
+                Logger.error(PermissionAPITest.class, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * addPermissionsToCache for a collection caches the same permissions getPermissions loads one item at a
+     * time, for individual and inherited permissions of sites, folders and contentlets
+     */
+    @Test
+    public void addPermissionsToCacheLoadsTheSamePermissionsAsOneByOne() throws Exception {
+        final long time = System.currentTimeMillis();
+        Host hh = new Host();
+        hh.setHostname("permissioncache" + time + ".demo.dotcms.com");
+        hh = APILocator.getHostAPI().save(hh, sysuser, false);
+        final Structure structure = new StructureDataGen().host(hh).nextPersisted();
+
+        try {
+            final Role role = getRole("PermissionCacheRole");
+            final Folder individualFolder = createFolder(hh, "/individual/", role,
+                    PermissionAPI.PERMISSION_READ | PermissionAPI.PERMISSION_EDIT);
+            // the content of the folder inherits its permissions
+            permissionAPI.save(new Permission(Contentlet.class.getCanonicalName(), individualFolder.getPermissionId(),
+                    role.getId(), PermissionAPI.PERMISSION_READ, true), individualFolder, sysuser, false);
+            final Folder inheritingFolder = APILocator.getFolderAPI().createFolders("/inheriting/", hh, sysuser, false);
+
+            final Contentlet inheritingContent = new ContentletDataGen(structure.getInode()).host(hh)
+                    .folder(individualFolder).nextPersisted();
+            final Contentlet individualContent = new ContentletDataGen(structure.getInode()).host(hh)
+                    .folder(inheritingFolder).nextPersisted();
+            permissionAPI.permissionIndividually(permissionAPI.findParentPermissionable(individualContent),
+                    individualContent, sysuser);
+            permissionAPI.save(new Permission(individualContent.getPermissionId(), role.getId(),
+                    PermissionAPI.PERMISSION_READ, true), individualContent, sysuser, false);
+
+            final List<Permissionable> permissionables = Arrays.<Permissionable>asList(hh, individualFolder,
+                    inheritingFolder, inheritingContent, individualContent);
+
+            // inherited permissions are cached once getPermissions resolves them
+            CacheLocator.getPermissionCache().clearCache();
+            final Map<String, List<String>> oneByOne = new HashMap<>();
+            final Map<String, List<String>> cachedOneByOne = new HashMap<>();
+            for (final Permissionable permissionable : permissionables) {
+                oneByOne.put(permissionable.getPermissionId(),
+                        permissionKeys(permissionAPI.getPermissions(permissionable, true)));
+                cachedOneByOne.put(permissionable.getPermissionId(), permissionKeys(CacheLocator
+                        .getPermissionCache().getPermissionsFromCache(permissionable.getPermissionId())));
+            }
+
+            CacheLocator.getPermissionCache().clearCache();
+            permissionAPI.addPermissionsToCache(permissionables);
+            for (final Permissionable permissionable : permissionables) {
+                final List<Permission> cached = CacheLocator.getPermissionCache()
+                        .getPermissionsFromCache(permissionable.getPermissionId());
+                // the ones without rows nor references are left for getPermissions to resolve
+                if (cached != null) {
+                    assertEquals(permissionable.getPermissionId(), cachedOneByOne.get(permissionable.getPermissionId()),
+                            permissionKeys(cached));
+                }
+            }
+            assertNotNull(CacheLocator.getPermissionCache().getPermissionsFromCache(individualFolder.getPermissionId()));
+            assertNotNull(CacheLocator.getPermissionCache().getPermissionsFromCache(individualContent.getPermissionId()));
+
+            for (final Permissionable permissionable : permissionables) {
+                assertEquals(permissionable.getPermissionId(), oneByOne.get(permissionable.getPermissionId()),
+                        permissionKeys(permissionAPI.getPermissions(permissionable, true)));
+            }
+            assertFalse(oneByOne.get(inheritingContent.getPermissionId()).isEmpty());
+            assertFalse(oneByOne.get(inheritingFolder.getPermissionId()).isEmpty());
+
+            ContentletDataGen.remove(inheritingContent);
+            ContentletDataGen.remove(individualContent);
+        } finally {
+            StructureDataGen.remove(structure);
+            try{
+                HibernateUtil.startTransaction();
+                APILocator.getHostAPI().archive(hh, sysuser, false);
+                APILocator.getHostAPI().delete(hh, sysuser, false);
+                HibernateUtil.closeAndCommitTransaction();
+            }catch(Exception e){
+                HibernateUtil.rollbackTransaction();
+                Logger.error(PermissionAPITest.class, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * The permissions as sorted strings, to compare lists loaded in different ways
+     */
+    private static List<String> permissionKeys(final List<Permission> permissions) {
+        final List<String> keys = new ArrayList<>();
+        if (permissions != null) {
+            for (final Permission permission : permissions) {
+                keys.add(permission.getType() + "|" + permission.getInode() + "|" + permission.getRoleId()
+                        + "|" + permission.getPermission());
+            }
+            Collections.sort(keys);
+        }
+        return keys;
+    }
+
+    /**
+     * Creates a folder with its own permissions, the given ones for the role
+     */
+    private Folder createFolder(final Host site, final String path, final Role role, final int permission)
+            throws DotDataException, DotSecurityException {
+        final Folder folder = APILocator.getFolderAPI().createFolders(path, site, sysuser, false);
+        permissionAPI.permissionIndividually(permissionAPI.findParentPermissionable(folder), folder, sysuser);
+        permissionAPI.save(new Permission(folder.getPermissionId(), role.getId(), permission, true),
+                folder, sysuser, false);
+        return folder;
+    }
+
     /**
      * Generate a new role with the given name
      */
@@ -53,6 +53,8 @@ import com.dotmarketing.business.DotCacheException;
 import com.dotmarketing.business.FactoryLocator;
 import com.dotmarketing.business.PermissionAPI;
 import com.dotmarketing.business.RelationshipAPI;
+import com.dotmarketing.business.Role;
+import com.dotmarketing.business.RoleAPI;
 import com.dotmarketing.common.model.ContentletSearch;
 import com.dotmarketing.db.HibernateUtil;
 import com.dotmarketing.db.LocalTransaction;
@@ -96,6 +98,7 @@ import com.dotmarketing.util.WebKeys;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.io.Files;
+import com.liferay.portal.ejb.UserTestUtil;
 import com.liferay.portal.model.User;
 import com.liferay.util.FileUtil;
 import java.io.BufferedReader;
@@ -114,6 +117,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -815,6 +819,143 @@ public class ContentletAPITest extends ContentletBaseTest {
         assertTrue( foundContentlets != null && !foundContentlets.isEmpty() );
     }
 
+    /**
+     * Testing {@link ContentletAPI#search(String, int, int, String, com.liferay.portal.model.User, boolean, int)}
+     * returns the same content doesUserHavePermission allows one by one, for limited, anonymous and front end
+     * users, with the permission filter and with the lucene permission clause it replaced
+     *
+     * @throws Exception
+     */
+    @Test
+    public void searchReturnsTheContentTheUserHasPermissionOver() throws Exception {
+
+        final RoleAPI roleAPI = APILocator.getRoleAPI();
+        final long time = System.currentTimeMillis();
+        final boolean usePermissionFilter = Config.getBooleanProperty("ELASTICSEARCH_USE_PERMISSION_FILTER", true);
+        final Structure structure = new StructureDataGen().nextPersisted();
+        final List<Contentlet> created = new ArrayList<>();
+
+        try {
+            final Role limitedRole = getRole("SearchPermissionRole");
+            final User limited = UserTestUtil.getUser("searchpermissionlimited" + time, false, true);
+            roleAPI.addRoleToUser(limitedRole, limited);
+            final User frontEnd = UserTestUtil.getUser("searchpermissionfrontend" + time, false, true);
+            roleAPI.addRoleToUser(roleAPI.loadLoggedinSiteRole(), frontEnd);
+            final User anonymous = APILocator.getUserAPI().getAnonymousUser();
+
+            final ContentletDataGen contentletDataGen = new ContentletDataGen(structure.getInode());
+            created.add(publishWithPermission(contentletDataGen, roleAPI.loadCMSAnonymousRole(),
+                    PermissionAPI.PERMISSION_READ));
+            created.add(publishWithPermission(contentletDataGen, roleAPI.loadLoggedinSiteRole(),
+                    PermissionAPI.PERMISSION_READ));
+            created.add(publishWithPermission(contentletDataGen, limitedRole,
+                    PermissionAPI.PERMISSION_READ));
+            created.add(publishWithPermission(contentletDataGen, limitedRole,
+                    PermissionAPI.PERMISSION_READ | PermissionAPI.PERMISSION_EDIT | PermissionAPI.PERMISSION_PUBLISH));
+            // inherits the permissions of the content type
+            created.add(publishWithPermission(contentletDataGen, null, 0));
+
+            final String luceneQuery = "+structureinode:" + structure.getInode() + " +live:true +deleted:false";
+
+            for (final User searchUser : new User[]{limited, anonymous, frontEnd}) {
+                for (final boolean respectFrontendRoles : new boolean[]{true, false}) {
+                    for (final int permission : new int[]{PermissionAPI.PERMISSION_READ,
+                            PermissionAPI.PERMISSION_EDIT, PermissionAPI.PERMISSION_PUBLISH}) {
+
+                        final Set<String> expected = new HashSet<>();
+                        for (final Contentlet contentlet : created) {
+                            if (permissionAPI.doesUserHavePermission(contentlet, permission, searchUser,
+                                    respectFrontendRoles)) {
+                                expected.add(contentlet.getIdentifier());
+                            }
+                        }
+                        final String message = searchUser.getUserId() + ", permission " + permission
+                                + ", respectFrontendRoles " + respectFrontendRoles;
+
+                        Config.setProperty("ELASTICSEARCH_USE_PERMISSION_FILTER", true);
+                        assertEquals(message, expected, searchIdentifiers(luceneQuery, searchUser,
+                                respectFrontendRoles, permission));
+
+                        // the lucene clause always checks read
+                        if (permission == PermissionAPI.PERMISSION_READ) {
+                            Config.setProperty("ELASTICSEARCH_USE_PERMISSION_FILTER", false);
+                            assertEquals(message, expected, searchIdentifiers(luceneQuery, searchUser,
+                                    respectFrontendRoles, permission));
+                        }
+                    }
+                }
+            }
+
+            // the cases the content was set up for
+            Config.setProperty("ELASTICSEARCH_USE_PERMISSION_FILTER", true);
+            assertTrue(searchIdentifiers(luceneQuery, anonymous, true, PermissionAPI.PERMISSION_READ)
+                    .contains(created.get(0).getIdentifier()));
+            assertTrue(searchIdentifiers(luceneQuery, frontEnd, true, PermissionAPI.PERMISSION_READ)
+                    .contains(created.get(1).getIdentifier()));
+            assertFalse(searchIdentifiers(luceneQuery, frontEnd, false, PermissionAPI.PERMISSION_READ)
+                    .contains(created.get(1).getIdentifier()));
+            assertTrue(searchIdentifiers(luceneQuery, limited, false, PermissionAPI.PERMISSION_READ)
+                    .contains(created.get(2).getIdentifier()));
+            assertFalse(searchIdentifiers(luceneQuery, limited, false, PermissionAPI.PERMISSION_EDIT)
+                    .contains(created.get(2).getIdentifier()));
+            assertTrue(searchIdentifiers(luceneQuery, limited, false, PermissionAPI.PERMISSION_PUBLISH)
+                    .contains(created.get(3).getIdentifier()));
+        } finally {
+            Config.setProperty("ELASTICSEARCH_USE_PERMISSION_FILTER", usePermissionFilter);
+            for (final Contentlet contentlet : created) {
+                contentletAPI.unpublish(contentlet, user, false);
+                ContentletDataGen.remove(contentlet);
+            }
+            StructureDataGen.remove(structure);
+        }
+    }
+
+    /**
+     * Creates a live content, with its own permissions for the role when there is one
+     */
+    private Contentlet publishWithPermission(final ContentletDataGen contentletDataGen, final Role role,
+            final int permission) throws DotDataException, DotSecurityException {
+
+        final Contentlet contentlet = contentletDataGen.nextPersisted();
+        contentlet.setIndexPolicy(IndexPolicy.FORCE);
+        contentletAPI.publish(contentlet, user, false);
+
+        if (role != null) {
+            permissionAPI.permissionIndividually(permissionAPI.findParentPermissionable(contentlet), contentlet, user);
+            permissionAPI.save(new Permission(contentlet.getPermissionId(), role.getId(), permission, true),
+                    contentlet, user, false);
+            // the permissions are indexed with the content
+            contentlet.setIndexPolicy(IndexPolicy.FORCE);
+            APILocator.getContentletIndexAPI().addContentToIndex(contentlet, false);
+        }
+        return contentlet;
+    }
+
+    private Set<String> searchIdentifiers(final String luceneQuery, final User searchUser,
+            final boolean respectFrontendRoles, final int permission) throws DotDataException, DotSecurityException {
+
+        return contentletAPI.search(luceneQuery, 0, -1, "moddate", searchUser, respectFrontendRoles, permission)
+                .stream().map(Contentlet::getIdentifier).collect(Collectors.toSet());
+    }
+
+    /**
+     * Loads the role with the given key, created if it does not exist
+     */
+    private Role getRole(final String roleName) throws DotDataException {
+        Role role = APILocator.getRoleAPI().loadRoleByKey(roleName);
+        if (!UtilMethods.isSet(role) || !UtilMethods.isSet(role.getId())) {
+            role = new Role();
+            role.setName(roleName);
+            role.setRoleKey(roleName);
+            role.setEditUsers(true);
+            role.setEditPermissions(true);
+            role.setEditLayouts(true);
+            role.setDescription(roleName);
+            role = APILocator.getRoleAPI().save(role);
+        }
+        return role;
+    }
+
     /**
      * Testing {@link ContentletAPI#publishRelatedHtmlPages(com.dotmarketing.portlets.contentlet.model.Contentlet)}
      *
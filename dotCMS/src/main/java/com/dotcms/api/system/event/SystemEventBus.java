@@ -0,0 +1,199 @@
+package com.dotcms.api.system.event;
+
+import com.dotcms.repackage.com.google.common.annotations.VisibleForTesting;
+import com.dotcms.rest.api.v1.system.websocket.SystemEventsWebSocketEndPoint;
+import com.dotcms.util.marshal.MarshalFactory;
+import com.dotcms.util.marshal.MarshalUtils;
+import com.dotmarketing.business.APILocator;
+import com.dotmarketing.business.CacheLocator;
+import com.dotmarketing.business.cache.transport.CacheTransport;
+import com.dotmarketing.util.Config;
+import com.dotmarketing.util.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Delivers the {@link SystemEvent}s to the websocket sessions of this node as soon as they are
+ * pushed, instead of waiting for the {@code SystemEventsJob} to read them back from the database.
+ * <p/>
+ * The events pushed on a node are sent to the rest of the cluster through the cache transport, each
+ * node delivers them to its own sessions. The last <strong>SYSTEM_EVENTS_BUFFER_SIZE</strong> events
+ * of the node, pushed or received, are kept in a ring buffer so the long polling clients of the events
+ * REST api read them from memory (see {@link #getEventsSince(long)}).
+ */
+public class SystemEventBus {
+
+    /**
+     * Prefix of the messages sent through the cache transport, followed by the event as json
+     */
+    public static final String CLUSTER_MESSAGE_PREFIX = "systemEvent|";
+
+    private final SystemEvent[] buffer;
+    private final String serverId;
+    private final Consumer<SystemEvent> localDelivery;
+    private final Consumer<String> clusterDelivery;
+    private final MarshalUtils marshalUtils;
+    private final long created = System.currentTimeMillis();
+
+    // guarded by this
+    private int next = 0;
+    private int size = 0;
+    private long lastEvictedCreationDate = 0;
+
+    private SystemEventBus() {
+
+        this(Config.getIntProperty("SYSTEM_EVENTS_BUFFER_SIZE", 1000),
+                APILocator.getServerAPI().readServerId(),
+                SystemEventBus::sendToWebSocket,
+                SystemEventBus::sendToCluster,
+                MarshalFactory.getInstance().getMarshalUtils());
+    }
+
+    @VisibleForTesting
+    protected SystemEventBus(final int bufferSize, final String serverId,
+                             final Consumer<SystemEvent> localDelivery,
+                             final Consumer<String> clusterDelivery,
+                             final MarshalUtils marshalUtils) {
+
+        this.buffer          = new SystemEvent[Math.max(1, bufferSize)];
+        this.serverId        = serverId;
+        this.localDelivery   = localDelivery;
+        this.clusterDelivery = clusterDelivery;
+        this.marshalUtils    = marshalUtils;
+    }
+
+    private static class SingletonHolder {
+        private static final SystemEventBus INSTANCE = new SystemEventBus();
+    }
+
+    public static SystemEventBus getInstance() {
+        return SystemEventBus.SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * True if the events are delivered by the bus, false if they are read back from the database
+     * by the {@code SystemEventsJob}
+     *
+     * @return
+     */
+    public static boolean isEnabled() {
+        return Config.getBooleanProperty("SYSTEM_EVENTS_BUS_ENABLED", true);
+    }
+
+    public static boolean isClusterMessage(final String message) {
+        return null != message && message.startsWith(CLUSTER_MESSAGE_PREFIX);
+    }
+
+    /**
+     * Delivers an event pushed on this node to the local sessions and to the rest of the cluster
+     *
+     * @param event the event, with its id and the id of this server
+     */
+    public void publish(final SystemEvent event) {
+
+        this.add(event);
+        this.deliver(event);
+
+        try {
+            this.clusterDelivery.accept(CLUSTER_MESSAGE_PREFIX + this.marshalUtils.marshal(event));
+        } catch (Exception e) {
+            Logger.warn(this, "Unable to send the system event: " + event.getId()
+                    + " to the cluster: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Delivers an event received from another node of the cluster to the local sessions
+     *
+     * @param message the message received through the cache transport
+     */
+    public void receive(final String message) {
+
+        final SystemEvent event;
+        try {
+            event = this.marshalUtils.unmarshal(message.substring(CLUSTER_MESSAGE_PREFIX.length()), SystemEvent.class);
+        } catch (Exception e) {
+            Logger.warn(this, "Unable to read the system event received from the cluster: " + e.getMessage());
+            return;
+        }
+
+        // the transport can hand back the messages of this node
+        if (null != event && !this.serverId.equals(event.getServerId())) {
+            this.add(event);
+            this.deliver(event);
+        }
+    }
+
+    /**
+     * True if all the events created since the given date are kept in memory: none was dropped from
+     * the buffer and the node was already running
+     *
+     * @param fromDate
+     * @return
+     */
+    public synchronized boolean hasEventsSince(final long fromDate) {
+        return fromDate >= this.created && fromDate > this.lastEvictedCreationDate;
+    }
+
+    /**
+     * The events kept in memory created since the given date, in the order they were pushed or
+     * received. See {@link #hasEventsSince(long)} to know if some may be missing.
+     *
+     * @param fromDate
+     * @return
+     */
+    public List<SystemEvent> getEventsSince(final long fromDate) {
+
+        final List<SystemEvent> events = new ArrayList<>();
+        synchronized (this) {
+            for (int i = 0; i < this.size; i++) {
+                final SystemEvent event = this.buffer[(this.next - this.size + i + this.buffer.length) % this.buffer.length];
+                if (event.getCreationDate().getTime() >= fromDate) {
+                    events.add(event);
+                }
+            }
+        }
+        return events;
+    }
+
+    private synchronized void add(final SystemEvent event) {
+
+        final SystemEvent evicted = this.buffer[this.next];
+        if (null != evicted) {
+            this.lastEvictedCreationDate = Math.max(this.lastEvictedCreationDate,
+                    evicted.getCreationDate().getTime());
+        }
+        this.buffer[this.next] = event;
+        this.next = (this.next + 1) % this.buffer.length;
+        this.size = Math.min(this.size + 1, this.buffer.length);
+    }
+
+    private void deliver(final SystemEvent event) {
+
+        try {
+            this.localDelivery.accept(event);
+        } catch (Exception e) {
+            Logger.error(this, "Unable to deliver the system event: " + event.getId() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static void sendToWebSocket(final SystemEvent event) {
+
+        final SystemEventsWebSocketEndPoint webSocketEndPoint = APILocator.getWebSocketContainerAPI()
+                .getEndpointInstance(SystemEventsWebSocketEndPoint.class);
+        if (null != webSocketEndPoint) {
+            webSocketEndPoint.sendSystemEvent(event);
+        }
+    }
+
+    private static void sendToCluster(final String message) {
+
+        final CacheTransport transport = CacheLocator.getCacheAdministrator().getTransport();
+        if (null != transport && transport.isInitialized()) {
+            transport.send(message);
+        }
+    }
+
+}
@@ -20,6 +20,7 @@ import com.dotmarketing.db.DbConnectionFactory;
 import com.dotmarketing.db.HibernateUtil;
 import com.dotmarketing.exception.DotDataException;
 import com.dotmarketing.exception.DotHibernateException;
+import com.dotmarketing.util.Config;
 import com.dotmarketing.util.Logger;
 import com.dotmarketing.util.UUIDGenerator;
 import com.dotmarketing.util.UtilMethods;
@@ -133,17 +134,34 @@ public class SystemEventsFactory implements Serializable {
 				throw new IllegalArgumentException(msg);
 			}
 
+			final SystemEvent event = new SystemEvent(
+					UtilMethods.isSet(systemEvent.getId()) ? systemEvent.getId() : UUIDGenerator.generateUuid(),
+					systemEvent.getEventType(), systemEvent.getPayload(), systemEvent.getCreationDate(),
+					this.serverAPI.readServerId());
+
+			if (SystemEventBus.isEnabled()) {
+
+				// delivered right away here and on the other nodes, the database is only a replay log
+				SystemEventBus.getInstance().publish(event);
+				if (!isPersisted()) {
+					return;
+				}
+			}
+
 			final boolean isNewConnection    = !DbConnectionFactory.connectionExists();
 			boolean localTransaction 		 = false;
-			final SystemEventsWebSocketEndPoint webSocketEndPoint = this.webSocketContainerAPI
-					.getEndpointInstance(SystemEventsWebSocketEndPoint.class);
 
 			try {
 
 				// sends straight to the socket, the server id is sent to the queue in order to avoid to send twice the event.
-				if (null != webSocketEndPoint) {
+				if (!SystemEventBus.isEnabled()) {
+
+					final SystemEventsWebSocketEndPoint webSocketEndPoint = this.webSocketContainerAPI
+							.getEndpointInstance(SystemEventsWebSocketEndPoint.class);
+					if (null != webSocketEndPoint) {
 
-					webSocketEndPoint.sendSystemEvent(systemEvent);
+						webSocketEndPoint.sendSystemEvent(event);
+					}
 				}
 
 				if ( forceNewTransaction ) {
@@ -155,9 +173,9 @@ public class SystemEventsFactory implements Serializable {
 					localTransaction = HibernateUtil.startLocalTransactionIfNeeded();
 				}
 
-				this.systemEventsDAO.add(new SystemEventDTO(systemEvent.getId(), systemEvent.getEventType().name(),
-						this.marshalUtils.marshal(systemEvent.getPayload()),
-						systemEvent.getCreationDate(). getTime(), this.serverAPI.readServerId()));
+				this.systemEventsDAO.add(new SystemEventDTO(event.getId(), event.getEventType().name(),
+						this.marshalUtils.marshal(event.getPayload()),
+						event.getCreationDate().getTime(), event.getServerId()));
 
 				//Everything ok..., committing the transaction
 				if ( localTransaction ) {
@@ -225,6 +243,11 @@ public class SystemEventsFactory implements Serializable {
 				Logger.error(this, msg);
 				throw new IllegalArgumentException(msg);
 			}
+
+			final SystemEventBus systemEventBus = SystemEventBus.isEnabled() ? SystemEventBus.getInstance() : null;
+			if (null != systemEventBus && (!isPersisted() || systemEventBus.hasEventsSince(createdDate))) {
+				return systemEventBus.getEventsSince(createdDate);
+			}
 			try {
 				final List<SystemEventDTO> result = (List<SystemEventDTO>) this.systemEventsDAO.getEventsSince(createdDate);
 				return this.conversionUtils.convert(result, this::convertSystemEventDTO);
@@ -315,6 +338,15 @@ public class SystemEventsFactory implements Serializable {
 			}
 		}
 
+		/**
+		 * True if the events are saved to the database: always when they are read back from it by
+		 * the {@code SystemEventsJob}, else only if <strong>SYSTEM_EVENTS_PERSIST</strong> is set to
+		 * replay the events the {@link SystemEventBus} no longer keeps.
+		 */
+		private boolean isPersisted() {
+			return !SystemEventBus.isEnabled() || Config.getBooleanProperty("SYSTEM_EVENTS_PERSIST", false);
+		}
+
 		/**
 		 * Converts the physical representation of a System Event (i.e., the
 		 * information as stored in the database) to the logical representation.
@@ -4,6 +4,7 @@ import com.dotcms.vanityurl.model.CacheVanityKey;
 import com.dotcms.vanityurl.model.CachedVanityUrl;
 import com.dotcms.vanityurl.model.SecondaryCacheVanityKey;
 import com.dotcms.vanityurl.model.VanityUrl;
+import com.dotcms.vanityurl.model.VanityUrlMatcher;
 import com.dotmarketing.business.Cachable;
 import com.dotmarketing.portlets.contentlet.model.Contentlet;
 
@@ -86,4 +87,13 @@ public abstract class VanityUrlCache implements Cachable {
     public abstract void setCachedVanityUrls(final SecondaryCacheVanityKey secondaryCacheVanityKey,
             final List<CachedVanityUrl> cachedVanityUrlList);
 
+    /**
+     * Get the {@link VanityUrlMatcher} over the list of CachedVanityUrl of the host Id and
+     * language Id key, building it from the list the first time
+     *
+     * @param key SecondaryCacheVanityKey The current key composed of the host Id and languageId
+     * @return the VanityUrlMatcher, null if there is no list for the key yet
+     */
+    public abstract VanityUrlMatcher getVanityUrlMatcher(SecondaryCacheVanityKey key);
+
 }
\ No newline at end of file
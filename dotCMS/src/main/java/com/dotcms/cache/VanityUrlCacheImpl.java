@@ -7,6 +7,7 @@ import com.dotcms.vanityurl.model.CacheVanityKey;
 import com.dotcms.vanityurl.model.CachedVanityUrl;
 import com.dotcms.vanityurl.model.SecondaryCacheVanityKey;
 import com.dotcms.vanityurl.model.VanityUrl;
+import com.dotcms.vanityurl.model.VanityUrlMatcher;
 import com.dotmarketing.beans.Host;
 import com.dotmarketing.business.CacheLocator;
 import com.dotmarketing.business.DotCacheAdministrator;
@@ -38,8 +39,10 @@ public class VanityUrlCacheImpl extends VanityUrlCache {
     private static final String PRIMARY_GROUP = "VanityURLCache";
     private static final String CACHED_VANITY_URL_GROUP = "cachedVanityUrlGroup";
     private static final String HOSTS_GROUP = "hostsGroup";
+    private static final String VANITY_URL_MATCHER_GROUP = "vanityUrlMatcherGroup";
 
-    private static final String[] groupNames = {PRIMARY_GROUP, CACHED_VANITY_URL_GROUP};
+    private static final String[] groupNames = {PRIMARY_GROUP, CACHED_VANITY_URL_GROUP,
+            VANITY_URL_MATCHER_GROUP};
 
     public VanityUrlCacheImpl() {
         cache = CacheLocator.getCacheAdministrator();
@@ -91,6 +94,8 @@ public class VanityUrlCacheImpl extends VanityUrlCache {
             }
 
             this.removeCachedVanityUrls(key.toString());
+        } else {
+            this.removeVanityUrlMatcher(key.toString());
         }
     }
 
@@ -191,7 +196,7 @@ public class VanityUrlCacheImpl extends VanityUrlCache {
     }
 
     @Override
-    public void update(CachedVanityUrl vanity) {
+    public synchronized void update(CachedVanityUrl vanity) {
 
         final SecondaryCacheVanityKey key =
                 new SecondaryCacheVanityKey(vanity.getSiteId(), vanity.getLanguageId());
@@ -203,6 +208,8 @@ public class VanityUrlCacheImpl extends VanityUrlCache {
             //Update Secondary cache
             List<CachedVanityUrl> siteCachedVanityUrl =
                     this.getCachedVanityUrls(key);
+            final VanityUrlMatcher matcher =
+                    null != siteCachedVanityUrl ? this.getCachedVanityUrlMatcher(key) : null;
 
             if (null != siteCachedVanityUrl) {
                 siteCachedVanityUrl = ImmutableList.<CachedVanityUrl>builder()
@@ -218,8 +225,15 @@ public class VanityUrlCacheImpl extends VanityUrlCache {
                         .build();
             }
 
-            this.setCachedVanityUrls(key,
-                    siteCachedVanityUrl);
+            cache.put(key.toString(), siteCachedVanityUrl, getCachedVanityUrlGroup());
+
+            //The matcher of the list is updated instead of built again
+            if (null != matcher) {
+                matcher.add(vanity);
+                cache.put(key.toString(), matcher, getVanityUrlMatcherGroup());
+            } else {
+                this.removeVanityUrlMatcher(key.toString());
+            }
         } catch (DotRuntimeException e) {
             Logger.debug(this, "Error trying to update Vanity URL in cache", e);
         }
@@ -279,6 +293,10 @@ public class VanityUrlCacheImpl extends VanityUrlCache {
         return HOSTS_GROUP;
     }
 
+    private String getVanityUrlMatcherGroup() {
+        return VANITY_URL_MATCHER_GROUP;
+    }
+
     @Override
     public List<CachedVanityUrl> getCachedVanityUrls(final SecondaryCacheVanityKey key) {
         List<CachedVanityUrl> vanityUrlList = null;
@@ -297,6 +315,47 @@ public class VanityUrlCacheImpl extends VanityUrlCache {
 
         cache.put(secondaryCacheVanityKey.toString(),
                             cachedVanityUrlList, getCachedVanityUrlGroup());
+        this.removeVanityUrlMatcher(secondaryCacheVanityKey.toString());
+    }
+
+    @Override
+    public VanityUrlMatcher getVanityUrlMatcher(final SecondaryCacheVanityKey key) {
+
+        //The matcher is only valid while its list is cached
+        if (null == this.getCachedVanityUrls(key)) {
+            return null;
+        }
+
+        VanityUrlMatcher matcher = this.getCachedVanityUrlMatcher(key);
+        if (null == matcher) {
+
+            synchronized (this) {
+
+                matcher = this.getCachedVanityUrlMatcher(key);
+                if (null == matcher) {
+
+                    final List<CachedVanityUrl> cachedVanityUrls = this.getCachedVanityUrls(key);
+                    if (null != cachedVanityUrls) {
+
+                        matcher = new VanityUrlMatcher(cachedVanityUrls);
+                        cache.put(key.toString(), matcher, getVanityUrlMatcherGroup());
+                    }
+                }
+            }
+        }
+
+        return matcher;
+    }
+
+    private VanityUrlMatcher getCachedVanityUrlMatcher(final SecondaryCacheVanityKey key) {
+        VanityUrlMatcher matcher = null;
+        try {
+            matcher = (VanityUrlMatcher) cache.get(key.toString(), getVanityUrlMatcherGroup());
+        } catch (Exception e) {
+            Logger.debug(this, "Cache Entry not found", e);
+        }
+
+        return matcher;
     }
 
     private void removeCachedVanityUrls(final String key) {
@@ -305,6 +364,15 @@ public class VanityUrlCacheImpl extends VanityUrlCache {
         } catch (Exception e) {
             Logger.debug(this, "Cache not able to be removed", e);
         }
+        this.removeVanityUrlMatcher(key);
+    }
+
+    private void removeVanityUrlMatcher(final String key) {
+        try {
+            cache.remove(key, getVanityUrlMatcherGroup());
+        } catch (Exception e) {
+            Logger.debug(this, "Cache not able to be removed", e);
+        }
     }
 
     private void addSiteId(final String hostId) {
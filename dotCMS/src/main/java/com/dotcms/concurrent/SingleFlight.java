@@ -0,0 +1,92 @@
+package com.dotcms.concurrent;
+
+import com.dotmarketing.util.Logger;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Collapses concurrent loads of the same key into a single one: the first thread asking for a key
+ * (the leader) runs the loader while the others wait for its result instead of doing the same
+ * expensive work, this keeps a popular entry expiring from the cache from triggering hundreds of
+ * identical loads at once (cache stampede).
+ * <p/>
+ * Followers do not wait forever, if the leader takes longer than the given wait, fails or returns
+ * <code>null</code> they run their own loader.
+ *
+ * @param <K> type of the key
+ * @param <V> type of the loaded value
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+
+    /**
+     * Loads the value for the given key making sure that only one loader runs at a time per key
+     *
+     * @param key        key that identifies the load
+     * @param loader     the loader to run if no other thread is loading the key or the wait expires
+     * @param waitMillis max time to wait for a load already in flight
+     * @return the loaded value
+     * @throws Exception thrown by the loader
+     */
+    public V load(final K key, final Callable<V> loader, final long waitMillis) throws Exception {
+
+        final CompletableFuture<V> flight = new CompletableFuture<>();
+        final CompletableFuture<V> inFlight = flights.putIfAbsent(key, flight);
+
+        if (inFlight == null) {
+            // we are the leader
+            try {
+                final V value = loader.call();
+                flight.complete(value);
+                return value;
+            } catch (Throwable e) {
+                flight.completeExceptionally(e);
+                throw e;
+            } finally {
+                flights.remove(key, flight);
+            }
+        }
+
+        final V value = await(key, inFlight, waitMillis);
+        return value != null ? value : loader.call();
+    }
+
+    /**
+     * Returns true if a load for the given key is being done right now
+     *
+     * @param key
+     * @return
+     */
+    public boolean isInFlight(final K key) {
+        return flights.containsKey(key);
+    }
+
+    /**
+     * Number of loads being done right now
+     *
+     * @return
+     */
+    public int size() {
+        return flights.size();
+    }
+
+    private V await(final K key, final CompletableFuture<V> inFlight, final long waitMillis)
+            throws InterruptedException {
+
+        try {
+            return inFlight.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            Logger.debug(SingleFlight.class, "Timed out waiting for the load of: " + key);
+        } catch (ExecutionException e) {
+            Logger.debug(SingleFlight.class, "The load of: " + key + " failed: " + e.getMessage());
+        }
+        return null;
+    }
+
+}
@@ -99,6 +99,16 @@ public interface ContentletIndexAPI {
 
 	void indexContentList(List<Contentlet> contentToIndex, BulkRequestBuilder bulk, boolean reindexOnly) throws DotDataException;
 
+	/**
+	 * Adds the index requests of the given contentlets to the bulk request without executing it,
+	 * so the caller decides when and how the bulk request is sent
+	 * @param contentToIndex
+	 * @param bulk
+	 * @param reindexOnly
+	 * @throws DotDataException
+	 */
+	void appendToBulkRequest(List<Contentlet> contentToIndex, BulkRequestBuilder bulk, boolean reindexOnly) throws DotDataException;
+
 	/**
 	 * This method is similar to the indexContentList, but it make searchable the content immediate
 	 * Important node: this is only for testing
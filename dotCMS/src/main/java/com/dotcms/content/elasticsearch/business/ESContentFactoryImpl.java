@@ -3,6 +3,7 @@ package com.dotcms.content.elasticsearch.business;
 import com.dotcms.business.WrapInTransaction;
 import com.dotcms.content.business.DotMappingException;
 import com.dotcms.content.elasticsearch.business.IndiciesAPI.IndiciesInfo;
+import com.dotcms.content.elasticsearch.constants.ESMappingConstants;
 import com.dotcms.content.elasticsearch.util.ESClient;
 import com.dotcms.notifications.bean.NotificationLevel;
 import com.dotcms.notifications.bean.NotificationType;
@@ -45,6 +46,7 @@ import com.dotmarketing.util.*;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.primitives.Ints;
 import com.liferay.portal.model.User;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang.StringUtils;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.action.ActionListener;
@@ -75,6 +77,7 @@ import java.sql.SQLException;
 import java.util.*;
 import java.util.Calendar;
 import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 import static com.dotcms.content.elasticsearch.business.ESMappingAPIImpl.datetimeFormat;
 
@@ -90,6 +93,9 @@ import static com.dotcms.content.elasticsearch.business.ESMappingAPIImpl.datetim
 public class ESContentFactoryImpl extends ContentletFactory {
 
     private static final String[] ES_FIELDS = {"inode", "identifier"};
+    private static final String[] ES_SOURCE_FIELDS = {"inode", "identifier", ESMappingConstants.CONTENTLET_SOURCE};
+    // the date math of the current time, e.g. modDate:[now-1d TO now], not words like "known"
+    private static final Pattern DATE_MATH_NOW = Pattern.compile("\\bnow\\b", Pattern.CASE_INSENSITIVE);
     private final ContentletCache contentletCache;
 	private final ESClient client;
 	private final LanguageAPI languageAPI;
@@ -954,6 +960,56 @@ public class ESContentFactoryImpl extends ContentletFactory {
         return result;
 	}
 
+	@SuppressWarnings("unchecked")
+	@Override
+	protected List<Contentlet> findContentletsFromIndex(final SearchHits hits) throws DotDataException, DotStateException, DotSecurityException {
+
+	    final List<String> inodes = new ArrayList<>();
+	    final Map<String, Contentlet> contentlets = new HashMap<>();
+	    final List<String> inodesNotFound = new ArrayList<>();
+	    for (final SearchHit hit : hits.getHits()) {
+	        final Map<String, Object> sourceMap = hit.getSourceAsMap();
+	        final String inode = (String) sourceMap.get(ESMappingConstants.INODE);
+	        if (!UtilMethods.isSet(inode)) {
+	            continue;
+	        }
+	        inodes.add(inode);
+
+	        Contentlet contentlet = contentletCache.get(inode);
+	        if (contentlet == null || !InodeUtils.isSet(contentlet.getInode())) {
+	            // not added to the cache, the cache keeps what the database has
+	            try {
+	                contentlet = ESContentletSource.toContentlet(
+	                        (Map<String, Object>) sourceMap.get(ESMappingConstants.CONTENTLET_SOURCE));
+	            } catch (Exception e) {
+	                Logger.warn(this, "Unable to build contentlet " + inode + " from the index source: " + e.getMessage());
+	                Logger.debug(this, e.getMessage(), e);
+	                contentlet = null;
+	            }
+	        }
+	        if (contentlet != null) {
+	            contentlets.put(inode, contentlet);
+	        } else {
+	            inodesNotFound.add(inode);
+	        }
+	    }
+
+	    if (!inodesNotFound.isEmpty()) {
+	        for (final Contentlet contentlet : findContentlets(inodesNotFound)) {
+	            contentlets.put(contentlet.getInode(), contentlet);
+	        }
+	    }
+
+	    final List<Contentlet> result = new ArrayList<>(inodes.size());
+	    for (final String inode : inodes) {
+	        final Contentlet contentlet = contentlets.get(inode);
+	        if (contentlet != null) {
+	            result.add(contentlet);
+	        }
+	    }
+	    return result;
+	}
+
 	/**
 	 *
 	 * @param hostId
@@ -1252,6 +1308,11 @@ public class ESContentFactoryImpl extends ContentletFactory {
 
 	@Override
 	protected long indexCount(final String query) {
+	    return indexCount(query, (QueryBuilder) null);
+	}
+
+	@Override
+	protected long indexCount(final String query, final QueryBuilder filter) {
 	    final String qq = findAndReplaceQueryDates(translateQuery(query, null).getQuery());
 
 	    // we check the query to figure out wich indexes to hit
@@ -1272,7 +1333,7 @@ public class ESContentFactoryImpl extends ContentletFactory {
         final Client client              = this.client.getClient();
         final QueryStringQueryBuilder qb = QueryBuilders.queryStringQuery(qq);
         final SearchRequestBuilder searchRequestBuilder = client.prepareSearch().setSize(0);
-        searchRequestBuilder.setQuery(qb);
+        searchRequestBuilder.setQuery(null == filter ? qb : QueryBuilders.boolQuery().must(qb).filter(filter));
         searchRequestBuilder.setIndices(indexToHit);
         return searchRequestBuilder.execute().actionGet().getHits().getTotalHits();
 	}
@@ -1381,54 +1442,74 @@ public class ESContentFactoryImpl extends ContentletFactory {
      * @return
      */
     private SearchRequestBuilder createRequest(Client client, String query, String sortBy) {
+        return createRequest(client, query, sortBy, null, false);
+    }
+
+    /**
+     *
+     * @param client
+     * @param query
+     * @param sortBy i.e. "random" or null object.
+     * @param filter applied to the query without scoring, i.e. the permissions of the user, or null
+     * @param fetchContentletSource whether to fetch the stored contentlet source too
+     * @return
+     */
+    private SearchRequestBuilder createRequest(Client client, String query, String sortBy, QueryBuilder filter,
+            boolean fetchContentletSource) {
 
         SearchSourceBuilder ssb = SearchSourceBuilder.searchSource();
 
-        ssb.fetchSource(ES_FIELDS, null);
+        ssb.fetchSource(fetchContentletSource ? ES_SOURCE_FIELDS : ES_FIELDS, null);
+
+        final QueryStringQueryBuilder queryStringQuery = QueryBuilders.queryStringQuery(query);
 
         if(Config.getBooleanProperty("ELASTICSEARCH_USE_FILTERS_FOR_SEARCHING",false) && sortBy!=null && ! sortBy.toLowerCase().startsWith("score")) {
 
+            final QueryBuilder postFilter = null == filter ? queryStringQuery
+                    : QueryBuilders.boolQuery().filter(queryStringQuery).filter(filter);
             if("random".equals(sortBy)){
                 return client.prepareSearch().setSource(ssb)
                         .setQuery(QueryBuilders.functionScoreQuery(QueryBuilders.matchAllQuery(), new RandomScoreFunctionBuilder()))
-                        .setPostFilter(QueryBuilders.queryStringQuery(query)); //Cache is handled internally.
+                        .setPostFilter(postFilter); //Cache is handled internally.
             } else {
                 return client.prepareSearch().setSource(ssb)
                         .setQuery(QueryBuilders.matchAllQuery())
-                        .setPostFilter(QueryBuilders.queryStringQuery(query)); //Cache is handled internally.
+                        .setPostFilter(postFilter); //Cache is handled internally.
             }
 
         } else {
-            return client.prepareSearch().setSource(ssb).setQuery(QueryBuilders.queryStringQuery(query));
+            return client.prepareSearch().setSource(ssb).setQuery(null == filter ? queryStringQuery
+                    : QueryBuilders.boolQuery().must(queryStringQuery).filter(filter));
         }
     }
 
 	@Override
 	protected SearchHits indexSearch(String query, int limit, int offset, String sortBy) {
+	    return indexSearch(query, null, limit, offset, sortBy);
+	}
+
+	@Override
+	protected SearchHits indexSearch(String query, QueryBuilder filter, int limit, int offset, String sortBy) {
+	    return indexSearch(query, filter, limit, offset, sortBy, false);
+	}
+
+	@Override
+	protected SearchHits indexSearch(String query, QueryBuilder filter, int limit, int offset, String sortBy,
+	        boolean fetchContentletSource) {
 
 	    String qq=findAndReplaceQueryDates(translateQuery(query, sortBy).getQuery());
 
-	    // we check the query to figure out wich indexes to hit
-	    String indexToHit;
-	    IndiciesInfo info;
-	    try {
-	        info=APILocator.getIndiciesAPI().loadIndicies();
-	    }
-	    catch(DotDataException ee) {
-	        Logger.fatal(this, "Can't get indicies information",ee);
+	    final String indexToHit = getIndexToHit(query);
+	    if(indexToHit==null) {
 	        return null;
 	    }
-	    if(query.contains("+live:true") && !query.contains("+deleted:true"))
-	        indexToHit=info.live;
-	    else
-	        indexToHit=info.working;
 
 	    Client client=new ESClient().getClient();
 
         SearchResponse resp = null;
         try {
 
-        	SearchRequestBuilder srb = createRequest(client, qq, sortBy);
+        	SearchRequestBuilder srb = createRequest(client, qq, sortBy, filter, fetchContentletSource);
         	srb.setIndices(indexToHit);
 
             if(limit>0)
@@ -1511,6 +1592,96 @@ public class ESContentFactoryImpl extends ContentletFactory {
 	    return resp.getHits();
 	}
 
+	@Override
+	protected PaginatedArrayList<ContentletSearch> indexSearchResults(final String query, final QueryBuilder filter,
+	        final int limit, final int offset, final String sortBy) {
+
+	    final ContentletCache contentletCache = CacheLocator.getContentletCache();
+	    final String key = isQueryResultCacheable(query, sortBy)
+	            ? getQueryResultKey(query, filter, limit, offset, sortBy)
+	            : null;
+	    if(key!=null) {
+	        final PaginatedArrayList<ContentletSearch> cached = contentletCache.getQueryResult(key);
+	        if(cached!=null) {
+	            return cached;
+	        }
+	    }
+
+	    // the versions are read before the search, a change indexed meanwhile makes the results stale
+	    final Map<String, Long> versions = key!=null ? contentletCache.getQueryVersions(query) : null;
+	    final SearchHits hits = indexSearch(query, filter, limit, offset, sortBy);
+	    final PaginatedArrayList<ContentletSearch> results = new PaginatedArrayList<>();
+	    if(hits==null) {
+	        return results;
+	    }
+
+	    results.setTotalResults(hits.getTotalHits());
+	    for (SearchHit sh : hits.getHits()) {
+	        try{
+	            Map<String, Object> sourceMap = sh.getSourceAsMap();
+	            ContentletSearch conwrapper= new ContentletSearch();
+
+	            conwrapper.setIdentifier(sourceMap.get("identifier").toString());
+	            conwrapper.setInode(sourceMap.get("inode").toString());
+	            conwrapper.setScore(sh.getScore());
+
+	            results.add(conwrapper);
+	        }
+	        catch(Exception e){
+	            Logger.error(this,e.getMessage(),e);
+	        }
+	    }
+
+	    if(key!=null) {
+	        contentletCache.addQueryResult(key, versions, results);
+	    }
+	    return results;
+	}
+
+	/**
+	 * Random sorts and queries relative to the current time return different hits each time they run
+	 */
+	private boolean isQueryResultCacheable(final String query, final String sortBy) {
+	    return Config.getBooleanProperty("CONTENT_QUERY_CACHE_ENABLED", true)
+	            && !"random".equalsIgnoreCase(sortBy)
+	            && !DATE_MATH_NOW.matcher(query).find();
+	}
+
+	/**
+	 * The key of the results of a query: the translated query, sort, page, index and the filter, which holds the
+	 * roles of the user
+	 */
+	private String getQueryResultKey(final String query, final QueryBuilder filter, final int limit,
+	        final int offset, final String sortBy) {
+
+	    final String indexToHit = getIndexToHit(query);
+	    if(indexToHit==null) {
+	        return null;
+	    }
+	    return DigestUtils.sha256Hex(translateQuery(query, sortBy).getQuery() + "|" + sortBy + "|" + limit + "|"
+	            + offset + "|" + indexToHit + "|" + (filter==null ? "" : filter.toString()));
+	}
+
+	/**
+	 * The live index for live, not deleted, content, else the working index
+	 * @param query
+	 * @return the index name, null if the indices can not be loaded
+	 */
+	private String getIndexToHit(final String query) {
+	    IndiciesInfo info;
+	    try {
+	        info=APILocator.getIndiciesAPI().loadIndicies();
+	    }
+	    catch(DotDataException ee) {
+	        Logger.fatal(this, "Can't get indicies information",ee);
+	        return null;
+	    }
+	    if(query.contains("+live:true") && !query.contains("+deleted:true"))
+	        return info.live;
+	    else
+	        return info.working;
+	}
+
 	@Override
 	protected void removeUserReferences(String userId) throws DotDataException, DotStateException, ElasticsearchException, DotSecurityException {
 	   User systemUser =  APILocator.getUserAPI().getSystemUser();
@@ -6,6 +6,7 @@ import com.dotcms.api.system.event.ContentletSystemEventUtil;
 import com.dotcms.business.CloseDBIfOpened;
 import com.dotcms.business.WrapInTransaction;
 import com.dotcms.content.business.DotMappingException;
+import com.dotcms.content.elasticsearch.constants.ESMappingConstants;
 import com.dotcms.contenttype.business.ContentTypeAPI;
 import com.dotcms.contenttype.model.field.CategoryField;
 import com.dotcms.contenttype.model.field.ConstantField;
@@ -48,6 +49,7 @@ import com.dotmarketing.cache.FieldsCache;
 import com.dotmarketing.common.business.journal.DistributedJournalAPI;
 import com.dotmarketing.common.db.DotConnect;
 import com.dotmarketing.common.model.ContentletSearch;
+import com.dotmarketing.common.reindex.ParallelFullReindex;
 import com.dotmarketing.common.reindex.ReindexThread;
 import com.dotmarketing.db.DbConnectionFactory;
 import com.dotmarketing.db.FlushCacheRunnable;
@@ -159,7 +161,9 @@ import java.util.stream.Collectors;
 import org.apache.commons.lang.StringUtils;
 import org.elasticsearch.action.search.SearchPhaseExecutionException;
 import org.elasticsearch.action.search.SearchResponse;
-import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.search.SearchHits;
 import org.springframework.beans.BeanUtils;
 
@@ -699,7 +703,7 @@ public class ESContentletAPIImpl implements ContentletAPI {
         ArrayList<String> inodes = new ArrayList<String>();
 
 
-        PaginatedArrayList <ContentletSearch> list =(PaginatedArrayList)searchIndex(luceneQuery, limit, offset, sortBy, user, respectFrontendRoles);
+        PaginatedArrayList <ContentletSearch> list =(PaginatedArrayList)searchIndex(luceneQuery, limit, offset, sortBy, user, respectFrontendRoles, requiredPermission);
         contents.setTotalResults(list.getTotalResults());
         for(ContentletSearch conwrap: list){
 
@@ -720,6 +724,20 @@ public class ESContentletAPIImpl implements ContentletAPI {
 
     }
 
+    @CloseDBIfOpened
+    @Override
+    public List<Contentlet> searchFromIndex(String luceneQuery, int limit, int offset, String sortBy, User user, boolean respectFrontendRoles) throws DotDataException, DotSecurityException {
+        if (!Config.getBooleanProperty("ELASTICSEARCH_HYDRATE_FROM_SOURCE", false)) {
+            return search(luceneQuery, limit, offset, sortBy, user, respectFrontendRoles);
+        }
+
+        SearchHits hits = indexSearch(luceneQuery, limit, offset, sortBy, user, respectFrontendRoles, PermissionAPI.PERMISSION_READ, true);
+        PaginatedArrayList<Contentlet> contents = new PaginatedArrayList<>();
+        contents.setTotalResults(hits.getTotalHits());
+        contents.addAll(contentFactory.findContentletsFromIndex(hits));
+        return contents;
+    }
+
     @Override
     public List<Contentlet> searchByIdentifier(String luceneQuery, int limit, int offset,String sortBy, User user, boolean respectFrontendRoles) throws DotDataException, DotSecurityException {
         return searchByIdentifier(luceneQuery, limit, offset, sortBy, user, respectFrontendRoles, PermissionAPI.PERMISSION_READ);
@@ -734,7 +752,7 @@ public class ESContentletAPIImpl implements ContentletAPI {
     @Override
     public List<Contentlet> searchByIdentifier(String luceneQuery, int limit, int offset, String sortBy, User user, boolean respectFrontendRoles, int requiredPermission, boolean anyLanguage) throws DotDataException,DotSecurityException {
         PaginatedArrayList<Contentlet> contents = new PaginatedArrayList<>();
-        PaginatedArrayList <ContentletSearch> list =(PaginatedArrayList)searchIndex(luceneQuery, limit, offset, sortBy, user, respectFrontendRoles);
+        PaginatedArrayList <ContentletSearch> list =(PaginatedArrayList)searchIndex(luceneQuery, limit, offset, sortBy, user, respectFrontendRoles, requiredPermission);
         contents.setTotalResults(list.getTotalResults());
 
         List<String> identifierList = new ArrayList<>();
@@ -812,53 +830,137 @@ public class ESContentletAPIImpl implements ContentletAPI {
         
     }
 
-    @Override
-    public List <ContentletSearch> searchIndex(String luceneQuery, int limit, int offset, String sortBy, User user, boolean respectFrontendRoles)throws DotSecurityException, DotDataException {
-        boolean isAdmin = false;
-        List<Role> roles = new ArrayList<Role>();
+    /**
+     * Same rules as {@link #addPermissionsToQuery(StringBuffer, User, List, boolean)}, for the given permission
+     * type, as an ES filter: the user is the owner and the owner can do it, or one of the roles has the permission
+     * term indexed by {@link ESMappingAPIImpl#loadPermissions(Contentlet, Map)}. The terms are matched exactly,
+     * without the wildcard expansion of the lucene clause, and a filter does not score and is cached by ES.
+     * Only read, edit and publish have an owner flag in the index, any other permission type filters by read.
+     *
+     * @param user the user searching, null for anonymous
+     * @param roles the roles of the user
+     * @param respectFrontendRoles
+     * @param requiredPermission
+     * @return the filter
+     * @throws DotDataException
+     */
+    private QueryBuilder buildPermissionFilter(final User user, final List<Role> roles, final boolean respectFrontendRoles,
+            final int requiredPermission) throws DotDataException {
+
+        final int permission;
+        final String ownerCanField;
+        if (requiredPermission == PermissionAPI.PERMISSION_PUBLISH) {
+            permission = PermissionAPI.PERMISSION_PUBLISH;
+            ownerCanField = ESMappingConstants.OWNER_CAN_PUBLISH;
+        } else if (requiredPermission == PermissionAPI.PERMISSION_EDIT) {
+            permission = PermissionAPI.PERMISSION_EDIT;
+            ownerCanField = ESMappingConstants.OWNER_CAN_WRITE;
+        } else {
+            permission = PermissionAPI.PERMISSION_READ;
+            ownerCanField = ESMappingConstants.OWNER_CAN_READ;
+        }
+
+        final List<String> permissionTerms = new ArrayList<>();
+        for (final Role role : roles) {
+            permissionTerms.add(permissionTerm(role.getId(), permission));
+        }
+        if (respectFrontendRoles) {
+            permissionTerms.add(permissionTerm(APILocator.getRoleAPI().loadCMSAnonymousRole().getId(), permission));
+            if (user != null && !user.getUserId().equals("anonymous")) {
+                permissionTerms.add(permissionTerm(APILocator.getRoleAPI().loadLoggedinSiteRole().getId(), permission));
+            }
+        }
+
+        final BoolQueryBuilder filter = QueryBuilders.boolQuery().minimumShouldMatch(1);
+        if (user != null) {
+            filter.should(QueryBuilders.boolQuery()
+                    .filter(QueryBuilders.termQuery(ESMappingConstants.OWNER, user.getUserId().toLowerCase()))
+                    .filter(QueryBuilders.termQuery(ownerCanField.toLowerCase(), true)));
+        }
+        if (!permissionTerms.isEmpty()) {
+            filter.should(QueryBuilders.termsQuery(ESMappingConstants.PERMISSIONS, permissionTerms));
+        }
+        return filter;
+    }
+
+    /**
+     * The permissions are indexed lower cased as P{roleId}.{permission}P
+     */
+    private String permissionTerm(final String roleId, final int permission) {
+        return ("p" + roleId + "." + permission + "p").toLowerCase();
+    }
+
+    /**
+     * Restricts the query to the content the user has the required permission over: as a filter when
+     * ELASTICSEARCH_USE_PERMISSION_FILTER is on (default), appended to the lucene query otherwise
+     *
+     * @param buffy the lucene query
+     * @param user
+     * @param respectFrontendRoles
+     * @param requiredPermission
+     * @return the permission filter, null when there is none
+     * @throws DotSecurityException
+     * @throws DotDataException
+     */
+    private QueryBuilder addPermissions(final StringBuffer buffy, final User user, final boolean respectFrontendRoles,
+            final int requiredPermission) throws DotSecurityException, DotDataException {
+
         if(user == null && !respectFrontendRoles){
             throw new DotSecurityException("You must specify a user if you are not respecting frontend roles");
         }
-        if(user != null){
-            if (!APILocator.getRoleAPI().doesUserHaveRole(user, APILocator.getRoleAPI().loadCMSAdminRole())) {
-                roles = APILocator.getRoleAPI().loadRolesForUser(user.getUserId());
-            }else{
-                isAdmin = true;
-            }
+        if(user != null && APILocator.getRoleAPI().doesUserHaveRole(user, APILocator.getRoleAPI().loadCMSAdminRole())){
+            return null;
         }
-        StringBuffer buffy = new StringBuffer(luceneQuery);
+        final List<Role> roles = user != null ? APILocator.getRoleAPI().loadRolesForUser(user.getUserId())
+                : new ArrayList<Role>();
 
-        // Permissions in the query
-        if (!isAdmin)
+        if (!Config.getBooleanProperty("ELASTICSEARCH_USE_PERMISSION_FILTER", true)) {
             addPermissionsToQuery(buffy, user, roles, respectFrontendRoles);
-
-        if(UtilMethods.isSet(sortBy) && sortBy.trim().equalsIgnoreCase("random")){
-            sortBy="random";
+            return null;
         }
-        if(limit>MAX_LIMIT || limit <=0){
-            limit = MAX_LIMIT;
+
+        // anonymous only sees live content, which also picks the live index
+        if(user==null || "anonymous".equals(user.getUserId())) {
+            buffy.append(" +live:true ");
         }
-        SearchHits lc = contentFactory.indexSearch(buffy.toString(), limit, offset, sortBy);
-        PaginatedArrayList <ContentletSearch> list=new PaginatedArrayList<>();
-        list.setTotalResults(lc.getTotalHits());
+        return buildPermissionFilter(user, roles, respectFrontendRoles, requiredPermission);
+    }
 
-        for (SearchHit sh : lc.getHits()) {
-            try{
-                Map<String, Object> sourceMap = sh.getSourceAsMap();
-                ContentletSearch conwrapper= new ContentletSearch();
+    @Override
+    public List <ContentletSearch> searchIndex(String luceneQuery, int limit, int offset, String sortBy, User user, boolean respectFrontendRoles)throws DotSecurityException, DotDataException {
+        return searchIndex(luceneQuery, limit, offset, sortBy, user, respectFrontendRoles, PermissionAPI.PERMISSION_READ);
+    }
 
-                conwrapper.setIdentifier(sourceMap.get("identifier").toString());
-                conwrapper.setInode(sourceMap.get("inode").toString());
-                conwrapper.setScore(sh.getScore());
+    private List <ContentletSearch> searchIndex(String luceneQuery, int limit, int offset, String sortBy, User user, boolean respectFrontendRoles, int requiredPermission)throws DotSecurityException, DotDataException {
+        StringBuffer buffy = new StringBuffer(luceneQuery);
 
-                list.add(conwrapper);
-            }
-            catch(Exception e){
-                Logger.error(this,e.getMessage(),e);
-            }
+        // Permissions in the query
+        final QueryBuilder permissionFilter = addPermissions(buffy, user, respectFrontendRoles, requiredPermission);
 
-        }
-        return list;
+        return contentFactory.indexSearchResults(buffy.toString(), permissionFilter, normalizeLimit(limit), offset,
+                normalizeSortBy(sortBy));
+    }
+
+    /**
+     * Runs the lucene query restricted to the required permission of the user
+     */
+    private SearchHits indexSearch(String luceneQuery, int limit, int offset, String sortBy, User user, boolean respectFrontendRoles,
+            int requiredPermission, boolean fetchContentletSource) throws DotSecurityException, DotDataException {
+        StringBuffer buffy = new StringBuffer(luceneQuery);
+
+        // Permissions in the query
+        final QueryBuilder permissionFilter = addPermissions(buffy, user, respectFrontendRoles, requiredPermission);
+
+        return contentFactory.indexSearch(buffy.toString(), permissionFilter, normalizeLimit(limit), offset,
+                normalizeSortBy(sortBy), fetchContentletSource);
+    }
+
+    private String normalizeSortBy(final String sortBy) {
+        return UtilMethods.isSet(sortBy) && sortBy.trim().equalsIgnoreCase("random") ? "random" : sortBy;
+    }
+
+    private int normalizeLimit(final int limit) {
+        return limit>MAX_LIMIT || limit <=0 ? MAX_LIMIT : limit;
     }
 
     @CloseDBIfOpened
@@ -2285,6 +2387,12 @@ public class ESContentletAPIImpl implements ContentletAPI {
             //Make sure all the flags are on and the thread is ready
             ReindexThread.startThread(Config.getIntProperty("REINDEX_THREAD_SLEEP", 500), Config.getIntProperty("REINDEX_THREAD_INIT_DELAY", 5000));
 
+            // the parallel workers need the new records committed before they can claim them
+            if(ParallelFullReindex.isEnabled()) {
+                HibernateUtil.addCommitListener(ParallelFullReindex.class.getName(),
+                        () -> ParallelFullReindex.getInstance().start());
+            }
+
             HibernateUtil.closeAndCommitTransaction();
 
         } catch (Exception e) {
@@ -5992,25 +6100,12 @@ public class ESContentletAPIImpl implements ContentletAPI {
 
     @Override
     public long indexCount(String luceneQuery, User user, boolean respectFrontendRoles) throws DotDataException, DotSecurityException {
-        boolean isAdmin = false;
-        List<Role> roles = new ArrayList<Role>();
-        if(user == null && !respectFrontendRoles){
-            throw new DotSecurityException("You must specify a user if you are not respecting frontend roles");
-        }
-        if(user != null){
-            if (!APILocator.getRoleAPI().doesUserHaveRole(user, APILocator.getRoleAPI().loadCMSAdminRole())) {
-                roles = APILocator.getRoleAPI().loadRolesForUser(user.getUserId());
-            }else{
-                isAdmin = true;
-            }
-        }
         StringBuffer buffy = new StringBuffer(luceneQuery);
 
         // Permissions in the query
-        if (!isAdmin)
-            addPermissionsToQuery(buffy, user, roles, respectFrontendRoles);
+        final QueryBuilder permissionFilter = addPermissions(buffy, user, respectFrontendRoles, PermissionAPI.PERMISSION_READ);
 
-        return contentFactory.indexCount(buffy.toString());
+        return contentFactory.indexCount(buffy.toString(), permissionFilter);
     }
 
     @CloseDBIfOpened
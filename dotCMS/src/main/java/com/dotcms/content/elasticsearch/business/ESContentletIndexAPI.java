@@ -466,6 +466,18 @@ public class ESContentletIndexAPI implements ContentletIndexAPI{
 		}
 	}
 
+	@Override
+	public void appendToBulkRequest(final List<Contentlet> contentToIndex,
+									final BulkRequestBuilder bulk,
+									final boolean reindexOnly) throws DotDataException {
+		try {
+
+			indexContentletList(bulk, contentToIndex, reindexOnly);
+		} catch (DotStateException | DotSecurityException | DotMappingException e) {
+			throw new DotDataException(e.getMessage(), e);
+		}
+	}
+
 	private void runIndexBulk(final List<Contentlet> contentToIndex,
 							  final BulkRequestBuilder bulk,
 							  final boolean reindexOnly) throws DotDataException {
@@ -474,6 +486,10 @@ public class ESContentletIndexAPI implements ContentletIndexAPI{
 			indexContentletList(bulk, contentToIndex, reindexOnly);
 			if (bulk.numberOfActions() > 0) {
 				bulk.execute().actionGet();
+				// a reindex only writes to the new indices, no search reads from them yet
+				if (!reindexOnly) {
+					CacheLocator.getContentletCache().invalidateQueryResults(contentToIndex);
+				}
 			}
 		} catch (DotStateException | DotSecurityException | DotMappingException e) {
 			throw new DotDataException(e.getMessage(), e);
@@ -544,7 +560,20 @@ public class ESContentletIndexAPI implements ContentletIndexAPI{
 		try {
 			indexContentletList(req, contentToIndex, reindexOnly);
 			if(bulk==null && req.numberOfActions()>0) {
-				req.execute(listener);
+				req.execute(reindexOnly ? listener : new ActionListener<BulkResponse>() {
+					@Override
+					public void onResponse(final BulkResponse response) {
+						CacheLocator.getContentletCache().invalidateQueryResults(contentToIndex);
+						listener.onResponse(response);
+					}
+
+					@Override
+					public void onFailure(final Exception e) {
+						// some of the items could have been indexed anyway
+						CacheLocator.getContentletCache().invalidateQueryResults(contentToIndex);
+						listener.onFailure(e);
+					}
+				});
 			}
 		} catch (DotStateException | DotSecurityException | DotMappingException e) {
 			throw new DotDataException (e.getMessage(), e);
@@ -571,49 +600,45 @@ public class ESContentletIndexAPI implements ContentletIndexAPI{
 		boolean alwaysRegenerateMetadata = Config
 				.getBooleanProperty("always.regenerate.metadata.on.reindex", false);
 
+		final List<Contentlet> contentToMap = new ArrayList<>();
 		for(Contentlet con : contentToIndexSet) {
-            String id=con.getIdentifier()+"_"+con.getLanguageId();
-            IndiciesInfo info=APILocator.getIndiciesAPI().loadIndicies();
-            Gson gson=new Gson(); // todo why do we create a new Gson everytime
-            String mapping=null;
-            try {
-
-				if (con.isLive() || con.isWorking()) {
-					if (alwaysRegenerateMetadata) {
-						new TikaUtils().generateMetaData(con, true);
-					} else if (regenerateMissingMetadata) {
-						new TikaUtils().generateMetaData(con);
-					}
+			if (con.isLive() || con.isWorking()) {
+				if (alwaysRegenerateMetadata) {
+					new TikaUtils().generateMetaData(con, true);
+				} else if (regenerateMissingMetadata) {
+					new TikaUtils().generateMetaData(con);
 				}
+				contentToMap.add(con);
+			}
+		}
 
-				if (con.isWorking()) {
-                    mapping=gson.toJson(mappingAPI.toMap(con));
-                    
-                    if(!reindexOnly)
-                        req.add(new IndexRequest(info.working, "content", id)
-                                    .source(mapping, XContentType.JSON));
-                    if(info.reindex_working!=null)
-                        req.add(new IndexRequest(info.reindex_working, "content", id)
-                                    .source(mapping, XContentType.JSON));
-                }
-    
-                if(con.isLive()) {
-                    if(mapping==null)
-                        mapping=gson.toJson(mappingAPI.toMap(con));
-                    
-                    if(!reindexOnly)
-                        req.add(new IndexRequest(info.live, "content", id)
-                                .source(mapping, XContentType.JSON));
-                    if(info.reindex_live!=null)
-                        req.add(new IndexRequest(info.reindex_live, "content", id)
-                                .source(mapping, XContentType.JSON));
-                }
-            }
-            catch(DotMappingException ex) {
-				Logger.error(this, "Can't get a mapping for contentlet with id_lang:" + id + " Content data: " + con.getMap(), ex);
-				throw ex;
-            }
-        }
+		// maps the whole list at once so the data it needs is loaded with a few queries
+		final Map<String, Map<String, Object>> contentMaps = mappingAPI.toMaps(contentToMap);
+
+		final IndiciesInfo info=APILocator.getIndiciesAPI().loadIndicies();
+		final Gson gson=new Gson();
+		for(Contentlet con : contentToMap) {
+			final String id=con.getIdentifier()+"_"+con.getLanguageId();
+			final String mapping=gson.toJson(contentMaps.get(con.getInode()));
+
+			if (con.isWorking()) {
+				if(!reindexOnly)
+					req.add(new IndexRequest(info.working, "content", id)
+							.source(mapping, XContentType.JSON));
+				if(info.reindex_working!=null)
+					req.add(new IndexRequest(info.reindex_working, "content", id)
+							.source(mapping, XContentType.JSON));
+			}
+
+			if(con.isLive()) {
+				if(!reindexOnly)
+					req.add(new IndexRequest(info.live, "content", id)
+							.source(mapping, XContentType.JSON));
+				if(info.reindex_live!=null)
+					req.add(new IndexRequest(info.reindex_live, "content", id)
+							.source(mapping, XContentType.JSON));
+			}
+		}
 		
 	}
 
@@ -744,14 +769,16 @@ public class ESContentletIndexAPI implements ContentletIndexAPI{
 			bulk.add(client.prepareDelete(info.reindex_live, "content", id));
 		}
 
+		final List<Contentlet> changed = new ArrayList<>();
+		changed.add(contentlet);
 		if(!onlyLive) {
 
 			// here we search for relationship fields pointing to this
 			// content to be deleted. Those contentlets are reindexed
 			// to avoid left those fields making noise in the index
 			if (UtilMethods.isSet(relationships)) {
-				reindexDependenciesForDeletedContent(contentlet, relationships,
-						bulk, indexPolicyDependencies);
+				changed.addAll(reindexDependenciesForDeletedContent(contentlet, relationships,
+						bulk, indexPolicyDependencies));
 			}
 
 			bulk.add(client.prepareDelete(info.working, "content", id));
@@ -761,11 +788,17 @@ public class ESContentletIndexAPI implements ContentletIndexAPI{
 		}
 
 		bulk.execute().actionGet();
+		CacheLocator.getContentletCache().invalidateQueryResults(changed);
 	}
 
-	private void reindexDependenciesForDeletedContent(final Contentlet contentlet, final List<Relationship> relationships,
+	/**
+	 * Adds the contentlets related to the deleted one to the bulk
+	 * @return the related contentlets
+	 */
+	private List<Contentlet> reindexDependenciesForDeletedContent(final Contentlet contentlet, final List<Relationship> relationships,
 													  final BulkRequestBuilder bulk, final IndexPolicy indexPolicy) throws DotDataException, DotSecurityException, DotMappingException {
 
+		final List<Contentlet> allRelated = new ArrayList<>();
 		for (final Relationship relationship : relationships) {
 
 			final boolean isSameStructRelationship = relationship.getParentStructureInode().equalsIgnoreCase(relationship.getChildStructureInode());
@@ -790,7 +823,9 @@ public class ESContentletIndexAPI implements ContentletIndexAPI{
 					indexContentletList(bulk, related, false);
 					break;
 			}
+			allRelated.addAll(related);
 		}
+		return allRelated;
 	}
 
 	@CloseDBIfOpened
@@ -832,6 +867,8 @@ public class ESContentletIndexAPI implements ContentletIndexAPI{
                 .get();
 
         Logger.debug(this, "Records deleted: " + response.getDeleted());
+        // the queries of the content type can be restricted to any site
+        CacheLocator.getContentletCache().clearQueryResults();
     }
 
     public void fullReindexAbort() {
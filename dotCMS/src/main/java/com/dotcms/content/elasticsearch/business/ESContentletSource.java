@@ -0,0 +1,223 @@
+package com.dotcms.content.elasticsearch.business;
+
+import com.dotcms.content.elasticsearch.constants.ESMappingConstants;
+import com.dotmarketing.beans.Identifier;
+import com.dotmarketing.business.APILocator;
+import com.dotmarketing.business.CacheLocator;
+import com.dotmarketing.cache.FieldsCache;
+import com.dotmarketing.portlets.contentlet.model.Contentlet;
+import com.dotmarketing.portlets.structure.business.FieldAPI;
+import com.dotmarketing.portlets.structure.model.Field;
+import com.dotmarketing.portlets.structure.model.Structure;
+import com.dotmarketing.util.UtilMethods;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Case preserved copy of the values of a contentlet that is stored, not indexed, in the content
+ * index under {@link ESMappingConstants#CONTENTLET_SOURCE}, so a search can build its
+ * {@link Contentlet}s from the hits instead of loading them from the database.
+ * <p/>
+ * It has the same values {@link ESContentFactoryImpl#convertFatContentletToContentlet} reads from
+ * the contentlet table and the identifier. Dates are kept as millis and the values of the fields
+ * are typed back by the column of the field. Binary fields are not stored, the contentlet finds
+ * them on disk when they are asked for, and constant fields are taken from the content type.
+ * <p/>
+ * A source written before the content type last changed is not used, as it can be missing fields.
+ */
+final class ESContentletSource {
+
+    private static final String INODE = "inode";
+    private static final String IDENTIFIER = "identifier";
+    private static final String STRUCTURE_INODE = "structureInode";
+    private static final String STRUCTURE_MOD_DATE = "structureModDate";
+    private static final String LANGUAGE_ID = "languageId";
+    private static final String SORT_ORDER = "sortOrder";
+    private static final String OWNER = "owner";
+    private static final String MOD_USER = "modUser";
+    private static final String MOD_DATE = "modDate";
+    private static final String NEXT_REVIEW = "nextReview";
+    private static final String LAST_REVIEW = "lastReview";
+    private static final String REVIEW_INTERVAL = "reviewInterval";
+    private static final String HOST = "host";
+    private static final String FOLDER = "folder";
+    private static final String SYS_PUBLISH_DATE = "sysPublishDate";
+    private static final String SYS_EXPIRE_DATE = "sysExpireDate";
+    private static final String DISABLED_WYSIWYG = "disabledWysiwyg";
+    private static final String FIELDS = "fields";
+
+    private ESContentletSource() {
+    }
+
+    /**
+     * Builds the source of the contentlet
+     *
+     * @param contentlet
+     * @param identifier identifier of the contentlet
+     * @param structure content type of the contentlet
+     * @param folderInode folder the contentlet lives in
+     * @return the source, made of strings, numbers, booleans and lists only
+     */
+    static Map<String, Object> toSource(final Contentlet contentlet, final Identifier identifier,
+            final Structure structure, final String folderInode) {
+
+        final Map<String, Object> source = new HashMap<>();
+        source.put(INODE, contentlet.getInode());
+        source.put(IDENTIFIER, identifier.getId());
+        source.put(STRUCTURE_INODE, contentlet.getStructureInode());
+        source.put(STRUCTURE_MOD_DATE, toMillis(structure.getModDate()));
+        source.put(LANGUAGE_ID, contentlet.getLanguageId());
+        source.put(SORT_ORDER, contentlet.getMap().get(Contentlet.SORT_ORDER_KEY));
+        source.put(OWNER, contentlet.getOwner());
+        source.put(MOD_USER, contentlet.getModUser());
+        source.put(MOD_DATE, toMillis(contentlet.getModDate()));
+        source.put(NEXT_REVIEW, toMillis(contentlet.getNextReview()));
+        source.put(LAST_REVIEW, toMillis(contentlet.getLastReview()));
+        source.put(REVIEW_INTERVAL, contentlet.getReviewInterval());
+        source.put(HOST, identifier.getHostId());
+        source.put(FOLDER, folderInode);
+        source.put(SYS_PUBLISH_DATE, toMillis(identifier.getSysPublishDate()));
+        source.put(SYS_EXPIRE_DATE, toMillis(identifier.getSysExpireDate()));
+        source.put(DISABLED_WYSIWYG, contentlet.getDisabledWysiwyg());
+
+        final Map<String, Object> fields = new HashMap<>();
+        for (final Field field : getStoredFields(contentlet.getStructureInode())) {
+            final Object value = contentlet.get(field.getVelocityVarName());
+            fields.put(field.getVelocityVarName(), value instanceof Date ? toMillis((Date) value) : value);
+        }
+        source.put(FIELDS, fields);
+        return source;
+    }
+
+    /**
+     * Builds the contentlet of a source read from the index
+     *
+     * @param source
+     * @return the contentlet, null if the source is missing or older than its content type
+     * @throws Exception if the source can not be copied into the contentlet
+     */
+    @SuppressWarnings("unchecked")
+    static Contentlet toContentlet(final Map<String, Object> source) throws Exception {
+
+        if (null == source || !(source.get(FIELDS) instanceof Map)) {
+            return null;
+        }
+
+        final String structureInode = (String) source.get(STRUCTURE_INODE);
+        final Structure structure = UtilMethods.isSet(structureInode)
+                ? CacheLocator.getContentTypeCache().getStructureByInode(structureInode)
+                : null;
+        if (null == structure || !UtilMethods.isSet(structure.getInode()) || null == structure.getModDate()
+                || !Long.valueOf(structure.getModDate().getTime()).equals(toLong(source.get(STRUCTURE_MOD_DATE)))) {
+            return null;
+        }
+
+        final Map<String, Object> sourceFields = (Map<String, Object>) source.get(FIELDS);
+        final FieldAPI fieldAPI = APILocator.getFieldAPI();
+        final Map<String, Object> properties = new HashMap<>();
+        for (final Field field : getStoredFields(structureInode)) {
+            properties.put(field.getVelocityVarName(), fieldAPI.isElementConstant(field)
+                    ? field.getValues()
+                    : toFieldValue(field, sourceFields.get(field.getVelocityVarName())));
+        }
+
+        final Contentlet contentlet = new Contentlet();
+        contentlet.setStructureInode(structureInode);
+        APILocator.getContentletAPI().copyProperties(contentlet, properties);
+
+        contentlet.setInode((String) source.get(INODE));
+        contentlet.setStructureInode(structureInode);
+        contentlet.setIdentifier((String) source.get(IDENTIFIER));
+        final Long sortOrder = toLong(source.get(SORT_ORDER));
+        contentlet.setSortOrder(null == sortOrder ? 0 : sortOrder);
+        contentlet.setLanguageId(toLong(source.get(LANGUAGE_ID)));
+        contentlet.setNextReview(toDate(source.get(NEXT_REVIEW)));
+        contentlet.setLastReview(toDate(source.get(LAST_REVIEW)));
+        contentlet.setOwner((String) source.get(OWNER));
+        contentlet.setModUser((String) source.get(MOD_USER));
+        contentlet.setModDate(toDate(source.get(MOD_DATE)));
+        contentlet.setReviewInterval((String) source.get(REVIEW_INTERVAL));
+        contentlet.setHost((String) source.get(HOST));
+        contentlet.setFolder((String) source.get(FOLDER));
+
+        if (UtilMethods.isSet(structure.getPublishDateVar())) {
+            contentlet.setDateProperty(structure.getPublishDateVar(), toDate(source.get(SYS_PUBLISH_DATE)));
+        }
+        if (UtilMethods.isSet(structure.getExpireDateVar())) {
+            contentlet.setDateProperty(structure.getExpireDateVar(), toDate(source.get(SYS_EXPIRE_DATE)));
+        }
+
+        final Object disabledWysiwyg = source.get(DISABLED_WYSIWYG);
+        if (disabledWysiwyg instanceof List && !((List<?>) disabledWysiwyg).isEmpty()) {
+            contentlet.setDisabledWysiwyg(new ArrayList<>((List<String>) disabledWysiwyg));
+        }
+        return contentlet;
+    }
+
+    /**
+     * The fields {@link com.dotmarketing.portlets.contentlet.business.Contentlet#getMap()} loads
+     * from the contentlet table, but the binaries
+     */
+    private static List<Field> getStoredFields(final String structureInode) {
+
+        final FieldAPI fieldAPI = APILocator.getFieldAPI();
+        final List<Field> storedFields = new ArrayList<>();
+        for (final Field field : FieldsCache.getFieldsByStructureInode(structureInode)) {
+            if (!fieldAPI.valueSettable(field)
+                    || Field.FieldType.HOST_OR_FOLDER.toString().equals(field.getFieldType())
+                    || Field.FieldType.TAG.toString().equals(field.getFieldType())
+                    || Field.FieldType.BINARY.toString().equals(field.getFieldType())
+                    || (field.getFieldContentlet() != null && field.getFieldContentlet()
+                            .startsWith(ESMappingConstants.FIELD_TYPE_SYSTEM_FIELD))) {
+                continue;
+            }
+            storedFields.add(field);
+        }
+        return storedFields;
+    }
+
+    /**
+     * Types the value back as the column of the field: integers are longs and floats are floats,
+     * as in the contentlet table
+     */
+    private static Object toFieldValue(final Field field, final Object value) {
+
+        final String column = field.getFieldContentlet();
+        if (null == value || null == column) {
+            return value;
+        }
+        if (column.startsWith(ESMappingConstants.FIELD_ELASTIC_TYPE_DATE)) {
+            return toDate(value);
+        }
+        if (column.startsWith(ESMappingConstants.FIELD_ELASTIC_TYPE_INTEGER)) {
+            return toLong(value);
+        }
+        if (column.startsWith(ESMappingConstants.FIELD_ELASTIC_TYPE_FLOAT)) {
+            return value instanceof Number ? ((Number) value).floatValue() : Float.valueOf(value.toString());
+        }
+        if (column.startsWith(ESMappingConstants.FIELD_ELASTIC_TYPE_BOOLEAN)) {
+            return value instanceof Boolean ? value : Boolean.valueOf(value.toString());
+        }
+        return value.toString();
+    }
+
+    private static Long toMillis(final Date date) {
+        return null == date ? null : date.getTime();
+    }
+
+    private static Long toLong(final Object value) {
+        if (null == value) {
+            return null;
+        }
+        return value instanceof Number ? ((Number) value).longValue() : Long.valueOf(value.toString());
+    }
+
+    private static Date toDate(final Object value) {
+        final Long millis = toLong(value);
+        return null == millis ? null : new Date(millis);
+    }
+
+}
@@ -10,6 +10,7 @@ import com.dotcms.repackage.com.fasterxml.jackson.databind.ObjectMapper;
 import com.dotcms.repackage.com.google.common.annotations.VisibleForTesting;
 import com.dotcms.repackage.org.dts.spell.utils.FileUtils;
 import com.dotmarketing.business.APILocator;
+import com.dotmarketing.business.CacheLocator;
 import com.dotmarketing.business.DotStateException;
 import com.dotmarketing.exception.DotDataException;
 import com.dotmarketing.exception.DotDataValidationException;
@@ -428,6 +429,9 @@ public class ESIndexAPI {
             list.add(index);
             iapi.optimize(list);
 
+            // the cached search results can be from the content before the restore
+            CacheLocator.getContentletCache().clearQueryResults();
+
             AdminLogger.log(this.getClass(), "restoreIndex", "Index restored: " + index);
 		}
 	}
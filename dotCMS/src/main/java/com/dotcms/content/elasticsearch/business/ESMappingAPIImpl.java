@@ -23,7 +23,6 @@ import com.dotmarketing.exception.DotSecurityException;
 import com.dotmarketing.portlets.categories.model.Category;
 import com.dotmarketing.portlets.contentlet.business.ContentletAPI;
 import com.dotmarketing.portlets.contentlet.model.Contentlet;
-import com.dotmarketing.portlets.contentlet.model.ContentletVersionInfo;
 import com.dotmarketing.portlets.fileassets.business.FileAssetAPI;
 import com.dotmarketing.portlets.folders.model.Folder;
 import com.dotmarketing.portlets.structure.business.FieldAPI;
@@ -156,18 +155,69 @@ public class ESMappingAPIImpl implements ContentMappingAPI {
 	 */
 	@CloseDBIfOpened
 	public Map<String,Object> toMap(final Contentlet contentlet) throws DotMappingException {
+		return toMap(contentlet, null);
+	}
+
+	/**
+	 * Same as {@link #toMap(Contentlet)} for a batch of contentlets. The identifiers, version info,
+	 * permissions, categories, relationships and workflow tasks of the whole batch are loaded up front
+	 * with a few set based queries (see {@link ESMappingPrefetch}), instead of several queries per
+	 * contentlet. Batches smaller than <strong>es.mapping.prefetch.min.batch.size</strong> are mapped
+	 * one by one, as most of that data is usually cached already.
+	 *
+	 * @param contentlets
+	 * @return the lowered maps keyed by contentlet inode
+	 * @throws DotMappingException
+	 */
+	@CloseDBIfOpened
+	public Map<String, Map<String,Object>> toMaps(final List<Contentlet> contentlets) throws DotMappingException {
+
+		ESMappingPrefetch prefetch = null;
+		if (contentlets.size() >= Config.getIntProperty("es.mapping.prefetch.min.batch.size", 10)) {
+			try {
+				prefetch = ESMappingPrefetch.load(contentlets);
+			} catch (Exception e) {
+				Logger.warn(this.getClass(), "Unable to prefetch the data to map " + contentlets.size()
+						+ " contentlets, mapping them one by one: " + e.getMessage(), e);
+			}
+		}
+
+		final Map<String, Map<String,Object>> maps = new HashMap<>();
+		for (final Contentlet contentlet : contentlets) {
+			try {
+				maps.put(contentlet.getInode(), toMap(contentlet, prefetch));
+			} catch (DotMappingException e) {
+				Logger.error(this, "Can't get a mapping for contentlet with id_lang:" + contentlet.getIdentifier() + "_"
+						+ contentlet.getLanguageId() + " Content data: " + contentlet.getMap(), e);
+				throw e;
+			}
+		}
+		return maps;
+	}
+
+	private Map<String,Object> toMap(final Contentlet contentlet, final ESMappingPrefetch prefetch) throws DotMappingException {
 
 		try {
 
 			final Map<String,Object> contentletMap = new HashMap();
 			final Map<String,Object> mlowered	   = new HashMap();
-			loadCategories(contentlet, contentletMap);
+			loadCategories(contentlet, contentletMap, prefetch);
 			loadFields(contentlet, contentletMap);
 			loadPermissions(contentlet, contentletMap);
-			loadRelationshipFields(contentlet, contentletMap);
+			if (prefetch != null) {
+				loadRelationshipFields(contentlet, contentletMap, prefetch.getTreeRows(contentlet.getIdentifier()));
+			} else {
+				loadRelationshipFields(contentlet, contentletMap);
+			}
 
-			Identifier ident = APILocator.getIdentifierAPI().find(contentlet);
-			ContentletVersionInfo cvi = APILocator.getVersionableAPI().getContentletVersionInfo(ident.getId(), contentlet.getLanguageId());
+			Identifier ident = prefetch != null ? prefetch.getIdentifier(contentlet.getIdentifier()) : null;
+			if (ident == null) {
+				ident = APILocator.getIdentifierAPI().find(contentlet);
+			}
+			Date versionTs = prefetch != null ? prefetch.getVersionTs(ident.getId(), contentlet.getLanguageId()) : null;
+			if (versionTs == null) {
+				versionTs = APILocator.getVersionableAPI().getContentletVersionInfo(ident.getId(), contentlet.getLanguageId()).getVersionTs();
+			}
 			Structure st=CacheLocator.getContentTypeCache().getStructureByInode(contentlet.getStructureInode());
 
 			Folder conFolder=APILocator.getFolderAPI().findFolderByPath(ident.getParentPath(), ident.getHostId(), APILocator.getUserAPI().getSystemUser(), false);
@@ -197,7 +247,8 @@ public class ESMappingAPIImpl implements ContentMappingAPI {
 			contentletMap.put(ESMappingConstants.LANGUAGE_ID + TEXT, Long.toString(contentlet.getLanguageId()));
 			contentletMap.put(ESMappingConstants.IDENTIFIER, ident.getId());
 			contentletMap.put(ESMappingConstants.CONTENTLET_HOST, ident.getHostId());
-			contentletMap.put(ESMappingConstants.CONTENTLET_FOLER, conFolder!=null && InodeUtils.isSet(conFolder.getInode()) ? conFolder.getInode() : contentlet.getFolder());
+			final String folderInode = conFolder!=null && InodeUtils.isSet(conFolder.getInode()) ? conFolder.getInode() : contentlet.getFolder();
+			contentletMap.put(ESMappingConstants.CONTENTLET_FOLER, folderInode);
 			contentletMap.put(ESMappingConstants.PARENT_PATH, ident.getParentPath());
 			contentletMap.put(ESMappingConstants.PATH, ident.getPath());
 			// makes shorties searchable regardless of length
@@ -205,16 +256,16 @@ public class ESMappingAPIImpl implements ContentMappingAPI {
 			contentletMap.put(ESMappingConstants.SHORT_INODE, contentlet.getInode().replace("-", ""));
 			
 			//add workflow to map
-			contentletMap.putAll(getWorkflowInfoForContentlet(contentlet));
+			contentletMap.putAll(getWorkflowInfoForContentlet(contentlet, prefetch));
 
 			if(UtilMethods.isSet(ident.getSysPublishDate())) {
 				contentletMap.put(ESMappingConstants.PUBLISH_DATE, elasticSearchDateTimeFormat.format(ident.getSysPublishDate()));
 				contentletMap.put(ESMappingConstants.PUBLISH_DATE + TEXT,
 						datetimeFormat.format(ident.getSysPublishDate()));
 			}else {
-				contentletMap.put(ESMappingConstants.PUBLISH_DATE, elasticSearchDateTimeFormat.format(cvi.getVersionTs()));
+				contentletMap.put(ESMappingConstants.PUBLISH_DATE, elasticSearchDateTimeFormat.format(versionTs));
 				contentletMap.put(ESMappingConstants.PUBLISH_DATE + TEXT,
-						datetimeFormat.format(cvi.getVersionTs()));
+						datetimeFormat.format(versionTs));
 			}
 
 			if(UtilMethods.isSet(ident.getSysExpireDate())) {
@@ -226,8 +277,8 @@ public class ESMappingAPIImpl implements ContentMappingAPI {
 				contentletMap.put(ESMappingConstants.EXPIRE_DATE + TEXT, "29990101000000");
 			}
 
-			contentletMap.put(ESMappingConstants.VERSION_TS, elasticSearchDateTimeFormat.format(cvi.getVersionTs()));
-			contentletMap.put(ESMappingConstants.VERSION_TS + TEXT, datetimeFormat.format(cvi.getVersionTs()));
+			contentletMap.put(ESMappingConstants.VERSION_TS, elasticSearchDateTimeFormat.format(versionTs));
+			contentletMap.put(ESMappingConstants.VERSION_TS + TEXT, datetimeFormat.format(versionTs));
 
 			String urlMap = null;
 			try{
@@ -290,6 +341,12 @@ public class ESMappingAPIImpl implements ContentMappingAPI {
 
 			mlowered.put("catchall", sw.toString());
 
+			// case preserved values to build the contentlet from the search hits, see ESContentletSource
+			if (Config.getBooleanProperty("ELASTICSEARCH_HYDRATE_FROM_SOURCE", false)) {
+				mlowered.put(ESMappingConstants.CONTENTLET_SOURCE,
+						ESContentletSource.toSource(contentlet, ident, st, folderInode));
+			}
+
 			return mlowered;
 		} catch (Exception e) {
 			throw new DotMappingException(e.getMessage(), e);
@@ -303,13 +360,18 @@ public class ESMappingAPIImpl implements ContentMappingAPI {
      * @return {@link Map}
      */
     protected Map<String, Object> getWorkflowInfoForContentlet(final Contentlet contentlet) {
-        
+        return getWorkflowInfoForContentlet(contentlet, null);
+    }
+
+    private Map<String, Object> getWorkflowInfoForContentlet(final Contentlet contentlet, final ESMappingPrefetch prefetch) {
+
         final Map<String, Object> workflowMap = new HashMap<>();
         final WorkflowAPI workflowAPI 		  = APILocator.getWorkflowAPI();
 
         try {
 
-            final WorkflowTask task 		  = workflowAPI.findTaskByContentlet(contentlet);
+            final WorkflowTask task 		  = prefetch != null ? prefetch.getWorkflowTask(contentlet)
+                    : workflowAPI.findTaskByContentlet(contentlet);
 
             if(task != null && task.getId() != null && null != task.getStatus()) {
 
@@ -329,25 +391,40 @@ public class ESMappingAPIImpl implements ContentMappingAPI {
 
         if(workflowMap.isEmpty()) {
 
-            try {
-
-                final List<String> stepIds = new ArrayList<>();
-                final Set<String> schemeWriter = new HashSet<>();
-                final List<WorkflowScheme> schemes = workflowAPI.findSchemesForContentType(contentlet.getContentType());
-                for (final WorkflowScheme scheme : schemes) {
-                    final List<WorkflowStep> steps = workflowAPI.findSteps(scheme);
-                    if (steps != null && !steps.isEmpty()) {
-                        schemeWriter.add(scheme.getId());
-                        stepIds.add(steps.get(0).getId());
-                    }
+            workflowMap.putAll(prefetch != null
+                    ? prefetch.getDefaultWorkflowInfo(contentlet.getContentTypeId(), () -> getDefaultWorkflowInfo(contentlet))
+                    : getDefaultWorkflowInfo(contentlet));
+        }
+
+        return workflowMap;
+    }
+
+    /**
+     * Workflow info of a contentlet with no task: the first step of every scheme of its content type
+     */
+    private Map<String, Object> getDefaultWorkflowInfo(final Contentlet contentlet) {
+
+        final Map<String, Object> workflowMap = new HashMap<>();
+        final WorkflowAPI workflowAPI 		  = APILocator.getWorkflowAPI();
+
+        try {
+
+            final List<String> stepIds = new ArrayList<>();
+            final Set<String> schemeWriter = new HashSet<>();
+            final List<WorkflowScheme> schemes = workflowAPI.findSchemesForContentType(contentlet.getContentType());
+            for (final WorkflowScheme scheme : schemes) {
+                final List<WorkflowStep> steps = workflowAPI.findSteps(scheme);
+                if (steps != null && !steps.isEmpty()) {
+                    schemeWriter.add(scheme.getId());
+                    stepIds.add(steps.get(0).getId());
                 }
-    
-                workflowMap.put(ESMappingConstants.WORKFLOW_SCHEME, String.join(" ", schemeWriter));
-                workflowMap.put(ESMappingConstants.WORKFLOW_STEP, stepIds);
-				workflowMap.put(ESMappingConstants.WORKFLOW_CURRENT_STEP, ESMappingConstants.WORKFLOW_CURRENT_STEP_NOT_ASSIGNED_VALUE); // multiple steps -> not assigned.
-            } catch (Exception e) {
-                Logger.error(this.getClass(), "unable to add workflow info to index:" + e, e);
             }
+
+            workflowMap.put(ESMappingConstants.WORKFLOW_SCHEME, String.join(" ", schemeWriter));
+            workflowMap.put(ESMappingConstants.WORKFLOW_STEP, stepIds);
+            workflowMap.put(ESMappingConstants.WORKFLOW_CURRENT_STEP, ESMappingConstants.WORKFLOW_CURRENT_STEP_NOT_ASSIGNED_VALUE); // multiple steps -> not assigned.
+        } catch (Exception e) {
+            Logger.error(this.getClass(), "unable to add workflow info to index:" + e, e);
         }
 
         return workflowMap;
@@ -357,9 +434,14 @@ public class ESMappingAPIImpl implements ContentMappingAPI {
 		return toJson(con);
 	}
 
-	@SuppressWarnings("unchecked")
 	protected void loadCategories(final Contentlet con, final Map<String,Object> m)
 			throws DotDataException, DotSecurityException {
+		loadCategories(con, m, null);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void loadCategories(final Contentlet con, final Map<String,Object> m, final ESMappingPrefetch prefetch)
+			throws DotDataException, DotSecurityException {
 	    // first we check if there is a category field in the structure. We don't hit db if not needed
 
 	    final ContentType type = APILocator.getContentTypeAPI(APILocator.systemUser()).find(con.getContentTypeId());
@@ -370,10 +452,16 @@ public class ESMappingAPIImpl implements ContentMappingAPI {
         	return;
 		}
 
-	    List<Category> myCats = APILocator.getCategoryAPI().getParents(con, APILocator.systemUser(), false);
 	    final StringWriter myCatsString=new StringWriter();
-	    for(final Category me : myCats){
-	        myCatsString.append(me.getCategoryVelocityVarName()).append(" ");
+	    if (prefetch != null) {
+	        for(final String varName : prefetch.getCategoryVarNames(con.getInode())){
+	            myCatsString.append(varName).append(" ");
+	        }
+	    } else {
+	        List<Category> myCats = APILocator.getCategoryAPI().getParents(con, APILocator.systemUser(), false);
+	        for(final Category me : myCats){
+	            myCatsString.append(me.getCategoryVelocityVarName()).append(" ");
+	        }
 	    }
 
         m.put(ESMappingConstants.CATEGORIES, myCatsString.toString());
@@ -683,8 +771,13 @@ public class ESMappingAPIImpl implements ContentMappingAPI {
 		db.setSQL("select * from tree where parent = ? or child = ? order by tree_order asc");
 		db.addParam(con.getIdentifier());
 		db.addParam(con.getIdentifier());
+		loadRelationshipFields(con, m, db.loadObjectResults());
+	}
+
+	private void loadRelationshipFields(final Contentlet con, final Map<String,Object> m,
+			final List<Map<String, Object>> relatedEntries) throws DotStateException, DotDataException {
 
-		for(Map<String, Object> relatedEntry : db.loadObjectResults()) {
+		for(Map<String, Object> relatedEntry : relatedEntries) {
 
 			String childId = relatedEntry.get(ESMappingConstants.CHILD).toString();
 			String parentId = relatedEntry.get(ESMappingConstants.PARENT).toString();
@@ -0,0 +1,234 @@
+package com.dotcms.content.elasticsearch.business;
+
+import com.dotcms.content.elasticsearch.constants.ESMappingConstants;
+import com.dotcms.repackage.com.google.common.collect.Lists;
+import com.dotcms.util.transform.TransformerLocator;
+import com.dotmarketing.beans.Identifier;
+import com.dotmarketing.business.APILocator;
+import com.dotmarketing.common.db.DotConnect;
+import com.dotmarketing.exception.DotDataException;
+import com.dotmarketing.portlets.contentlet.model.Contentlet;
+import com.dotmarketing.portlets.workflows.model.WorkflowTask;
+import com.dotmarketing.util.Config;
+import com.dotmarketing.util.UtilMethods;
+import org.apache.commons.beanutils.BeanUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Data needed by {@link ESMappingAPIImpl#toMaps(List)} to map a batch of contentlets, loaded with a
+ * few set based queries for the whole batch instead of several queries per contentlet: identifiers,
+ * version info, relationships (tree), categories and workflow tasks. Permissions are loaded into the
+ * permission cache. Anything not found here is loaded the usual way by the mapping API.
+ * <p/>
+ * The ids are sent to the database in chunks of <strong>es.mapping.prefetch.chunk.size</strong>.
+ */
+class ESMappingPrefetch {
+
+    private static final String SELECT_IDENTIFIERS = "select * from identifier where id in (%s)";
+
+    private static final String SELECT_VERSION_INFO =
+            "select identifier, lang, version_ts from contentlet_version_info where identifier in (%s)";
+
+    private static final String SELECT_TREE =
+            "select * from tree where parent in (%s) or child in (%s) order by tree_order asc";
+
+    private static final String SELECT_CATEGORIES =
+            "select tree.child, category.category_velocity_var_name from inode category_1_, category, tree " +
+            "where tree.child in (%s) and tree.parent = category.inode and category_1_.inode = category.inode " +
+            "and category_1_.type = 'category' order by sort_order asc, category_name asc";
+
+    private static final String SELECT_WORKFLOW_TASKS = "select * from workflow_task where webasset in (%s)";
+
+    private final Map<String, Identifier> identifiers = new HashMap<>();
+    private final Map<String, Date> versionTimestamps = new HashMap<>();
+    private final Map<String, List<Map<String, Object>>> treeRows = new HashMap<>();
+    private final Map<String, List<String>> categories = new HashMap<>();
+    private final Map<String, WorkflowTask> workflowTasks = new HashMap<>();
+    private final Map<String, Map<String, Object>> defaultWorkflowInfo = new HashMap<>();
+
+    private ESMappingPrefetch() {
+    }
+
+    /**
+     * Loads the data needed to map the given contentlets
+     *
+     * @param contentlets
+     * @return
+     * @throws DotDataException
+     */
+    static ESMappingPrefetch load(final List<Contentlet> contentlets) throws DotDataException {
+
+        final ESMappingPrefetch prefetch = new ESMappingPrefetch();
+        final Set<String> identifierIds = new LinkedHashSet<>();
+        final Set<String> inodes = new LinkedHashSet<>();
+        for (final Contentlet contentlet : contentlets) {
+            if (UtilMethods.isSet(contentlet.getIdentifier())) {
+                identifierIds.add(contentlet.getIdentifier());
+            }
+            inodes.add(contentlet.getInode());
+        }
+
+        APILocator.getPermissionAPI().addPermissionsToCache(contentlets);
+
+        final int chunkSize = Config.getIntProperty("es.mapping.prefetch.chunk.size", 500);
+        for (final List<String> chunk : Lists.partition(new ArrayList<>(identifierIds), chunkSize)) {
+            prefetch.loadIdentifiers(chunk);
+            prefetch.loadVersionInfo(chunk);
+            prefetch.loadTree(chunk);
+            prefetch.loadWorkflowTasks(chunk);
+        }
+        for (final List<String> chunk : Lists.partition(new ArrayList<>(inodes), chunkSize)) {
+            prefetch.loadCategories(chunk);
+        }
+        return prefetch;
+    }
+
+    /**
+     * @param identifier
+     * @return the identifier, null if it was not loaded
+     */
+    Identifier getIdentifier(final String identifier) {
+        return identifiers.get(identifier);
+    }
+
+    /**
+     * @param identifier
+     * @param languageId
+     * @return the version_ts of the given identifier and language, null if it was not loaded
+     */
+    Date getVersionTs(final String identifier, final long languageId) {
+        return versionTimestamps.get(identifier + "_" + languageId);
+    }
+
+    /**
+     * @param identifier
+     * @return the rows of the tree table where the identifier is the parent or the child, ordered by tree_order
+     */
+    List<Map<String, Object>> getTreeRows(final String identifier) {
+        return treeRows.getOrDefault(identifier, Collections.emptyList());
+    }
+
+    /**
+     * @param inode
+     * @return the velocity var names of the categories of the given contentlet, in the same order as
+     * returned by the category API
+     */
+    List<String> getCategoryVarNames(final String inode) {
+        return categories.getOrDefault(inode, Collections.emptyList());
+    }
+
+    /**
+     * @param contentlet
+     * @return the workflow task of the contentlet, null if it has none
+     */
+    WorkflowTask getWorkflowTask(final Contentlet contentlet) {
+        return workflowTasks.get(contentlet.getIdentifier() + "_" + contentlet.getLanguageId());
+    }
+
+    /**
+     * Returns the workflow info of the contentlets without a task, which only depends on the content type,
+     * so it is computed once per content type in the batch
+     *
+     * @param contentTypeId
+     * @param loader
+     * @return
+     */
+    Map<String, Object> getDefaultWorkflowInfo(final String contentTypeId, final Supplier<Map<String, Object>> loader) {
+        return defaultWorkflowInfo.computeIfAbsent(contentTypeId, key -> loader.get());
+    }
+
+    private void loadIdentifiers(final List<String> ids) throws DotDataException {
+
+        final DotConnect dc = query(SELECT_IDENTIFIERS, ids, 1);
+        for (final Identifier identifier : TransformerLocator.createIdentifierTransformer(dc.loadObjectResults()).asList()) {
+            identifiers.put(identifier.getId(), identifier);
+        }
+    }
+
+    private void loadVersionInfo(final List<String> ids) throws DotDataException {
+
+        final DotConnect dc = query(SELECT_VERSION_INFO, ids, 1);
+        for (final Map<String, Object> row : dc.loadObjectResults()) {
+            if (row.get("version_ts") instanceof Date) {
+                versionTimestamps.put(row.get("identifier") + "_" + row.get("lang"), (Date) row.get("version_ts"));
+            }
+        }
+    }
+
+    private void loadTree(final List<String> ids) throws DotDataException {
+
+        final Set<String> batch = new LinkedHashSet<>(ids);
+        final DotConnect dc = query(SELECT_TREE, ids, 2);
+        for (final Map<String, Object> row : dc.loadObjectResults()) {
+            final String parent = String.valueOf(row.get(ESMappingConstants.PARENT));
+            final String child = String.valueOf(row.get(ESMappingConstants.CHILD));
+            if (batch.contains(parent)) {
+                treeRows.computeIfAbsent(parent, key -> new ArrayList<>()).add(row);
+            }
+            if (batch.contains(child) && !child.equals(parent)) {
+                treeRows.computeIfAbsent(child, key -> new ArrayList<>()).add(row);
+            }
+        }
+    }
+
+    private void loadCategories(final List<String> inodes) throws DotDataException {
+
+        final DotConnect dc = query(SELECT_CATEGORIES, inodes, 1);
+        for (final Map<String, Object> row : dc.loadObjectResults()) {
+            categories.computeIfAbsent((String) row.get("child"), key -> new ArrayList<>())
+                    .add((String) row.get("category_velocity_var_name"));
+        }
+    }
+
+    private void loadWorkflowTasks(final List<String> ids) throws DotDataException {
+
+        final DotConnect dc = query(SELECT_WORKFLOW_TASKS, ids, 1);
+        for (final Map<String, Object> row : dc.loadObjectResults()) {
+            workflowTasks.putIfAbsent(row.get("webasset") + "_" + row.get("language_id"), toWorkflowTask(row));
+        }
+    }
+
+    private WorkflowTask toWorkflowTask(final Map<String, Object> row) throws DotDataException {
+
+        // same conversion the workflow factory does for a single task
+        final WorkflowTask task = new WorkflowTask();
+        row.put("languageId", row.get("language_id"));
+        row.put("creationDate", row.get("creation_date"));
+        row.put("modDate", row.get("mod_date"));
+        row.put("dueDate", row.get("due_date"));
+        row.put("createdBy", row.get("created_by"));
+        row.put("assignedTo", row.get("assigned_to"));
+        row.put("belongsTo", row.get("belongs_to"));
+        try {
+            BeanUtils.copyProperties(task, row);
+        } catch (Exception e) {
+            throw new DotDataException(e.getMessage(), e);
+        }
+        return task;
+    }
+
+    /**
+     * Builds the query replacing every %s of the sql with as many parameters as ids
+     */
+    private DotConnect query(final String sql, final List<String> ids, final int times) {
+
+        final String parameters = String.join(",", Collections.nCopies(ids.size(), "?"));
+        final Object[] replacements = Collections.nCopies(times, parameters).toArray();
+        final DotConnect dc = new DotConnect();
+        dc.setSQL(String.format(sql, replacements));
+        for (int i = 0; i < times; i++) {
+            ids.forEach(dc::addParam);
+        }
+        return dc;
+    }
+
+}
@@ -10,6 +10,7 @@ import com.dotcms.content.elasticsearch.business.ESContentletIndexAPI;
 import com.dotcms.content.elasticsearch.business.IndiciesAPI.IndiciesInfo;
 import com.dotmarketing.business.APILocator;
 import com.dotmarketing.common.db.DotConnect;
+import com.dotmarketing.common.reindex.ParallelFullReindex;
 import com.dotmarketing.db.DbConnectionFactory;
 import com.dotmarketing.db.HibernateUtil;
 import com.dotmarketing.exception.DotDataException;
@@ -36,7 +37,10 @@ public class ESReindexationProcessStatus implements Serializable {
 
     @CloseDBIfOpened
     public synchronized static int getLastIndexationProgress () throws DotDataException {
-        long left = APILocator.getDistributedJournalAPI().recordsLeftToIndexForServer();
+        return getLastIndexationProgress(APILocator.getDistributedJournalAPI().recordsLeftToIndexForServer());
+    }
+
+    private static int getLastIndexationProgress (final long left) throws DotDataException {
         int x = (int) (getContentCountToIndex()-left);
 
         return (x<0) ? 0 : x;
@@ -59,8 +63,13 @@ public class ESReindexationProcessStatus implements Serializable {
         theMap.put("inFullReindexation", inFullReindexation());
         // no reason to hit db if not needed
         if(inFullReindexation()){
+            final long left = APILocator.getDistributedJournalAPI().recordsLeftToIndexForServer();
             theMap.put("contentCountToIndex", getContentCountToIndex());
-            theMap.put("lastIndexationProgress", getLastIndexationProgress());
+            theMap.put("lastIndexationProgress", getLastIndexationProgress(left));
+            // throughput and ETA of the parallel workers
+            if (ParallelFullReindex.getInstance().isRunning()) {
+                theMap.putAll(ParallelFullReindex.getInstance().getProgress(left));
+            }
             theMap.put("currentIndexPath", currentIndexPath());
             theMap.put("newIndexPath", getNewIndexPath());
         }
@@ -294,6 +294,13 @@ public class ESDistributedJournalFactoryImpl<T> extends DistributedJournalFactor
     @Override
     protected List<IndexJournal<T>> findContentReindexEntriesToReindex(boolean includeFailedRecords)
             throws DotDataException {
+        return findContentReindexEntriesToReindex(includeFailedRecords,
+                Config.getIntProperty("REINDEX_RECORDS_TO_FETCH", 50));
+    }
+
+    @Override
+    protected List<IndexJournal<T>> findContentReindexEntriesToReindex(boolean includeFailedRecords, int recordsToFetch)
+            throws DotDataException {
         DotConnect dc = new DotConnect();
         List<IndexJournal<T>> x = new ArrayList<IndexJournal<T>>();
         List<Map<String, Object>> results;
@@ -302,8 +309,6 @@ public class ESDistributedJournalFactoryImpl<T> extends DistributedJournalFactor
 
         try {
 
-            //Get the number of records to fetch
-            int recordsToFetch = Config.getIntProperty("REINDEX_RECORDS_TO_FETCH", 50);
             int priorityLevel = REINDEX_JOURNAL_PRIORITY_NEWINDEX;
             if (includeFailedRecords) {
             	priorityLevel = REINDEX_JOURNAL_PRIORITY_FAILED_FIRST_ATTEMPT + (RETRY_FAILED_INDEX_TIMES);
@@ -354,14 +359,7 @@ public class ESDistributedJournalFactoryImpl<T> extends DistributedJournalFactor
             }
 
             for (Map<String, Object> r : results) {
-                IndexJournal<T> ij = new IndexJournal<T>();
-                ij.setId(((Number)r.get("id")).longValue());
-                T o = (T)r.get("inode_to_index");
-                T o1 = (T)r.get("ident_to_index");
-                ij.setInodeToIndex(o);
-                ij.setIdentToIndex(o1);
-                ij.setPriority(((Number)(r.get("priority"))).intValue());
-                x.add(ij);
+                x.add(toIndexJournal(r));
             }
         } catch (SQLException e1) {
             throw new DotDataException(e1.getMessage(), e1);
@@ -381,6 +379,70 @@ public class ESDistributedJournalFactoryImpl<T> extends DistributedJournalFactor
         return x;
     }
 
+    @Override
+    protected List<IndexJournal<T>> claimNewIndexEntries(final String fromIdentifier, final String toIdentifier,
+            final int recordsToFetch) throws DotDataException {
+
+        final String serverId = ConfigUtils.getServerId();
+        final StringBuilder sql = new StringBuilder()
+                .append("SELECT id, inode_to_index, ident_to_index, priority FROM dist_reindex_journal ")
+                .append("WHERE serverid IS NULL AND priority = ?");
+        final List<Object> params = new ArrayList<>();
+        params.add(REINDEX_JOURNAL_PRIORITY_NEWINDEX);
+        if (fromIdentifier != null) {
+            sql.append(" AND ident_to_index >= ?");
+            params.add(fromIdentifier);
+        }
+        if (toIdentifier != null) {
+            sql.append(" AND ident_to_index < ?");
+            params.add(toIdentifier);
+        }
+        sql.append(" ORDER BY ident_to_index");
+
+        final DotConnect dc = new DotConnect();
+        dc.setSQL(sql.toString());
+        params.forEach(dc::addParam);
+        dc.setMaxRows(recordsToFetch);
+        final List<Map<String, Object>> results = dc.loadObjectResults();
+        if (results.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        final StringBuilder ids = new StringBuilder();
+        for (final Map<String, Object> r : results) {
+            if (ids.length() > 0) {
+                ids.append(',');
+            }
+            ids.append(((Number) r.get("id")).longValue());
+        }
+        final int claimed = dc.executeUpdate("UPDATE dist_reindex_journal SET serverid = ? WHERE serverid IS NULL AND id IN (" + ids + ")",
+                serverId);
+
+        final List<IndexJournal<T>> records = new ArrayList<>();
+        if (claimed == results.size()) {
+            results.forEach(r -> records.add(toIndexJournal(r)));
+        } else {
+            // some of them were claimed by someone else in the meantime, keep only ours
+            dc.setSQL("SELECT id, inode_to_index, ident_to_index, priority FROM dist_reindex_journal WHERE serverid = ? AND priority = ? AND id IN (" + ids + ")");
+            dc.addParam(serverId);
+            dc.addParam(REINDEX_JOURNAL_PRIORITY_NEWINDEX);
+            dc.loadObjectResults().forEach(r -> records.add(toIndexJournal(r)));
+        }
+        return records;
+    }
+
+    @SuppressWarnings("unchecked")
+    private IndexJournal<T> toIndexJournal(final Map<String, Object> r) {
+        IndexJournal<T> ij = new IndexJournal<T>();
+        ij.setId(((Number)r.get("id")).longValue());
+        T o = (T)r.get("inode_to_index");
+        T o1 = (T)r.get("ident_to_index");
+        ij.setInodeToIndex(o);
+        ij.setIdentToIndex(o1);
+        ij.setPriority(((Number)(r.get("priority"))).intValue());
+        return ij;
+    }
+
     @Override
     protected String getServerId() {
         return ConfigUtils.getServerId();
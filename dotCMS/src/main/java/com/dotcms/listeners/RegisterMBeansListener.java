@@ -2,6 +2,10 @@ package com.dotcms.listeners;
 
 import com.dotcms.concurrent.DotConcurrentFactory;
 import com.dotcms.jmx.DotMBean;
+import com.dotmarketing.business.cache.metrics.CacheMetricsRegistry;
+import com.dotmarketing.common.reindex.ReindexStats;
+import com.dotmarketing.image.filter.ImageFilterStats;
+import com.dotmarketing.portlets.contentlet.business.ContentletQueryCacheStats;
 import com.dotmarketing.util.Logger;
 
 import javax.management.*;
@@ -67,6 +71,10 @@ public class RegisterMBeansListener implements ServletContextListener,
         final Set<DotMBean> mbeans = new HashSet<>();
 
         mbeans.add(DotConcurrentFactory.getInstance());
+        mbeans.add(CacheMetricsRegistry.getInstance());
+        mbeans.add(ReindexStats.getInstance());
+        mbeans.add(ImageFilterStats.getInstance());
+        mbeans.add(ContentletQueryCacheStats.getInstance());
 
         return mbeans;
     }
@@ -0,0 +1,243 @@
+package com.dotcms.publisher.pusher;
+
+import com.dotcms.publisher.endpoint.bean.PublishingEndPoint;
+import com.dotcms.repackage.javax.ws.rs.ProcessingException;
+import com.dotcms.repackage.javax.ws.rs.client.Client;
+import com.dotcms.repackage.javax.ws.rs.client.Entity;
+import com.dotcms.repackage.javax.ws.rs.client.WebTarget;
+import com.dotcms.repackage.javax.ws.rs.core.MediaType;
+import com.dotcms.repackage.javax.ws.rs.core.Response;
+import com.dotcms.repackage.org.apache.commons.httpclient.HttpStatus;
+import com.dotmarketing.util.Config;
+import com.dotmarketing.util.DateUtil;
+import com.dotmarketing.util.Logger;
+import com.dotmarketing.util.UtilMethods;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * Sends the bundle file to an end point. A transfer interrupted by a network error is resumed: the
+ * receiver keeps what it got (see {@link com.dotcms.rest.BundlePublisherResource}), the sender asks for
+ * its size and sends the rest of the file. Receivers that do not support it get the whole file again.
+ * <p/>
+ * Retried up to <strong>PUSH_PUBLISHING_SEND_RETRIES</strong> times (default 3), waiting
+ * <strong>PUSH_PUBLISHING_SEND_RETRY_DELAY_MILLIS</strong> (default 1000) between them. Each sender
+ * reads the file on its own, so the end points of an environment can be sent to at the same time.
+ */
+class BundleSender {
+
+    static final String PUBLISH_PATH = "/api/bundlePublisher/publish";
+    static final String OFFSET_PATH  = "/api/bundlePublisher/offset";
+
+    private final Client client;
+    private final File bundle;
+    private final String bundleName;
+    private final boolean forcePush;
+    private final int retries;
+    private final long retryDelay;
+
+    BundleSender(final Client client, final File bundle, final String bundleName, final boolean forcePush) {
+
+        this.client     = client;
+        this.bundle     = bundle;
+        this.bundleName = bundleName;
+        this.forcePush  = forcePush;
+        this.retries    = Config.getIntProperty("PUSH_PUBLISHING_SEND_RETRIES", 3);
+        this.retryDelay = Config.getLongProperty("PUSH_PUBLISHING_SEND_RETRY_DELAY_MILLIS", 1000);
+    }
+
+    /**
+     * Result of sending the bundle to an end point
+     */
+    static final class Result {
+
+        private final int status;
+        private final long bytes;
+        private final long millis;
+        private final int resumes;
+
+        Result(final int status, final long bytes, final long millis, final int resumes) {
+            this.status  = status;
+            this.bytes   = bytes;
+            this.millis  = millis;
+            this.resumes = resumes;
+        }
+
+        /**
+         * The HTTP status returned by the end point
+         */
+        int getStatus() {
+            return status;
+        }
+
+        /**
+         * Bytes sent, counting the ones sent again by the retries
+         */
+        long getBytes() {
+            return bytes;
+        }
+
+        long getMillis() {
+            return millis;
+        }
+
+        int getResumes() {
+            return resumes;
+        }
+
+        /**
+         * The size, time and throughput of the transfer for the publish audit, e.g.
+         * <code>12.50 MB in 2.10 s (5.95 MB/s)</code>
+         */
+        String getThroughput() {
+
+            final double megabytes = this.bytes / (1024d * 1024d);
+            final double seconds = Math.max(this.millis, 1) / 1000d;
+            final String throughput = String.format(Locale.US, "%.2f MB in %.2f s (%.2f MB/s)",
+                    megabytes, seconds, megabytes / seconds);
+            return this.resumes > 0 ? throughput + ", resumed " + this.resumes + " time(s)" : throughput;
+        }
+    }
+
+    /**
+     * Sends the bundle to the end point, resuming the transfer if it is interrupted
+     *
+     * @param endpoint
+     * @param authToken the token of the end point
+     * @return the {@link Result} of the last attempt
+     * @throws ProcessingException if the bundle could not be sent after all the retries
+     * @throws IOException if the bundle file could not be read
+     */
+    Result send(final PublishingEndPoint endpoint, final String authToken) throws IOException {
+
+        final long start = System.currentTimeMillis();
+        final long size = this.bundle.length();
+        long offset = 0;
+        long sent = 0;
+        int attempt = 0;
+
+        while (true) {
+            final CountingInputStream bundleStream = new CountingInputStream(this.open(offset));
+            try {
+                final WebTarget webTarget = this.client.target(endpoint.toURL() + PUBLISH_PATH)
+                        .queryParam("AUTH_TOKEN", authToken)
+                        .queryParam("GROUP_ID", UtilMethods.isSet(endpoint.getGroupId()) ? endpoint.getGroupId() : endpoint.getId())
+                        .queryParam("BUNDLE_NAME", this.bundleName)
+                        .queryParam("ENDPOINT_ID", endpoint.getId())
+                        .queryParam("FILE_NAME", this.bundle.getName())
+                        .queryParam("FORCE_PUSH", this.forcePush)
+                        .queryParam("OFFSET", offset)
+                        .queryParam("BUNDLE_SIZE", size);
+
+                final Response response = webTarget.request(MediaType.APPLICATION_OCTET_STREAM_TYPE)
+                        .header("Content-Disposition", "attachment; filename=\"" + this.bundle.getName() + "\"")
+                        .post(Entity.entity(bundleStream, MediaType.APPLICATION_OCTET_STREAM_TYPE));
+                final int status = response.getStatus();
+                response.close();
+                sent += bundleStream.getCount();
+
+                // a conflict means the receiver has other bytes than the ones asked for: ask again
+                if (status != HttpStatus.SC_CONFLICT || attempt >= this.retries) {
+                    return new Result(status, sent, System.currentTimeMillis() - start, attempt);
+                }
+            } catch (ProcessingException e) {
+                sent += bundleStream.getCount();
+                if (attempt >= this.retries) {
+                    throw e;
+                }
+                Logger.warn(this, "Sending bundle " + this.bundle.getName() + " to " + endpoint.getServerName()
+                        + " was interrupted: " + e.getMessage() + ", resuming");
+            } finally {
+                bundleStream.close();
+            }
+
+            attempt++;
+            DateUtil.sleep(this.retryDelay);
+            offset = this.receivedOffset(endpoint, authToken, size);
+        }
+    }
+
+    /**
+     * The bytes of the bundle the end point already has, 0 if it has none or does not say
+     */
+    private long receivedOffset(final PublishingEndPoint endpoint, final String authToken, final long size) {
+
+        try {
+            final Response response = this.client.target(endpoint.toURL() + OFFSET_PATH)
+                    .queryParam("AUTH_TOKEN", authToken)
+                    .queryParam("FILE_NAME", this.bundle.getName())
+                    .request(MediaType.TEXT_PLAIN_TYPE)
+                    .get();
+            try {
+                if (response.getStatus() != HttpStatus.SC_OK) {
+                    return 0;
+                }
+                final long offset = Long.parseLong(response.readEntity(String.class).trim());
+                return offset > 0 && offset < size ? offset : 0;
+            } finally {
+                response.close();
+            }
+        } catch (Exception e) {
+            Logger.debug(this, "Unable to get the bytes received by " + endpoint.getServerName() + ": "
+                    + e.getMessage());
+            return 0;
+        }
+    }
+
+    private InputStream open(final long offset) throws IOException {
+
+        final FileChannel channel = FileChannel.open(this.bundle.toPath(), StandardOpenOption.READ);
+        channel.position(offset);
+        return new BufferedInputStream(Channels.newInputStream(channel));
+    }
+
+    /**
+     * Counts the bytes read, i.e. sent to the end point
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count = 0;
+
+        CountingInputStream(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int read = super.read();
+            if (read != -1) {
+                this.count++;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+            final int read = super.read(bytes, offset, length);
+            if (read > 0) {
+                this.count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            final long skipped = super.skip(n);
+            this.count += skipped;
+            return skipped;
+        }
+
+        long getCount() {
+            return this.count;
+        }
+    }
+
+}
@@ -0,0 +1,224 @@
+package com.dotcms.publisher.pusher;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * A gzip {@link OutputStream} that compresses blocks of the data in parallel, the way <code>pigz</code>
+ * does: the data is cut in blocks, each block is deflated on its own by the {@link Executor} using the
+ * last 32K of the previous block as dictionary, and the compressed blocks are written in order, ended
+ * with a sync flush so they join in a single deflate stream. The result is one regular gzip member
+ * that any gzip reader (e.g. {@link java.util.zip.GZIPInputStream}) reads, compressed almost as well
+ * as by {@link java.util.zip.GZIPOutputStream}.
+ * <p/>
+ * The CRC of the data is computed by the writing thread. At most <code>maxPendingBlocks</code> blocks are
+ * compressed at the same time, the writes wait for the oldest one to be written when there are more.
+ * <p/>
+ * This class is not thread safe, as the other output streams.
+ */
+public class ParallelGzipOutputStream extends FilterOutputStream {
+
+    public static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+    private static final byte[] HEADER = {
+            0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0
+    };
+
+    private final Executor executor;
+    private final int blockSize;
+    private final int maxPendingBlocks;
+    private final int level;
+    private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+    private final CRC32 crc = new CRC32();
+
+    private byte[] block;
+    private int blockLength = 0;
+    private byte[] dictionary = null;
+    private long totalIn = 0;
+    private boolean closed = false;
+
+    /**
+     * @param out the stream to write the gzip data to
+     * @param executor compresses the blocks
+     * @param blockSize size of the uncompressed blocks, at least 32K
+     * @param maxPendingBlocks blocks compressed at the same time
+     * @param level the {@link Deflater} compression level
+     * @throws IOException
+     */
+    public ParallelGzipOutputStream(final OutputStream out, final Executor executor, final int blockSize,
+                                    final int maxPendingBlocks, final int level) throws IOException {
+
+        super(out);
+        if (blockSize < DICTIONARY_SIZE || maxPendingBlocks < 1) {
+            throw new IllegalArgumentException("Invalid block size " + blockSize
+                    + " or pending blocks " + maxPendingBlocks);
+        }
+        this.executor         = executor;
+        this.blockSize        = blockSize;
+        this.maxPendingBlocks = maxPendingBlocks;
+        this.level            = level;
+        this.block            = new byte[blockSize];
+        this.out.write(HEADER);
+    }
+
+    public ParallelGzipOutputStream(final OutputStream out, final Executor executor, final int maxPendingBlocks)
+            throws IOException {
+        this(out, executor, DEFAULT_BLOCK_SIZE, maxPendingBlocks, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        this.write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] bytes, int offset, int length) throws IOException {
+
+        this.ensureOpen();
+        this.crc.update(bytes, offset, length);
+        this.totalIn += length;
+        while (length > 0) {
+            final int count = Math.min(length, this.blockSize - this.blockLength);
+            System.arraycopy(bytes, offset, this.block, this.blockLength, count);
+            this.blockLength += count;
+            offset += count;
+            length -= count;
+            if (this.blockLength == this.blockSize) {
+                this.submitBlock(false);
+            }
+        }
+    }
+
+    /**
+     * Writes the blocks already compressed, the data of the current block is kept until it is full
+     */
+    @Override
+    public void flush() throws IOException {
+
+        this.ensureOpen();
+        while (!this.pending.isEmpty() && this.pending.peekFirst().isDone()) {
+            this.writeNext();
+        }
+        this.out.flush();
+    }
+
+    /**
+     * Compresses the last block, writes all the blocks and the gzip trailer and closes the stream
+     */
+    @Override
+    public void close() throws IOException {
+
+        if (this.closed) {
+            return;
+        }
+        try {
+            this.submitBlock(true);
+            while (!this.pending.isEmpty()) {
+                this.writeNext();
+            }
+            this.writeInt((int) this.crc.getValue());
+            this.writeInt((int) this.totalIn);
+            this.out.flush();
+        } finally {
+            this.closed = true;
+            this.pending.forEach(future -> future.cancel(false));
+            this.pending.clear();
+            this.out.close();
+        }
+    }
+
+    private void submitBlock(final boolean last) throws IOException {
+
+        final byte[] data = this.block;
+        final int length = this.blockLength;
+        final byte[] dictionary = this.dictionary;
+
+        final FutureTask<byte[]> task = new FutureTask<>(() -> deflate(data, length, dictionary, last, this.level));
+        this.executor.execute(task);
+        this.pending.addLast(task);
+
+        this.dictionary = length >= DICTIONARY_SIZE
+                ? Arrays.copyOfRange(data, length - DICTIONARY_SIZE, length)
+                : null;
+        this.block = new byte[this.blockSize];
+        this.blockLength = 0;
+
+        while (this.pending.size() >= this.maxPendingBlocks) {
+            this.writeNext();
+        }
+    }
+
+    private void writeNext() throws IOException {
+
+        final Future<byte[]> next = this.pending.pollFirst();
+        try {
+            this.out.write(next.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted compressing the bundle");
+        } catch (ExecutionException e) {
+            throw new IOException("Unable to compress the bundle: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Deflates a block as part of a deflate stream: the last block finishes the stream, the others are
+     * ended with a sync flush so the next one starts on a byte boundary
+     */
+    private static byte[] deflate(final byte[] data, final int length, final byte[] dictionary,
+                                  final boolean last, final int level) {
+
+        final Deflater deflater = new Deflater(level, true);
+        try {
+            if (null != dictionary) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(data, 0, length);
+
+            final ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 2 + 64);
+            final byte[] buffer = new byte[Math.max(length / 4, 8 * 1024)];
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    compressed.write(buffer, 0, deflater.deflate(buffer));
+                }
+            } else {
+                int count;
+                do {
+                    count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    compressed.write(buffer, 0, count);
+                } while (count == buffer.length || !deflater.needsInput());
+            }
+            return compressed.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void writeInt(final int value) throws IOException {
+        this.out.write(value & 0xff);
+        this.out.write((value >> 8) & 0xff);
+        this.out.write((value >> 16) & 0xff);
+        this.out.write((value >> 24) & 0xff);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (this.closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+}
@@ -1,5 +1,6 @@
 package com.dotcms.publisher.pusher;
 
+import com.dotcms.concurrent.DotConcurrentFactory;
 import com.dotcms.enterprise.LicenseUtil;
 import com.dotcms.enterprise.license.LicenseLevel;
 import com.dotcms.enterprise.publishing.remote.bundler.*;
@@ -12,10 +13,6 @@ import com.dotcms.publisher.util.PusheableAsset;
 import com.dotcms.publishing.*;
 import com.dotcms.publishing.PublisherConfig.DeliveryStrategy;
 import com.dotcms.repackage.javax.ws.rs.client.Client;
-import com.dotcms.repackage.javax.ws.rs.client.Entity;
-import com.dotcms.repackage.javax.ws.rs.client.WebTarget;
-import com.dotcms.repackage.javax.ws.rs.core.MediaType;
-import com.dotcms.repackage.javax.ws.rs.core.Response;
 import com.dotcms.repackage.org.apache.commons.httpclient.HttpStatus;
 import com.dotcms.repackage.org.apache.commons.io.FileUtils;
 import com.dotcms.repackage.org.glassfish.jersey.client.ClientProperties;
@@ -24,25 +21,24 @@ import com.dotcms.system.event.local.business.LocalSystemEventsAPI;
 import com.dotcms.system.event.local.type.pushpublish.AllPushPublishEndpointsFailureEvent;
 import com.dotcms.system.event.local.type.pushpublish.AllPushPublishEndpointsSuccessEvent;
 import com.dotcms.system.event.local.type.pushpublish.SinglePushPublishEndpointFailureEvent;
-import com.dotcms.util.CloseUtils;
 import com.dotmarketing.business.APILocator;
 import com.dotmarketing.cms.factories.PublicEncryptionFactory;
 import com.dotmarketing.quartz.QuartzUtils;
 import com.dotmarketing.util.Config;
 import com.dotmarketing.util.Logger;
 import com.dotmarketing.util.PushPublishLogger;
-import com.dotmarketing.util.UtilMethods;
 import org.apache.logging.log4j.ThreadContext;
 import org.quartz.JobDetail;
 import org.quartz.ObjectAlreadyExistsException;
 import org.quartz.Scheduler;
 
-import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 /**
  * This is the main content publishing class in the Push Publishing process.
@@ -75,6 +71,7 @@ public class PushPublisher extends Publisher {
 
 	private static final String BUNDLE_ID      = "BundleId";
 	private static final String ENDPOINT_NAME  = "EndpointName";
+	private static final String SEND_POOL      = "pushPublishSendPool";
 
     @Override
     public PublisherConfig init ( PublisherConfig config ) throws DotPublishingException {
@@ -129,8 +126,6 @@ public class PushPublisher extends Publisher {
 			client.property(ClientProperties.REQUEST_ENTITY_PROCESSING, "CHUNKED");
 			client.property(ClientProperties.CHUNKED_ENCODING_SIZE, 1024);
 
-			String contentDisposition = "attachment; filename=\"" + bundle.getName() + "\"";
-
 			//Updating audit table
 			currentStatusHistory = pubAuditAPI.getPublishAuditStatus(this.config.getId()).getStatusPojo();
 			Map<String, Map<String, EndpointDetail>> endpointsMap = currentStatusHistory.getEndpointsMap();
@@ -179,38 +174,29 @@ public class PushPublisher extends Publisher {
 						endpoints = endpoints.subList(0, 1);
 				}
 
+				// send to all the end points of the environment at the same time, each one reads the bundle file
+				final Bundle b = APILocator.getBundleAPI().getBundleById(this.config.getId());
+				final BundleSender sender = new BundleSender(client, bundle, null != b ? b.getName() : null,
+						null != b && b.isForcePush());
+				final Map<String, Future<BundleSender.Result>> sends = new HashMap<>();
 				for (PublishingEndPoint endpoint : endpoints) {
-					EndpointDetail detail = new EndpointDetail();
-
-					InputStream bundleStream = new BufferedInputStream(Files.newInputStream(bundle.toPath()));
-
+					sends.put(endpoint.getId(), this.submitSend(sender, endpoint, b));
+				}
 
+				for (PublishingEndPoint endpoint : endpoints) {
+					EndpointDetail detail = new EndpointDetail();
 
 	        		try {
-	        			Bundle b=APILocator.getBundleAPI().getBundleById(this.config.getId());
-
 						//For logging purpose
 						ThreadContext.put(ENDPOINT_NAME, ENDPOINT_NAME + "=" + endpoint.getServerName());
 						ThreadContext.put(BUNDLE_ID, BUNDLE_ID + "=" + b.getName());
-						PushPublishLogger.log(this.getClass(), "Status Update: Sending Bundle");
-	        			WebTarget webTarget = client.target(endpoint.toURL()+"/api/bundlePublisher/publish")
-	        					.queryParam("AUTH_TOKEN", retriveKeyString(PublicEncryptionFactory.decryptString(endpoint.getAuthKey().toString())))
-	        					.queryParam("GROUP_ID", UtilMethods.isSet(endpoint.getGroupId()) ? endpoint.getGroupId() : endpoint.getId())
-	        					.queryParam("BUNDLE_NAME", b.getName())
-	        					.queryParam("ENDPOINT_ID", endpoint.getId())
-	        					.queryParam("FILE_NAME", bundle.getName())
-								.queryParam("FORCE_PUSH", b.isForcePush())
-	        			;
-
-	        			Response response = webTarget.request(MediaType.APPLICATION_OCTET_STREAM_TYPE)
-	        					.header("Content-Disposition", contentDisposition)
-	        					.post(Entity.entity(bundleStream, MediaType.APPLICATION_OCTET_STREAM_TYPE));
-
-	        			if(response.getStatus() == HttpStatus.SC_OK)
+						BundleSender.Result result = getResult(sends.get(endpoint.getId()));
+
+	        			if(result.getStatus() == HttpStatus.SC_OK)
 	        			{
-							PushPublishLogger.log(this.getClass(), "Status Update: Bundle sent");
+							PushPublishLogger.log(this.getClass(), "Status Update: Bundle sent, " + result.getThroughput());
 	        				detail.setStatus(PublishAuditStatus.Status.BUNDLE_SENT_SUCCESSFULLY.getCode());
-	        				detail.setInfo("Everything ok");
+	        				detail.setInfo("Everything ok. Sent " + result.getThroughput());
 	        			} else {
 
 							PushPublishLogger.log(this.getClass(), "Status Update: Failed to send bundle.");
@@ -219,7 +205,7 @@ public class PushPublisher extends Publisher {
 		        			}
 	        				detail.setStatus(PublishAuditStatus.Status.FAILED_TO_SENT.getCode());
 							detail.setInfo(
-								"Returned " + response.getStatus() + " status code " +
+								"Returned " + result.getStatus() + " status code " +
 									"for the endpoint " + endpoint.getServerName() + " with address " + endpoint
 									.getAddress() + getFormattedPort(endpoint.getPort()));
 							failedEnvironment |= true;
@@ -242,7 +228,6 @@ public class PushPublisher extends Publisher {
 
 						PushPublishLogger.log(this.getClass(), "Status Update: Failed to send bundle. Exception: " + e.getMessage());
 	        		} finally {
-	        			CloseUtils.closeQuietly(bundleStream);
 						ThreadContext.remove(ENDPOINT_NAME);
 						ThreadContext.remove(BUNDLE_ID);
 	        		}
@@ -298,6 +283,51 @@ public class PushPublisher extends Publisher {
 		}
 	}
 
+	/**
+	 * Sends the bundle to the end point in the background, or right away when
+	 * <strong>PUSH_PUBLISHING_PARALLEL_SEND</strong> is false
+	 *
+	 * @param sender
+	 * @param endpoint
+	 * @param b
+	 * @return
+	 */
+	private Future<BundleSender.Result> submitSend(final BundleSender sender, final PublishingEndPoint endpoint,
+			final Bundle b) {
+
+		final Callable<BundleSender.Result> send = () -> {
+			try {
+				//For logging purpose
+				ThreadContext.put(ENDPOINT_NAME, ENDPOINT_NAME + "=" + endpoint.getServerName());
+				ThreadContext.put(BUNDLE_ID, BUNDLE_ID + "=" + b.getName());
+				PushPublishLogger.log(this.getClass(), "Status Update: Sending Bundle");
+				return sender.send(endpoint,
+						retriveKeyString(PublicEncryptionFactory.decryptString(endpoint.getAuthKey().toString())));
+			} finally {
+				ThreadContext.remove(ENDPOINT_NAME);
+				ThreadContext.remove(BUNDLE_ID);
+			}
+		};
+
+		if (Config.getBooleanProperty("PUSH_PUBLISHING_PARALLEL_SEND", true)) {
+			return DotConcurrentFactory.getInstance().getSubmitter(SEND_POOL).submit(send);
+		}
+		final FutureTask<BundleSender.Result> task = new FutureTask<>(send);
+		task.run();
+		return task;
+	}
+
+	/**
+	 * Waits for the bundle to be sent, throwing what made it fail
+	 */
+	private static BundleSender.Result getResult(final Future<BundleSender.Result> send) throws Exception {
+		try {
+			return send.get();
+		} catch (ExecutionException e) {
+			throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+		}
+	}
+
 	/**
 	 * @param port
 	 * @return
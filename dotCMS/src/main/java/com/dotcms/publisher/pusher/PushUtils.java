@@ -1,6 +1,8 @@
 package com.dotcms.publisher.pusher;
 
+import com.dotcms.concurrent.DotConcurrentFactory;
 import com.dotcms.repackage.org.apache.commons.io.IOUtils;
+import com.dotmarketing.util.Config;
 import com.dotmarketing.util.Logger;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
@@ -15,6 +17,8 @@ import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
 
 public class PushUtils {
 
+	private static final String COMPRESS_POOL = "pushPublishCompressPool";
+
 	
 	
 	/**
@@ -35,7 +39,7 @@ public class PushUtils {
 		try(OutputStream fos = Files.newOutputStream(output.toPath());
 			// Wrap the output file stream in streams that will tar and gzip everything
 			TarArchiveOutputStream taos = new TarArchiveOutputStream(
-				new GZIPOutputStream(new BufferedOutputStream(fos))) ) {
+				gzip(new BufferedOutputStream(fos))) ) {
 
 			taos.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_STAR);
 			// TAR originally didn't support long file names, so enable the support for it
@@ -49,6 +53,26 @@ public class PushUtils {
 
 		return output;
 	}
+
+	/**
+	 * The gzip stream of the bundle: up to <strong>PUSH_PUBLISHING_COMPRESSION_THREADS</strong> blocks
+	 * (default the number of processors) compressed at the same time by the threads of the
+	 * pushPublishCompressPool, sized with <strong>pushPublishCompressPooldotcms.concurrent.poolsize</strong>,
+	 * or a regular {@link GZIPOutputStream} when set to 1
+	 *
+	 * @param out
+	 * @return
+	 * @throws IOException
+	 */
+	private static OutputStream gzip(OutputStream out) throws IOException {
+		final int threads = Config.getIntProperty("PUSH_PUBLISHING_COMPRESSION_THREADS",
+			Runtime.getRuntime().availableProcessors());
+		if (threads <= 1) {
+			return new GZIPOutputStream(out);
+		}
+		return new ParallelGzipOutputStream(out,
+			DotConcurrentFactory.getInstance().getSubmitter(COMPRESS_POOL), threads * 2);
+	}
 	
 	
 
@@ -2,9 +2,13 @@ package com.dotcms.rendering.velocity.directive;
 
 import com.dotcms.contenttype.model.type.BaseContentType;
 import com.dotcms.contenttype.model.type.ContentType;
+import com.dotcms.rendering.velocity.services.ContentletLoader;
+import com.dotcms.rendering.velocity.services.ContentletVariables;
+import com.dotcms.rendering.velocity.services.VelocityResourceKey;
 import com.dotcms.rendering.velocity.services.VelocityType;
 
 import com.dotmarketing.business.APILocator;
+import com.dotmarketing.business.CacheLocator;
 import com.dotmarketing.portlets.contentlet.model.Contentlet;
 import com.dotmarketing.portlets.contentlet.model.ContentletVersionInfo;
 import com.dotmarketing.util.PageMode;
@@ -91,5 +95,22 @@ public class ContentletDetail extends DotDirective {
 
         return path.toString();
     }
+
+    @Override
+    ContentletVariables loadVariables(final RenderParams params, final String templatePath) {
+
+        if (!ContentletVariables.isEnabled()) {
+            return null;
+        }
+        try {
+            final VelocityResourceKey key = new VelocityResourceKey(templatePath);
+            final ContentletVariables variables = CacheLocator.getVeloctyResourceCache().getContentletVariables(key);
+            return null != variables ? variables : new ContentletLoader().getVariables(key);
+        } catch (ResourceNotFoundException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ResourceNotFoundException("cannot load the variables of " + templatePath, e);
+        }
+    }
 }
 
@@ -19,6 +19,7 @@ import org.apache.velocity.runtime.parser.node.Node;
 import org.apache.velocity.runtime.parser.node.SimpleNode;
 
 import com.dotcms.rendering.velocity.directive.RenderParams;
+import com.dotcms.rendering.velocity.services.ContentletVariables;
 import com.dotcms.rendering.velocity.services.VelocityType;
 import com.dotcms.rendering.velocity.util.VelocityUtil;
 
@@ -41,6 +42,15 @@ abstract class DotDirective extends InputBase {
 
   abstract String resolveTemplatePath(Context context, Writer writer, RenderParams params, String[] arguments);
 
+  /**
+   * The variables to set instead of rendering the template of the path, see {@link ContentletVariables}
+   *
+   * @return the variables, null to render the template
+   */
+  ContentletVariables loadVariables(final RenderParams params, final String templatePath) {
+    return null;
+  }
+
   final Template loadTemplate(InternalContextAdapter context,  String templatePath){
     
     try {
@@ -97,6 +107,10 @@ abstract class DotDirective extends InputBase {
       if(null ==templatePath) {
           throw new ResourceNotFoundException("null template");
       }
+      final ContentletVariables variables = this.loadVariables(params, templatePath);
+      if (null != variables) {
+        return this.renderVariables(context, writer, variables, templatePath);
+      }
       Template t = loadTemplate(context, templatePath);
       return this.renderTemplate(context, writer, t, templatePath);
     } catch(ParseErrorException|ResourceNotFoundException rnfe){
@@ -155,6 +169,31 @@ abstract class DotDirective extends InputBase {
     return true;
   }
 
+  final boolean renderVariables(final InternalContextAdapter context, final Writer writer,
+      final ContentletVariables variables, final String templatePath) throws IOException {
+
+    try {
+      Logger.debug(this, "Binding the variables of templatePath: " + templatePath);
+      preRender(context);
+      context.pushCurrentTemplateName(templatePath);
+
+      variables.bind(context, writer);
+    } catch (RuntimeException e) {
+      String msg = "Exception rendering " + this.getName() + " (" + templatePath + ") at "
+          + VelocityException.formatFileString(this)+(e.getMessage() != null?". Cause of error: "+e.getMessage():"");
+      Logger.error(this, msg);
+
+      Logger.debug(this, msg, e);
+
+      return false;
+    } finally {
+      context.popCurrentTemplateName();
+      postRender(context);
+    }
+
+    return true;
+  }
+
 
 
 
@@ -73,7 +73,15 @@ public class ContentletLoader implements DotLoader {
 
     public InputStream buildVelocity(Contentlet content, PageMode mode, String filePath)
             throws DotDataException, DotSecurityException {
-        StringBuilder sb = new StringBuilder();
+        return writeOutVelocity(filePath, buildVariables(content, mode).toVelocity());
+    }
+
+    /**
+     * Collects the variables a contentlet sets when it is rendered, see {@link ContentletVariables}
+     */
+    private ContentletVariables.Builder buildVariables(Contentlet content, PageMode mode)
+            throws DotDataException, DotSecurityException {
+        final ContentletVariables.Builder vars = new ContentletVariables.Builder();
 
         ContentletAPI conAPI = APILocator.getContentletAPI();
 
@@ -84,50 +92,35 @@ public class ContentletLoader implements DotLoader {
 
 
         // CONTENTLET CONTROLS BEGIN
-        sb.append("#if($EDIT_MODE)");
-        sb.append("#set( $EDIT_CONTENT_PERMISSION=$EDIT_CONTENT_PERMISSION").append(content.getIdentifier()).append(")");
-        sb.append("#end");
+        vars.vtl("#if($EDIT_MODE)#set( $EDIT_CONTENT_PERMISSION=$EDIT_CONTENT_PERMISSION" + content.getIdentifier() + ")#end");
 
-        sb.append("#set($CONTENT_INODE='")
-            .append(content.getInode())
-            .append("' )")
-            .append("#set($IDENTIFIER_INODE='")
-            .append(content.getIdentifier())
-            .append("' )");
+        vars.literal("CONTENT_INODE", content.getInode())
+            .literal("IDENTIFIER_INODE", content.getIdentifier());
 
-        sb.append("#set($CONTENT_TYPE='").append(content.getContentType().variable()).append("' )");
+        vars.literal("CONTENT_TYPE", content.getContentType().variable());
 
         final BaseContentType baseType = content.get("formId") == null ? content.getContentType().baseType() : BaseContentType.FORM;
-        sb.append("#set($CONTENT_BASE_TYPE='").append(baseType).append("' )");
+        vars.literal("CONTENT_BASE_TYPE", String.valueOf(baseType));
         final String contentTypeId = content.get("formId") == null ? content.getContentType().id() : content.get("formId").toString();
-        sb.append("#set($CONTENT_TYPE_ID='").append(contentTypeId).append("' )");
-        sb.append("#set($CONTENT_LANGUAGE='").append(content.getLanguageId()).append("' )");
+        vars.literal("CONTENT_TYPE_ID", contentTypeId);
+        vars.literal("CONTENT_LANGUAGE", String.valueOf(content.getLanguageId()));
 
 
         // set all properties from the contentlet
-        sb.append("#set($ContentInode='")
-            .append(content.getInode())
-            .append("' )")
-            .append("#set($ContentIdentifier='")
-            .append(content.getIdentifier())
-            .append("' )")
-            .append("#set($ContentletTitle=\"")
-            .append(UtilMethods.espaceForVelocity(conAPI.getName(content, APILocator.getUserAPI().getSystemUser(), true)))
-            .append("\" )");
+        vars.literal("ContentInode", content.getInode())
+            .literal("ContentIdentifier", content.getIdentifier())
+            .quoted("ContentletTitle",
+                    UtilMethods.espaceForVelocity(conAPI.getName(content, APILocator.getUserAPI().getSystemUser(), true)));
         String modDateStr = UtilMethods.dateToHTMLDate((Date) content.getModDate(), "yyyy-MM-dd H:mm:ss");
-        sb.append("#set($ContentLastModDate= $date.toDate(\"yyyy-MM-dd H:mm:ss\", \"")
-            .append(modDateStr)
-            .append("\"))")
-            .append("#set($ContentLastModUserId= \"")
-            .append(content.getModUser())
-            .append("\")");
+        vars.date("ContentLastModDate", "yyyy-MM-dd H:mm:ss", modDateStr)
+            .quoted("ContentLastModUserId", String.valueOf(content.getModUser()));
         if (content.getOwner() != null)
-            sb.append("#set($ContentOwnerId= \"").append(content.getOwner()).append("\")");
+            vars.quoted("ContentOwnerId", content.getOwner());
 
         // Structure fields
 
         ContentType type = content.getContentType();
-        sb.append("#set($structureName='").append(type.name()).append("' )");
+        vars.literal("structureName", type.name());
 
         if (type.baseType() != BaseContentType.FORM) {
             List<Field> fields = type.fields();
@@ -156,18 +149,9 @@ public class ContentletLoader implements DotLoader {
                     } else {
                         String fieldValues = field.values() == null ? "" : field.values();
                         if (fieldValues.contains("$") || fieldValues.contains("#")) {
-                            sb.append("#set($")
-                                    .append(field.variable())
-                                    .append("= $velutil.mergeTemplate(\"")
-                                    .append(velPath)
-      
-                                    .append("\"))");
+                            vars.vtl("#set($" + field.variable() + "= $velutil.mergeTemplate(\"" + velPath + "\"))");
                         } else {
-                            sb.append("#set($")
-                                    .append(field.variable())
-                                    .append("= \"")
-                                    .append(UtilMethods.espaceForVelocity(fieldValues).trim())
-                                    .append("\")");
+                            vars.quoted(field.variable(), UtilMethods.espaceForVelocity(fieldValues).trim());
                         }
                         continue;
                     }
@@ -183,17 +167,10 @@ public class ContentletLoader implements DotLoader {
                     }
                     if (!(field instanceof DateTimeField || field instanceof DateField || field instanceof TimeField)) {
                         if (contFieldValue.contains("$") || contFieldValue.contains("#")) {
-                            sb.append("#set($")
-                                    .append(field.variable())
-                                    .append("=$velutil.mergeTemplate(\"")
-                                    .append(new VelocityResourceKey(field, Optional.ofNullable(content), mode).path)
-                                    .append("\"))");
+                            vars.vtl("#set($" + field.variable() + "=$velutil.mergeTemplate(\""
+                                    + new VelocityResourceKey(field, Optional.ofNullable(content), mode).path + "\"))");
                         } else {
-                            sb.append("#set($")
-                                    .append(field.variable())
-                                    .append("=\"")
-                                    .append(UtilMethods.espaceForVelocity(contFieldValue).trim())
-                                    .append("\")");
+                            vars.quoted(field.variable(), UtilMethods.espaceForVelocity(contFieldValue).trim());
                         }
                     }
 
@@ -202,6 +179,7 @@ public class ContentletLoader implements DotLoader {
                 if (field instanceof ImageField || field instanceof FileField) {
                     String identifierValue = content.getStringProperty(field.variable());
                     if (InodeUtils.isSet(identifierValue)) {
+                        final StringBuilder sb = new StringBuilder();
                         sb.append("#set($")
                                 .append(field.variable())
                                 .append("Object= $filetool.getFile('")
@@ -280,9 +258,10 @@ public class ContentletLoader implements DotLoader {
                                     .append(field.variable())
                                     .append("Object.getFileName()} ))");
                         }
+                        vars.vtl(sb.toString());
 
                     } else {
-                        sb.append("#set($").append(field.variable()).append("Object= $filetool.getNewFile())");
+                        vars.vtl("#set($" + field.variable() + "Object= $filetool.getNewFile())");
                     }
                 } // http://jira.dotmarketing.net/browse/DOTCMS-2178
                 else if (field instanceof BinaryField) {
@@ -300,39 +279,22 @@ public class ContentletLoader implements DotLoader {
                                 + " field " + field.variable(), e);
                         continue;
                     }
-                    sb.append("#set($")
-                            .append(field.variable())
-                            .append("BinaryFileTitle=\"")
-                            .append(UtilMethods.espaceForVelocity(fileName))
-                            .append("\" )");
-                    sb.append("#set($")
-                            .append(field.variable())
-                            .append("BinaryFileSize=\"")
-                            .append(UtilMethods.espaceForVelocity(filesize))
-                            .append("\" )");
+                    vars.quoted(field.variable() + "BinaryFileTitle", UtilMethods.espaceForVelocity(fileName));
+                    vars.quoted(field.variable() + "BinaryFileSize", UtilMethods.espaceForVelocity(filesize));
                     String binaryFileURI = fileName.length() > 0
                             ? UtilMethods.espaceForVelocity("/contentAsset/raw-data/" + content.getIdentifier() + "/"
                             + field.variable() + "/" + content.getInode())
                             : "";
-                    sb.append("#set($").append(field.variable()).append("BinaryFileURI=\"").append(binaryFileURI).append("\" )");
+                    vars.quoted(field.variable() + "BinaryFileURI", binaryFileURI);
                 } else if (field instanceof SelectField) {
-                    sb.append("#set($")
-                            .append(field.variable())
-                            .append("SelectLabelsValues=\"")
-                            .append(field.values().replaceAll("\\r\\n", " ").replaceAll("\\n", " "))
-                            .append("\")");
+                    vars.quoted(field.variable() + "SelectLabelsValues",
+                            field.values().replaceAll("\\r\\n", " ").replaceAll("\\n", " "));
                 } else if (field instanceof RadioField) {
-                    sb.append("#set($")
-                            .append(field.variable())
-                            .append("RadioLabelsValues=\"")
-                            .append(field.values().replaceAll("\\r\\n", " ").replaceAll("\\n", " "))
-                            .append("\" )");
+                    vars.quoted(field.variable() + "RadioLabelsValues",
+                            field.values().replaceAll("\\r\\n", " ").replaceAll("\\n", " "));
                 } else if (field instanceof CheckboxField) {
-                    sb.append("#set($")
-                            .append(field.variable())
-                            .append("CheckboxLabelsValues=\"")
-                            .append(field.values().replaceAll("\\r\\n", " ").replaceAll("\\n", " "))
-                            .append("\" )");
+                    vars.quoted(field.variable() + "CheckboxLabelsValues",
+                            field.values().replaceAll("\\r\\n", " ").replaceAll("\\n", " "));
                 } else if (field instanceof DateField) {
                     String shortFormat = "";
                     String dbFormat = "";
@@ -340,18 +302,16 @@ public class ContentletLoader implements DotLoader {
                         shortFormat = UtilMethods.dateToHTMLDate((Date) contFieldValueObject, "MM/dd/yyyy");
                         dbFormat = UtilMethods.dateToHTMLDate((Date) contFieldValueObject, "yyyy-MM-dd");
                     }
-                    sb.append("#set($").append(field.variable()).append("=$date.toDate(\"yyyy-MM-dd\", \"").append(dbFormat).append(
-                            "\"))");
-                    sb.append("#set($").append(field.variable()).append("ShortFormat=\"").append(shortFormat).append("\" )");
-                    sb.append("#set($").append(field.variable()).append("DBFormat=\"").append(dbFormat).append("\" )");
+                    vars.date(field.variable(), "yyyy-MM-dd", dbFormat);
+                    vars.quoted(field.variable() + "ShortFormat", shortFormat);
+                    vars.quoted(field.variable() + "DBFormat", dbFormat);
                 } else if (field instanceof TimeField) {
                     String shortFormat = "";
                     if (contFieldValueObject != null && contFieldValueObject instanceof Date) {
                         shortFormat = UtilMethods.dateToHTMLDate((Date) contFieldValueObject, "H:mm:ss");
                     }
-                    sb.append("#set( $").append(field.variable()).append("ShortFormat=\"").append(shortFormat).append("\" )");
-                    sb.append("#set( $").append(field.variable()).append("= $date.toDate(\"H:mm:ss\", \"").append(shortFormat).append(
-                            "\"))");
+                    vars.quoted(field.variable() + "ShortFormat", shortFormat);
+                    vars.date(field.variable(), "H:mm:ss", shortFormat);
                 } else if (field instanceof DateTimeField) {
                     String shortFormat = "";
                     String longFormat = "";
@@ -361,14 +321,10 @@ public class ContentletLoader implements DotLoader {
                         longFormat = UtilMethods.dateToHTMLDate((Date) contFieldValueObject, "MM/dd/yyyy H:mm:ss");
                         dbFormat = UtilMethods.dateToHTMLDate((Date) contFieldValueObject, "yyyy-MM-dd H:mm:ss");
                     }
-                    sb.append("#set( $")
-                            .append(field.variable())
-                            .append("= $date.toDate(\"yyyy-MM-dd H:mm:ss\", \"")
-                            .append(dbFormat)
-                            .append("\"))");
-                    sb.append("#set( $").append(field.variable()).append("ShortFormat=\"").append(shortFormat).append("\" )");
-                    sb.append("#set( $").append(field.variable()).append("LongFormat=\"").append(longFormat).append("\" )");
-                    sb.append("#set( $").append(field.variable()).append("DBFormat=\"").append(dbFormat).append("\" )");
+                    vars.date(field.variable(), "yyyy-MM-dd H:mm:ss", dbFormat);
+                    vars.quoted(field.variable() + "ShortFormat", shortFormat);
+                    vars.quoted(field.variable() + "LongFormat", longFormat);
+                    vars.quoted(field.variable() + "DBFormat", dbFormat);
                 } // http://jira.dotmarketing.net/browse/DOTCMS-2869
                 // else if (field.getFieldType().equals(Field.FieldType.CUSTOM_FIELD.toString())){
                 // sb.append("#set( $" + field.variable() + "Code=\"" +
@@ -376,9 +332,9 @@ public class ContentletLoader implements DotLoader {
                 // }//http://jira.dotmarketing.net/browse/DOTCMS-3232
                 else if (field instanceof HostFolderField) {
                     if (InodeUtils.isSet(content.getFolder())) {
-                        sb.append("#set( $ConHostFolder='").append(content.getFolder()).append("' )");
+                        vars.literal("ConHostFolder", content.getFolder());
                     } else {
-                        sb.append("#set( $ConHostFolder='").append(content.getHost()).append("' )");
+                        vars.literal("ConHostFolder", content.getHost());
                     }
                 } else if (field instanceof CategoryField) {
 
@@ -403,6 +359,8 @@ public class ContentletLoader implements DotLoader {
                         }
                     }
 
+                    // the categories the user can see are filtered when the contentlet is rendered
+                    final StringBuilder sb = new StringBuilder();
                     if (categoryList.size() > 0) {
                         StringBuilder catbuilder = new StringBuilder();
                         Iterator<Category> it = categoryList.iterator();
@@ -443,14 +401,11 @@ public class ContentletLoader implements DotLoader {
                         sb.append("#set( $").append(field.variable()).append("=$contents.getEmptyList())");
                         sb.append("#set( $").append(field.variable()).append("CategoriesKeys=$contents.getEmptyList())");
                     }
+                    vars.vtl(sb.toString());
                 } else if (field instanceof TagField) {
                     content.setTags();
                     String value = content.getStringProperty(field.variable());
-                    sb.append("#set($")
-                            .append(field.variable())
-                            .append("=\"")
-                            .append(UtilMethods.espaceForVelocity(value).trim())
-                            .append("\")");
+                    vars.quoted(field.variable(), UtilMethods.espaceForVelocity(value).trim());
                 }
             }
 
@@ -470,17 +425,15 @@ public class ContentletLoader implements DotLoader {
                 }
                 categories = catbuilder.toString();
 
-                sb.append("#set($ContentletFilteredCategories=$categories.filterCategoriesByUserPermissions([")
-                        .append(categories)
-                        .append("] ))");
-                sb.append("#set($ContentletCategories=$categories.fetchCategoriesInodes($ContentletFilteredCategories))");
-                sb.append("#set($ContentletCategoryNames=$categories.fetchCategoriesNames($ContentletFilteredCategories))");
-                sb.append("#set($ContentletCategoryKeys=$categories.fetchCategoriesKeys($ContentletFilteredCategories))");
+                vars.vtl("#set($ContentletFilteredCategories=$categories.filterCategoriesByUserPermissions([" + categories + "] ))"
+                        + "#set($ContentletCategories=$categories.fetchCategoriesInodes($ContentletFilteredCategories))"
+                        + "#set($ContentletCategoryNames=$categories.fetchCategoriesNames($ContentletFilteredCategories))"
+                        + "#set($ContentletCategoryKeys=$categories.fetchCategoriesKeys($ContentletFilteredCategories))");
             } else {
-                sb.append("#set($ContentletFilteredCategories=$contents.getEmptyList())");
-                sb.append("#set($ContentletCategories=$contents.getEmptyList())");
-                sb.append("#set($ContentletCategoryNames=$contents.getEmptyList())");
-                sb.append("#set($ContentletCategoryKeys=$contents.getEmptyList())");
+                vars.vtl("#set($ContentletFilteredCategories=$contents.getEmptyList())"
+                        + "#set($ContentletCategories=$contents.getEmptyList())"
+                        + "#set($ContentletCategoryNames=$contents.getEmptyList())"
+                        + "#set($ContentletCategoryKeys=$contents.getEmptyList())");
             }
 
             // This needs to be here because the all fields like cats etc.. need to be parsed first and
@@ -488,11 +441,11 @@ public class ContentletLoader implements DotLoader {
             // the $CONTENT_INODE is reset sb.append("#set( $CONTENT_INODE=\"" + content.getInode() +
             // "\" )");
             // http://jira.dotmarketing.net/browse/DOTCMS-2808
-            sb.append(widgetCode);
-            sb.append("#set($isForm= \"").append(false).append("\")");
+            vars.vtl(widgetCode);
+            vars.quoted("isForm", String.valueOf(false));
         } else {
-            sb.append("#set($isForm= \"").append(true).append("\")");
-            sb.append("#set($formCode=").append("$velutil.mergeTemplate(\"/static/content/content_form_macro.vtl\")").append(")");
+            vars.quoted("isForm", String.valueOf(true));
+            vars.vtl("#set($formCode=$velutil.mergeTemplate(\"/static/content/content_form_macro.vtl\"))");
         }
 
         // This is code is repeated because the bug GETTYS-268, the content
@@ -502,31 +455,30 @@ public class ContentletLoader implements DotLoader {
         // WEB-INF/velocity/static/preview/content_controls.vtl
 
         if (PageMode.EDIT_MODE == mode) {
-            sb.append("#set( $EDIT_CONTENT_PERMISSION=$EDIT_CONTENT_PERMISSION").append(content.getIdentifier()).append(" )");
+            vars.vtl("#set( $EDIT_CONTENT_PERMISSION=$EDIT_CONTENT_PERMISSION" + content.getIdentifier() + " )");
         }
 
-        sb.append("#set( $CONTENT_INODE=\"").append(content.getInode()).append("\" )");
-        sb.append("#set( $IDENTIFIER_INODE=\"").append(content.getIdentifier()).append("\" )");
+        vars.quoted("CONTENT_INODE", content.getInode());
+        vars.quoted("IDENTIFIER_INODE", content.getIdentifier());
 
-        sb.append("#set( $ContentInode=\"").append(content.getInode()).append("\" )");
-        sb.append("#set( $ContentIdentifier=\"").append(content.getIdentifier()).append("\" )");
-        sb.append("#set( $ContentletTitle=\"")
-            .append(UtilMethods.espaceForVelocity(conAPI.getName(content, APILocator.getUserAPI().getSystemUser(), true)))
-            .append("\" )");
-        sb.append("#set( $ContentletStructure=\"").append(content.getContentTypeId()).append("\" )");
-        sb.append("#set( $ContentletContentType=\"").append(content.getContentTypeId()).append("\" )");
+        vars.quoted("ContentInode", content.getInode());
+        vars.quoted("ContentIdentifier", content.getIdentifier());
+        vars.quoted("ContentletTitle",
+                UtilMethods.espaceForVelocity(conAPI.getName(content, APILocator.getUserAPI().getSystemUser(), true)));
+        vars.quoted("ContentletStructure", content.getContentTypeId());
+        vars.quoted("ContentletContentType", content.getContentTypeId());
         if (type.baseType() == BaseContentType.WIDGET) {
-            sb.append("#set( $isWidget= \"").append(true).append("\")");
+            vars.quoted("isWidget", String.valueOf(true));
             if (type.name().equals(FormAPI.FORM_WIDGET_STRUCTURE_NAME_FIELD_NAME)) {
-                sb.append("#set($isFormWidget= \"").append(true).append("\")");
+                vars.quoted("isFormWidget", String.valueOf(true));
             } else {
-                sb.append("#set($isFormWidget= \"").append(false).append("\")");
+                vars.quoted("isFormWidget", String.valueOf(false));
             }
         } else {
-            sb.append("#set($isWidget= \"").append(false).append("\")");
+            vars.quoted("isWidget", String.valueOf(false));
         }
 
-        return writeOutVelocity(filePath, sb.toString());
+        return vars;
     }
 
     @SuppressWarnings("unchecked")
@@ -575,6 +527,30 @@ public class ContentletLoader implements DotLoader {
     public InputStream writeObject(final VelocityResourceKey key)
             throws DotStateException, DotDataException, DotSecurityException {
 
+        return buildVelocity(findContentlet(key), key.mode, key.path);
+    }
+
+    /**
+     * The variables of the contentlet of the key, built and cached on the first call
+     *
+     * @param key the path of the contentlet
+     * @return
+     * @throws DotDataException
+     * @throws DotSecurityException
+     */
+    public ContentletVariables getVariables(final VelocityResourceKey key) throws DotDataException, DotSecurityException {
+
+        final DotResourceCache cache = CacheLocator.getVeloctyResourceCache();
+        ContentletVariables variables = cache.getContentletVariables(key);
+        if (null == variables) {
+            variables = buildVariables(findContentlet(key), key.mode).build(key.path);
+            cache.putContentletVariables(key, variables);
+        }
+        return variables;
+    }
+
+    private Contentlet findContentlet(final VelocityResourceKey key) throws DotDataException, DotSecurityException {
+
         long language = new Long(key.language);
         ContentletVersionInfo info = APILocator.getVersionableAPI().getContentletVersionInfo(key.id1, language);
         if (info == null && language != defaultLang && APILocator.getLanguageAPI().canDefaultContentToDefaultLanguage()) {
@@ -592,9 +568,7 @@ public class ContentletLoader implements DotLoader {
         if (null == contentlet) {
             throw new ResourceNotFoundException("cannot find content for: " + key);
         }
-        return buildVelocity(contentlet, key.mode, key.path);
-
-
+        return contentlet;
     }
 
 
@@ -0,0 +1,229 @@
+package com.dotcms.rendering.velocity.services;
+
+import com.dotcms.rendering.velocity.util.VelocityUtil;
+
+import com.dotmarketing.util.Config;
+import com.dotmarketing.util.UtilMethods;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.context.InternalContextAdapter;
+import org.apache.velocity.context.InternalContextAdapterImpl;
+import org.apache.velocity.exception.ParseErrorException;
+import org.apache.velocity.runtime.RuntimeServices;
+import org.apache.velocity.runtime.parser.node.SimpleNode;
+
+/**
+ * The variables a contentlet sets in the Velocity context when it is rendered by
+ * <code>#contentDetail</code>, e.g. inside a container, as an alternative to its generated VTL.
+ * <p/>
+ * Most of the variables of a contentlet are constants (its identifiers, the values of its fields,
+ * their formats) and are put straight into the context. Only the variables that depend on the
+ * request, like the file objects or the categories the user can see, are kept as VTL, parsed once
+ * when the variables are built. The variables are set in the same order as the generated VTL
+ * sets them.
+ * <p/>
+ * Enabled with <strong>VELOCITY_CONTENTLET_BIND_VARIABLES</strong>, the generated VTL is used
+ * otherwise.
+ *
+ * @see ContentletLoader
+ */
+public final class ContentletVariables {
+
+    private final List<Step> steps;
+
+    private ContentletVariables(final List<Step> steps) {
+        this.steps = steps;
+    }
+
+    public static boolean isEnabled() {
+        return Config.getBooleanProperty("VELOCITY_CONTENTLET_BIND_VARIABLES", false);
+    }
+
+    /**
+     * Sets the variables in the context
+     *
+     * @param context
+     * @param writer
+     * @throws IOException
+     */
+    public void bind(final InternalContextAdapter context, final Writer writer) throws IOException {
+        for (final Step step : this.steps) {
+            step.apply(context, writer);
+        }
+    }
+
+    private interface Step {
+        void apply(InternalContextAdapter context, Writer writer) throws IOException;
+    }
+
+    private static final class Constants implements Step {
+
+        private final String[] names;
+        private final Object[] values;
+
+        Constants(final Map<String, Object> constants) {
+            this.names  = constants.keySet().toArray(new String[constants.size()]);
+            this.values = constants.values().toArray();
+        }
+
+        @Override
+        public void apply(final InternalContextAdapter context, final Writer writer) {
+            for (int i = 0; i < this.names.length; i++) {
+                final Object value = this.values[i];
+                // the templates get their own copy of the dates, as they would from $date.toDate
+                context.put(this.names[i], value instanceof Date ? ((Date) value).clone() : value);
+            }
+        }
+    }
+
+    private static final class Statements implements Step {
+
+        private final SimpleNode node;
+
+        Statements(final SimpleNode node) {
+            this.node = node;
+        }
+
+        @Override
+        public void apply(final InternalContextAdapter context, final Writer writer) throws IOException {
+            this.node.render(context, writer);
+        }
+    }
+
+    /**
+     * Collects the variables of a contentlet, in order, both as VTL ({@link #toVelocity()}) and
+     * as {@link ContentletVariables} ({@link #build(String)}).
+     */
+    public static final class Builder {
+
+        private final StringBuilder velocity = new StringBuilder();
+        // Map of constants or StringBuilder of statements
+        private final List<Object> steps = new ArrayList<>();
+
+        /**
+         * Sets a single quoted string: <code>#set($name='text' )</code>
+         */
+        public Builder literal(final String name, final String text) {
+            this.velocity.append("#set($").append(name).append("='").append(text).append("' )");
+            this.constant(name, text);
+            return this;
+        }
+
+        /**
+         * Sets a double quoted string: <code>#set($name="text")</code>. The text is evaluated when
+         * it has references or directives, so it must be escaped as it would be in the VTL.
+         */
+        public Builder quoted(final String name, final String text) {
+            if (text.contains("$") || text.contains("#")) {
+                return this.vtl("#set($" + name + "=\"" + text + "\")");
+            }
+            this.velocity.append("#set($").append(name).append("=\"").append(text).append("\")");
+            this.constant(name, text);
+            return this;
+        }
+
+        /**
+         * Sets a date: <code>#set($name=$date.toDate("format", "text"))</code>. Nothing is set
+         * when the text is not a date.
+         */
+        public Builder date(final String name, final String format, final String text) {
+            this.velocity.append("#set($").append(name).append("=$date.toDate(\"").append(format)
+                .append("\", \"").append(text).append("\"))");
+            if (UtilMethods.isSet(text)) {
+                try {
+                    this.constant(name, new SimpleDateFormat(format).parse(text));
+                } catch (ParseException e) {
+                    // $date.toDate returns null, which does not change the variable
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Statements evaluated every time the contentlet is rendered
+         */
+        public Builder vtl(final String vtl) {
+            if (!UtilMethods.isSet(vtl)) {
+                return this;
+            }
+            this.velocity.append(vtl);
+            final Object last = this.steps.isEmpty() ? null : this.steps.get(this.steps.size() - 1);
+            if (last instanceof StringBuilder) {
+                ((StringBuilder) last).append(vtl);
+            } else {
+                this.steps.add(new StringBuilder(vtl));
+            }
+            return this;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void constant(final String name, final Object value) {
+            final Object last = this.steps.isEmpty() ? null : this.steps.get(this.steps.size() - 1);
+            if (last instanceof Map) {
+                ((Map<String, Object>) last).put(name, value);
+            } else {
+                final Map<String, Object> constants = new LinkedHashMap<>();
+                constants.put(name, value);
+                this.steps.add(constants);
+            }
+        }
+
+        /**
+         * The variables as VTL
+         *
+         * @return
+         */
+        public String toVelocity() {
+            return this.velocity.toString();
+        }
+
+        /**
+         * The variables, with the statements parsed
+         *
+         * @param templateName the name of the statements in the errors, the path of the contentlet
+         * @return
+         * @throws ParseErrorException if the statements can not be parsed
+         */
+        @SuppressWarnings("unchecked")
+        public ContentletVariables build(final String templateName) {
+
+            final List<Step> built = new ArrayList<>(this.steps.size());
+            for (final Object step : this.steps) {
+                built.add(step instanceof Map
+                        ? new Constants((Map<String, Object>) step)
+                        : new Statements(parse(step.toString(), templateName)));
+            }
+            return new ContentletVariables(built);
+        }
+
+        private static SimpleNode parse(final String vtl, final String templateName) {
+
+            final RuntimeServices rsvc = VelocityUtil.getEngine().getRuntimeServices();
+            try {
+                final SimpleNode node = rsvc.parse(new StringReader(vtl), templateName);
+                final InternalContextAdapterImpl ica = new InternalContextAdapterImpl(new VelocityContext());
+                ica.pushCurrentTemplateName(templateName);
+                try {
+                    node.init(ica, rsvc);
+                } finally {
+                    ica.popCurrentTemplateName();
+                }
+                return node;
+            } catch (org.apache.velocity.runtime.parser.ParseException e) {
+                throw new ParseErrorException(e, templateName);
+            }
+        }
+    }
+
+}
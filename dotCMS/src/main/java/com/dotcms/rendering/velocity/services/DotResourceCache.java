@@ -3,6 +3,7 @@
  */
 package com.dotcms.rendering.velocity.services;
 
+import com.dotcms.rendering.velocity.util.VelocityEvalCache;
 import com.dotcms.repackage.com.google.common.collect.ImmutableSet;
 
 import com.dotmarketing.business.Cachable;
@@ -41,6 +42,7 @@ public class DotResourceCache implements ResourceCache, Cachable {
     // region's name for the cache
     private String[] groupNames = {primaryGroup, macroCacheGroup};
     private static final String MACRO_PREFIX = "MACRO_PREFIX";
+    private static final String VARIABLES_SUFFIX = ".variables";
     private final Set<String> ignoreGlobalVM;
 
 
@@ -137,6 +139,17 @@ public class DotResourceCache implements ResourceCache, Cachable {
 
     }
 
+    /**
+     * The variables of the contentlet of the key, see {@link ContentletVariables}
+     */
+    public ContentletVariables getContentletVariables(final VelocityResourceKey key) {
+        return (ContentletVariables) cache.getNoThrow(key.cacheKey + VARIABLES_SUFFIX, primaryGroup);
+    }
+
+    public void putContentletVariables(final VelocityResourceKey key, final ContentletVariables variables) {
+        cache.put(key.cacheKey + VARIABLES_SUFFIX, variables, primaryGroup);
+    }
+
     @Override
     public Resource remove(final Object resourceKey) {
         
@@ -144,6 +157,9 @@ public class DotResourceCache implements ResourceCache, Cachable {
 
         try {
             cache.remove(key.cacheKey, primaryGroup);
+            if (key.type == VelocityType.CONTENT) {
+                cache.remove(key.cacheKey + VARIABLES_SUFFIX, primaryGroup);
+            }
         } catch (Exception e) {
             Logger.debug(this, e.getMessage(), e);
         }
@@ -154,6 +170,7 @@ public class DotResourceCache implements ResourceCache, Cachable {
         for (String group : groupNames) {
             cache.flushGroup(group);
         }
+        VelocityEvalCache.getInstance().clear();
 
     }
 
@@ -1,5 +1,6 @@
 package com.dotcms.rendering.velocity.servlet;
 
+import com.dotcms.concurrent.SingleFlight;
 import com.dotcms.enterprise.LicenseUtil;
 import com.dotcms.rendering.velocity.util.VelocityUtil;
 import com.dotcms.visitor.domain.Visitor;
@@ -10,12 +11,15 @@ import com.dotmarketing.beans.UserProxy;
 import com.dotmarketing.business.APILocator;
 import com.dotmarketing.business.BlockPageCache;
 import com.dotmarketing.business.BlockPageCache.PageCacheParameters;
+import com.dotmarketing.business.BlockPageCacheEntry;
 import com.dotmarketing.business.CacheLocator;
 import com.dotmarketing.business.web.WebAPILocator;
 import com.dotmarketing.exception.DotDataException;
+import com.dotmarketing.exception.DotRuntimeException;
 import com.dotmarketing.exception.DotSecurityException;
 import com.dotmarketing.factories.ClickstreamFactory;
 import com.dotmarketing.filters.CMSUrlUtil;
+import com.dotmarketing.filters.compression.GZIPResponseStream;
 import com.dotmarketing.portlets.htmlpageasset.model.IHTMLPage;
 import com.dotmarketing.portlets.rules.business.RulesEngine;
 import com.dotmarketing.portlets.rules.model.Rule;
@@ -31,6 +35,7 @@ import java.io.OutputStreamWriter;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.util.Optional;
+import java.util.concurrent.Callable;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -50,6 +55,8 @@ public class VelocityLiveMode extends VelocityModeHandler {
     private final String uri;
     private final Host host;
 
+    private static final long RENDER_WAIT_MILLIS = Config.getLongProperty("PAGE_CACHE_RENDER_WAIT_MILLIS", 5000);
+    private static final SingleFlight<String, BlockPageCacheEntry> pageRenders = new SingleFlight<>();
 
 
     public VelocityLiveMode(HttpServletRequest request, HttpServletResponse response, String uri, Host host) {
@@ -66,11 +73,16 @@ public class VelocityLiveMode extends VelocityModeHandler {
 
     @Override
     public final void serve() throws DotDataException, IOException, DotSecurityException {
-        serve(response.getOutputStream());
+        serve(response.getOutputStream(), true);
     }
 
     @Override
     public final void serve(final OutputStream out) throws DotDataException, IOException, DotSecurityException {
+        serve(out, false);
+    }
+
+    private void serve(final OutputStream out, final boolean toResponse)
+            throws DotDataException, IOException, DotSecurityException {
 
         LicenseUtil.startLiveMode();
         try {
@@ -153,26 +165,40 @@ public class VelocityLiveMode extends VelocityModeHandler {
 
             String key = VelocityUtil.getPageCacheKey(request, htmlPage);
             if (key != null) {
-                String cachedPage = CacheLocator.getBlockPageCache().get(htmlPage, cacheParameters);
+                final BlockPageCacheEntry cachedPage = CacheLocator.getBlockPageCache().getEntry(htmlPage, cacheParameters);
                 if (cachedPage != null) {
                     // have cached response and are not refreshing, send it
-                    out.write(cachedPage.getBytes());
+                    writePage(cachedPage, out, toResponse);
                     return;
                 }
+
+                // only one request renders a given version of the page, the rest wait for it or
+                // get the stale copy if there is one
+                final String renderKey = key + "_" + cacheParameters.getKey();
+                if (pageRenders.isInFlight(renderKey)) {
+                    final BlockPageCacheEntry stalePage = CacheLocator.getBlockPageCache().getStale(htmlPage, cacheParameters);
+                    if (stalePage != null) {
+                        writePage(stalePage, out, toResponse);
+                        return;
+                    }
+                }
+
+                final BlockPageCacheEntry renderedPage = renderOnce(renderKey, () -> {
+                    final StringWriter tmpOut = new StringWriter(4096);
+                    this.getTemplate(htmlPage, mode).merge(context, tmpOut);
+                    final BlockPageCacheEntry entry =
+                            new BlockPageCacheEntry(tmpOut.toString().trim(), (int) htmlPage.getCacheTTL());
+                    CacheLocator.getBlockPageCache().add(htmlPage, entry, cacheParameters);
+                    return entry;
+                });
+                writePage(renderedPage, out, toResponse);
+                return;
             }
 
 
-            try (Writer tmpOut = (key != null) ? new StringWriter(4096) : new BufferedWriter(new OutputStreamWriter(out))) {
+            try (Writer tmpOut = new BufferedWriter(new OutputStreamWriter(out))) {
 
                 this.getTemplate(htmlPage, mode).merge(context, tmpOut);
-
-                if (key != null) {
-                    String trimmedPage = tmpOut.toString().trim();
-                    out.write(trimmedPage.getBytes());
-                    synchronized (key.intern()) {
-                        CacheLocator.getBlockPageCache().add(htmlPage, trimmedPage, cacheParameters);
-                    }
-                }
             }
 
         } finally {
@@ -181,6 +207,60 @@ public class VelocityLiveMode extends VelocityModeHandler {
         }
     }
 
+    /**
+     * Writes an already encoded page. When writing to the response the gzipped version is sent to the
+     * clients accepting it, and a 304 is sent to the ones that already have the page (If-None-Match).
+     */
+    private void writePage(final BlockPageCacheEntry page, final OutputStream out, final boolean toResponse)
+            throws IOException {
+
+        if (!toResponse) {
+            out.write(page.getBytes());
+            return;
+        }
+
+        // the GZIPFilter may be compressing the response already
+        final GZIPResponseStream gzipStream = (out instanceof GZIPResponseStream) ? (GZIPResponseStream) out : null;
+        final String acceptEncoding = request.getHeader("Accept-Encoding");
+        final boolean gzip = page.hasGzip() && acceptEncoding != null && acceptEncoding.contains("gzip");
+
+        response.setHeader("ETag", page.getETag(gzip || gzipStream != null));
+        if (page.hasGzip()) {
+            response.setHeader("Vary", "Accept-Encoding");
+        }
+
+        if (page.matches(request.getHeader("If-None-Match"))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            if (gzipStream != null) {
+                gzipStream.writePrecompressed(null);
+            }
+            return;
+        }
+
+        if (gzip && gzipStream != null) {
+            gzipStream.writePrecompressed(page.getGzipBytes());
+        } else if (gzip) {
+            response.setHeader("Content-Encoding", "gzip");
+            response.setContentLength(page.getGzipBytes().length);
+            out.write(page.getGzipBytes());
+        } else {
+            response.setContentLength(page.getBytes().length);
+            out.write(page.getBytes());
+        }
+    }
+
+    private BlockPageCacheEntry renderOnce(final String renderKey, final Callable<BlockPageCacheEntry> render)
+            throws DotDataException, IOException, DotSecurityException {
+
+        try {
+            return pageRenders.load(renderKey, render, RENDER_WAIT_MILLIS);
+        } catch (DotDataException | IOException | DotSecurityException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DotRuntimeException(e);
+        }
+    }
+
     User getUser() {
         User user = null;
         final HttpSession session = request.getSession(false);
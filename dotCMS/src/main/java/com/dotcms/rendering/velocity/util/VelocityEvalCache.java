@@ -0,0 +1,191 @@
+package com.dotcms.rendering.velocity.util;
+
+import com.dotcms.repackage.com.google.common.annotations.VisibleForTesting;
+
+import com.dotmarketing.util.Config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.context.Context;
+import org.apache.velocity.context.InternalContextAdapterImpl;
+import org.apache.velocity.exception.ParseErrorException;
+import org.apache.velocity.exception.TemplateInitException;
+import org.apache.velocity.exception.VelocityException;
+import org.apache.velocity.runtime.RuntimeConstants;
+import org.apache.velocity.runtime.RuntimeInstance;
+import org.apache.velocity.runtime.RuntimeServices;
+import org.apache.velocity.runtime.directive.StopCommand;
+import org.apache.velocity.runtime.parser.ParseException;
+import org.apache.velocity.runtime.parser.node.SimpleNode;
+
+/**
+ * Keeps the parsed trees of the VTL evaluated with <code>$render.eval</code>, usually the VTL
+ * stored in the WYSIWYG and text fields of the contentlets, so evaluating the same source again
+ * only renders it.
+ * <p/>
+ * The trees are keyed by the sha256 of their source: when a contentlet changes its fields are a
+ * new source with a new key, the tree of the old version is never used again and ages out. The
+ * trees are also dropped when the Velocity cache is flushed.
+ * <ul>
+ *     <li><strong>VELOCITY_EVAL_CACHE_MAX_CHARS</strong>: total length of the sources of the trees
+ *     kept, 0 disables the cache (default 4M)</li>
+ *     <li><strong>VELOCITY_EVAL_CACHE_MAX_SOURCE_CHARS</strong>: longer sources are parsed on every
+ *     eval (default 64K)</li>
+ *     <li><strong>VELOCITY_EVAL_CACHE_EXPIRE_SECONDS</strong>: trees not evaluated for this long are
+ *     dropped (default 1 hour)</li>
+ * </ul>
+ * Sources that define macros are never cached, as Velocity registers the macros when they are
+ * parsed.
+ */
+public class VelocityEvalCache {
+
+    private static class SingletonHolder {
+        private static final VelocityEvalCache INSTANCE = new VelocityEvalCache(
+                Config.getLongProperty("VELOCITY_EVAL_CACHE_MAX_CHARS", 4 * 1024 * 1024),
+                Config.getIntProperty("VELOCITY_EVAL_CACHE_MAX_SOURCE_CHARS", 64 * 1024),
+                Config.getLongProperty("VELOCITY_EVAL_CACHE_EXPIRE_SECONDS", 3600));
+    }
+
+    private final Cache<String, Parsed> cache;
+    private final int maxSourceChars;
+
+    @VisibleForTesting
+    VelocityEvalCache(final long maxChars, final int maxSourceChars, final long expireSeconds) {
+
+        this.maxSourceChars = maxSourceChars;
+        this.cache = maxChars > 0 && maxSourceChars > 0
+                ? Caffeine.newBuilder().maximumWeight(maxChars)
+                        .weigher((String key, Parsed parsed) -> parsed.chars)
+                        .expireAfterAccess(expireSeconds, TimeUnit.SECONDS).build()
+                : null;
+    }
+
+    public static VelocityEvalCache getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Evaluates the VTL with the context, as {@link RuntimeInstance#evaluate(Context, Writer, String, String)}
+     * does, reusing the tree of the VTL when it was already parsed
+     *
+     * @param rsvc the runtime of the engine of the caller
+     * @param context
+     * @param writer
+     * @param logTag the name of the VTL in the errors
+     * @param vtl
+     * @return true if the VTL was rendered
+     * @throws ParseErrorException if the VTL can not be parsed
+     */
+    public boolean evaluate(final RuntimeInstance rsvc, final Context context, final Writer writer,
+                            final String logTag, final String vtl) {
+
+        if (!isCacheable(rsvc, vtl)) {
+            final long start = System.nanoTime();
+            final SimpleNode node = parse(rsvc, logTag, vtl, false);
+            VelocityProfiler.evalParsed(logTag, System.nanoTime() - start);
+            // initializes and renders the tree as RuntimeInstance.evaluate does
+            return rsvc.render(context, writer, logTag, node);
+        }
+
+        final String key = DigestUtils.sha256Hex(vtl);
+        Parsed parsed = this.cache.getIfPresent(key);
+        if (null == parsed) {
+            final long start = System.nanoTime();
+            parsed = new Parsed(parse(rsvc, logTag, vtl, true), vtl.length());
+            VelocityProfiler.evalParsed(logTag, System.nanoTime() - start);
+            this.cache.put(key, parsed);
+        } else {
+            VelocityProfiler.evalCached();
+        }
+        return render(rsvc, context, writer, logTag, parsed.node);
+    }
+
+    /**
+     * Drops all the trees
+     */
+    public void clear() {
+        if (null != this.cache) {
+            this.cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Number of trees in memory
+     *
+     * @return
+     */
+    public long size() {
+        return null != this.cache ? this.cache.estimatedSize() : 0;
+    }
+
+    private static final class Parsed {
+
+        private final SimpleNode node;
+        private final int chars;
+
+        Parsed(final SimpleNode node, final int chars) {
+            this.node  = node;
+            this.chars = chars;
+        }
+    }
+
+    private boolean isCacheable(final RuntimeServices rsvc, final String vtl) {
+
+        // the #evaluate scope would have to be put in the context as RuntimeInstance.render does
+        return null != this.cache && vtl.length() <= this.maxSourceChars && !vtl.contains("#macro")
+                && !rsvc.getBoolean("evaluate." + RuntimeConstants.PROVIDE_SCOPE_CONTROL, false);
+    }
+
+    private static SimpleNode parse(final RuntimeServices rsvc, final String logTag, final String vtl,
+                                    final boolean init) {
+
+        final SimpleNode node;
+        try {
+            node = rsvc.parse(new StringReader(vtl), logTag);
+        } catch (ParseException e) {
+            throw new ParseErrorException(e, null);
+        }
+
+        if (init) {
+            // shared trees are initialized once, as the templates are
+            final InternalContextAdapterImpl ica = new InternalContextAdapterImpl(new VelocityContext());
+            ica.pushCurrentTemplateName(logTag);
+            try {
+                node.init(ica, rsvc);
+            } catch (TemplateInitException e) {
+                throw new ParseErrorException(e, null);
+            } finally {
+                ica.popCurrentTemplateName();
+            }
+        }
+        return node;
+    }
+
+    private static boolean render(final RuntimeServices rsvc, final Context context, final Writer writer,
+                                  final String logTag, final SimpleNode node) {
+
+        final InternalContextAdapterImpl ica = new InternalContextAdapterImpl(context);
+        ica.pushCurrentTemplateName(logTag);
+        try {
+            node.render(ica, writer);
+        } catch (StopCommand stop) {
+            if (!stop.isFor(rsvc)) {
+                throw stop;
+            }
+        } catch (IOException e) {
+            throw new VelocityException("IO Error in writer: " + e.getMessage(), e);
+        } finally {
+            ica.popCurrentTemplateName();
+        }
+        return true;
+    }
+
+}
@@ -1,11 +1,59 @@
 package com.dotcms.rendering.velocity.util;
 
+import com.dotmarketing.util.Config;
 import com.dotmarketing.util.Logger;
 
 import com.liferay.portal.model.User;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
 public class VelocityProfiler {
 
+	// $render.eval counters, see VelocityEvalCache
+	private static final LongAdder evalParses = new LongAdder();
+	private static final LongAdder evalParseNanos = new LongAdder();
+	private static final LongAdder evalCacheHits = new LongAdder();
+
+	/**
+	 * Counts an eval that had to parse its VTL, logged when <strong>VELOCITY_PROFILING</strong> is on
+	 *
+	 * @param logTag
+	 * @param nanos the time spent parsing
+	 */
+	public static void evalParsed(String logTag, long nanos){
+		evalParses.increment();
+		evalParseNanos.add(nanos);
+		if(Config.getBooleanProperty("VELOCITY_PROFILING", false)){
+			log(VelocityEvalCache.class, logTag, "parsed in " + TimeUnit.NANOSECONDS.toMicros(nanos) + " us");
+		}
+	}
+
+	/**
+	 * Counts an eval that reused the parsed VTL
+	 */
+	public static void evalCached(){
+		evalCacheHits.increment();
+	}
+
+	public static long getEvalParseCount(){
+		return evalParses.sum();
+	}
+
+	public static long getEvalParseTimeMillis(){
+		return TimeUnit.NANOSECONDS.toMillis(evalParseNanos.sum());
+	}
+
+	public static long getEvalCacheHitCount(){
+		return evalCacheHits.sum();
+	}
+
+	public static void resetEvalCounters(){
+		evalParses.reset();
+		evalParseNanos.reset();
+		evalCacheHits.reset();
+	}
+
 	public static void log(Class cl,String msg){		
 		Logger.info(cl,  msg);
 		Logger.info(VelocityProfiler.class, cl.toString() + msg);
@@ -1,12 +1,45 @@
 package com.dotcms.rendering.velocity.viewtools;
 
+import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.context.Context;
 import org.apache.velocity.tools.view.tools.ViewRenderTool;
 
+import com.dotcms.rendering.velocity.util.VelocityEvalCache;
 import com.dotmarketing.util.VelocityUtil;
 
+import java.io.StringWriter;
+
 public class DotRenderTool extends ViewRenderTool {
-	
+
+	private static final String LOG_TAG = "RenderTool.eval()";
+
+	private VelocityEngine engine;
+
 	public DotRenderTool() {
 		setVelocityEngine(VelocityUtil.getEngine());
 	}
+
+	@Override
+	public void setVelocityEngine(VelocityEngine ve) {
+		super.setVelocityEngine(ve);
+		this.engine = ve;
+	}
+
+	/**
+	 * Evaluates the VTL as {@link ViewRenderTool#eval(Context, String)} does, parsing it only the
+	 * first time it is evaluated (see {@link VelocityEvalCache})
+	 */
+	@Override
+	public String eval(Context ctx, String vtl) throws Exception {
+		if (vtl == null) {
+			return null;
+		}
+		if (engine == null) {
+			return super.eval(ctx, vtl);
+		}
+		StringWriter sw = new StringWriter();
+		return VelocityEvalCache.getInstance().evaluate(engine.getRuntimeServices(), ctx, sw, LOG_TAG, vtl)
+				? sw.toString()
+				: null;
+	}
 }
\ No newline at end of file
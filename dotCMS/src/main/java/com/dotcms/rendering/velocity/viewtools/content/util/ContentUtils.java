@@ -184,8 +184,8 @@ public class ContentUtils {
 		            				" TO "+ffdate+"] "+notexpired;
 		            String lquery=query + " +live:true " + notexpired;
 		            
-		            PaginatedArrayList<Contentlet> wc=(PaginatedArrayList<Contentlet>)conAPI.search(wquery, limit, offset, sort, user, true);
-		            PaginatedArrayList<Contentlet> lc=(PaginatedArrayList<Contentlet>)conAPI.search(lquery, limit, offset, sort, user, true);
+		            PaginatedArrayList<Contentlet> wc=(PaginatedArrayList<Contentlet>)conAPI.searchFromIndex(wquery, limit, offset, sort, user, true);
+		            PaginatedArrayList<Contentlet> lc=(PaginatedArrayList<Contentlet>)conAPI.searchFromIndex(lquery, limit, offset, sort, user, true);
 		            ret.setQuery(lquery);
 		            // merging both results avoiding repeated inodes
 		            Set<String> inodes=new HashSet<String>();
@@ -233,7 +233,7 @@ public class ContentUtils {
 			    }
 			    else {
 			        // normal query
-			        PaginatedArrayList<Contentlet> conts=(PaginatedArrayList<Contentlet>)conAPI.search(query, limit, offset, sort, user, true);
+			        PaginatedArrayList<Contentlet> conts=(PaginatedArrayList<Contentlet>)conAPI.searchFromIndex(query, limit, offset, sort, user, true);
 			        ret.setTotalResults(conts.getTotalResults());
 			        ret.setQuery(query);
 			        contentlets=conts;
@@ -0,0 +1,231 @@
+package com.dotcms.rendering.velocity.viewtools.navigation;
+
+import com.dotmarketing.business.APILocator;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A folder of the navigation tree of a host: the folder and its menu items (folders, pages, links and
+ * files) in all the languages, as {@link NavTool} reads them from the database. It is built once and
+ * kept in the {@link NavToolCache}, the {@link NavResult} of each language is a view of it, built in
+ * memory the first time the language is asked for.
+ * <p/>
+ * Changing a folder or one of its assets removes just that folder from the tree (see
+ * {@link NavToolCache#removeNav(String, String)}), it is read again the next time it is asked for.
+ */
+public final class NavFolder implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    static final String FOLDER = "folder";
+    static final String PAGE = "htmlpage";
+    static final String LINK = "link";
+    static final String FILE = "file";
+
+    private final String hostId;
+    private final String folderInode;
+    private final String parentInode;
+    private final String href;
+    private final String title;
+    private final int order;
+    private final String permissionId;
+    private final boolean showOnMenu;
+    private final List<Item> items = new ArrayList<>();
+
+    private transient volatile Map<Long, NavResult> views;
+
+    NavFolder(final String hostId, final String folderInode, final String parentInode, final String href,
+              final String title, final int order, final String permissionId, final boolean showOnMenu) {
+
+        this.hostId       = hostId;
+        this.folderInode  = folderInode;
+        this.parentInode  = parentInode;
+        this.href         = href;
+        this.title        = title;
+        this.order        = order;
+        this.permissionId = permissionId;
+        this.showOnMenu   = showOnMenu;
+    }
+
+    /**
+     * A menu item of the folder
+     */
+    static final class Item implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String type;
+        // 0 for the items shown in all the languages
+        private final long languageId;
+        private final String identifier;
+        private final String folderInode;
+        private String title;
+        private String href;
+        private String codeLink;
+        private String target;
+        private int order;
+        private String permissionId;
+        private boolean showOnMenu;
+
+        Item(final String type, final long languageId, final String identifier, final String folderInode) {
+            this.type        = type;
+            this.languageId  = languageId;
+            this.identifier  = identifier;
+            this.folderInode = folderInode;
+        }
+
+        Item title(final String title) {
+            this.title = title;
+            return this;
+        }
+
+        Item href(final String href) {
+            this.href = href;
+            return this;
+        }
+
+        Item codeLink(final String codeLink) {
+            this.codeLink = codeLink;
+            return this;
+        }
+
+        Item target(final String target) {
+            this.target = target;
+            return this;
+        }
+
+        Item order(final int order) {
+            this.order = order;
+            return this;
+        }
+
+        Item permissionId(final String permissionId) {
+            this.permissionId = permissionId;
+            return this;
+        }
+
+        Item showOnMenu(final boolean showOnMenu) {
+            this.showOnMenu = showOnMenu;
+            return this;
+        }
+    }
+
+    void add(final Item item) {
+        this.items.add(item);
+    }
+
+    public String getHostId() {
+        return hostId;
+    }
+
+    public String getFolderInode() {
+        return folderInode;
+    }
+
+    /**
+     * The inodes of the folders in the menu of this folder
+     *
+     * @return
+     */
+    public List<String> getChildFolderInodes() {
+
+        final List<String> folderInodes = new ArrayList<>();
+        for (final Item item : this.items) {
+            if (FOLDER.equals(item.type)) {
+                folderInodes.add(item.folderInode);
+            }
+        }
+        return folderInodes;
+    }
+
+    /**
+     * The folder and its menu items in a language: the pages and files in the language, or in the
+     * default language when they do not exist in the language and the languages are set to
+     * default to it, the folders and links in all of them
+     *
+     * @param languageId
+     * @return
+     */
+    public NavResult getNav(final long languageId) {
+
+        Map<Long, NavResult> views = this.views;
+        if (null == views) {
+            synchronized (this) {
+                if (null == this.views) {
+                    this.views = new ConcurrentHashMap<>();
+                }
+                views = this.views;
+            }
+        }
+        return views.computeIfAbsent(languageId, this::view);
+    }
+
+    private NavResult view(final long languageId) {
+
+        final long defaultLanguage = APILocator.getLanguageAPI().getDefaultLanguage().getId();
+        final boolean pagesInDefaultLanguage = APILocator.getLanguageAPI().canDefaultPageToDefaultLanguage();
+        final boolean filesInDefaultLanguage = APILocator.getLanguageAPI().canDefaultFileToDefaultLanguage();
+
+        final NavResult result = new NavResult(this.parentInode, this.hostId, this.folderInode, languageId);
+        result.setHref(this.href);
+        result.setTitle(this.title);
+        result.setOrder(this.order);
+        result.setType(FOLDER);
+        result.setPermissionId(this.permissionId);
+        result.setShowOnMenu(this.showOnMenu);
+
+        final List<NavResult> children = new ArrayList<>();
+        final List<String> folderIds = new ArrayList<>();
+        for (final Item item : this.items) {
+
+            final NavResult nav;
+            if (FOLDER.equals(item.type)) {
+                // it will load lazily its children
+                nav = new NavResult(this.folderInode, this.hostId, item.folderInode, languageId);
+                folderIds.add(item.folderInode);
+            } else if (LINK.equals(item.type)) {
+                nav = new NavResult(this.folderInode, this.hostId, languageId);
+            } else if (item.languageId == languageId
+                    || (item.languageId == defaultLanguage
+                        && (PAGE.equals(item.type) ? pagesInDefaultLanguage : filesInDefaultLanguage)
+                        && !this.existsIn(item, languageId))) {
+                nav = new NavResult(this.folderInode, this.hostId, item.languageId);
+            } else {
+                continue;
+            }
+
+            nav.setTitle(item.title);
+            if (null != item.codeLink) {
+                nav.setCodeLink(item.codeLink);
+            } else {
+                nav.setHref(item.href);
+            }
+            nav.setOrder(item.order);
+            nav.setType(item.type);
+            nav.setTarget(item.target);
+            nav.setPermissionId(item.permissionId);
+            nav.setShowOnMenu(item.showOnMenu);
+            children.add(nav);
+        }
+        result.setChildren(Collections.unmodifiableList(children));
+        result.setChildrenFolderIds(Collections.unmodifiableList(folderIds));
+        return result;
+    }
+
+    private boolean existsIn(final Item item, final long languageId) {
+
+        for (final Item other : this.items) {
+            if (other.languageId == languageId && other.type.equals(item.type)
+                    && other.identifier.equals(item.identifier)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
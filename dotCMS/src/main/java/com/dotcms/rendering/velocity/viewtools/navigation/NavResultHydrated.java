@@ -121,15 +121,22 @@ public final class NavResultHydrated extends NavResult{
         
         
         if (Config.getBooleanProperty("ENABLE_NAV_PERMISSION_CHECK", false)) {
-            // now filtering permissions
-            List<NavResult> allow = new ArrayList<NavResult>(list.size());
-
+            // now filtering permissions, the whole level at once
             HttpServletRequest req = (HttpServletRequest) context.getRequest();
             User currentUser = WebAPILocator.getUserWebAPI()
                 .getLoggedInUser(req);
             if (currentUser == null)
                 currentUser = APILocator.getUserAPI()
                     .getAnonymousUser();
+            try {
+                return APILocator.getPermissionAPI()
+                    .filterCollection(list, PermissionAPI.PERMISSION_READ, true, currentUser);
+            } catch (Exception ex) {
+                Logger.error(this, ex.getMessage(), ex);
+            }
+
+            // one item at a time, so an item that fails does not hide the rest of the level
+            List<NavResult> allow = new ArrayList<NavResult>(list.size());
             for (NavResult nv : list) {
                 try {
                     if (APILocator.getPermissionAPI()
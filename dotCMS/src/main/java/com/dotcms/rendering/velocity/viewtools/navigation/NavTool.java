@@ -88,157 +88,141 @@ public class NavTool implements ViewTool {
         if (folder == null || !UtilMethods.isSet(folder.getIdentifier())) {
             return null;
         }
-        NavResult result = CacheLocator.getNavToolCache()
-            .getNav(host.getIdentifier(), folder.getInode(), languageId);
-        if (result != null) {
 
-            return new NavResultHydrated(result, this.context);
+        NavFolder navFolder = loadFolder(host, folder, systemUserParam);
+        NavTreeLoader.getInstance().load(host);
+
+        return new NavResultHydrated(navFolder.getNav(languageId), this.context);
+    }
+
+    /**
+     * The folder of the navigation tree of the host, read from the database and kept in the
+     * {@link NavToolCache} if it is not there yet
+     */
+    NavFolder loadFolder(Host host, Folder folder, User systemUserParam)
+            throws DotDataException, DotSecurityException {
+
+        NavFolder navFolder = CacheLocator.getNavToolCache()
+            .getNavFolder(host.getIdentifier(), folder.getInode());
+        if (navFolder == null) {
+            navFolder = buildFolder(host, folder, systemUserParam);
+            CacheLocator.getNavToolCache()
+                .putNavFolder(host.getIdentifier(), folder.getInode(), navFolder);
+        }
+        return navFolder;
+    }
+
+    private NavFolder buildFolder(Host host, Folder folder, User systemUserParam)
+            throws DotDataException, DotSecurityException {
+
+        final boolean isRoot = folder.getInode()
+            .equals(FolderAPI.SYSTEM_FOLDER);
+        Identifier ident = APILocator.getIdentifierAPI()
+            .find(folder);
+        String parentId;
+        if (!isRoot) {
+            parentId = ident.getParentPath()
+                .equals("/") ? FolderAPI.SYSTEM_FOLDER
+                        : APILocator.getFolderAPI()
+                            .findFolderByPath(ident.getParentPath(), host, systemUserParam, false)
+                            .getInode();
         } else {
-            String parentId;
-            if (!folder.getInode()
-                .equals(FolderAPI.SYSTEM_FOLDER)) {
-                Identifier ident = APILocator.getIdentifierAPI()
-                    .find(folder);
-                parentId = ident.getParentPath()
-                    .equals("/") ? FolderAPI.SYSTEM_FOLDER
-                            : APILocator.getFolderAPI()
-                                .findFolderByPath(ident.getParentPath(), host, systemUserParam, false)
-                                .getInode();
-            } else {
-                parentId = null;
-            }
-            result = new NavResult(parentId, host.getIdentifier(), folder.getInode(), languageId);
-
-            Identifier ident = APILocator.getIdentifierAPI()
-                .find(folder);
-            result.setHref(ident.getURI());
-            result.setTitle(folder.getTitle());
-            result.setOrder(folder.getSortOrder());
-            result.setType("folder");
-            result.setPermissionId(folder.getPermissionId());
-            List<NavResult> children = new ArrayList<NavResult>();
-            List<String> folderIds = new ArrayList<String>();
-            result.setChildren(children);
-            result.setChildrenFolderIds(folderIds);
-            result.setShowOnMenu(folder.isShowOnMenu());
-
-            List<?> menuItems = APILocator.getFolderAPI()
-                    .findMenuItems(folder, systemUserParam, true);
-            List<Folder> folders = new ArrayList<>();
-            if (path.equals("/")) {
-                folders.addAll(APILocator.getFolderAPI()
-                        .findSubFolders(host, true));
-            }
+            parentId = null;
+        }
 
-            for (Folder itemFolder : folders) {
-                addFolderToNav(host, languageId, folder, children, folderIds, itemFolder);
-            }
+        NavFolder result = new NavFolder(host.getIdentifier(), folder.getInode(), parentId, ident.getURI(),
+                folder.getTitle(), folder.getSortOrder(), folder.getPermissionId(), folder.isShowOnMenu());
 
+        List<?> menuItems = APILocator.getFolderAPI()
+                .findMenuItems(folder, systemUserParam, true);
+        List<Folder> folders = new ArrayList<>();
+        if (isRoot) {
+            folders.addAll(APILocator.getFolderAPI()
+                    .findSubFolders(host, true));
+        }
 
-            for (Object item : menuItems) {
-                if (item instanceof Folder) {
-                    Folder itemFolder = (Folder) item;
-                    if(!folders.contains(itemFolder)) {
-                        addFolderToNav(host, languageId, folder, children, folderIds, itemFolder);
-                    }
-                } else if (item instanceof IHTMLPage) {
-                    IHTMLPage itemPage = (IHTMLPage) item;
-
-                    if (itemPage.getLanguageId() == languageId || shouldAddHTMLPageInAnotherLang(menuItems, itemPage, languageId)){
-                        final String httpProtocol = "http://";
-                        final String httpsProtocol = "https://";
-
-                        ident = APILocator.getIdentifierAPI()
-                            .find(itemPage);
-
-                        String redirectUri = itemPage.getRedirect();
-                        NavResult nav =  new NavResult(folder.getInode(), host.getIdentifier(), itemPage.getLanguageId());
-
-                        nav.setTitle(itemPage.getTitle());
-                        if (UtilMethods.isSet(redirectUri) && !redirectUri.startsWith("/")) {
-                            if (redirectUri.startsWith(httpsProtocol) || redirectUri.startsWith(httpProtocol)) {
-                                nav.setHref(redirectUri);
-                            } else {
-                                if (itemPage.isHttpsRequired())
-                                    nav.setHref(httpsProtocol + redirectUri);
-                                else
-                                    nav.setHref(httpProtocol + redirectUri);
-                            }
-
-                        } else {
-                            nav.setHref(ident.getURI());
-                        }
-                        nav.setOrder(itemPage.getMenuOrder());
-                        nav.setType("htmlpage");
-                        nav.setPermissionId(itemPage.getPermissionId());
-                        nav.setShowOnMenu(itemPage.isShowOnMenu());
-                        nav = new NavResultHydrated(nav, this.context);
-                        children.add(nav);
-                    }
-                } else if (item instanceof Link) {
-                    Link itemLink = (Link) item;
-                    NavResult nav = new NavResult(folder.getInode(), host.getIdentifier(), languageId);
+        for (Folder itemFolder : folders) {
+            addFolderToNav(result, itemFolder);
+        }
 
-                    if (itemLink.getLinkType()
-                        .equals(LinkType.CODE.toString()) && LinkType.CODE.toString() != null) {
-                        nav.setCodeLink(itemLink.getLinkCode());
+        // all the languages, NavFolder picks the items of each language
+        for (Object item : menuItems) {
+            if (item instanceof Folder) {
+                Folder itemFolder = (Folder) item;
+                if(!folders.contains(itemFolder)) {
+                    addFolderToNav(result, itemFolder);
+                }
+            } else if (item instanceof IHTMLPage) {
+                IHTMLPage itemPage = (IHTMLPage) item;
+                final String httpProtocol = "http://";
+                final String httpsProtocol = "https://";
+
+                ident = APILocator.getIdentifierAPI()
+                    .find(itemPage);
+
+                String redirectUri = itemPage.getRedirect();
+                String href;
+                if (UtilMethods.isSet(redirectUri) && !redirectUri.startsWith("/")) {
+                    if (redirectUri.startsWith(httpsProtocol) || redirectUri.startsWith(httpProtocol)) {
+                        href = redirectUri;
                     } else {
-                        nav.setHref(itemLink.getWorkingURL());
-                    }
-                    nav.setTitle(itemLink.getTitle());
-                    nav.setOrder(itemLink.getSortOrder());
-                    nav.setType("link");
-                    nav.setTarget(itemLink.getTarget());
-                    nav.setPermissionId(itemLink.getPermissionId());
-                    nav.setShowOnMenu(itemLink.isShowOnMenu());
-                    nav = new NavResultHydrated(nav, this.context);
-                    children.add(nav);
-                } else if (item instanceof IFileAsset) {
-                    IFileAsset itemFile = (IFileAsset) item;
-
-                    if ( itemFile.getLanguageId() == languageId || shouldAddFileInAnotherLang(menuItems, itemFile, languageId)) {
-                        ident = APILocator.getIdentifierAPI()
-                            .find(itemFile.getPermissionId());
-                        NavResult nav = new NavResult(folder.getInode(), host.getIdentifier(), itemFile.getLanguageId());
-
-                        nav.setTitle(itemFile.getFriendlyName());
-                        nav.setHref(ident.getURI());
-                        nav.setOrder(itemFile.getMenuOrder());
-                        nav.setType("file");
-                        nav.setPermissionId(itemFile.getPermissionId());
-                        nav.setShowOnMenu(itemFile.isShowOnMenu());
-                        nav = new NavResultHydrated(nav, this.context);
-                        children.add(nav);
+                        if (itemPage.isHttpsRequired())
+                            href = httpsProtocol + redirectUri;
+                        else
+                            href = httpProtocol + redirectUri;
                     }
+
+                } else {
+                    href = ident.getURI();
+                }
+                result.add(new NavFolder.Item(NavFolder.PAGE, itemPage.getLanguageId(), itemPage.getIdentifier(), null)
+                        .title(itemPage.getTitle())
+                        .href(href)
+                        .order(itemPage.getMenuOrder())
+                        .permissionId(itemPage.getPermissionId())
+                        .showOnMenu(itemPage.isShowOnMenu()));
+            } else if (item instanceof Link) {
+                Link itemLink = (Link) item;
+                NavFolder.Item nav = new NavFolder.Item(NavFolder.LINK, 0, itemLink.getIdentifier(), null);
+
+                if (itemLink.getLinkType()
+                    .equals(LinkType.CODE.toString()) && LinkType.CODE.toString() != null) {
+                    nav.codeLink(itemLink.getLinkCode());
+                } else {
+                    nav.href(itemLink.getWorkingURL());
                 }
+                result.add(nav.title(itemLink.getTitle())
+                        .order(itemLink.getSortOrder())
+                        .target(itemLink.getTarget())
+                        .permissionId(itemLink.getPermissionId())
+                        .showOnMenu(itemLink.isShowOnMenu()));
+            } else if (item instanceof IFileAsset) {
+                IFileAsset itemFile = (IFileAsset) item;
+
+                ident = APILocator.getIdentifierAPI()
+                    .find(itemFile.getPermissionId());
+                result.add(new NavFolder.Item(NavFolder.FILE, itemFile.getLanguageId(), itemFile.getPermissionId(), null)
+                        .title(itemFile.getFriendlyName())
+                        .href(ident.getURI())
+                        .order(itemFile.getMenuOrder())
+                        .permissionId(itemFile.getPermissionId())
+                        .showOnMenu(itemFile.isShowOnMenu()));
             }
-
-            CacheLocator.getNavToolCache()
-                .putNav(host.getIdentifier(), folder.getInode(), result, languageId);
-
-            return new NavResultHydrated(result, this.context);
         }
+
+        return result;
     }
 
-    private void addFolderToNav(Host host, long languageId, Folder folder, List<NavResult> children,
-            List<String> folderIds, Folder itemFolder) throws DotDataException {
-        Identifier ident;
-        ident = APILocator.getIdentifierAPI()
+    private void addFolderToNav(NavFolder result, Folder itemFolder) throws DotDataException {
+        Identifier ident = APILocator.getIdentifierAPI()
                 .find(itemFolder);
-        NavResult nav = new NavResult(folder.getInode(), host.getIdentifier(),
-                itemFolder.getInode(), languageId);
-
-        nav.setTitle(itemFolder.getTitle());
-        nav.setHref(ident.getURI());
-        nav.setOrder(itemFolder.getSortOrder());
-        nav.setType("folder");
-        nav.setPermissionId(itemFolder.getPermissionId());
-        nav.setShowOnMenu(itemFolder.isShowOnMenu());
-
-        // it will load lazily its children
-        folderIds.add(itemFolder.getInode());
-        nav = new NavResultHydrated(nav, this.context);
-        children.add(nav);
+
+        result.add(new NavFolder.Item(NavFolder.FOLDER, 0, itemFolder.getIdentifier(), itemFolder.getInode())
+                .title(itemFolder.getTitle())
+                .href(ident.getURI())
+                .order(itemFolder.getSortOrder())
+                .permissionId(itemFolder.getPermissionId())
+                .showOnMenu(itemFolder.isShowOnMenu()));
     }
 
     @VisibleForTesting
@@ -2,12 +2,25 @@ package com.dotcms.rendering.velocity.viewtools.navigation;
 
 import com.dotmarketing.business.Cachable;
 
+/**
+ * Keeps the navigation tree of each host, one {@link NavFolder} per menu folder with the menu items
+ * in all the languages
+ */
 public interface NavToolCache extends Cachable {
-    
-    NavResult getNav(String hostid, String folderInode, long languageId);
 
-    void putNav(String hostid, String folderInode, NavResult result, long languageId);
+    NavFolder getNavFolder(String hostid, String folderInode);
+
+    void putNavFolder(String hostid, String folderInode, NavFolder folder);
+
+    /**
+     * The folder in the language, null if the folder is not in cache
+     */
+    NavResult getNav(String hostid, String folderInode, long languageId);
 
+    /**
+     * Removes the folder from the tree, in all the languages, and its subfolders when the folder
+     * is no longer in the menu
+     */
     void removeNav(String hostid, String folderInode);
 
     void removeNav(String hostid, String folderInode, long languageId);
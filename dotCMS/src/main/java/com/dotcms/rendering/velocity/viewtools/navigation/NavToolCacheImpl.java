@@ -1,16 +1,13 @@
 package com.dotcms.rendering.velocity.viewtools.navigation;
 
 import java.util.LinkedList;
-import java.util.List;
 
-import com.dotmarketing.beans.Identifier;
 import com.dotmarketing.business.APILocator;
 import com.dotmarketing.business.CacheLocator;
 import com.dotmarketing.business.DotCacheAdministrator;
 import com.dotmarketing.business.DotCacheException;
 import com.dotmarketing.portlets.folders.business.FolderAPI;
 import com.dotmarketing.portlets.folders.model.Folder;
-import com.dotmarketing.portlets.languagesmanager.model.Language;
 import com.dotmarketing.util.Logger;
 import com.dotmarketing.util.UtilMethods;
 
@@ -34,19 +31,21 @@ public class NavToolCacheImpl implements NavToolCache {
         return new String[] {GROUP};
     }
 
-    protected static String key(String hostid, String folderInode, long languageId) {
-        return hostid + ":" + folderInode + ":" + languageId;
+    // the folders hold all the languages
+    protected static String key(String hostid, String folderInode) {
+        return hostid + ":" + folderInode;
     }
 
     @Override
     public void clearCache() {
         cache.flushGroup(GROUP);
+        NavTreeLoader.getInstance().reset();
     }
     
     @Override
-    public NavResult getNav(String hostid, String folderInode, long languageId) {
+    public NavFolder getNavFolder(String hostid, String folderInode) {
         try {
-            return (NavResult)cache.get(key(hostid,folderInode, languageId), GROUP);
+            return (NavFolder)cache.get(key(hostid,folderInode), GROUP);
         } catch (DotCacheException e) {
             Logger.warn(this, e.getMessage(), e);
             return null;
@@ -54,22 +53,23 @@ public class NavToolCacheImpl implements NavToolCache {
     }
 
     @Override
-    public void putNav(String hostid, String folderInode, NavResult result, long languageId) {
-        cache.put(key(hostid,folderInode, languageId), result, GROUP);
+    public void putNavFolder(String hostid, String folderInode, NavFolder folder) {
+        cache.put(key(hostid,folderInode), folder, GROUP);
     }
 
     @Override
-    public void removeNav(String hostid, String folderInode) {
-        List<Language> allLanguages = APILocator.getLanguageAPI().getLanguages();
-
-        for(Language language : allLanguages){
-            removeNav(hostid, folderInode, language.getId());
-        }
-
+    public NavResult getNav(String hostid, String folderInode, long languageId) {
+        NavFolder folder = getNavFolder(hostid, folderInode);
+        return folder != null ? folder.getNav(languageId) : null;
     }
 
     @Override
     public void removeNav(String hostid, String folderInode, long languageId) {
+        removeNav(hostid, folderInode);
+    }
+
+    @Override
+    public void removeNav(String hostid, String folderInode) {
         Folder folder;
         try {
             if(!folderInode.equals(FolderAPI.SYSTEM_FOLDER)) {
@@ -87,16 +87,16 @@ public class NavToolCacheImpl implements NavToolCache {
                     ids.add(folderInode);
                     while(!ids.isEmpty()) {
                         String fid=ids.pop();
-                        NavResult nav=getNav(hostid, fid, languageId);
+                        NavFolder nav=getNavFolder(hostid, fid);
                         if(nav!=null)
-                            ids.addAll(nav.getChildrenFolderIds());
-                        cache.remove(key(hostid,fid, languageId), GROUP);
+                            ids.addAll(nav.getChildFolderInodes());
+                        cache.remove(key(hostid,fid), GROUP);
                     }
                     return;
                 }
             }
             
-            cache.remove(key(hostid,folderInode, languageId), GROUP);
+            cache.remove(key(hostid,folderInode), GROUP);
             
         } catch (Exception e) {
             Logger.warn(this, e.getMessage(), e);
@@ -105,21 +105,17 @@ public class NavToolCacheImpl implements NavToolCache {
     }
 
     @Override
-    public void removeNavByPath(String hostid, String path) {
-        List<Language> allLanguages = APILocator.getLanguageAPI().getLanguages();
-
-        for(Language language : allLanguages){
-            removeNavByPath(hostid, path, language.getId());
-        }
+    public void removeNavByPath(String hostid, String path, long languageId) {
+        removeNavByPath(hostid, path);
     }
 
     @Override
-    public void removeNavByPath(String hostid, String path, long languageId) {
+    public void removeNavByPath(String hostid, String path) {
         Folder folder;
         try {
             folder = APILocator.getFolderAPI().findFolderByPath(path, hostid, APILocator.getUserAPI().getSystemUser(), false);
             if(folder != null)
-            	removeNav(hostid,folder.getInode(), languageId);
+            	removeNav(hostid,folder.getInode());
         } catch (Exception e) {
             Logger.warn(this, e.getMessage(), e);
         }
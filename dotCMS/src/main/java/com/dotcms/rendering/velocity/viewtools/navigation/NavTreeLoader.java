@@ -0,0 +1,105 @@
+package com.dotcms.rendering.velocity.viewtools.navigation;
+
+import com.dotmarketing.beans.Host;
+import com.dotmarketing.business.APILocator;
+import com.dotmarketing.db.DbConnectionFactory;
+import com.dotmarketing.portlets.folders.business.FolderAPI;
+import com.dotmarketing.portlets.folders.model.Folder;
+import com.dotmarketing.util.Config;
+import com.dotmarketing.util.Logger;
+import com.dotmarketing.util.UtilMethods;
+
+import com.liferay.portal.model.User;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Reads the whole navigation tree of a host in the background the first time a menu of the host is
+ * rendered, so the menus of the folders no one opened yet do not wait on the database. Only the
+ * folders shown on the menu are read, once for all the languages.
+ * <p/>
+ * Enabled with <strong>NAVTOOL_PRELOAD_HOST_TREE</strong> (default true). A host is read once, until the
+ * navigation cache is flushed; the folders removed from the tree afterwards are read again when they
+ * are asked for.
+ */
+final class NavTreeLoader {
+
+    private final Set<String> loadedHosts = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+        thread.setName("nav_tree_loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static class SingletonHolder {
+        private static final NavTreeLoader INSTANCE = new NavTreeLoader();
+    }
+
+    static NavTreeLoader getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Reads the tree of the host in the background, if it was not read yet
+     *
+     * @param host
+     */
+    void load(final Host host) {
+
+        if (Config.getBooleanProperty("NAVTOOL_PRELOAD_HOST_TREE", true)
+                && this.loadedHosts.add(host.getIdentifier())) {
+            this.executor.submit(() -> this.walk(host));
+        }
+    }
+
+    /**
+     * Forgets the hosts already read, called when the navigation cache is flushed
+     */
+    void reset() {
+        this.loadedHosts.clear();
+    }
+
+    private void walk(final Host host) {
+
+        final long start = System.currentTimeMillis();
+        final Set<String> visited = new HashSet<>();
+        final Deque<String> pending = new ArrayDeque<>();
+        pending.add(FolderAPI.SYSTEM_FOLDER);
+
+        try {
+            final User systemUser = APILocator.getUserAPI().getSystemUser();
+            final NavTool navTool = new NavTool();
+            while (!pending.isEmpty()) {
+                final String folderInode = pending.poll();
+                if (!visited.add(folderInode)) {
+                    continue;
+                }
+
+                final Folder folder = FolderAPI.SYSTEM_FOLDER.equals(folderInode)
+                        ? APILocator.getFolderAPI().findSystemFolder()
+                        : APILocator.getFolderAPI().find(folderInode, systemUser, false);
+                if (folder == null || !UtilMethods.isSet(folder.getIdentifier())) {
+                    continue;
+                }
+                pending.addAll(navTool.loadFolder(host, folder, systemUser).getChildFolderInodes());
+            }
+            Logger.info(this, "Navigation tree of " + host.getHostname() + " loaded: " + visited.size()
+                    + " folders in " + (System.currentTimeMillis() - start) + " ms");
+        } catch (Exception e) {
+            Logger.warn(this, "Unable to load the navigation tree of " + host.getHostname() + ": "
+                    + e.getMessage(), e);
+            // next menu of the host tries again
+            this.loadedHosts.remove(host.getIdentifier());
+        } finally {
+            DbConnectionFactory.closeSilently();
+        }
+    }
+
+}
@@ -7,26 +7,33 @@ import com.dotcms.publisher.business.PublishAuditStatus.Status;
 import com.dotcms.publisher.business.PublisherQueueJob;
 import com.dotcms.publisher.endpoint.bean.PublishingEndPoint;
 import com.dotcms.publisher.endpoint.business.PublishingEndPointAPI;
+import com.dotcms.repackage.com.google.common.annotations.VisibleForTesting;
 import com.dotcms.repackage.javax.ws.rs.Consumes;
+import com.dotcms.repackage.javax.ws.rs.GET;
 import com.dotcms.repackage.javax.ws.rs.POST;
 import com.dotcms.repackage.javax.ws.rs.Path;
+import com.dotcms.repackage.javax.ws.rs.Produces;
 import com.dotcms.repackage.javax.ws.rs.QueryParam;
 import com.dotcms.repackage.javax.ws.rs.core.Context;
 import com.dotcms.repackage.javax.ws.rs.core.MediaType;
 import com.dotcms.repackage.javax.ws.rs.core.Response;
 import com.dotcms.repackage.org.apache.commons.httpclient.HttpStatus;
 import com.dotcms.repackage.org.apache.commons.io.FileUtils;
+import com.dotcms.repackage.org.apache.commons.io.IOUtils;
 import com.dotmarketing.business.APILocator;
 import com.dotmarketing.cms.factories.PublicEncryptionFactory;
 import com.dotmarketing.db.HibernateUtil;
 import com.dotmarketing.exception.DotHibernateException;
 import com.dotmarketing.util.ConfigUtils;
-import com.dotmarketing.util.FileUtil;
 import com.dotmarketing.util.Logger;
 import com.dotmarketing.util.UtilMethods;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Calendar;
 import java.util.HashMap;
 import java.util.Map;
@@ -36,6 +43,8 @@ import javax.servlet.http.HttpServletRequest;
 public class BundlePublisherResource {
 
 	public static String MY_TEMP = "";
+	// the bundle being received, kept to resume the transfer if it is interrupted
+	static final String PART_SUFFIX = ".part";
 	private PublishingEndPointAPI endpointAPI = APILocator.getPublisherEndPointAPI();
 
     /**
@@ -52,8 +61,11 @@ public class BundlePublisherResource {
 	 * @param callback 		 response callback
 	 * @param bundleName	 The name for the Bundle to publish
 	 * @param forcePush 	 true/false to Force the push
+	 * @param offset 		 The bytes of the bundle already received, the stream has the rest of them
+	 * @param bundleSize 	 The size of the bundle file, 0 if not known
      * @param req            HttpRequest
-     * @return Returns a {@link Response} object with a 200 status code if success or a 500 error code if anything fails on the Publish process
+     * @return Returns a {@link Response} object with a 200 status code if success, a 409 if the offset does not match the bytes
+     * received so far or a 500 error code if anything fails on the Publish process
      * @see PublishThread
      */
     @POST
@@ -68,6 +80,8 @@ public class BundlePublisherResource {
 			@QueryParam("callback") String callback,
 			@QueryParam("BUNDLE_NAME") String bundleName,
 			@QueryParam("FORCE_PUSH") final boolean forcePush,
+			@QueryParam("OFFSET") final long offset,
+			@QueryParam("BUNDLE_SIZE") final long bundleSize,
 			@Context HttpServletRequest req
 	) {
     	try {
@@ -114,7 +128,10 @@ public class BundlePublisherResource {
 					}
 
 					//Write file on FS
-					FileUtil.writeToFile(bundleStream, bundlePath+fileName);
+					if(!receiveBundle(bundleStream, bundlePath+fileName, offset, bundleSize)) {
+						HibernateUtil.rollbackTransaction();
+						return Response.status(HttpStatus.SC_CONFLICT).build();
+					}
 
 					//Start thread
 					if(!status.getStatus().equals(Status.PUBLISHING_BUNDLE)) {
@@ -155,6 +172,85 @@ public class BundlePublisherResource {
 		return Response.status(HttpStatus.SC_INTERNAL_SERVER_ERROR).build();
 	}
 
+    /**
+     * Returns the bytes received so far of a bundle whose transfer was interrupted, so the sender can
+     * resume it instead of sending the whole bundle again.
+     *
+     * @param fileName       File name of the bundle
+     * @param auth_token_enc Authentication token
+     * @param req            HttpRequest
+     * @return The number of bytes as plain text, 0 if none was received
+     */
+    @GET
+    @Path ("/offset")
+    @Produces(MediaType.TEXT_PLAIN)
+    public Response offset(
+			@QueryParam("FILE_NAME") String fileName,
+			@QueryParam("AUTH_TOKEN") String auth_token_enc,
+			@Context HttpServletRequest req
+	) {
+		String remoteIP = req.getRemoteHost();
+		if(!UtilMethods.isSet(remoteIP))
+			remoteIP = req.getRemoteAddr();
+		try {
+			String auth_token = PublicEncryptionFactory.decryptString(auth_token_enc);
+			PublishingEndPoint mySelf = endpointAPI.findEnabledSendingEndPointByAddress(remoteIP);
+			if(!isValidToken(auth_token, remoteIP, mySelf)) {
+				return Response.status(HttpStatus.SC_UNAUTHORIZED).build();
+			}
+
+			File part = new File(ConfigUtils.getBundlePath()+File.separator+MY_TEMP+fileName+PART_SUFFIX);
+			return Response.ok(String.valueOf(part.exists() ? part.length() : 0)).build();
+		} catch (Exception e) {
+			Logger.error(PublisherQueueJob.class, "Error caused by remote call of: "+remoteIP);
+			Logger.error(PublisherQueueJob.class,e.getMessage(),e);
+		} finally {
+			try {
+				HibernateUtil.closeSession();
+			} catch (DotHibernateException e) {
+				Logger.error(this, "error close session",e);
+			}
+		}
+
+		return Response.status(HttpStatus.SC_INTERNAL_SERVER_ERROR).build();
+	}
+
+    /**
+     * Writes the received bundle to a part file, appending to the bytes already received when the
+     * sender resumes a transfer, and moves it to the bundle file once it is complete. An interrupted
+     * transfer leaves the part file to be resumed.
+     *
+     * @param bundleStream The bundle, from the offset
+     * @param bundleFile   Path of the bundle file
+     * @param offset       The bytes the sender says were already received
+     * @param bundleSize   The size of the bundle, 0 if not known
+     * @return False if the offset is not the size of the part file
+     * @throws IOException If the bundle could not be received completely
+     */
+    @VisibleForTesting
+    static boolean receiveBundle ( InputStream bundleStream, String bundleFile, long offset, long bundleSize ) throws IOException {
+
+        File part = new File( bundleFile + PART_SUFFIX );
+        if ( offset > 0 && (!part.exists() || part.length() != offset) ) {
+            Logger.warn( BundlePublisherResource.class, "Unable to resume " + bundleFile + " from " + offset
+                    + ", received " + (part.exists() ? part.length() : 0) + " bytes" );
+            return false;
+        }
+
+        try ( OutputStream out = offset > 0
+                ? Files.newOutputStream( part.toPath(), StandardOpenOption.APPEND )
+                : Files.newOutputStream( part.toPath() ) ) {
+            IOUtils.copy( bundleStream, out );
+        }
+
+        if ( bundleSize > 0 && part.length() != bundleSize ) {
+            throw new IOException( "Incomplete bundle " + bundleFile + ": received " + part.length()
+                    + " of " + bundleSize + " bytes" );
+        }
+        Files.move( part.toPath(), new File( bundleFile ).toPath(), StandardCopyOption.REPLACE_EXISTING );
+        return true;
+    }
+
     /**
      * Validates a received token
      *
@@ -19,6 +19,7 @@ import com.dotcms.repackage.javax.ws.rs.core.Response.ResponseBuilder;
 import com.dotcms.repackage.org.glassfish.jersey.server.JSONP;
 import com.dotcms.rest.annotation.NoCache;
 import com.dotmarketing.business.APILocator;
+import com.dotmarketing.business.cache.metrics.CacheMetricsRegistry;
 import com.dotmarketing.util.json.JSONObject;
 
 
@@ -80,4 +81,27 @@ public class MonitorResource {
         builder.header("Access-Control-Allow-Headers", "Origin, X-Requested-With, Content-Type, Accept, Authorization");
         return builder.build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the cache metrics (hits, misses, evictions, latencies...) per provider and region, see
+     * {@link CacheMetricsRegistry}. Same IP ACL as the status check applies.
+     */
+    @NoCache
+    @GET
+    @JSONP
+    @Path("/cache")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response cacheMetrics(final @Context HttpServletRequest request) throws Throwable {
+
+        final MonitorHelper helper = new MonitorHelper(request);
+
+        final ResponseBuilder builder;
+        if (helper.accessGranted) {
+            final JSONObject jo = new JSONObject(CacheMetricsRegistry.getInstance().getAllStats());
+            builder = Response.ok(jo.toString(2), MediaType.APPLICATION_JSON);
+        } else {
+            builder = Response.status(FORBIDDEN).entity(StringPool.BLANK).type(MediaType.APPLICATION_JSON);
+        }
+        return builder.build();
+    }
+}
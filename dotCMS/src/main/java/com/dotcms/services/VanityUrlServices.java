@@ -10,6 +10,7 @@ import com.dotcms.vanityurl.model.CacheVanityKey;
 import com.dotcms.vanityurl.model.CachedVanityUrl;
 import com.dotcms.vanityurl.model.SecondaryCacheVanityKey;
 import com.dotcms.vanityurl.model.VanityUrl;
+import com.dotcms.vanityurl.model.VanityUrlMatcher;
 import com.dotmarketing.beans.Host;
 import com.dotmarketing.beans.Identifier;
 import com.dotmarketing.business.APILocator;
@@ -195,6 +196,20 @@ public class VanityUrlServices {
                                 languageId));
     } // setCachedVanityUrlList.
 
+    /**
+     * Get the matcher over the cached vanity urls list
+     * @param siteId The current site Id
+     * @param languageId The current language Id
+     * @return {@link VanityUrlMatcher}, null if the list is not cached yet
+     */
+    public VanityUrlMatcher getCachedVanityUrlMatcher(final String siteId,
+                                                      final long   languageId) {
+
+        return this.vanityURLCache
+                .getVanityUrlMatcher(new SecondaryCacheVanityKey(siteId,
+                                languageId));
+    } // getCachedVanityUrlMatcher.
+
     /**
      * Subscriber that listen to events of type CommitListenerEvent, this event will be trigger when
      * the commit listener related to this event is executed.
@@ -9,6 +9,7 @@ import com.dotcms.services.VanityUrlServices;
 import com.dotcms.vanityurl.model.CachedVanityUrl;
 import com.dotcms.vanityurl.model.DefaultVanityUrl;
 import com.dotcms.vanityurl.model.VanityUrl;
+import com.dotcms.vanityurl.model.VanityUrlMatcher;
 import com.dotmarketing.beans.Host;
 import com.dotmarketing.business.APILocator;
 import com.dotmarketing.business.DotStateException;
@@ -390,18 +391,18 @@ public class VanityUrlAPIImpl implements VanityUrlAPI {
 
         CachedVanityUrl result = null;
 
-        //Get the list of site cached Vanities URLs
+        //Get the site cached Vanities URLs that may match the uri
         List<CachedVanityUrl> cachedVanityUrls =
-                this.getVanityUrlBySiteAndLanguageFromCache
-                        (siteId, languageId,true);
+                this.getVanityUrlCandidatesFromCache
+                        (uri, siteId, languageId);
 
         if (null == cachedVanityUrls) {
 
             synchronized (VanityUrlAPIImpl.class) {
 
                 cachedVanityUrls =
-                        this.getVanityUrlBySiteAndLanguageFromCache
-                            (siteId, languageId, true);
+                        this.getVanityUrlCandidatesFromCache
+                            (uri, siteId, languageId);
 
                 if (null == cachedVanityUrls) {
 
@@ -409,10 +410,10 @@ public class VanityUrlAPIImpl implements VanityUrlAPI {
                     this.initializeActiveVanityURLsCacheBySiteAndLanguage
                             (siteId, languageId, this.systemUser);
 
-                    //Get the list of site cached Vanities URLs
+                    //Get the site cached Vanities URLs that may match the uri
                     cachedVanityUrls =
-                            this.getVanityUrlBySiteAndLanguageFromCache
-                                    (siteId, languageId,true);
+                            this.getVanityUrlCandidatesFromCache
+                                    (uri, siteId, languageId);
                 }
             }
         }
@@ -669,6 +670,47 @@ public class VanityUrlAPIImpl implements VanityUrlAPI {
         return foundVanities;
     } // getVanityUrlBySiteAndLanguageFromCache.
 
+    /**
+     * Get the cached Vanity URLs of a given site and SYSTEM_HOST whose pattern may match the uri,
+     * in the order they have to be evaluated: the ones of the site first. The candidates are
+     * taken from the {@link VanityUrlMatcher} of each list, instead of evaluating the pattern of
+     * every cached Vanity URL.
+     *
+     * @param uri The current uri
+     * @param siteId The current site Id
+     * @param languageId The current language Id
+     * @return A list of CachedVanityUrl, if null is because the cache needs to be initialized
+     */
+    private List<CachedVanityUrl> getVanityUrlCandidatesFromCache(final String uri,
+            final String siteId,
+            final long languageId) {
+
+        final VanityUrlMatcher siteMatcher =
+                this.vanityUrlServices.getCachedVanityUrlMatcher(siteId, languageId);
+
+        //null means we need to initialize the cache for this site
+        if (null == siteMatcher || siteId.equals(Host.SYSTEM_HOST)) {
+            return null != siteMatcher ? siteMatcher.getCandidates(uri) : null;
+        }
+
+        final VanityUrlMatcher systemHostMatcher =
+                this.vanityUrlServices.getCachedVanityUrlMatcher(Host.SYSTEM_HOST, languageId);
+
+        if (null == systemHostMatcher) {
+            //This means we need to initialize the cache for the SYSTEM_HOST
+            return null;
+        }
+
+        final List<CachedVanityUrl> siteCandidates = siteMatcher.getCandidates(uri);
+        final List<CachedVanityUrl> systemHostCandidates = systemHostMatcher.getCandidates(uri);
+
+        return siteCandidates.isEmpty()? systemHostCandidates:
+                ImmutableList.<CachedVanityUrl>builder()
+                        .addAll(siteCandidates)
+                        .addAll(systemHostCandidates)
+                        .build();
+    } // getVanityUrlCandidatesFromCache.
+
     private static class SiteLanguageKey extends MultiKey {
 
         protected SiteLanguageKey(final String hostId, final long languageId) {
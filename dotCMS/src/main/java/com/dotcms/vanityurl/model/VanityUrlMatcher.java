@@ -0,0 +1,263 @@
+package com.dotcms.vanityurl.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Index over the {@link CachedVanityUrl}s of a site and language that returns, for a given URI,
+ * just the vanity URLs that can match it instead of every vanity URL of the site:
+ * <ul>
+ *     <li>Literal URIs (no regex meta characters) are looked up in a hash map</li>
+ *     <li>Patterns that start with a literal path, like <code>/blog/(.*)</code> or
+ *     <code>/news/2017-.*</code>, are kept in a trie of path segments and are only candidates for
+ *     the URIs that start with that path</li>
+ *     <li>Patterns with nothing literal to index (<code>(.*)/index</code>, alternations) are always
+ *     candidates</li>
+ * </ul>
+ * The candidates are returned in the same order the vanity URLs have in the cached list (by
+ * order, the last added first), and they still have to be matched against their pattern. The
+ * patterns are case insensitive, so the index is built over the lower cased (ASCII only, as the
+ * patterns) URIs.
+ * <p/>
+ * New vanity URLs can be added to the index while it is being read.
+ */
+public class VanityUrlMatcher implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String META_CHARACTERS = "\\^$.|?*+()[]{}";
+    // quantifiers that make the character before them optional
+    private static final String OPTIONAL_QUANTIFIERS = "?*{";
+    private static final long FIRST_LIST_SEQUENCE = 1L << 31;
+
+    private final Map<String, List<Entry>> literals = new ConcurrentHashMap<>();
+    private final Node prefixes = new Node();
+    // vanity URLs added after the list are placed before the ones with the same order
+    private final AtomicLong addedSequence = new AtomicLong(FIRST_LIST_SEQUENCE - 1);
+    private final AtomicLong size = new AtomicLong();
+
+    /**
+     * Indexes the given vanity URLs, which are expected to be sorted by order
+     *
+     * @param vanityUrls
+     */
+    public VanityUrlMatcher(final List<CachedVanityUrl> vanityUrls) {
+
+        for (int i = 0; i < vanityUrls.size(); i++) {
+            this.index(vanityUrls.get(i), FIRST_LIST_SEQUENCE + i);
+        }
+    }
+
+    /**
+     * Adds a vanity URL to the index, in front of the vanity URLs with its same order
+     *
+     * @param vanityUrl
+     */
+    public synchronized void add(final CachedVanityUrl vanityUrl) {
+        this.index(vanityUrl, this.addedSequence.getAndDecrement());
+    }
+
+    /**
+     * Returns the vanity URLs whose pattern can match the given URI, in the order they have to be
+     * evaluated
+     *
+     * @param uri
+     * @return the candidates, never null
+     */
+    public List<CachedVanityUrl> getCandidates(final String uri) {
+
+        if (null == uri) {
+            return Collections.emptyList();
+        }
+
+        final String key = toKey(uri);
+        final List<Entry> candidates = new ArrayList<>();
+        final List<Entry> literalCandidates = this.literals.get(key);
+        if (null != literalCandidates) {
+            candidates.addAll(literalCandidates);
+        }
+        this.prefixes.collect(key, candidates);
+
+        if (candidates.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        candidates.sort(Comparator.comparingLong(Entry::getRank));
+        final List<CachedVanityUrl> vanityUrls = new ArrayList<>(candidates.size());
+        for (final Entry candidate : candidates) {
+            vanityUrls.add(candidate.getVanityUrl());
+        }
+        return vanityUrls;
+    }
+
+    /**
+     * Number of vanity URLs in the index
+     *
+     * @return
+     */
+    public long size() {
+        return this.size.get();
+    }
+
+    private synchronized void index(final CachedVanityUrl vanityUrl, final long sequence) {
+
+        final Entry entry = new Entry(((long) vanityUrl.getOrder() << 32) + sequence, vanityUrl);
+        final String regex = vanityUrl.getPattern().pattern();
+        final String prefix = getLiteralPrefix(regex);
+
+        if (null == prefix) {
+            this.literals.computeIfAbsent(toKey(getLiteral(regex)), k -> new CopyOnWriteArrayList<>())
+                    .add(entry);
+        } else {
+            this.prefixes.add(toKey(prefix), entry);
+        }
+        this.size.incrementAndGet();
+    }
+
+    /**
+     * The text every URI matched by the regex has to start with
+     *
+     * @param regex
+     * @return the prefix, null if the whole regex is literal
+     */
+    static String getLiteralPrefix(final String regex) {
+
+        // an alternation can match URIs that do not share any prefix
+        if (regex.indexOf('|') >= 0) {
+            return "";
+        }
+
+        final String literal = getLiteral(regex);
+        for (int i = 0; i < literal.length(); i++) {
+            final char character = literal.charAt(i);
+            if (META_CHARACTERS.indexOf(character) >= 0) {
+                return OPTIONAL_QUANTIFIERS.indexOf(character) >= 0 && i > 0
+                        ? literal.substring(0, i - 1)
+                        : literal.substring(0, i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes the anchors, the patterns are always matched against the whole URI
+     */
+    private static String getLiteral(final String regex) {
+
+        final int start = regex.startsWith("^") ? 1 : 0;
+        final int end = regex.endsWith("$") && !regex.endsWith("\\$") && regex.length() > start
+                ? regex.length() - 1
+                : regex.length();
+        return regex.substring(start, end);
+    }
+
+    /**
+     * Lower case of the ASCII letters, the only ones a case insensitive pattern ignores the case of
+     */
+    private static String toKey(final String uri) {
+
+        char[] key = null;
+        for (int i = 0; i < uri.length(); i++) {
+            final char character = uri.charAt(i);
+            if (character >= 'A' && character <= 'Z') {
+                if (null == key) {
+                    key = uri.toCharArray();
+                }
+                key[i] = (char) (character + ('a' - 'A'));
+            }
+        }
+        return null == key ? uri : new String(key);
+    }
+
+    private static void addAll(final List<Entry> candidates, final Collection<Entry> entries) {
+        if (null != entries) {
+            candidates.addAll(entries);
+        }
+    }
+
+    /**
+     * A directory of the trie. The entries are the vanity URLs whose prefix ends in this directory,
+     * keyed by the part of their prefix after the last /
+     */
+    private static class Node implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Map<String, Node> children = new ConcurrentHashMap<>();
+        private final Map<String, List<Entry>> entries = new ConcurrentHashMap<>();
+        private volatile int maxPartialLength = 0;
+
+        void add(final String prefix, final Entry entry) {
+
+            Node node = this;
+            int start = 0;
+            int slash;
+            while ((slash = prefix.indexOf('/', start)) >= 0) {
+                node = node.children.computeIfAbsent(prefix.substring(start, slash), k -> new Node());
+                start = slash + 1;
+            }
+
+            final String partial = prefix.substring(start);
+            node.entries.computeIfAbsent(partial, k -> new CopyOnWriteArrayList<>()).add(entry);
+            node.maxPartialLength = Math.max(node.maxPartialLength, partial.length());
+        }
+
+        void collect(final String key, final List<Entry> candidates) {
+
+            Node node = this;
+            int start = 0;
+            while (null != node) {
+                final int slash = key.indexOf('/', start);
+                final int end = slash < 0 ? key.length() : slash;
+                node.collectPartials(key, start, end, candidates);
+                if (slash < 0) {
+                    return;
+                }
+                node = node.children.get(key.substring(start, slash));
+                start = slash + 1;
+            }
+        }
+
+        private void collectPartials(final String key, final int start, final int end,
+                final List<Entry> candidates) {
+
+            if (this.entries.isEmpty()) {
+                return;
+            }
+            final int last = Math.min(end, start + this.maxPartialLength);
+            for (int i = start; i <= last; i++) {
+                addAll(candidates, this.entries.get(key.substring(start, i)));
+            }
+        }
+    }
+
+    private static class Entry implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long rank;
+        private final CachedVanityUrl vanityUrl;
+
+        Entry(final long rank, final CachedVanityUrl vanityUrl) {
+            this.rank = rank;
+            this.vanityUrl = vanityUrl;
+        }
+
+        long getRank() {
+            return rank;
+        }
+
+        CachedVanityUrl getVanityUrl() {
+            return vanityUrl;
+        }
+    }
+
+}
@@ -1,6 +1,10 @@
 package com.dotcms.xmlsitemap;
 
 import com.dotcms.business.CloseDBIfOpened;
+import com.dotcms.content.elasticsearch.business.ESContentFactoryImpl;
+import com.dotcms.content.elasticsearch.business.ESMappingAPIImpl;
+import com.dotcms.content.elasticsearch.business.IndiciesAPI.IndiciesInfo;
+import com.dotcms.content.elasticsearch.util.ESClient;
 import com.dotcms.contenttype.model.type.ContentType;
 import com.dotcms.contenttype.transform.contenttype.StructureTransformer;
 import com.dotmarketing.beans.Host;
@@ -12,10 +16,8 @@ import com.dotmarketing.business.IdentifierAPI;
 import com.dotmarketing.business.PermissionAPI;
 import com.dotmarketing.business.Permissionable;
 import com.dotmarketing.business.UserAPI;
-import com.dotmarketing.db.DbConnectionFactory;
-import com.dotmarketing.db.HibernateUtil;
+import com.dotmarketing.common.db.DotConnect;
 import com.dotmarketing.exception.DotDataException;
-import com.dotmarketing.exception.DotHibernateException;
 import com.dotmarketing.exception.DotSecurityException;
 import com.dotmarketing.filters.CMSFilter;
 import com.dotmarketing.portlets.contentlet.business.ContentletAPI;
@@ -30,23 +32,31 @@ import com.dotmarketing.portlets.structure.model.Structure;
 import com.dotmarketing.util.Config;
 import com.dotmarketing.util.InodeUtils;
 import com.dotmarketing.util.Logger;
-import com.dotmarketing.util.RegEX;
-import com.dotmarketing.util.RegExMatch;
 import com.dotmarketing.util.UtilMethods;
-import com.dotmarketing.util.XMLUtils;
 import com.liferay.portal.model.User;
 import java.io.File;
-import java.io.InputStream;
-import java.io.OutputStreamWriter;
-import java.nio.file.Files;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
-import java.util.Calendar;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.zip.GZIPOutputStream;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import org.apache.commons.lang.StringUtils;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.sort.SortOrder;
 import org.quartz.Job;
+import org.quartz.JobDataMap;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 import org.quartz.StatefulJob;
@@ -54,21 +64,42 @@ import org.quartz.StatefulJob;
 /**
  * This class manage the generation of the XMLSitemap<X>.xml.gz files from every
  * host in this dotCMS site
+ * <p/>
+ * The sitemap of every host is split in sections: one for the show on menu pages, folders and links
+ * and one for every content type with a detail page. The content of a type is read from the live index
+ * with a scroll, fetching only the fields needed to build its urls, and written straight into gzipped
+ * files of at most 50,000 urls (see {@link XMLSitemapWriter}).
+ * <p/>
+ * As a stateful job the time of the last run is kept in the job data map, so a run only regenerates the
+ * sections that changed since then: content modified since the last run, a different number of live
+ * contents or a different detail page or url map. A full regeneration is done every
+ * <strong>org.dotcms.XMLSitemap.FULL_REGENERATION_HOURS</strong> hours.
  *
  * @author Oswaldo
  *
  */
 public class XMLSitemapJob implements Job, StatefulJob {
 
-	private Host currentHost = null;
-	private User systemUser = null;
-	private File temporaryFile = null;
-	private File compressedFile = null;
-	private OutputStreamWriter out = null;
+	static final String LAST_RUN = "lastRun";
+	static final String LAST_FULL_RUN = "lastFullRun";
+	private static final String SECTION_STATE_PREFIX = "section:";
+
+	private static final String PAGES_SECTION = "pages";
+	private static final String TYPE_SECTION_PREFIX = "type-";
+
+	private static final String FOLDERS_CHANGED_SQL = "select count(*) as total from folder join identifier on folder.identifier = identifier.id "
+			+ "where identifier.host_inode = ? and folder.mod_date > ?";
+	private static final String LINKS_CHANGED_SQL = "select count(*) as total from links join identifier on links.identifier = identifier.id "
+			+ "where identifier.host_inode = ? and links.mod_date > ?";
+
+	private static final String FOLDERS_COUNT_SQL = "select count(*) as total from folder join identifier on folder.identifier = identifier.id "
+			+ "where identifier.host_inode = ?";
+	private static final String LINKS_COUNT_SQL = "select count(*) as total from links join identifier on links.identifier = identifier.id "
+			+ "where identifier.host_inode = ?";
+
+	private static final String[] URL_FIELDS = {"identifier", "inode"};
 
-	private int sitemapCounter = 1;
-	private int processedRegistries = 0;
-	private Map<String, Integer> hostFilesCounter = null;
+	private User systemUser = null;
 
 	private static String XML_SITEMAPS_FOLDER;
 	private ContentletAPI conAPI = APILocator.getContentletAPI();
@@ -82,25 +113,31 @@ public class XMLSitemapJob implements Job, StatefulJob {
 			new java.util.Date(), "yyyy-MM-dd");
 
 	private String structuresToIgnoreConfig = null;
+	private String sitemapBaseName;
+	private int maxUrlsPerFile;
+	private long maxBytesPerFile;
+	private int scrollSize;
+	private long fullRegenerationMillis;
 
 	public XMLSitemapJob () {
 		try {
 			systemUser = userAPI.getSystemUser();
 
-			hostFilesCounter = new HashMap<String, Integer>();
-
 			XML_SITEMAPS_FOLDER = Config.getStringProperty( "org.dotcms.XMLSitemap.XML_SITEMAPS_FOLDER", "/XMLSitemaps/" );
-			String usePermalinksString = Config.getStringProperty( "org.dotcms.XMLSitemap.USE_PERMALINKS=false", "false" );
-			String useStructureURLMapString = Config.getStringProperty( "org.dotcms.XMLSitemap.USE_STRUCTURE_URL_MAP", "false" );
-			usePermalinks = (UtilMethods.isSet( usePermalinksString ) ? Boolean.parseBoolean( usePermalinksString ) : false);
-			useStructureURLMap = (UtilMethods.isSet( useStructureURLMapString ) ? Boolean.parseBoolean( useStructureURLMapString ) : false);
+			usePermalinks = Config.getBooleanProperty( "org.dotcms.XMLSitemap.USE_PERMALINKS", false );
+			useStructureURLMap = Config.getBooleanProperty( "org.dotcms.XMLSitemap.USE_STRUCTURE_URL_MAP", false );
 
 			modifiedDateStringValue = UtilMethods.dateToHTMLDate(
 					new java.util.Date( System.currentTimeMillis() ), "yyyy-MM-dd" );
 
 			structuresToIgnoreConfig = Config.getStringProperty( "org.dotcms.XMLSitemap.IGNORE_Structure_Ids", "" );
+			sitemapBaseName = Config.getStringProperty( "org.dotcms.XMLSitemap.SITEMAP_XML_GZ_FILENAME", "XMLSitemapGenerated" );
+			maxUrlsPerFile = Config.getIntProperty( "org.dotcms.XMLSitemap.MAX_URLS_PER_FILE", XMLSitemapWriter.DEFAULT_MAX_URLS );
+			maxBytesPerFile = Config.getLongProperty( "org.dotcms.XMLSitemap.MAX_BYTES_PER_FILE", XMLSitemapWriter.DEFAULT_MAX_BYTES );
+			scrollSize = Config.getIntProperty( "org.dotcms.XMLSitemap.SCROLL_SIZE", 500 );
+			fullRegenerationMillis = TimeUnit.HOURS.toMillis(
+					Config.getIntProperty( "org.dotcms.XMLSitemap.FULL_REGENERATION_HOURS", 168 ) );
 
-			//generateSitemapPerHost();
 		} catch ( Exception e ) {
 			Logger.error( this, e.getMessage(), e );
 		}
@@ -110,7 +147,7 @@ public class XMLSitemapJob implements Job, StatefulJob {
 	public void execute(JobExecutionContext arg0) throws JobExecutionException {
 		try {
 			systemUser = userAPI.getSystemUser();
-			generateSitemapPerHost();
+			generateSitemapPerHost( arg0.getJobDetail().getJobDataMap() );
 
 		} catch (Exception e) {
 			Logger.error(this, e.getMessage(), e);
@@ -148,15 +185,31 @@ public class XMLSitemapJob implements Job, StatefulJob {
 	}
 
 	/**
-	 * Generate the sitemap xml based on the show on menu pages, files, link and
-	 * folder
+	 * Generate the sitemap xml of every host based on the show on menu pages, files, link and
+	 * folder, and the content of the types with a detail page
 	 */
-	@SuppressWarnings("unchecked")
 	@CloseDBIfOpened
 	public void generateSitemapPerHost() throws DotDataException, DotSecurityException {
+		generateSitemapPerHost( new JobDataMap() );
+	}
+
+	/**
+	 * Generate the sitemap xml of every host, only regenerating the sections that changed since the
+	 * last run recorded in the given state, which is updated
+	 *
+	 * @param state
+	 */
+	@CloseDBIfOpened
+	public void generateSitemapPerHost( final JobDataMap state ) throws DotDataException, DotSecurityException {
+
+		final long startTime = System.currentTimeMillis();
+		final long lastRun = state.containsKey( LAST_RUN ) ? state.getLong( LAST_RUN ) : 0;
+		final long lastFullRun = state.containsKey( LAST_FULL_RUN ) ? state.getLong( LAST_FULL_RUN ) : 0;
+		final boolean fullRegeneration = lastRun == 0 || startTime - lastFullRun >= fullRegenerationMillis;
 
 		List<Host> hostsList = hostAPI.findAll(systemUser, false);
 		List<ContentType> types = APILocator.getContentTypeAPI(APILocator.systemUser()).findAll() ;
+		final IndiciesInfo info = APILocator.getIndiciesAPI().loadIndicies();
 
 		for (Host host : hostsList) {
 
@@ -164,224 +217,262 @@ public class XMLSitemapJob implements Job, StatefulJob {
 				continue;
             }
 
-			processedRegistries = 0;
-			currentHost = host;
-			sitemapCounter = 1;
-            String stringbuf;
-
 			try {
-				/**
-				 * mark all the existing sitemaps generated in the XMLSitemap
-				 * folder for the host specified to be removed upon creating new ones
-				 */
-				List<Object> oldSiteMapsToDel = new ArrayList<Object>();
+				generateSitemap( host, types, info, state, fullRegeneration ? 0 : lastRun );
+			} catch (Exception e) {
+				Logger.error(this, e.getMessage(), e);
+			}
+		}
 
-				Folder folder = folderAPI.findFolderByPath(XML_SITEMAPS_FOLDER, host, systemUser, false);
+		state.put( LAST_RUN, startTime );
+		if ( fullRegeneration ) {
+			state.put( LAST_FULL_RUN, startTime );
+		}
+		Logger.info( this, "XML Sitemaps " + (fullRegeneration ? "generated" : "updated") + " in "
+				+ (System.currentTimeMillis() - startTime) + " ms" );
+	}
 
-				if (InodeUtils.isSet(folder.getIdentifier())) {
-					oldSiteMapsToDel.addAll(conAPI.findContentletsByFolder(folder, systemUser, false));
-				}
+	/**
+	 * Generates the sections of the sitemap of the host that changed since the given time, all of
+	 * them if it is 0, and removes the files of the sections that no longer exist
+	 */
+	private void generateSitemap ( final Host host, final List<ContentType> types, final IndiciesInfo info,
+			final JobDataMap state, final long since ) throws DotDataException, DotSecurityException, IOException {
+
+		final Folder folder = findOrCreateSitemapsFolder( host );
+		final Map<String, Contentlet> existingFiles = new HashMap<>();
+		for ( final Contentlet file : conAPI.findContentletsByFolder( folder, systemUser, false ) ) {
+			final String fileName = file.getStringProperty( FileAssetAPI.FILE_NAME_FIELD );
+			if ( fileName != null && fileName.startsWith( sitemapBaseName ) ) {
+				existingFiles.put( fileName, file );
+			}
+		}
 
-				hostFilesCounter.put(host.getHostname(), sitemapCounter);
+		// names of the files written in this run or kept from the previous one
+		final Set<String> currentFiles = new HashSet<>();
+
+		final String pagesSection = sitemapBaseName + "-" + PAGES_SECTION;
+		// deleted pages, folders and links are not modified after the last run, but they change the counts
+		final String pagesStateKey = SECTION_STATE_PREFIX + host.getIdentifier() + ":" + PAGES_SECTION;
+		final String pagesState = hostState( host, info );
+		if ( since == 0 || !pagesState.equals( state.getString( pagesStateKey ) ) || hostChanged( host, info, since ) ) {
+			state.remove( pagesStateKey );
+			writeSection( newWriter( pagesSection, folder, host, existingFiles, currentFiles ),
+					writer -> writePages( host, writer ) );
+			state.put( pagesStateKey, pagesState );
+		} else {
+			keepSection( pagesSection, existingFiles, currentFiles );
+		}
 
-				/* adding host url */
-				stringbuf = "<url><loc>"
-						+ XMLUtils.xmlEscape("http://" + host.getHostname() + "/")
-						+ "</loc><lastmod>"
-						+ modifiedDateStringValue
-						+ "</lastmod><changefreq>daily</changefreq></url>\n";
+		final List<String> ignorableStructureIds = getIgnorableStrcutureIdsForHost(host);
+		/**
+		 * This part generate the detail pages sitemap links per
+		 * structure
+		 */
+		for (ContentType type : types) {
+			String stVelocityVarName = type.variable();
+			if (ignorableStructureIds.contains(stVelocityVarName.toLowerCase())) {
+				continue;
+			}
 
-				writeFile(stringbuf);
+			Structure st = new StructureTransformer(type).asStructure();
 
-				addRegistryProcessed();
+			//Continue only if have a detail
+			if ( !InodeUtils.isSet( st.getPagedetail() ) ) {
+				continue;
+			}
 
-				List<String> ignorableStructureIds = getIgnorableStrcutureIdsForHost(host);
-				/**
-				 * This part generate the detail pages sitemap links per
-				 * structure
-				 */
-				for (ContentType type : types) {
-					String stVelocityVarName = type.variable();
-					if (ignorableStructureIds.contains(stVelocityVarName.toLowerCase())) {
-						continue;
-					}
+			final String typeSection = sitemapBaseName + "-" + TYPE_SECTION_PREFIX + stVelocityVarName.toLowerCase();
+			final String hostQuery = "+(conhost:" + host.getIdentifier() + " conhost:SYSTEM_HOST)";
+			final String query = hostQuery + " +structureName:" + st.getVelocityVarName() + " +deleted:false +live:true";
+
+			final String stateKey = SECTION_STATE_PREFIX + host.getIdentifier() + ":" + stVelocityVarName;
+
+			//Getting the detail page, that detail page could be a HTMLPageAsset or a legacy page
+			IHTMLPage page = null;
+			final List<Contentlet> results = APILocator.getContentletAPI()
+					.search("+identifier:" + st.getPagedetail() + " +live:true", 0, 0,
+							"moddate", systemUser, false);
+			if (results != null && !results.isEmpty()) {
+				//First lets asume it is a HTMLPageAsset
+				final Contentlet contentlet = results.get(0);
+				if (contentlet != null) {
+					page = APILocator.getHTMLPageAssetAPI().fromContentlet(contentlet);
+				}
+			}
 
-					Structure st = new StructureTransformer(type).asStructure();
+			if ( !UtilMethods.isSet( page ) || !UtilMethods.isSet( page.getIdentifier() ) ) {
+				Logger.error( this, "Unable to find detail page for structure [" + stVelocityVarName + "]." );
+				state.remove( stateKey );
+				continue;
+			}
 
-                    //Continue only if have a detail
-                    if ( !InodeUtils.isSet( st.getPagedetail() ) ) {
-						continue;
-                    }
-
-					//Getting the detail page, that detail page could be a HTMLPageAsset or a legacy page
-					IHTMLPage page = null;
-					final List<Contentlet> results = APILocator.getContentletAPI()
-							.search("+identifier:" + st.getPagedetail() + " +live:true", 0, 0,
-									"moddate", systemUser, false);
-					if (results != null && !results.isEmpty()) {
-						//First lets asume it is a HTMLPageAsset
-						final Contentlet contentlet = results.get(0);
-						if (contentlet != null) {
-							page = APILocator.getHTMLPageAssetAPI().fromContentlet(contentlet);
-						}
-					}
+			Identifier pageIdentifier = identAPI.find( page.getIdentifier() );
+			if ( !UtilMethods.isSet( pageIdentifier ) || !UtilMethods.isSet( pageIdentifier.getId() ) ) {
+				Logger.error( this, "Unable to find detail page for structure [" + stVelocityVarName + "]." );
+				state.remove( stateKey );
+				continue;
+			}
 
-					if ( !UtilMethods.isSet( page ) || !UtilMethods.isSet( page.getIdentifier() ) ) {
-						Logger.error( this, "Unable to find detail page for structure [" + stVelocityVarName + "]." );
-						continue;
-					}
+			// the section is kept when nothing that ends up in its urls changed since the last run,
+			// the uri of the detail page changes when the page is moved or renamed
+			final String signature = st.getPagedetail() + "|" + pageIdentifier.getURI() + "|" + st.getUrlMapPattern() + "|" + usePermalinks + "|" + useStructureURLMap;
+			final long liveCount = count( info.live, translate( query ), 0 );
+			final String sectionState = signature + "|" + liveCount;
+			if ( since > 0 && sectionState.equals( state.getString( stateKey ) )
+					&& count( info.working, translate( hostQuery + " +structureName:" + st.getVelocityVarName() ), since ) == 0 ) {
+				keepSection( typeSection, existingFiles, currentFiles );
+				continue;
+			}
 
-					Identifier pageIdentifier = identAPI.find( page.getIdentifier() );
-					if ( !UtilMethods.isSet( pageIdentifier ) || !UtilMethods.isSet( pageIdentifier.getId() ) ) {
-						Logger.error( this, "Unable to find detail page for structure [" + stVelocityVarName + "]." );
-						continue;
-					}
+			Logger.debug( this, " Creating Site Map for Structure " + stVelocityVarName );
 
-					Logger.debug( this, " Creating Site Map for Structure " + stVelocityVarName );
+			// a section that fails half written is regenerated in the next run
+			state.remove( stateKey );
+			final Identifier detailPage = pageIdentifier;
+			writeSection( newWriter( typeSection, folder, host, existingFiles, currentFiles ),
+					writer -> writeContentType( host, st, detailPage, translate( query ), info, writer ) );
+			state.put( stateKey, sectionState );
+		}
 
-					//Search for the content of this structure
-					String hostQuery = "+(conhost:" + host.getIdentifier() + " conhost:SYSTEM_HOST)";
-					String query = hostQuery + " +structureName:" + st.getVelocityVarName() + " +deleted:false +live:true";
+		// files of sections that are gone or now have less files
+		for ( final Map.Entry<String, Contentlet> existing : existingFiles.entrySet() ) {
+			if ( !currentFiles.contains( existing.getKey() ) ) {
+				removeSitemapFile( existing.getValue() );
+			}
+		}
+	}
 
-					List<Contentlet> hits = conAPI.search( query, -1, 0, "", systemUser, true );
-					String structureURLMap = st.getUrlMapPattern();
+	/**
+	 * Writes the urls of the live content of the given type, reading only the fields needed from the index
+	 */
+	private void writeContentType ( final Host host, final Structure st, final Identifier pageIdentifier,
+			final String query, final IndiciesInfo info, final XMLSitemapWriter writer ) throws IOException {
 
-					List<RegExMatch> matches = null;
+		final String hostUrl = "http://" + host.getHostname();
+		final UrlMapTemplate urlMap = useStructureURLMap && UtilMethods.isSet( st.getUrlMapPattern() )
+				? new UrlMapTemplate( st.getUrlMapPattern(), getUrlPatternReplacementText( host, st.getVelocityVarName() ) )
+				: null;
+		final StringBuilder loc = new StringBuilder( 128 );
 
-					if ( useStructureURLMap && UtilMethods.isSet( structureURLMap ) ) {
-						matches = RegEX.find( st.getUrlMapPattern(), "({[^{}]+})" );
+		try {
+			scroll( info.live, query, hits -> {
+
+				// the url map needs the field values, which are only kept lowercased in the index
+				Map<String, Contentlet> contentlets = null;
+				if ( !usePermalinks && urlMap != null ) {
+					contentlets = new HashMap<>();
+					final List<String> inodes = new ArrayList<>( hits.length );
+					for ( final SearchHit hit : hits ) {
+						inodes.add( (String) hit.getSourceAsMap().get( "inode" ) );
+					}
+					try {
+						for ( final Contentlet contentlet : conAPI.findContentlets( inodes ) ) {
+							contentlets.put( contentlet.getInode(), contentlet );
+						}
+					} catch ( Exception e ) {
+						// the urls of the page would be missing, the section is discarded and regenerated
+						throw new UncheckedIOException( new IOException( "Unable to load the content of the sitemap for "
+								+ st.getVelocityVarName() + ": " + e.getMessage(), e ) );
 					}
+				}
 
-					for (Contentlet contenlet : hits) {
-						stringbuf = null;
-						try {
-							if (usePermalinks) {
-								stringbuf = "<url><loc>"
-										+ XMLUtils.xmlEscape("http://"
-												+ host.getHostname()
-												+ "/permalink/"
-												+ contenlet.getIdentifier()
-												+ "/" + st.getPagedetail()
-												+ "/")
-										+ "</loc><lastmod>"
-										+ modifiedDateStringValue
-										+ "</lastmod><changefreq>daily</changefreq></url>\n";
-
-							} else if (useStructureURLMap && UtilMethods.isSet(structureURLMap) && (matches != null)) {
-
-								String uri = structureURLMap;
-								Logger.debug(this, " Found the URL String for validation [" + uri + "]");
-
-								for (RegExMatch match : matches) {
-									String urlMapField = match.getMatch();
-									String urlMapFieldValue = contenlet
-											.getStringProperty(urlMapField
-													.substring(1, (urlMapField
-															.length() - 1)));
-									urlMapField = urlMapField.replaceFirst(
-											"\\{", "\\\\{");
-									urlMapField = urlMapField.replaceFirst(
-											"\\}", "\\\\}");
-
-									if (urlMapFieldValue != null) {
-										uri = uri.replaceAll(urlMapField,
-												urlMapFieldValue);
-									}
-									Logger.debug(this,
-											"Performing Variable replacement - urlMapField ["
-													+ match.getMatch()
-													+ "], urlMapField [ "
-													+ urlMapField
-													+ "], urlMapFieldValue ["
-													+ urlMapFieldValue
-													+ "], uri [" + uri + "]");
-								}
-
-								if ( uri == null && UtilMethods.isSet( st.getDetailPage() ) ) {
-									if ( page != null && UtilMethods.isSet( page.getIdentifier() ) ) {
-										uri = page.getURI() + "?id=" + contenlet.getInode();
-									}
-								}
-								String urlReplacementText = getUrlPatternReplacementText( host, stVelocityVarName);
-
-								uri = uri.replaceAll(urlReplacementText, "");
-
-								Logger.debug(this,
-										"Performing URL replacement - urlRelacementText ["
-												+ urlReplacementText
-												+ "], uri [" + uri + "]");
-								if(StringUtils.isNotEmpty(uri)){
-									stringbuf = "<url><loc>"
-										+ XMLUtils.xmlEscape("http://"
-												+ host.getHostname() + uri)
-										+ "</loc><lastmod>"
-										+ modifiedDateStringValue
-										+ "</lastmod><changefreq>daily</changefreq></url>\n";
-								}
-							} else {
-								stringbuf = "<url><loc>"
-										+ XMLUtils.xmlEscape("http://"
-												+ host.getHostname()
-												+ pageIdentifier.getURI()
-												+ "?id="
-												+ contenlet.getIdentifier())
-										+ "</loc><lastmod>"
-										+ modifiedDateStringValue
-										+ "</lastmod><changefreq>daily</changefreq></url>\n";
+				for ( final SearchHit hit : hits ) {
+					final Map<String, Object> source = hit.getSourceAsMap();
+					final String identifier = (String) source.get( "identifier" );
+					loc.setLength( 0 );
+					try {
+						if ( usePermalinks ) {
+							loc.append( hostUrl ).append( "/permalink/" ).append( identifier )
+									.append( '/' ).append( st.getPagedetail() ).append( '/' );
+						} else if ( urlMap != null ) {
+							final Contentlet contentlet = contentlets.get( (String) source.get( "inode" ) );
+							if ( contentlet == null ) {
+								continue;
 							}
-
-							if (stringbuf != null) {
-								writeFile(stringbuf);
+							final String uri = urlMap.apply( contentlet );
+							if ( StringUtils.isEmpty( uri ) ) {
+								continue;
 							}
-							addRegistryProcessed();
-
-						} catch (Exception e) {
-							Logger.error(this, e.getMessage(), e);
+							loc.append( hostUrl ).append( uri );
+						} else {
+							loc.append( hostUrl ).append( pageIdentifier.getURI() ).append( "?id=" ).append( identifier );
 						}
+					} catch ( Exception e ) {
+						Logger.error( this, e.getMessage(), e );
+						continue;
+					}
+					try {
+						writer.writeUrl( loc.toString() );
+					} catch ( IOException e ) {
+						throw new UncheckedIOException( e );
 					}
 				}
+			} );
+		} catch ( UncheckedIOException e ) {
+			throw e.getCause();
+		}
+	}
 
-                /*
-                 This part add the show on menu pages. similar as we do in nav tool to generate the sitemap
-                 */
-                List<Folder> itemsList = folderAPI.findSubFolders( host, true );
-                if ( itemsList != null && !itemsList.isEmpty() ) {
+	/**
+	 * Writes the urls of a section and finishes its last file. If writing fails the file being
+	 * written is discarded, so a truncated file never replaces the one of the previous run
+	 */
+	private void writeSection ( final XMLSitemapWriter writer, final SectionContent content )
+			throws DotDataException, DotSecurityException, IOException {
 
-                    // /FIRST LEVEL MENU ITEMS!!!!
-                    for ( Object itemChild : itemsList ) {
+		try {
+			content.write( writer );
+		} catch ( DotDataException | DotSecurityException | IOException | RuntimeException e ) {
+			writer.abort();
+			throw e;
+		}
+		writer.close();
+	}
 
-						if (itemChild instanceof Folder) {
+	/**
+	 * Writes the urls of a section
+	 */
+	private interface SectionContent {
+		void write ( XMLSitemapWriter writer ) throws DotDataException, DotSecurityException, IOException;
+	}
 
-							Folder folderChild = (Folder) itemChild;
+	/**
+	 * Writes the host url and the show on menu pages. similar as we do in nav tool to generate the sitemap
+	 */
+	private void writePages ( final Host host, final XMLSitemapWriter writer ) throws DotDataException, DotSecurityException, IOException {
 
-							Logger.debug(this, "Folder Iteration in progress Name [" + folderChild.getName() + "], show on Menu Indicator [" + folderChild.isShowOnMenu() + "]");
+		/* adding host url */
+		writer.writeUrl( "http://" + host.getHostname() + "/" );
 
-							// recursive method here
-							buildSubFolderSiteMapMenu(folderChild, 100, 1, 1);
+		List<Folder> itemsList = folderAPI.findSubFolders( host, true );
+		if ( itemsList != null && !itemsList.isEmpty() ) {
 
-						} else if (itemChild instanceof Link) {
+			// /FIRST LEVEL MENU ITEMS!!!!
+			for ( Object itemChild : itemsList ) {
 
-                            writeLink( host, (Link) itemChild );
+				if (itemChild instanceof Folder) {
 
-						} else if (itemChild instanceof IHTMLPage) {
+					Folder folderChild = (Folder) itemChild;
 
-                            writeHTMLPage( host, (IHTMLPage) itemChild, false );
+					Logger.debug(this, "Folder Iteration in progress Name [" + folderChild.getName() + "], show on Menu Indicator [" + folderChild.isShowOnMenu() + "]");
 
-						} else if (itemChild instanceof Contentlet) {
+					// recursive method here
+					buildSubFolderSiteMapMenu(folderChild, 100, 1, 1, writer);
 
-							writeContentlet( host, (Contentlet) itemChild );
+				} else if (itemChild instanceof Link) {
 
-						}
-					}
+					writeLink( host, (Link) itemChild, writer );
 
-				}
+				} else if (itemChild instanceof IHTMLPage) {
 
-			} catch (Exception e) {
-				Logger.error(this, e.getMessage(), e);
-			}
+					writeHTMLPage( host, (IHTMLPage) itemChild, false, writer );
+
+				} else if (itemChild instanceof Contentlet) {
 
-			if (UtilMethods.isSet(temporaryFile)) {
-				closeFileWriter();
+					writeContentlet( host, (Contentlet) itemChild, writer );
+
+				}
 			}
 		}
 	}
@@ -393,13 +484,14 @@ public class XMLSitemapJob implements Job, StatefulJob {
 	 * @param numberOfLevels
 	 * @param currentLevel
 	 * @param orderDirection
+	 * @param writer
      * @throws com.dotmarketing.exception.DotDataException
      * @throws com.dotmarketing.exception.DotSecurityException
 	 */
 	@SuppressWarnings("unchecked")
-	private void buildSubFolderSiteMapMenu ( Folder thisFolder, int numberOfLevels, int currentLevel, int orderDirection ) throws DotDataException, DotSecurityException {
+	private void buildSubFolderSiteMapMenu ( Folder thisFolder, int numberOfLevels, int currentLevel, int orderDirection,
+			XMLSitemapWriter writer ) throws DotDataException, DotSecurityException, IOException {
 
-		String stringbuf;
 		// gets menu items for this folder
 		List<Inode> itemsChildrenList2 = folderAPI.findMenuItems( thisFolder, orderDirection );
 
@@ -416,20 +508,11 @@ public class XMLSitemapJob implements Job, StatefulJob {
 
 		if ( (indexPageId != null) && InodeUtils.isSet( indexPageId.getInode() ) ) {
 
-			stringbuf = "<url><loc>"
-					+ XMLUtils
-					.xmlEscape( "http://"
-							+ host.getHostname()
-							+ folderIdent.getURI() )
-					+ "</loc><lastmod>" + modifiedDateStringValue
-					+ "</lastmod><changefreq>daily</changefreq></url>\n";
-
-			Logger.debug( this, "Writing the XMLConfiguration for Folder[" + XMLUtils.xmlEscape( "http://" + host.getHostname() + folderIdent.getURI() ) + "]" );
+			Logger.debug( this, "Writing the XMLConfiguration for Folder[http://" + host.getHostname() + folderIdent.getURI() + "]" );
 
 			isIndexPageAlreadyConfigured = true;
 
-			writeFile( stringbuf );
-			addRegistryProcessed();
+			writer.writeUrl( "http://" + host.getHostname() + folderIdent.getURI() );
 		}
 
 		if ( currentLevel < numberOfLevels ) {
@@ -437,42 +520,31 @@ public class XMLSitemapJob implements Job, StatefulJob {
 			for ( Permissionable childChild2 : itemsChildrenList2 ) {
 				if ( childChild2 instanceof Folder ) {
 					Folder folderChildChild2 = (Folder) childChild2;
-					Identifier childChild2Ident = identAPI
-							.find( folderChildChild2.getIdentifier() );
 
 					if ( currentLevel <= numberOfLevels ) {
 						buildSubFolderSiteMapMenu( folderChildChild2,
 								numberOfLevels, currentLevel + 1,
-								orderDirection );
+								orderDirection, writer );
 					} else {
-						stringbuf = "<url><loc>"
-								+ XMLUtils
-								.xmlEscape( "http://"
-										+ host.getHostname()
-										+ childChild2Ident.getURI() )
-								+ "</loc><lastmod>"
-								+ modifiedDateStringValue
-								+ "</lastmod><changefreq>daily</changefreq></url>\n";
-
-						Logger.debug( this, "Writing the XMLConfiguration Second Level Check for [" + XMLUtils
-								.xmlEscape( "http://"
-										+ host.getHostname()
-										+ childChild2Ident.getURI() ) + "]" );
-
-						writeFile( stringbuf );
-						addRegistryProcessed();
+						Identifier childChild2Ident = identAPI
+								.find( folderChildChild2.getIdentifier() );
+
+						Logger.debug( this, "Writing the XMLConfiguration Second Level Check for [http://"
+								+ host.getHostname() + childChild2Ident.getURI() + "]" );
+
+						writer.writeUrl( "http://" + host.getHostname() + childChild2Ident.getURI() );
 					}
 				} else if ( childChild2 instanceof Link ) {
 
-					writeLink( host, (Link) childChild2 );
+					writeLink( host, (Link) childChild2, writer );
 
 				} else if ( childChild2 instanceof IHTMLPage ) {
 
-					writeHTMLPage( host, (IHTMLPage) childChild2, isIndexPageAlreadyConfigured );
+					writeHTMLPage( host, (IHTMLPage) childChild2, isIndexPageAlreadyConfigured, writer );
 
 				} else if ( childChild2 instanceof Contentlet ) {
 
-					writeContentlet( host, (Contentlet) childChild2 );
+					writeContentlet( host, (Contentlet) childChild2, writer );
 
 				}
 			}
@@ -481,200 +553,241 @@ public class XMLSitemapJob implements Job, StatefulJob {
 	}
 
 	/**
-	 * Create a new instance of the temporary file to save the index data
-	 *
+	 * Reads the given query from the index with a scroll, handing the hits page by page
 	 */
-	private void openFileWriter() {
+	private void scroll ( final String index, final String query, final java.util.function.Consumer<SearchHit[]> pageHandler ) {
+
+		final Client client = new ESClient().getClient();
+		final TimeValue keepAlive = TimeValue.timeValueMinutes( 2 );
+		SearchResponse response = client.prepareSearch( index )
+				.setQuery( QueryBuilders.queryStringQuery( query ) )
+				.setFetchSource( URL_FIELDS, null )
+				.setSize( scrollSize )
+				.setScroll( keepAlive )
+				//_doc has no real use-case besides being the most efficient sort order.
+				.addSort( "_doc", SortOrder.ASC )
+				.execute().actionGet();
 		try {
-			temporaryFile = new File(Config.getStringProperty("org.dotcms.XMLSitemap.SITEMAP_XML_FILENAME","XMLSitemap")
-					+ ".xml");
-			out = new OutputStreamWriter(Files.newOutputStream(temporaryFile.toPath()),
-					"UTF-8");
+			while ( response.getHits().getHits().length > 0 ) {
+				pageHandler.accept( response.getHits().getHits() );
+				response = client.prepareSearchScroll( response.getScrollId() ).setScroll( keepAlive ).execute().actionGet();
+			}
+		} finally {
+			client.prepareClearScroll().addScrollId( response.getScrollId() ).execute();
+		}
+	}
 
-			out.write( "<?xml version='1.0' encoding='UTF-8'?>\n" );
-			out
-					.write("<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:schemaLocation=\"http://www.sitemaps.org/schemas/sitemap/0.9 http://www.sitemaps.org/schemas/sitemap/0.9/sitemap.xsd\">\n");
-			out.flush();
+	/**
+	 * Counts the documents of the index matching the query, only the ones modified after the given time if it is not 0
+	 */
+	private long count ( final String index, final String query, final long modifiedSince ) {
 
-		} catch (Exception e) {
-			Logger.error(this, e.getMessage(), e);
+		QueryBuilder builder = QueryBuilders.queryStringQuery( query );
+		if ( modifiedSince > 0 ) {
+			builder = QueryBuilders.boolQuery().must( builder ).filter( QueryBuilders.rangeQuery( "moddate" )
+					.gt( ESMappingAPIImpl.elasticSearchDateTimeFormat.format( new Date( modifiedSince ) ) ) );
 		}
+		return new ESClient().getClient().prepareSearch( index ).setQuery( builder ).setSize( 0 )
+				.execute().actionGet().getHits().getTotalHits();
+	}
+
+	private String translate ( final String query ) {
+		return ESContentFactoryImpl.translateQuery( query, null ).getQuery();
 	}
 
 	/**
-	 * Save in backend the new XMLSitemapGenerated.xml file and delete the
-	 * temporary file
+	 * True if any content, folder or link of the host was modified after the given time
 	 */
-	private void closeFileWriter() {
+	private boolean hostChanged ( final Host host, final IndiciesInfo info, final long since ) throws DotDataException {
 
-		int counter = hostFilesCounter.get(currentHost.getHostname());
-		try {
-			out.write("</urlset>");
-			out.flush();
-			out.close();
-
-			/******* Begin Generate compressed file *****************************/
-			String dateCounter = Calendar.getInstance().get(Calendar.MONTH)
-									+""+Calendar.getInstance().get(Calendar.DAY_OF_MONTH)
-									+""+Calendar.getInstance().get(Calendar.HOUR_OF_DAY)
-									+""+Calendar.getInstance().get(Calendar.MINUTE);
-			String sitemapName = Config.getStringProperty("org.dotcms.XMLSitemap.SITEMAP_XML_GZ_FILENAME","XMLSitemapGenerated")
-					+ dateCounter + counter + ".xml.gz";
-			compressedFile = new File(sitemapName);
-			GZIPOutputStream gout = new GZIPOutputStream(Files.newOutputStream(compressedFile.toPath()));
-
-			// Open the input file
-			InputStream in = Files.newInputStream(temporaryFile.toPath());
-
-			// Transfer bytes from the input file to the GZIP output stream
-			byte[] buf = new byte[1024];
-			int len;
-			while ((len = in.read(buf)) > 0) {
-				gout.write(buf, 0, len);
+		// the sitemaps themselves do not count
+		final String query = "+conhost:" + host.getIdentifier() + " -parentpath:" + XML_SITEMAPS_FOLDER.toLowerCase() + "*";
+		if ( count( info.working, translate( query ), since ) > 0 ) {
+			return true;
+		}
+		for ( final String sql : new String[] { FOLDERS_CHANGED_SQL, LINKS_CHANGED_SQL } ) {
+			final DotConnect dc = new DotConnect();
+			dc.setSQL( sql );
+			dc.addParam( host.getIdentifier() );
+			dc.addParam( new Date( since ) );
+			if ( dc.getInt( "total" ) > 0 ) {
+				return true;
 			}
-			in.close();
+		}
+		return false;
+	}
 
-			// Complete the GZIP file
-			gout.finish();
-			gout.close();
-			/************ End Generate compressed file **********************/
+	/**
+	 * The number of contents, folders and links of the host, which changes when any of them is deleted
+	 */
+	private String hostState ( final Host host, final IndiciesInfo info ) throws DotDataException {
+
+		final StringBuilder hostState = new StringBuilder();
+		hostState.append( count( info.working, translate( "+conhost:" + host.getIdentifier()
+				+ " -parentpath:" + XML_SITEMAPS_FOLDER.toLowerCase() + "*" ), 0 ) );
+		for ( final String sql : new String[] { FOLDERS_COUNT_SQL, LINKS_COUNT_SQL } ) {
+			final DotConnect dc = new DotConnect();
+			dc.setSQL( sql );
+			dc.addParam( host.getIdentifier() );
+			hostState.append( '|' ).append( dc.getInt( "total" ) );
+		}
+		return hostState.toString();
+	}
 
-			/* Saving file in dotCMS */
+	private Folder findOrCreateSitemapsFolder ( final Host host ) throws DotDataException, DotSecurityException {
 
-			Folder folder = folderAPI.findFolderByPath(XML_SITEMAPS_FOLDER,
-					currentHost, systemUser, true);
+		Folder folder = folderAPI.findFolderByPath( XML_SITEMAPS_FOLDER, host, systemUser, true );
+		if ( !InodeUtils.isSet( folder.getIdentifier() ) ) {
+			folder = folderAPI.createFolders( XML_SITEMAPS_FOLDER, host, systemUser, true );
+		}
+		return folder;
+	}
 
-			if (!InodeUtils.isSet(folder.getIdentifier())) {
-				folder = folderAPI.createFolders(XML_SITEMAPS_FOLDER,
-						currentHost, systemUser, true);
-			}
+	private XMLSitemapWriter newWriter ( final String section, final Folder folder, final Host host,
+			final Map<String, Contentlet> existingFiles, final Set<String> currentFiles ) {
 
-			java.io.File uploadedFile = new java.io.File(sitemapName);
-			// Create the new file
-			Contentlet file = new Contentlet();
-			file.setStructureInode(folder.getDefaultFileType());
-			file.setStringProperty(FileAssetAPI.TITLE_FIELD, UtilMethods.getFileName(sitemapName));
-			file.setFolder(folder.getInode());
-			file.setHost(currentHost.getIdentifier());
-			file.setBinary(FileAssetAPI.BINARY_FIELD, uploadedFile);
-            if ( CacheLocator.getContentTypeCache().getStructureByInode( file.getStructureInode() ).getStructureType() == Structure.STRUCTURE_TYPE_FILEASSET ) {
-				file.setStringProperty("fileName", sitemapName);
-            }
-			file = APILocator.getContentletAPI().checkin(file, systemUser,false);
-            if ( APILocator.getPermissionAPI().doesUserHavePermission( file, PermissionAPI.PERMISSION_PUBLISH, systemUser ) ) {
-				APILocator.getVersionableAPI().setLive(file);
-            }
-			APILocator.getVersionableAPI().setWorking(file);
+		final File directory = new File( APILocator.getFileAssetAPI().getRealAssetPathTmpBinary() );
+		return new XMLSitemapWriter( directory, section, modifiedDateStringValue, maxUrlsPerFile, maxBytesPerFile, file -> {
+			saveSitemapFile( file, folder, host, existingFiles.get( file.getName() ) );
+			currentFiles.add( file.getName() );
+		} );
+	}
 
+	/**
+	 * Keeps the files generated for the section in a previous run
+	 */
+	private void keepSection ( final String section, final Map<String, Contentlet> existingFiles, final Set<String> currentFiles ) {
 
-		} catch (Exception e) {
-			Logger.error(this, e.getMessage(), e);
-		} finally {
-			hostFilesCounter.put(currentHost.getHostname(), counter + 1);
-			temporaryFile.delete();
-			compressedFile.delete();
-			temporaryFile = null;
-			compressedFile = null;
+		for ( final String fileName : existingFiles.keySet() ) {
+			if ( fileName.startsWith( section + "-" ) ) {
+				currentFiles.add( fileName );
+			}
 		}
 	}
 
 	/**
-	 * Write inside temporary file index pages
-	 *
-	 * @param data
+	 * Save in backend the generated sitemap file, as a new version of the file with the same name if there is one
 	 */
-	private void writeFile(String data) {
+	private void saveSitemapFile ( final File sitemap, final Folder folder, final Host host, final Contentlet existing ) {
 
 		try {
-			if (temporaryFile == null) {
-				openFileWriter();
-			}
-
-			out.write(data);
-			out.flush();
-
-			if (temporaryFile.length() > 9437184 || processedRegistries > 49999) {
-				closeFileWriter();
-				sitemapCounter = sitemapCounter + 1;
-				processedRegistries = 0;
-				openFileWriter();
+			Contentlet file;
+			if ( existing != null ) {
+				file = conAPI.checkout( existing.getInode(), systemUser, false );
+			} else {
+				file = new Contentlet();
+				file.setStructureInode( folder.getDefaultFileType() );
+				file.setFolder( folder.getInode() );
+				file.setHost( host.getIdentifier() );
 			}
-
-		} catch (Exception e) {
-			Logger.error(this, e.getMessage(), e);
+			file.setStringProperty( FileAssetAPI.TITLE_FIELD, sitemap.getName() );
+			file.setBinary( FileAssetAPI.BINARY_FIELD, sitemap );
+            if ( CacheLocator.getContentTypeCache().getStructureByInode( file.getStructureInode() ).getStructureType() == Structure.STRUCTURE_TYPE_FILEASSET ) {
+				file.setStringProperty( FileAssetAPI.FILE_NAME_FIELD, sitemap.getName() );
+            }
+			file = conAPI.checkin( file, systemUser, false );
+            if ( APILocator.getPermissionAPI().doesUserHavePermission( file, PermissionAPI.PERMISSION_PUBLISH, systemUser ) ) {
+				APILocator.getVersionableAPI().setLive( file );
+            }
+			APILocator.getVersionableAPI().setWorking( file );
+		} catch ( Exception e ) {
+			Logger.error( this, "Unable to save the sitemap " + sitemap.getName() + ": " + e.getMessage(), e );
 		}
-
 	}
 
-	/**
-	 * Add one to the the number of pages processed counter
-	 */
-	private void addRegistryProcessed() {
-		processedRegistries = processedRegistries + 1;
+	private void removeSitemapFile ( final Contentlet file ) {
+
+		try {
+			conAPI.archive( file, systemUser, false );
+			conAPI.delete( file, systemUser, false );
+		} catch ( Exception e ) {
+			Logger.error( this, "Unable to remove the sitemap " + file.getTitle() + ": " + e.getMessage(), e );
+		}
 	}
 
-	private void writeContentlet ( Host host, Contentlet contentlet ) throws DotDataException, DotSecurityException {
+	private void writeContentlet ( Host host, Contentlet contentlet, XMLSitemapWriter writer ) throws DotDataException, DotSecurityException, IOException {
 
 		if ( contentlet.isLive() && !contentlet.isArchived() ) {
 
 			Identifier identifier = APILocator.getIdentifierAPI().find( contentlet );
 			String url = identifier.getParentPath() + contentlet.getStringProperty( FileAssetAPI.FILE_NAME_FIELD );
 
-			String stringbuf = "<url><loc>"
-					+ XMLUtils.xmlEscape( "http://"
-					+ host.getHostname()
-					+ UtilMethods.encodeURIComponent( url ) )
-					+ "</loc><lastmod>"
-					+ modifiedDateStringValue
-					+ "</lastmod><changefreq>daily</changefreq></url>\n";
-
-			writeFile( stringbuf );
-			addRegistryProcessed();
+			writer.writeUrl( "http://" + host.getHostname() + UtilMethods.encodeURIComponent( url ) );
 		}
 	}
 
-	private void writeHTMLPage ( Host host, IHTMLPage page, Boolean isIndexPageAlreadyConfigured ) throws DotDataException, DotSecurityException {
+	private void writeHTMLPage ( Host host, IHTMLPage page, Boolean isIndexPageAlreadyConfigured, XMLSitemapWriter writer ) throws DotDataException, DotSecurityException, IOException {
 
 		Identifier childChild2Ident = identAPI.find( page.getIdentifier() );
 		if ( page.isLive() && !page.isArchived() ) {
 
 			String indexPageConfiguration = "/" + CMSFilter.CMS_INDEX_PAGE;
-			String pathToPageUrl = XMLUtils.xmlEscape( "http://" + host.getHostname() + childChild2Ident.getURI() );
+			String pathToPageUrl = "http://" + host.getHostname() + childChild2Ident.getURI();
 
 			if ( pathToPageUrl.endsWith( indexPageConfiguration ) && isIndexPageAlreadyConfigured ) {
 				Logger.debug( this, "Index Page is already configured, skipping the process [" + pathToPageUrl + "]" );
 				return;
 			}
 
-			pathToPageUrl = pathToPageUrl.replace( indexPageConfiguration, "" );
-
-			String stringbuf = "<url><loc>"
-					+ pathToPageUrl
-					+ "</loc><lastmod>"
-					+ modifiedDateStringValue
-					+ "</lastmod><changefreq>daily</changefreq></url>\n";
-
-			writeFile( stringbuf );
-			addRegistryProcessed();
+			writer.writeUrl( pathToPageUrl.replace( indexPageConfiguration, "" ) );
 		}
 	}
 
-	private void writeLink ( Host host, Link link ) throws DotSecurityException, DotDataException {
+	private void writeLink ( Host host, Link link, XMLSitemapWriter writer ) throws DotSecurityException, DotDataException, IOException {
 
 		if ( link.isLive() && !link.isDeleted() ) {
 			if ( link.getUrl().startsWith( host.getHostname() ) ) {
 
-				String stringbuf = "<url><loc>"
-						+ XMLUtils.xmlEscape( link.getProtocal()
-						+ link.getUrl() )
-						+ "</loc><lastmod>"
-						+ modifiedDateStringValue
-						+ "</lastmod><changefreq>daily</changefreq></url>\n";
+				writer.writeUrl( link.getProtocal() + link.getUrl() );
+			}
+		}
+	}
+
+	/**
+	 * The url map pattern of a content type split once into its literal parts and fields, so the urls
+	 * of its content are built without any regular expression
+	 */
+	static class UrlMapTemplate {
 
-				writeFile( stringbuf );
-				addRegistryProcessed();
+		private static final Pattern FIELD = Pattern.compile( "\\{([^{}]+)\\}" );
+
+		// literal parts at even positions, field names at odd positions
+		private final List<String> parts = new ArrayList<>();
+		private final Pattern ignoredText;
+
+		UrlMapTemplate ( final String urlMapPattern, final String ignoredText ) {
+
+			final Matcher matcher = FIELD.matcher( urlMapPattern );
+			int last = 0;
+			while ( matcher.find() ) {
+				parts.add( urlMapPattern.substring( last, matcher.start() ) );
+				parts.add( matcher.group( 1 ) );
+				last = matcher.end();
+			}
+			parts.add( urlMapPattern.substring( last ) );
+			this.ignoredText = UtilMethods.isSet( ignoredText ) ? Pattern.compile( ignoredText ) : null;
+		}
+
+		String apply ( final Contentlet contentlet ) {
+			return apply( contentlet::getStringProperty );
+		}
+
+		/**
+		 * Builds the uri with the given field values, a field with no value is left as it is in the pattern
+		 */
+		String apply ( final java.util.function.Function<String, String> fieldValues ) {
+
+			final StringBuilder uri = new StringBuilder( 64 );
+			for ( int i = 0; i < parts.size(); i++ ) {
+				if ( i % 2 == 0 ) {
+					uri.append( parts.get( i ) );
+				} else {
+					final String value = fieldValues.apply( parts.get( i ) );
+					uri.append( value != null ? value : "{" + parts.get( i ) + "}" );
+				}
 			}
+			return ignoredText != null ? ignoredText.matcher( uri ).replaceAll( "" ) : uri.toString();
 		}
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,181 @@
+package com.dotcms.xmlsitemap;
+
+import com.dotmarketing.util.Logger;
+import com.dotmarketing.util.XMLUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the urls of a sitemap straight into gzipped sitemap files, starting a new file every
+ * <strong>maxUrls</strong> urls (50,000 by the sitemap protocol) or when the uncompressed file would
+ * go over <strong>maxBytes</strong>. Nothing but the url being written is kept in memory.
+ * <p/>
+ * Files are named <code>baseName-N.xml.gz</code>, each finished file is handed to the given
+ * handler and deleted once the handler returns.
+ */
+public class XMLSitemapWriter implements Closeable {
+
+    public static final int DEFAULT_MAX_URLS = 50000;
+
+    // 50MB, the uncompressed size limit of the sitemap protocol
+    public static final long DEFAULT_MAX_BYTES = 52428800L;
+
+    private static final byte[] HEADER = ("<?xml version='1.0' encoding='UTF-8'?>\n"
+            + "<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" "
+            + "xsi:schemaLocation=\"http://www.sitemaps.org/schemas/sitemap/0.9 http://www.sitemaps.org/schemas/sitemap/0.9/sitemap.xsd\">\n")
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FOOTER = "</urlset>".getBytes(StandardCharsets.UTF_8);
+
+    private final File directory;
+    private final String baseName;
+    private final int maxUrls;
+    private final long maxBytes;
+    private final Consumer<File> fileHandler;
+    private final String urlSuffix;
+    private final StringBuilder entry = new StringBuilder(256);
+
+    private File currentFile;
+    private OutputStream out;
+    private int fileUrls;
+    private long fileBytes;
+    private int fileCount;
+    private int urlCount;
+
+    /**
+     * @param directory where the files are written
+     * @param baseName name of the files, without the counter and extension
+     * @param lastMod value of the lastmod element of every url, yyyy-MM-dd
+     * @param maxUrls max urls per file
+     * @param maxBytes max uncompressed bytes per file
+     * @param fileHandler receives every finished file
+     */
+    public XMLSitemapWriter(final File directory, final String baseName, final String lastMod,
+            final int maxUrls, final long maxBytes, final Consumer<File> fileHandler) {
+
+        this.directory = directory;
+        this.baseName = baseName;
+        this.maxUrls = maxUrls;
+        this.maxBytes = maxBytes;
+        this.fileHandler = fileHandler;
+        this.urlSuffix = "</loc><lastmod>" + lastMod + "</lastmod><changefreq>daily</changefreq></url>\n";
+    }
+
+    /**
+     * Adds a url to the sitemap
+     *
+     * @param loc the url, it is xml escaped here
+     * @throws IOException
+     */
+    public void writeUrl(final String loc) throws IOException {
+
+        entry.setLength(0);
+        entry.append("<url><loc>").append(XMLUtils.xmlEscape(loc)).append(urlSuffix);
+        final byte[] bytes = entry.toString().getBytes(StandardCharsets.UTF_8);
+
+        if (out != null && (fileUrls >= maxUrls
+                || fileBytes + bytes.length + FOOTER.length > maxBytes)) {
+            finishFile();
+        }
+        if (out == null) {
+            startFile();
+        }
+
+        out.write(bytes);
+        fileBytes += bytes.length;
+        fileUrls++;
+        urlCount++;
+    }
+
+    /**
+     * @return the urls written so far
+     */
+    public int getUrlCount() {
+        return urlCount;
+    }
+
+    /**
+     * @return the files started so far
+     */
+    public int getFileCount() {
+        return fileCount;
+    }
+
+    /**
+     * Name of the n-th file (starting at 1) written with the given base name
+     *
+     * @param baseName
+     * @param number
+     * @return
+     */
+    public static String fileName(final String baseName, final int number) {
+        return baseName + "-" + number + ".xml.gz";
+    }
+
+    /**
+     * Finishes the file being written, if any
+     */
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            finishFile();
+        }
+    }
+
+    /**
+     * Discards the file being written, if any, without handing it to the handler. Used when the urls
+     * could not be all written, so a truncated file does not replace a complete one
+     */
+    public void abort() {
+        if (out != null) {
+            final File file = currentFile;
+            try {
+                out.close();
+            } catch (IOException e) {
+                Logger.debug(this, "Unable to close the temporary sitemap " + file + ": " + e.getMessage());
+            }
+            out = null;
+            currentFile = null;
+            if (!file.delete()) {
+                Logger.debug(this, "Unable to delete the temporary sitemap " + file);
+            }
+        }
+    }
+
+    private void startFile() throws IOException {
+
+        fileCount++;
+        currentFile = new File(directory, fileName(baseName, fileCount));
+        out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(currentFile.toPath())), 8192);
+        out.write(HEADER);
+        fileBytes = HEADER.length;
+        fileUrls = 0;
+    }
+
+    private void finishFile() throws IOException {
+
+        final File file = currentFile;
+        try {
+            out.write(FOOTER);
+        } finally {
+            out.close();
+            out = null;
+            currentFile = null;
+        }
+        try {
+            fileHandler.accept(file);
+        } finally {
+            if (!file.delete()) {
+                Logger.debug(this, "Unable to delete the temporary sitemap " + file);
+            }
+        }
+    }
+
+}
@@ -96,6 +96,19 @@ public abstract class BlockPageCache implements Cachable {
 	abstract public void add(IHTMLPage page, String value,
 			PageCacheParameters pageChacheParams);
 
+	/**
+	 * Adds a new entry to the cache.
+	 * 
+	 * @param page
+	 *            - The {@link IHTMLPage} object.
+	 * @param entry
+	 *            - The already encoded page, see {@link BlockPageCacheEntry}.
+	 * @param pageChacheParams
+	 *            - Values used to cache a specific page.
+	 */
+	abstract public void add(IHTMLPage page, BlockPageCacheEntry entry,
+			PageCacheParameters pageChacheParams);
+
 	/**
 	 * Retrieves a page from the cache.
 	 * 
@@ -108,6 +121,35 @@ public abstract class BlockPageCache implements Cachable {
 	abstract public String get(IHTMLPage page,
 			PageCacheParameters pageChacheParams);
 
+	/**
+	 * Retrieves a page from the cache, already encoded and compressed so it
+	 * can be written as is to the response.
+	 * 
+	 * @param page
+	 *            - The {@link IHTMLPage} object.
+	 * @param pageChacheParams
+	 *            - Values used to retrieve a specific page from the cache.
+	 * @return The cached {@link BlockPageCacheEntry}, or <code>null</code> if
+	 *         there is none or it has expired.
+	 */
+	abstract public BlockPageCacheEntry getEntry(IHTMLPage page,
+			PageCacheParameters pageChacheParams);
+
+	/**
+	 * Retrieves a page from the cache even if its TTL has expired, as long as
+	 * it is still within the stale-while-revalidate window. Used to serve a
+	 * copy of the page while another request is rendering the new one.
+	 * 
+	 * @param page
+	 *            - The {@link IHTMLPage} object.
+	 * @param pageChacheParams
+	 *            - Values used to retrieve a specific page from the cache.
+	 * @return The cached page, or <code>null</code> if there is none or it is
+	 *         too old to be served.
+	 */
+	abstract public BlockPageCacheEntry getStale(IHTMLPage page,
+			PageCacheParameters pageChacheParams);
+
 	/**
 	 * Removes a page from the cache, along with all of its versions.
 	 * 
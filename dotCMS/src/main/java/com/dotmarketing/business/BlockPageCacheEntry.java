@@ -0,0 +1,133 @@
+package com.dotmarketing.business;
+
+import com.dotmarketing.util.Config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A rendered page as kept by the {@link BlockPageCache}. The page is stored already encoded in UTF-8
+ * together with its gzipped version and a strong ETag computed from its content, so serving it from
+ * cache does not require any encoding or compression.
+ * <p/>
+ * The gzipped version is only computed for pages of at least <strong>PAGE_CACHE_GZIP_MIN_BYTES</strong>
+ * bytes and can be disabled with <strong>PAGE_CACHE_GZIP=false</strong>.
+ */
+public class BlockPageCacheEntry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final boolean GZIP_ENABLED = Config.getBooleanProperty("PAGE_CACHE_GZIP", true);
+    private static final int GZIP_MIN_BYTES = Config.getIntProperty("PAGE_CACHE_GZIP_MIN_BYTES", 1024);
+
+    private final byte[] bytes;
+    private final byte[] gzipBytes;
+    private final String eTag;
+    private final long created;
+    private final int ttl;
+
+    public BlockPageCacheEntry(final String value, final int ttl) {
+        this.bytes = value.getBytes(StandardCharsets.UTF_8);
+        this.gzipBytes = (GZIP_ENABLED && bytes.length >= GZIP_MIN_BYTES) ? gzip(bytes) : null;
+        this.eTag = hash(bytes);
+        this.ttl = ttl;
+        this.created = System.currentTimeMillis();
+    }
+
+    /**
+     * The page encoded in UTF-8
+     */
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    /**
+     * The gzipped page, null if it was not worth compressing
+     */
+    public byte[] getGzipBytes() {
+        return gzipBytes;
+    }
+
+    public boolean hasGzip() {
+        return gzipBytes != null;
+    }
+
+    /**
+     * Strong ETag (quoted) of the page, the gzipped representation uses its own ETag
+     *
+     * @param gzipped
+     * @return
+     */
+    public String getETag(final boolean gzipped) {
+        return gzipped ? "\"" + eTag + "-gz\"" : "\"" + eTag + "\"";
+    }
+
+    /**
+     * Returns true if the given If-None-Match header matches any of the representations of this page
+     *
+     * @param ifNoneMatch
+     * @return
+     */
+    public boolean matches(final String ifNoneMatch) {
+
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if ("*".equals(tag) || getETag(false).equals(tag) || getETag(true).equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The page as a String
+     */
+    public String getValue() {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public int getTtl() {
+        return ttl;
+    }
+
+    private static byte[] gzip(final byte[] bytes) {
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            // writing to memory
+            return null;
+        }
+        return out.toByteArray();
+    }
+
+    private static String hash(final byte[] bytes) {
+
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-1").digest(bytes);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // every JVM is required to support SHA-1
+            return Integer.toHexString(Arrays.hashCode(bytes)) + "-" + bytes.length;
+        }
+    }
+
+}
@@ -8,6 +8,7 @@ import java.util.Map;
 import com.dotcms.enterprise.LicenseUtil;
 import com.dotcms.enterprise.license.LicenseLevel;
 import com.dotmarketing.portlets.htmlpageasset.model.IHTMLPage;
+import com.dotmarketing.util.Config;
 import com.dotmarketing.util.Logger;
 
 /**
@@ -44,6 +45,7 @@ public class BlockPageCacheImpl extends BlockPageCache {
 	private boolean canCache = false;
 	private DotCacheAdministrator cache = null;
 	private static String primaryCacheGroup = "BlockDirectiveHTMLPageCache";
+	private final long staleSeconds;
 
 	/**
 	 * Default constructor. Initializes the internal caching structures.
@@ -51,6 +53,7 @@ public class BlockPageCacheImpl extends BlockPageCache {
 	public BlockPageCacheImpl() {
 		this.cache = CacheLocator.getCacheAdministrator();
 		this.canCache = LicenseUtil.getLevel() >= LicenseLevel.COMMUNITY.level;
+		this.staleSeconds = Config.getLongProperty("PAGE_CACHE_STALE_WHILE_REVALIDATE_SECONDS", 0);
 	}
 
 	@Override
@@ -72,16 +75,23 @@ public class BlockPageCacheImpl extends BlockPageCache {
 	@Override
 	public void add(IHTMLPage page, String value,
 			PageCacheParameters pageChacheParams) {
-		if (page == null || pageChacheParams == null
-				|| pageChacheParams == null) {
+		if (page == null || value == null || pageChacheParams == null) {
+			return;
+		}
+		add(page, new BlockPageCacheEntry(value, (int) page.getCacheTTL()),
+				pageChacheParams);
+	}
+
+	@Override
+	public void add(IHTMLPage page, BlockPageCacheEntry cto,
+			PageCacheParameters pageChacheParams) {
+		if (page == null || cto == null || pageChacheParams == null) {
 			return;
 		}
 		StringBuilder key = new StringBuilder();
 		key.append(page.getInode());
 		key.append("_" + page.getModDate().getTime());
 		String subkey = pageChacheParams.getKey();
-		BlockDirectiveCacheObject cto = new BlockDirectiveCacheObject(value,
-				(int) page.getCacheTTL());
 		synchronized (cache) {
 			try {
 				// Lookup the cached versions of a page
@@ -118,43 +128,80 @@ public class BlockPageCacheImpl extends BlockPageCache {
 
 	@Override
 	public String get(IHTMLPage page, PageCacheParameters pageChacheParams) {
-		if (!canCache || page == null || pageChacheParams == null
+		BlockPageCacheEntry cto = getEntry(page, pageChacheParams);
+		return cto != null ? cto.getValue() : null;
+	}
+
+	@Override
+	public BlockPageCacheEntry getEntry(IHTMLPage page,
+			PageCacheParameters pageChacheParams) {
+		if (!canCache || page == null || pageChacheParams == null) {
+			return null;
+		}
+		synchronized (cache) {
+			BlockPageCacheEntry cto = lookup(page, pageChacheParams);
+			if (cto == null) {
+				return null;
+			}
+			long age = System.currentTimeMillis() - cto.getCreated();
+			if (age < page.getCacheTTL() * 1000) {
+				return cto;
+			}
+			// Remove page from cache if expired and get new version, unless
+			// it can still be served as stale while it is being re-rendered
+			if (age >= (page.getCacheTTL() + staleSeconds) * 1000) {
+				remove(page);
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public BlockPageCacheEntry getStale(IHTMLPage page,
+			PageCacheParameters pageChacheParams) {
+		if (!canCache || staleSeconds <= 0 || page == null
 				|| pageChacheParams == null) {
 			return null;
 		}
+		synchronized (cache) {
+			BlockPageCacheEntry cto = lookup(page, pageChacheParams);
+			if (cto != null
+					&& cto.getCreated()
+							+ ((page.getCacheTTL() + staleSeconds) * 1000) > System
+								.currentTimeMillis()) {
+				return cto;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Looks up the cached version of a page for the given parameters, without
+	 * looking at its TTL.
+	 */
+	private BlockPageCacheEntry lookup(IHTMLPage page,
+			PageCacheParameters pageChacheParams) {
 		StringBuilder key = new StringBuilder();
 		key.append(page.getInode());
 		key.append("_" + page.getModDate().getTime());
 		String subkey = pageChacheParams.getKey();
-		synchronized (cache) {
-			// Lookup the cached versions of the page based on inode and moddate
-			try {
-				List<Map<String, Object>> cachedPages = (List<Map<String, Object>>) this.cache
-						.get(key.toString(), primaryCacheGroup);
-				BlockDirectiveCacheObject cto = null;
-				if (cachedPages != null) {
-					for (Map<String, Object> pageInfo : cachedPages) {
-						// Lookup specific page with userid, language and urlmap
-						if (pageInfo.containsKey(subkey)) {
-							cto = (BlockDirectiveCacheObject) pageInfo
-									.get(subkey);
-							break;
-						}
-					}
-					if (cto != null
-							&& cto.getCreated()
-									+ ((int) page.getCacheTTL() * 1000) > System
-										.currentTimeMillis()) {
-						return cto.getValue();
-					} else {
-						// Remove page from cache if expired and get new version
-						remove(page);
+		// Lookup the cached versions of the page based on inode and moddate
+		try {
+			List<Map<String, Object>> cachedPages = (List<Map<String, Object>>) this.cache
+					.get(key.toString(), primaryCacheGroup);
+			if (cachedPages != null) {
+				for (Map<String, Object> pageInfo : cachedPages) {
+					// Lookup specific page with userid, language and urlmap
+					if (pageInfo.containsKey(subkey)) {
+						Object cto = pageInfo.get(subkey);
+						// entries cached by a previous version are just misses
+						return (cto instanceof BlockPageCacheEntry) ? (BlockPageCacheEntry) cto : null;
 					}
 				}
-			} catch (DotCacheException e) {
-				Logger.error(this.getClass(), "cache entry :" + key.toString()
-						+ " not found");
 			}
+		} catch (DotCacheException e) {
+			Logger.error(this.getClass(), "cache entry :" + key.toString()
+					+ " not found");
 		}
 		return null;
 	}
@@ -0,0 +1,320 @@
+package com.dotmarketing.business;
+
+import com.dotmarketing.util.Config;
+import com.dotmarketing.util.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Coalesces the key invalidations a node has to send to the rest of the cluster.
+ * <p/>
+ * Instead of one <code>key:group</code> message per removal, the removals requested during a short
+ * window (<strong>cache.invalidation.batch.window.millis</strong>) are deduplicated per group and
+ * sent as a single framed message, see {@link #encode(Map, int)}. When a group collects more keys than
+ * <strong>cache.invalidation.batch.group.flush.threshold</strong> the receivers just flush the whole
+ * group. Messages are split every <strong>cache.invalidation.batch.max.keys</strong> keys to keep them
+ * at a reasonable size for the transport.
+ * <p/>
+ * The message is a {@link #BATCH_PREFIX} followed by a sequence of netstring like tokens
+ * (<code>length:text</code>): a group name, the number of keys (or {@link #FLUSH_GROUP}) and the keys.
+ */
+public class CacheInvalidationBatcher {
+
+    public static final String BATCH_PREFIX = "invalidationBatch-1:";
+
+    static final int FLUSH_GROUP = -1;
+
+    private final Consumer<String> sender;
+    private final long windowMillis;
+    private final int groupFlushThreshold;
+    private final int maxKeysPerMessage;
+
+    private final Object lock = new Object();
+    private Map<String, Set<String>> pending = new HashMap<>();
+    private int pendingKeys = 0;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicLong invalidationsRequested = new AtomicLong();
+    private final AtomicLong invalidationsSent = new AtomicLong();
+    private final AtomicLong groupsCollapsed = new AtomicLong();
+    private final AtomicLong messagesSent = new AtomicLong();
+
+    /**
+     * @param sender sends an already encoded message to the cluster
+     */
+    public CacheInvalidationBatcher(final Consumer<String> sender) {
+        this(sender,
+                Config.getLongProperty("cache.invalidation.batch.window.millis", 50),
+                Config.getIntProperty("cache.invalidation.batch.group.flush.threshold", 1000),
+                Config.getIntProperty("cache.invalidation.batch.max.keys", 5000));
+    }
+
+    public CacheInvalidationBatcher(final Consumer<String> sender, final long windowMillis,
+                                    final int groupFlushThreshold, final int maxKeysPerMessage) {
+
+        this.sender = sender;
+        this.windowMillis = Math.max(1, windowMillis);
+        this.groupFlushThreshold = groupFlushThreshold;
+        this.maxKeysPerMessage = Math.max(1, maxKeysPerMessage);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+            thread.setName("cache_invalidation_batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::flushQuietly, this.windowMillis, this.windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues the invalidation of a key in a group, it will be sent on the next flush
+     *
+     * @param key
+     * @param group
+     */
+    public void add(final String key, final String group) {
+
+        invalidationsRequested.incrementAndGet();
+
+        boolean flushNow = false;
+        synchronized (lock) {
+            Set<String> keys = pending.get(group);
+            if (keys == null) {
+                keys = new LinkedHashSet<>();
+                pending.put(group, keys);
+            }
+            // an empty set means the whole group is already going to be flushed
+            if (keys != Collections.<String>emptySet() && keys.add(key)) {
+                pendingKeys++;
+                if (keys.size() > groupFlushThreshold) {
+                    pendingKeys -= keys.size();
+                    pending.put(group, Collections.emptySet());
+                    groupsCollapsed.incrementAndGet();
+                }
+            }
+            flushNow = pendingKeys >= maxKeysPerMessage;
+        }
+
+        if (flushNow) {
+            scheduler.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * Drops the pending invalidations of a group, used when the whole group is being flushed anyway
+     *
+     * @param group
+     */
+    public void discard(final String group) {
+        synchronized (lock) {
+            final Set<String> keys = pending.remove(group);
+            if (keys != null) {
+                pendingKeys -= keys.size();
+            }
+        }
+    }
+
+    /**
+     * Drops all the pending invalidations, used when the whole cache is being flushed anyway
+     */
+    public void discardAll() {
+        synchronized (lock) {
+            pending = new HashMap<>();
+            pendingKeys = 0;
+        }
+    }
+
+    /**
+     * Sends all the pending invalidations
+     */
+    public void flush() {
+
+        final Map<String, Set<String>> toSend;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            toSend = pending;
+            pending = new HashMap<>();
+            pendingKeys = 0;
+        }
+
+        for (final String message : encode(toSend, maxKeysPerMessage)) {
+            sender.accept(message);
+            messagesSent.incrementAndGet();
+        }
+        for (final Set<String> keys : toSend.values()) {
+            invalidationsSent.addAndGet(keys.isEmpty() ? 1 : keys.size());
+        }
+    }
+
+    /**
+     * Sends the pending invalidations and stops the scheduled flushes
+     */
+    public void shutdown() {
+        scheduler.shutdown();
+        flushQuietly();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            Logger.error(CacheInvalidationBatcher.class, "Unable to send invalidations to cluster : " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Number of invalidations requested through {@link #add(String, String)}
+     */
+    public long getInvalidationsRequested() {
+        return invalidationsRequested.get();
+    }
+
+    /**
+     * Number of distinct key and group invalidations actually shipped to the cluster
+     */
+    public long getInvalidationsSent() {
+        return invalidationsSent.get();
+    }
+
+    /**
+     * Number of times a group collected too many keys and was sent as a group flush instead
+     */
+    public long getGroupsCollapsed() {
+        return groupsCollapsed.get();
+    }
+
+    /**
+     * Number of batch messages sent to the cluster
+     */
+    public long getMessagesSent() {
+        return messagesSent.get();
+    }
+
+    /**
+     * Number of messages we did not have to send compared with one message per invalidation
+     */
+    public long getMessagesSaved() {
+        return Math.max(0, invalidationsRequested.get() - messagesSent.get());
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    /**
+     * Encodes the given invalidations in as many messages as needed to respect the max number of
+     * keys per message. An empty key set means the whole group must be flushed.
+     *
+     * @param invalidations
+     * @param maxKeysPerMessage
+     * @return
+     */
+    static List<String> encode(final Map<String, Set<String>> invalidations, final int maxKeysPerMessage) {
+
+        final List<String> messages = new ArrayList<>();
+        StringBuilder message = new StringBuilder(BATCH_PREFIX);
+        int keysInMessage = 0;
+
+        for (final Map.Entry<String, Set<String>> entry : invalidations.entrySet()) {
+
+            final String group = entry.getKey();
+            final Set<String> keys = entry.getValue();
+
+            if (keys.isEmpty()) {
+                appendToken(message, group);
+                appendToken(message, String.valueOf(FLUSH_GROUP));
+                keysInMessage++;
+                continue;
+            }
+
+            final List<String> remaining = new ArrayList<>(keys);
+            int from = 0;
+            while (from < remaining.size()) {
+                if (keysInMessage >= maxKeysPerMessage) {
+                    messages.add(message.toString());
+                    message = new StringBuilder(BATCH_PREFIX);
+                    keysInMessage = 0;
+                }
+                final int to = Math.min(remaining.size(), from + (maxKeysPerMessage - keysInMessage));
+                appendToken(message, group);
+                appendToken(message, String.valueOf(to - from));
+                for (int i = from; i < to; i++) {
+                    appendToken(message, remaining.get(i));
+                }
+                keysInMessage += to - from;
+                from = to;
+            }
+        }
+
+        if (message.length() > BATCH_PREFIX.length()) {
+            messages.add(message.toString());
+        }
+        return messages;
+    }
+
+    /**
+     * Decodes a message created by {@link #encode(Map, int)}. The returned map has an empty key
+     * set for the groups that must be flushed.
+     *
+     * @param message
+     * @return
+     */
+    static Map<String, Set<String>> decode(final String message) {
+
+        final Map<String, Set<String>> invalidations = new HashMap<>();
+        final int[] position = {BATCH_PREFIX.length()};
+
+        while (position[0] < message.length()) {
+            final String group = readToken(message, position);
+            final int count = Integer.parseInt(readToken(message, position));
+            if (count == FLUSH_GROUP) {
+                invalidations.put(group, Collections.emptySet());
+                continue;
+            }
+
+            Set<String> keys = invalidations.get(group);
+            if (keys == null) {
+                keys = new LinkedHashSet<>();
+                invalidations.put(group, keys);
+            }
+            for (int i = 0; i < count; i++) {
+                final String key = readToken(message, position);
+                if (keys != Collections.<String>emptySet()) {
+                    keys.add(key);
+                }
+            }
+        }
+
+        return invalidations;
+    }
+
+    public static boolean isBatch(final String message) {
+        return message != null && message.startsWith(BATCH_PREFIX);
+    }
+
+    private static void appendToken(final StringBuilder message, final String token) {
+        message.append(token.length()).append(':').append(token);
+    }
+
+    private static String readToken(final String message, final int[] position) {
+        final int separator = message.indexOf(':', position[0]);
+        final int length = Integer.parseInt(message.substring(position[0], separator));
+        final String token = message.substring(separator + 1, separator + 1 + length);
+        position[0] = separator + 1 + length;
+        return token;
+    }
+
+}
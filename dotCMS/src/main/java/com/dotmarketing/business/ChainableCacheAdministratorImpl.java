@@ -3,6 +3,7 @@
  */
 package com.dotmarketing.business;
 
+import com.dotcms.api.system.event.SystemEventBus;
 import com.dotcms.business.WrapInTransaction;
 import com.dotcms.cluster.ClusterUtils;
 import com.dotcms.cluster.bean.Server;
@@ -12,10 +13,12 @@ import com.dotcms.enterprise.cache.provider.CacheProviderAPI;
 import com.dotcms.enterprise.cluster.ClusterFactory;
 import com.dotcms.repackage.com.google.common.cache.RemovalListener;
 import com.dotcms.repackage.com.google.common.cache.RemovalNotification;
+import com.dotmarketing.business.cache.metrics.CacheMetricsRegistry;
 import com.dotmarketing.business.cache.provider.CacheProviderStats;
 import com.dotmarketing.business.cache.transport.CacheTransport;
 import com.dotmarketing.business.cache.transport.CacheTransportException;
 import com.dotmarketing.common.business.journal.DistributedJournalAPI;
+import com.dotmarketing.common.reindex.ReindexSignal;
 import com.dotmarketing.db.DbConnectionFactory;
 import com.dotmarketing.db.FlushCacheRunnable;
 import com.dotmarketing.db.HibernateUtil;
@@ -44,6 +47,7 @@ public class ChainableCacheAdministratorImpl implements DotCacheAdministrator {
 	private DistributedJournalAPI journalAPI;
 	private CacheProviderAPI cacheProviderAPI;
 	private boolean useTransportChannel = false;
+	private final CacheInvalidationBatcher invalidationBatcher;
 
 	public static final String TEST_MESSAGE = "HELLO CLUSTER!";
 	public static final String TEST_MESSAGE_NODE = "TESTNODE";
@@ -79,6 +83,10 @@ public class ChainableCacheAdministratorImpl implements DotCacheAdministrator {
 		}
 
 		journalAPI = APILocator.getDistributedJournalAPI();
+
+		invalidationBatcher = Config.getBooleanProperty("cache.invalidation.batch.enabled", true)
+				? new CacheInvalidationBatcher(this::sendInvalidation)
+				: null;
 	}
 
 	public void initProviders () {
@@ -234,6 +242,10 @@ public class ChainableCacheAdministratorImpl implements DotCacheAdministrator {
 
 		if ( useTransportChannel ) {
 
+			if ( invalidationBatcher != null ) {
+				invalidationBatcher.discardAll();
+			}
+
 			if (! cacheProviderAPI.isDistributed()) {
 				if ( getTransport() != null ) {
 					try {
@@ -268,6 +280,9 @@ public class ChainableCacheAdministratorImpl implements DotCacheAdministrator {
 
 		if ( useTransportChannel ) {
 			if (! cacheProviderAPI.isGroupDistributed( group )) {
+				if ( invalidationBatcher != null ) {
+					invalidationBatcher.discard(group);
+				}
 				try {
 					cacheTransport.send("0:" + group);
 				} catch (Exception e) {
@@ -305,7 +320,11 @@ public class ChainableCacheAdministratorImpl implements DotCacheAdministrator {
 		group = group.toLowerCase();
 
 		//Find the Object for a given key in a given group
-		return cacheProviderAPI.get(group, key);
+		final long start = System.nanoTime();
+		final Object value = cacheProviderAPI.get(group, key);
+		CacheMetricsRegistry.getInstance().metrics(CacheMetricsRegistry.CHAIN, group)
+				.recordGet(value, System.nanoTime() - start);
+		return value;
 	}
 
 	/*
@@ -325,7 +344,10 @@ public class ChainableCacheAdministratorImpl implements DotCacheAdministrator {
 		group = group.toLowerCase();
 
 		//Adds a given object gor a given group to a given key
+		final long start = System.nanoTime();
 		cacheProviderAPI.put(group, key, content);
+		CacheMetricsRegistry.getInstance().metrics(CacheMetricsRegistry.CHAIN, group)
+				.recordPut(System.nanoTime() - start);
 	}
 
 	/*
@@ -349,15 +371,11 @@ public class ChainableCacheAdministratorImpl implements DotCacheAdministrator {
 
 				if ( useTransportChannel ) {
 					if (! cacheProviderAPI.isGroupDistributed( group )) {
-						if ( getTransport() != null) {
-							try {
-								getTransport().send(k + ":" + g);
-							} catch ( Exception e ) {
-								Logger.error(ChainableCacheAdministratorImpl.class, "Unable to send invalidation to cluster : " + e.getMessage(), e);
-							}
+						if ( invalidationBatcher != null ) {
+							invalidationBatcher.add(k, g);
 						} else {
-							throw new CacheTransportException("No Cache transport implementation is defined");
-						}							
+							sendInvalidation(k + ":" + g);
+						}
 					}
 				}
 	         }
@@ -374,6 +392,29 @@ public class ChainableCacheAdministratorImpl implements DotCacheAdministrator {
 		cacheRemoveRunnable.run();
 	}
 
+	private void sendInvalidation ( final String message ) {
+
+		if ( getTransport() != null ) {
+			try {
+				getTransport().send(message);
+			} catch ( Exception e ) {
+				Logger.error(ChainableCacheAdministratorImpl.class, "Unable to send invalidation to cluster : " + e.getMessage(), e);
+			}
+		} else {
+			throw new CacheTransportException("No Cache transport implementation is defined");
+		}
+	}
+
+	/**
+	 * Returns the batcher coalescing the invalidations sent to the cluster, null if batching is
+	 * disabled (<strong>cache.invalidation.batch.enabled=false</strong>)
+	 *
+	 * @return
+	 */
+	public CacheInvalidationBatcher getInvalidationBatcher () {
+		return invalidationBatcher;
+	}
+
 	public void removeLocalOnly ( final String key, final String group, boolean ignoreDistributed ) {
 
 		if ( key == null || group == null ) {
@@ -384,6 +425,7 @@ public class ChainableCacheAdministratorImpl implements DotCacheAdministrator {
 			public void run () {
 				//Invalidates from Cache a key from a given group
 				cacheProviderAPI.remove(group, key, ignoreDistributed);
+				CacheMetricsRegistry.getInstance().metrics(CacheMetricsRegistry.CHAIN, group).recordRemove();
 			}
 		};
 		cacheRemoveRunnable.run();
@@ -406,6 +448,9 @@ public class ChainableCacheAdministratorImpl implements DotCacheAdministrator {
 	public void shutdownChannel () {
 
 		if ( getTransport() != null ) {
+			if ( invalidationBatcher != null ) {
+				invalidationBatcher.flush();
+			}
 			getTransport().shutdown();
 			useTransportChannel = false;
 		} else {
@@ -484,6 +529,22 @@ public class ChainableCacheAdministratorImpl implements DotCacheAdministrator {
 
 	public void invalidateCacheMesageFromCluster ( String message ) {
 		if(message==null){return;};
+
+		if ( CacheInvalidationBatcher.isBatch(message) ) {
+			invalidateBatchFromCluster(message);
+			return;
+		}
+
+		if ( ReindexSignal.isSignal(message) ) {
+			ReindexSignal.getInstance().signal();
+			return;
+		}
+
+		if ( SystemEventBus.isClusterMessage(message) ) {
+			SystemEventBus.getInstance().receive(message);
+			return;
+		}
+
 		int i = message.lastIndexOf(":");
 		if ( i > 0 ) {
 
@@ -508,6 +569,28 @@ public class ChainableCacheAdministratorImpl implements DotCacheAdministrator {
 		}
 	}
 
+	private void invalidateBatchFromCluster ( final String message ) {
+
+		final Map<String, Set<String>> invalidations;
+		try {
+			invalidations = CacheInvalidationBatcher.decode(message);
+		} catch ( Exception e ) {
+			Logger.error(this, "The cache invalidation batch is invalid: " + e.getMessage(), e);
+			return;
+		}
+
+		for ( final Map.Entry<String, Set<String>> entry : invalidations.entrySet() ) {
+			final String group = entry.getKey().toLowerCase();
+			if ( entry.getValue().isEmpty() ) {
+				CacheLocator.getCacheAdministrator().flushGroupLocalOnly(group, true);
+			} else {
+				for ( final String key : entry.getValue() ) {
+					CacheLocator.getCacheAdministrator().removeLocalOnly(key.toLowerCase(), group, true);
+				}
+			}
+		}
+	}
+
     @Override
     public Class getImplementationClass() {
         return ChainableCacheAdministratorImpl.class;
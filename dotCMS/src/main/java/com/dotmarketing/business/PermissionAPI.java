@@ -263,6 +263,17 @@ public interface PermissionAPI {
      */
     void addPermissionsToCache ( Permissionable permissionable ) throws DotDataException;
 
+    /**
+     * Loads into cache the permissions of all the given permissionables with a few set based queries,
+     * so the following calls to {@link #getPermissions(Permissionable)} for them do not hit the database
+     * one by one. Permissionables with no permissions of their own or through a reference are skipped,
+     * their permissions are resolved through the inheritance chain when first requested.
+     *
+     * @param permissionables
+     * @throws DotDataException
+     */
+    void addPermissionsToCache ( Collection<? extends Permissionable> permissionables ) throws DotDataException;
+
 	/**
 	 * Retrieves the list of permission that could be inherited from the given parent permissionable,
 	 * @param permissionable
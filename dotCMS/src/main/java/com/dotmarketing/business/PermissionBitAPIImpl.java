@@ -564,6 +564,12 @@ public class PermissionBitAPIImpl implements PermissionAPI {
         permissionFactory.addPermissionsToCache( permissionable );
     }
 
+	@CloseDBIfOpened
+	@Override
+    public void addPermissionsToCache ( final Collection<? extends Permissionable> permissionables ) throws DotDataException {
+        permissionFactory.addPermissionsToCache( permissionables );
+    }
+
 	@Override
     // todo: should be this a transaction (all of nothing on save several permissions)???
     public void save(Collection<Permission> permissions, Permissionable permissionable, User user, boolean respectFrontendRoles) throws DotDataException, DotSecurityException {
@@ -1108,26 +1114,95 @@ public class PermissionBitAPIImpl implements PermissionAPI {
 		if ((user != null) && roleAPI.doesUserHaveRole(user, roleAPI.loadCMSAdminRole()))
 			return inputList;
 
-		List<P> permissionables = new ArrayList<P>(inputList);
-		if(permissionables.isEmpty()){
-			return permissionables;
+		if(inputList.isEmpty() || (user != null && user.getUserId().equals(APILocator.getUserAPI().getSystemUser().getUserId()))){
+			return new ArrayList<P>(inputList);
+		}
+
+		/*
+		 * Same rules as doesUserHavePermission, but the roles are loaded once for the whole list, the
+		 * permissions missing in cache are loaded in one query and the permissionables sharing their
+		 * permissions (same permission id) are evaluated once
+		 */
+		final String anonRoleId = roleAPI.loadCMSAnonymousRole().getId();
+		final String frontEndUserRoleId = roleAPI.loadLoggedinSiteRole().getId();
+		final String cmsOwnerRoleId = roleAPI.loadCMSOwnerRole().getId();
+		final String adminRoleId = roleAPI.loadCMSAdminRole().getId();
+
+		final Set<String> userRoleIds = new HashSet<String>();
+		if(user != null){
+			for(Role role : roleAPI.loadRolesForUser(user.getUserId())){
+				if(adminRoleId.equals(role.getId())){
+					return new ArrayList<P>(inputList);
+				}
+				userRoleIds.add(role.getId());
+			}
+
+			if(!respectFrontendRoles){
+				final Set<String> frontEndRoleIds = Sets.newHashSet(anonRoleId, frontEndUserRoleId,
+						roleAPI.loadRoleByKey("anonymous").getId());
+				if(frontEndRoleIds.containsAll(userRoleIds)){
+					// The user roles are ALL frontEnd roles AND respectFrontEndRoles is false, only owner permissions count
+					userRoleIds.clear();
+				}
+			}
 		}
 
-		Permissionable permissionable;
-		int i = 0;
+		permissionFactory.addPermissionsToCache(inputList);
 
-		while (i < permissionables.size()) {
-			permissionable = permissionables.get(i);
-			if(!doesUserHavePermission(permissionable, requiredTypePermission, user, respectFrontendRoles)){
-				permissionables.remove(i);
-			} else {
-				++i;
+		final Map<String, Boolean> rolesPermissions = new HashMap<String, Boolean>();
+		final List<P> permissionables = new ArrayList<P>(inputList.size());
+		for(final P permissionable : inputList){
+
+			// bad data is left to doesUserHavePermission
+			if(permissionable == null || !InodeUtils.isSet(permissionable.getPermissionId())){
+				if(doesUserHavePermission(permissionable, requiredTypePermission, user, respectFrontendRoles)){
+					permissionables.add(permissionable);
+				}
+				continue;
+			}
+
+			// Folders do not have PUBLISH, use EDIT instead
+			final int permissionType = PermissionableType.FOLDERS.getCanonicalName().equals(permissionable.getPermissionType())
+					&& requiredTypePermission == PERMISSION_PUBLISH ? PERMISSION_EDIT : requiredTypePermission;
+
+			Boolean hasPermission = rolesPermissions.get(permissionable.getPermissionId() + ":" + permissionType);
+			if(hasPermission == null){
+				hasPermission = false;
+				for(Permission p : getPermissions(permissionable, true)){
+					if(p.matchesPermission(permissionType) && (userRoleIds.contains(p.getRoleId())
+							|| (respectFrontendRoles && (p.getRoleId().equals(anonRoleId)
+									|| (user != null && p.getRoleId().equals(frontEndUserRoleId)))))){
+						hasPermission = true;
+						break;
+					}
+				}
+				rolesPermissions.put(permissionable.getPermissionId() + ":" + permissionType, hasPermission);
+			}
+
+			if(hasPermission || (user != null && doesOwnerHavePermission(permissionable, permissionType, cmsOwnerRoleId, user))){
+				permissionables.add(permissionable);
 			}
 		}
 
 		return permissionables;
 	}
 
+	/**
+	 * The owner check of doesUserHavePermission: the owner role has the permission, the user is the owner and has the
+	 * related permissions
+	 */
+	private boolean doesOwnerHavePermission(final Permissionable permissionable, final int permissionType,
+			final String cmsOwnerRoleId, final User user) throws DotDataException {
+
+		for(Permission p : getPermissions(permissionable, true)){
+			if(p.matchesPermission(permissionType) && p.getRoleId().equals(cmsOwnerRoleId)){
+				return user.getUserId().equals(permissionable.getOwner())
+						&& checkRelatedPermissions(permissionable.permissionDependencies(permissionType), user);
+			}
+		}
+		return false;
+	}
+
 	@CloseDBIfOpened
 	@Override
 	public <P extends Permissionable> List<P> filterCollectionByDBPermissionReference(List<P> inputList, int requiredTypePermission,boolean respectFrontendRoles, User user) throws DotDataException, DotSecurityException {
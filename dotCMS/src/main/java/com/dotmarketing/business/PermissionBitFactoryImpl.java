@@ -9,6 +9,7 @@ import com.dotcms.contenttype.model.type.ContentType;
 import com.dotcms.contenttype.transform.contenttype.StructureTransformer;
 import com.dotcms.rendering.velocity.viewtools.navigation.NavResult;
 
+import com.dotcms.repackage.com.google.common.collect.Lists;
 import com.dotcms.system.SimpleMapAppContext;
 import com.dotmarketing.beans.Host;
 import com.dotmarketing.beans.Identifier;
@@ -54,6 +55,8 @@ import com.dotmarketing.util.UtilMethods;
 import com.liferay.portal.model.User;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -101,6 +104,22 @@ public class PermissionBitFactoryImpl extends PermissionFactory {
         "    on (inode_id = reference_id and permission.permission_type = permission_reference.permission_type) "+
         "    where asset_id = ?";
 
+	/*
+	 * Same as LOAD_PERMISSION_SQL for several permissionables at once, the asset_key column holds
+	 * the permissionable each row was loaded for
+	 * Parameters
+	 * 1. The list of permissionable ids
+	 * 2. The list of permissionable ids
+	 */
+	private static final String LOAD_PERMISSIONS_SQL =
+		" select permission.id, permission.permission_type, permission.inode_id, permission.roleid, permission.permission, " +
+		"    permission.inode_id as asset_key from permission where inode_id in (%s) " +
+		" union all " +
+		" select permission.id, permission.permission_type, permission.inode_id, permission.roleid, permission.permission, " +
+		"    permission_reference.asset_id as asset_key from permission join permission_reference " +
+		"    on (inode_id = reference_id and permission.permission_type = permission_reference.permission_type) " +
+		"    where asset_id in (%s)";
+
 	/*
 	 * To load permission references objects based on the reference they are pointing to
 	 * Parameters
@@ -988,6 +1007,42 @@ public class PermissionBitFactoryImpl extends PermissionFactory {
         }
     }
 
+    @Override
+    protected void addPermissionsToCache ( final Collection<? extends Permissionable> permissionables ) throws DotDataException {
+
+        final Set<String> permissionableIds = new LinkedHashSet<>();
+        for ( final Permissionable permissionable : permissionables ) {
+            if ( permissionable != null && InodeUtils.isSet( permissionable.getPermissionId() )
+                    && permissionCache.getPermissionsFromCache( permissionable.getPermissionId() ) == null ) {
+                permissionableIds.add( permissionable.getPermissionId() );
+            }
+        }
+        if ( permissionableIds.isEmpty() ) {
+            return;
+        }
+
+        final int chunkSize = Config.getIntProperty( "PERMISSION_CACHE_PREFETCH_CHUNK_SIZE", 500 );
+        final Map<String, List<Permission>> permissionsById = new HashMap<>();
+        for ( final List<String> chunk : Lists.partition( new ArrayList<>( permissionableIds ), chunkSize ) ) {
+
+            final String parameters = String.join( ",", Collections.nCopies( chunk.size(), "?" ) );
+            final DotConnect dc = new DotConnect();
+            dc.setSQL( String.format( LOAD_PERMISSIONS_SQL, parameters, parameters ) );
+            chunk.forEach( dc::addParam );
+            chunk.forEach( dc::addParam );
+
+            for ( final Map<String, Object> row : dc.loadObjectResults() ) {
+                final Permission permission = new Permission( (String) row.get( "permission_type" ), (String) row.get( "inode_id" ),
+                        (String) row.get( "roleid" ), ( (Number) row.get( "permission" ) ).intValue(), true );
+                permission.setId( ( (Number) row.get( "id" ) ).longValue() );
+                permissionsById.computeIfAbsent( (String) row.get( "asset_key" ), key -> new ArrayList<>() ).add( permission );
+            }
+        }
+
+        //Permissionables with no rows have to find out who they inherit from, that is left to loadPermissions
+        permissionsById.forEach( permissionCache::addToPermissionCache );
+    }
+
 	@Override
 	protected List<Permission> getPermissions(Permissionable permissionable, boolean bitPermissions, boolean onlyIndividualPermissions) throws DotDataException {
 
@@ -1,5 +1,6 @@
 package com.dotmarketing.business;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -127,6 +128,15 @@ public abstract class PermissionFactory {
      */
     abstract void addPermissionsToCache ( Permissionable permissionable ) throws DotDataException;
 
+    /**
+     * Loads into cache the individual and referenced permissions of the given permissionables,
+     * in chunks of <strong>PERMISSION_CACHE_PREFETCH_CHUNK_SIZE</strong> ids per query
+     *
+     * @param permissionables
+     * @throws DotDataException
+     */
+    abstract void addPermissionsToCache ( Collection<? extends Permissionable> permissionables ) throws DotDataException;
+
     /**
 	 * This method returns a list permission of all the permissionables passed as parameter,
 	 * it returns the compressed bit version of permissions, this method returns either the 
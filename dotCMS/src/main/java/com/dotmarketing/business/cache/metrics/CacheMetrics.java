@@ -0,0 +1,129 @@
+package com.dotmarketing.business.cache.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for a single cache group in a single {@link com.dotmarketing.business.cache.provider.CacheProvider},
+ * all of them striped {@link LongAdder}s so the hot paths of the providers can feed them without contention.
+ */
+public class CacheMetrics {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder removes = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder missLookupNanos = new LongAdder();
+    private final LongAdder serializedBytes = new LongAdder();
+    private final LongAdder serializedCount = new LongAdder();
+
+    private final LatencyHistogram getLatency = new LatencyHistogram();
+    private final LatencyHistogram putLatency = new LatencyHistogram();
+
+    /**
+     * Records a lookup, a null value is a miss. The time of the lookups that miss is kept apart, it is
+     * what a miss costs the cache, not the time the caller then takes to load the value
+     *
+     * @param value
+     * @param nanos
+     */
+    public void recordGet(final Object value, final long nanos) {
+        if (value == null) {
+            misses.increment();
+            missLookupNanos.add(nanos);
+        } else {
+            hits.increment();
+        }
+        getLatency.record(nanos);
+    }
+
+    public void recordPut(final long nanos) {
+        puts.increment();
+        putLatency.record(nanos);
+    }
+
+    /**
+     * Records a put of a value serialized to the given number of bytes
+     *
+     * @param nanos
+     * @param bytes
+     */
+    public void recordPut(final long nanos, final long bytes) {
+        recordPut(nanos);
+        serializedBytes.add(bytes);
+        serializedCount.increment();
+    }
+
+    public void recordRemove() {
+        removes.increment();
+    }
+
+    public void recordEviction() {
+        evictions.increment();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getPuts() {
+        return puts.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public double getHitRate() {
+        final long hitCount = hits.sum();
+        final long total = hitCount + misses.sum();
+        return total == 0 ? 0 : hitCount / (double) total;
+    }
+
+    public LatencyHistogram getGetLatency() {
+        return getLatency;
+    }
+
+    public LatencyHistogram getPutLatency() {
+        return putLatency;
+    }
+
+    public void reset() {
+        hits.reset();
+        misses.reset();
+        puts.reset();
+        removes.reset();
+        evictions.reset();
+        missLookupNanos.reset();
+        serializedBytes.reset();
+        serializedCount.reset();
+        getLatency.reset();
+        putLatency.reset();
+    }
+
+    public Map<String, Object> toMap() {
+
+        final long missCount = misses.sum();
+        final long serialized = serializedCount.sum();
+
+        final Map<String, Object> map = new LinkedHashMap<>();
+        map.put("hits", hits.sum());
+        map.put("misses", missCount);
+        map.put("hitRate", getHitRate());
+        map.put("puts", puts.sum());
+        map.put("removes", removes.sum());
+        map.put("evictions", evictions.sum());
+        map.put("avgMissLookupMicros", missCount == 0 ? 0 : missLookupNanos.sum() / missCount / 1000);
+        map.put("avgSerializedBytes", serialized == 0 ? 0 : serializedBytes.sum() / serialized);
+        map.put("getLatency", getLatency.toMap());
+        map.put("putLatency", putLatency.toMap());
+        return map;
+    }
+
+}
@@ -0,0 +1,138 @@
+package com.dotmarketing.business.cache.metrics;
+
+import com.dotmarketing.util.Config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the {@link CacheMetrics} reported by the cache administrator and by every
+ * {@link com.dotmarketing.business.cache.provider.CacheProvider}, per provider and group.
+ * It is exposed over JMX ({@link #MBEAN_OBJECT_NAME}) and through the system status REST endpoint.
+ * <p/>
+ * Can be turned off with <strong>cache.metrics.enabled=false</strong>, then a shared no-op
+ * {@link CacheMetrics} is handed out.
+ */
+public class CacheMetricsRegistry implements CacheMetricsRegistryMBean {
+
+    public static final String MBEAN_OBJECT_NAME = "org.dotcms:type=CacheMetrics";
+
+    /**
+     * Name used for the metrics of the whole provider chain
+     */
+    public static final String CHAIN = "chain";
+
+    private static final CacheMetricsRegistry INSTANCE = new CacheMetricsRegistry();
+
+    private final Map<String, Map<String, CacheMetrics>> providers = new ConcurrentHashMap<>();
+    private final boolean enabled = Config.getBooleanProperty("cache.metrics.enabled", true);
+    private final CacheMetrics disabledMetrics = new DisabledCacheMetrics();
+
+    private CacheMetricsRegistry() {
+        // singleton
+    }
+
+    public static CacheMetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the metrics for a group of a given provider, creating them if needed
+     *
+     * @param provider
+     * @param group
+     * @return
+     */
+    public CacheMetrics metrics(final String provider, final String group) {
+
+        if (!enabled || provider == null || group == null) {
+            return disabledMetrics;
+        }
+
+        // computeIfAbsent locks the bin on java 8 even when the key is there, only the misses go through it
+        Map<String, CacheMetrics> groups = providers.get(provider);
+        if (groups == null) {
+            groups = providers.computeIfAbsent(provider, key -> new ConcurrentHashMap<>());
+        }
+        final CacheMetrics metrics = groups.get(group);
+        return metrics != null ? metrics : groups.computeIfAbsent(group, key -> new CacheMetrics());
+    }
+
+    @Override
+    public List<String> listProviders() {
+        final List<String> names = new ArrayList<>(providers.keySet());
+        Collections.sort(names);
+        return names;
+    }
+
+    @Override
+    public Map<String, Object> getStats(final String provider) {
+
+        final Map<String, Object> stats = new TreeMap<>();
+        final Map<String, CacheMetrics> groups = providers.get(provider);
+        if (groups != null) {
+            groups.forEach((group, metrics) -> stats.put(group, metrics.toMap()));
+        }
+        return stats;
+    }
+
+    @Override
+    public Map<String, Object> getGroupStats(final String provider, final String group) {
+
+        final Map<String, CacheMetrics> groups = providers.get(provider);
+        final CacheMetrics metrics = (groups != null && group != null) ? groups.get(group.toLowerCase()) : null;
+        return metrics != null ? metrics.toMap() : Collections.emptyMap();
+    }
+
+    /**
+     * Returns the metrics of all providers and groups
+     *
+     * @return
+     */
+    public Map<String, Object> getAllStats() {
+
+        final Map<String, Object> stats = new TreeMap<>();
+        for (final String provider : providers.keySet()) {
+            stats.put(provider, getStats(provider));
+        }
+        return stats;
+    }
+
+    @Override
+    public void reset() {
+        providers.values().forEach(groups -> groups.values().forEach(CacheMetrics::reset));
+    }
+
+    @Override
+    public String getObjectName() {
+        return MBEAN_OBJECT_NAME;
+    }
+
+    private static final class DisabledCacheMetrics extends CacheMetrics {
+
+        @Override
+        public void recordGet(final Object value, final long nanos) {
+        }
+
+        @Override
+        public void recordPut(final long nanos) {
+        }
+
+        @Override
+        public void recordPut(final long nanos, final long bytes) {
+        }
+
+        @Override
+        public void recordRemove() {
+        }
+
+        @Override
+        public void recordEviction() {
+        }
+    }
+
+}
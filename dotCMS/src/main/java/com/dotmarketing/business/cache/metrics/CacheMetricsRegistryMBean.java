@@ -0,0 +1,40 @@
+package com.dotmarketing.business.cache.metrics;
+
+import com.dotcms.jmx.DotMBean;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encapsulates the MBean interface for the {@link CacheMetricsRegistry}
+ */
+public interface CacheMetricsRegistryMBean extends DotMBean {
+
+    /**
+     * Returns the providers that reported metrics, including {@link CacheMetricsRegistry#CHAIN}
+     * for the whole chain as seen by the cache administrator
+     * @return List
+     */
+    public List<String> listProviders();
+
+    /**
+     * Gets the metrics of every group for a particular provider
+     * @param provider {@link String}
+     * @return Map
+     */
+    public Map<String, Object> getStats(String provider);
+
+    /**
+     * Gets the metrics of a group for a particular provider
+     * @param provider {@link String}
+     * @param group {@link String}
+     * @return Map
+     */
+    public Map<String, Object> getGroupStats(String provider, String group);
+
+    /**
+     * Resets all the counters
+     */
+    public void reset();
+
+}
@@ -0,0 +1,115 @@
+package com.dotmarketing.business.cache.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Low overhead latency histogram: each bucket is a striped {@link LongAdder} covering a power of two
+ * range of microseconds, so recording a value is a couple of bit operations and an uncontended add.
+ * Percentiles are approximated to the upper bound of the bucket they fall in, the overflow bucket has
+ * no upper bound so it reports the slowest value recorded.
+ */
+public class LatencyHistogram {
+
+    // bucket 0 holds values under 1 micro, bucket i the ones in [2^(i-1), 2^i) micros, the last one is the overflow (>= 2^20 micros, ~1 second)
+    static final int BUCKETS = 22;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Long::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a latency expressed in nanoseconds
+     *
+     * @param nanos
+     */
+    public void record(final long nanos) {
+
+        final long value = Math.max(0, nanos);
+        final long micros = value / 1000;
+        final int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        buckets[bucket].increment();
+        if (bucket == BUCKETS - 1) {
+            maxMicros.accumulate(micros);
+        }
+        count.increment();
+        totalNanos.add(value);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Average latency in microseconds
+     */
+    public double getAverageMicros() {
+        final long samples = count.sum();
+        return samples == 0 ? 0 : (totalNanos.sum() / (double) samples) / 1000;
+    }
+
+    /**
+     * Approximated percentile in microseconds (the upper bound of the bucket it falls in, the slowest
+     * value recorded for the overflow bucket)
+     *
+     * @param percentile between 0 and 1
+     * @return
+     */
+    public long getPercentileMicros(final double percentile) {
+
+        final long[] snapshot = new long[BUCKETS];
+        long samples = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = buckets[i].sum();
+            samples += snapshot[i];
+        }
+        if (samples == 0) {
+            return 0;
+        }
+
+        final long target = (long) Math.ceil(samples * percentile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= target) {
+                return upperBoundMicros(i);
+            }
+        }
+        return upperBoundMicros(BUCKETS - 1);
+    }
+
+    public void reset() {
+        for (final LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        totalNanos.reset();
+        maxMicros.reset();
+    }
+
+    public Map<String, Object> toMap() {
+
+        final Map<String, Object> map = new LinkedHashMap<>();
+        map.put("count", getCount());
+        map.put("avgMicros", getAverageMicros());
+        map.put("p50Micros", getPercentileMicros(0.50));
+        map.put("p95Micros", getPercentileMicros(0.95));
+        map.put("p99Micros", getPercentileMicros(0.99));
+        map.put("maxBucketMicros", getPercentileMicros(1));
+        return map;
+    }
+
+    private long upperBoundMicros(final int bucket) {
+        return bucket == BUCKETS - 1 ? Math.max(1L << (BUCKETS - 1), maxMicros.get()) : 1L << bucket;
+    }
+
+}
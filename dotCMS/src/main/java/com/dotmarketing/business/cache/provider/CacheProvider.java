@@ -1,5 +1,9 @@
 package com.dotmarketing.business.cache.provider;
 
+import com.dotmarketing.business.cache.metrics.CacheMetrics;
+import com.dotmarketing.business.cache.metrics.CacheMetricsRegistry;
+import com.dotmarketing.business.cache.provider.serializer.CacheSerializer;
+import com.dotmarketing.business.cache.provider.serializer.CacheSerializerFactory;
 import java.io.Serializable;
 import java.util.Set;
 
@@ -34,6 +38,8 @@ public abstract class CacheProvider implements Serializable {
     protected static final String ONLY_MEMORY_GROUP = "VelocityMemoryOnlyCache".toLowerCase();
     protected static final String USER_VTLS_GROUP = "VelocityUserVTLCache".toLowerCase();
 
+    private transient volatile CacheSerializer serializer;
+
     /**
      * Returns the human readable name for this Cache Provider
      *
@@ -132,4 +138,60 @@ public abstract class CacheProvider implements Serializable {
      */
     public abstract void shutdown ();
 
-}
\ No newline at end of file
+    /**
+     * Returns the {@link CacheSerializer} providers storing objects outside the heap must use to
+     * convert them to bytes, by default the one configured for this provider key
+     * (see {@link CacheSerializerFactory}).
+     *
+     * @return
+     */
+    public CacheSerializer getSerializer () {
+        if ( serializer == null ) {
+            serializer = CacheSerializerFactory.getSerializer(getKey());
+        }
+        return serializer;
+    }
+
+    /**
+     * Overrides the {@link CacheSerializer} used by this provider
+     *
+     * @param serializer
+     */
+    public void setSerializer ( final CacheSerializer serializer ) {
+        this.serializer = serializer;
+    }
+
+    /**
+     * Specifies whether this provider bounds its regions by the estimated heap used by the cached
+     * objects (<strong>cache.heap.budget.percent</strong>, <strong>cache.mycacheregionexample.maxbytes</strong>)
+     * instead of by number of entries. Providers that do not keep objects on heap should not override it.
+     *
+     * @return
+     */
+    public boolean isWeighted () {
+        return false;
+    }
+
+    /**
+     * Returns the estimated amount of bytes held by this provider for a given region, or -1 if
+     * this provider does not keep track of the weight of its objects
+     *
+     * @param group
+     * @return
+     */
+    public long getWeight ( String group ) {
+        return -1;
+    }
+
+    /**
+     * Returns the {@link CacheMetrics} this provider must feed for a given region, see
+     * {@link CacheMetricsRegistry}
+     *
+     * @param group
+     * @return
+     */
+    protected CacheMetrics getMetrics ( String group ) {
+        return CacheMetricsRegistry.getInstance().metrics(getKey(), group != null ? group.toLowerCase() : null);
+    }
+
+}
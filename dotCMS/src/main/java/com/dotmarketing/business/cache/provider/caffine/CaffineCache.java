@@ -5,21 +5,35 @@ import java.text.NumberFormat;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.dotcms.enterprise.cache.provider.CacheProviderAPI;
 import com.dotmarketing.business.DotStateException;
+import com.dotmarketing.business.cache.metrics.CacheMetrics;
 import com.dotmarketing.business.cache.provider.CacheProvider;
 import com.dotmarketing.business.cache.provider.CacheProviderStats;
 import com.dotmarketing.business.cache.provider.CacheStats;
 import com.dotmarketing.util.Config;
 import com.dotmarketing.util.Logger;
+import com.dotmarketing.util.UtilMethods;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.RemovalListener;
 import com.google.common.collect.ImmutableSet;
 
 
+/**
+ * In memory {@link CacheProvider} backed by Caffeine.
+ * <p/>
+ * By default every region is bounded by number of entries (<strong>cache.mycacheregionexample.size</strong>).
+ * A region can be bounded by the estimated heap its objects retain instead, either explicitly with
+ * <strong>cache.mycacheregionexample.maxbytes</strong> or by setting a global heap budget with
+ * <strong>cache.heap.budget.percent</strong>, in which case the budget left after the explicit
+ * regions is split between the remaining regions proportionally to their configured sizes.
+ */
 public class CaffineCache extends CacheProvider {
 
     private static final long serialVersionUID = 1348649382678659786L;
@@ -32,6 +46,14 @@ public class CaffineCache extends CacheProvider {
             new ConcurrentHashMap<>();
     private Set<String> availableCaches;
 
+    private final ObjectSizeWeigher weigher = new ObjectSizeWeigher();
+
+    // heap budget (in bytes) shared by the regions that do not define their own maxbytes
+    private long sharedHeapBudget = -1;
+
+    // sum of the configured sizes of the regions sharing the heap budget
+    private long sharedConfiguredSize = 0;
+
 
     @Override
     public String getName() {
@@ -53,6 +75,9 @@ public class CaffineCache extends CacheProvider {
         HashSet<String> _availableCaches = new HashSet<>();
         _availableCaches.add(DEFAULT_CACHE);
 
+        long explicitBytes = 0;
+        long configuredSize = 0;
+
         Iterator<String> it = Config.getKeys();
         while (it.hasNext()) {
 
@@ -69,11 +94,33 @@ public class CaffineCache extends CacheProvider {
                     _availableCaches.add(cacheName.toLowerCase());
                     Logger.info(this.getClass(),
                             "***\t Cache Config Memory : " + cacheName + ": " + inMemory);
+                    if (Config.getLongProperty("cache." + cacheName + ".maxbytes", -1) <= 0) {
+                        configuredSize += inMemory;
+                    }
+                } else if (key.endsWith(".maxbytes")) {
+                    long maxBytes = Config.getLongProperty(key, -1);
+                    _availableCaches.add(cacheName.toLowerCase());
+                    Logger.info(this.getClass(),
+                            "***\t Cache Config Max Bytes : " + cacheName + ": " + maxBytes);
+                    if (maxBytes > 0) {
+                        explicitBytes += maxBytes;
+                    }
                 }
 
             }
         }
         this.availableCaches = ImmutableSet.copyOf(_availableCaches);
+
+        float heapPercent = Config.getFloatProperty("cache.heap.budget.percent", 0);
+        if (heapPercent > 0) {
+            long heapBudget = (long) (Runtime.getRuntime().maxMemory() * (heapPercent / 100));
+            this.sharedHeapBudget = Math.max(0, heapBudget - explicitBytes);
+            this.sharedConfiguredSize = configuredSize;
+            Logger.info(this.getClass(),
+                    "***\t Cache Heap Budget : " + UtilMethods.prettyByteify(heapBudget)
+                            + ", shared by non explicit regions: " + UtilMethods.prettyByteify(sharedHeapBudget));
+        }
+
         isInitialized = true;
     }
 
@@ -85,25 +132,30 @@ public class CaffineCache extends CacheProvider {
     @Override
     public void put(String group, String key, Object content) {
 
+        final long start = System.nanoTime();
+
         // Get the cache for the given group
         Cache<String, Object> cache = getCache(group);
 
         // Add the given content to the group and for a given key
         cache.put(key, content);
+
+        getMetrics(group).recordPut(System.nanoTime() - start);
     }
 
     @Override
     public Object get(String group, String key) {
 
+        final long start = System.nanoTime();
+
         // Get the cache for the given group
         Cache<String, Object> cache = getCache(group);
 
-
-
         // Get the content from the group and for a given key
-        return cache.getIfPresent(key);
-
+        final Object value = cache.getIfPresent(key);
 
+        getMetrics(group).recordGet(value, System.nanoTime() - start);
+        return value;
     }
 
     @Override
@@ -127,6 +179,8 @@ public class CaffineCache extends CacheProvider {
 
         // Invalidates from Cache a key from a given group
         cache.invalidate(key);
+
+        getMetrics(group).recordRemove();
     }
 
     @Override
@@ -162,6 +216,16 @@ public class CaffineCache extends CacheProvider {
         return keys;
     }
 
+    @Override
+    public boolean isWeighted() {
+        return sharedHeapBudget > 0 || getGroups().stream().anyMatch(group -> getMaxBytes(group) > 0);
+    }
+
+    @Override
+    public long getWeight(String group) {
+        return weightedSize(getCache(group)).orElse(-1);
+    }
+
     @Override
     public CacheProviderStats getStats() {
 
@@ -198,6 +262,16 @@ public class CaffineCache extends CacheProvider {
             stats.addStat(CacheStats.REGION_HIT_RATE, pf.format(cstats.hitRate()));
             stats.addStat(CacheStats.REGION_AVG_LOAD_TIME, nf.format(cstats.averageLoadPenalty()/1000000) + " ms");
             stats.addStat(CacheStats.REGION_EVICTIONS, nf.format(cstats.evictionCount()));
+
+            long maxBytes = getMaxBytes(group);
+            Optional<Long> weight = weightedSize(foundCache);
+            if (maxBytes > 0 && weight.isPresent()) {
+                long size = foundCache.estimatedSize();
+                stats.addStat(CacheStats.REGION_CONFIGURED_MAX_BYTES, UtilMethods.prettyByteify(maxBytes));
+                stats.addStat(CacheStats.REGION_MEM_TOTAL_PRETTY, UtilMethods.prettyByteify(weight.get()));
+                stats.addStat(CacheStats.REGION_MEM_PER_OBJECT,
+                        UtilMethods.prettyByteify(size > 0 ? weight.get() / size : 0));
+            }
             
 
             ret.addStatRecord(stats);
@@ -233,22 +307,38 @@ public class CaffineCache extends CacheProvider {
                             || DEFAULT_CACHE.equals(cacheName));
 
                     if (separateCache) {
-                        int size = Config.getIntProperty("cache." + cacheName + ".size", -1);
-                        
-                        if (size == -1) {
-                            size = Config.getIntProperty("cache." + DEFAULT_CACHE + ".size", 100);
+                        final CacheMetrics metrics = getMetrics(cacheName);
+                        final RemovalListener<String, Object> evictionListener = (k, v, cause) -> {
+                            if (cause.wasEvicted()) {
+                                metrics.recordEviction();
+                            }
+                        };
+                        int size = getConfiguredSize(cacheName);
+                        long maxBytes = getMaxBytes(cacheName);
+
+                        if (maxBytes > 0) {
+                            Logger.info(this.getClass(),
+                                    "***\t Building Cache : " + cacheName + ", maxBytes:"
+                                            + UtilMethods.prettyByteify(maxBytes));
+                            cache = Caffeine.newBuilder()
+                                    .maximumWeight(maxBytes)
+                                    .weigher(weigher)
+                                    .removalListener(evictionListener)
+                                    .recordStats()
+                                    .build();
+                        } else {
+                            Logger.info(this.getClass(),
+                                    "***\t Building Cache : " + cacheName + ", size:" + size
+                                            + ",Concurrency:"
+                                            + Config.getIntProperty("cache.concurrencylevel", 32));
+                            cache = Caffeine.newBuilder()
+                                    .maximumSize(size)
+                                    .removalListener(evictionListener)
+                                    .recordStats()
+                                    //.softValues()
+                                    .build();
                         }
 
-                        Logger.info(this.getClass(),
-                                "***\t Building Cache : " + cacheName + ", size:" + size
-                                        + ",Concurrency:"
-                                        + Config.getIntProperty("cache.concurrencylevel", 32));
-                        cache = Caffeine.newBuilder()
-                                .maximumSize(size)
-                                .recordStats()
-                                //.softValues()
-                                .build();
-
 
                         groups.put(cacheName, cache);
 
@@ -265,4 +355,36 @@ public class CaffineCache extends CacheProvider {
         return cache;
     }
 
+    private int getConfiguredSize(String cacheName) {
+        int size = Config.getIntProperty("cache." + cacheName + ".size", -1);
+        return (size == -1) ? Config.getIntProperty("cache." + DEFAULT_CACHE + ".size", 100) : size;
+    }
+
+    /**
+     * Returns the heap budget (in bytes) for the given region, an explicit
+     * <strong>cache.mycacheregionexample.maxbytes</strong> wins over its share of the global budget.
+     * Returns -1 if the region is bounded by number of entries.
+     */
+    private long getMaxBytes(String cacheName) {
+        long maxBytes = Config.getLongProperty("cache." + cacheName + ".maxbytes", -1);
+        if (maxBytes > 0) {
+            return maxBytes;
+        }
+
+        if (sharedHeapBudget > 0 && sharedConfiguredSize > 0) {
+            // regions without an explicit size (built on the fly) get the default size share on top of the budget
+            return Math.max(1, (long) ((double) sharedHeapBudget * getConfiguredSize(cacheName) / sharedConfiguredSize));
+        }
+
+        return -1;
+    }
+
+    private Optional<Long> weightedSize(Cache<String, Object> cache) {
+        Optional<Policy.Eviction<String, Object>> eviction = cache.policy().eviction();
+        if (eviction.isPresent() && eviction.get().isWeighted()) {
+            return Optional.of(eviction.get().weightedSize().orElse(0));
+        }
+        return Optional.empty();
+    }
+
 }
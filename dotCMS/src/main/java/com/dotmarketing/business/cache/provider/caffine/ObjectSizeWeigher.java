@@ -0,0 +1,28 @@
+package com.dotmarketing.business.cache.provider.caffine;
+
+import com.dotmarketing.business.cache.util.ObjectSizeEstimator;
+import com.github.benmanes.caffeine.cache.Weigher;
+
+/**
+ * Caffeine {@link Weigher} that weights each entry with the estimated heap retained by its key
+ * and value, see {@link ObjectSizeEstimator}.
+ */
+class ObjectSizeWeigher implements Weigher<String, Object> {
+
+    private final ObjectSizeEstimator estimator;
+
+    ObjectSizeWeigher() {
+        this(ObjectSizeEstimator.getInstance());
+    }
+
+    ObjectSizeWeigher(final ObjectSizeEstimator estimator) {
+        this.estimator = estimator;
+    }
+
+    @Override
+    public int weigh(final String key, final Object value) {
+        final long weight = estimator.estimate(key) + estimator.estimate(value);
+        return (int) Math.min(Integer.MAX_VALUE, weight);
+    }
+
+}
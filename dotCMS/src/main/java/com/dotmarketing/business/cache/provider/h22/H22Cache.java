@@ -11,17 +11,8 @@ import com.dotmarketing.util.Config;
 import com.dotmarketing.util.ConfigUtils;
 import com.dotmarketing.util.Logger;
 import com.dotmarketing.util.UtilMethods;
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileFilter;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.io.OutputStream;
 import java.io.Serializable;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -145,6 +136,7 @@ public class H22Cache extends CacheProvider {
 			foundObject = doSelect(fqn);
 			stats.group(fqn.group).hitOrMiss(foundObject);
 			stats.group(fqn.group).readTime(System.nanoTime() - start);
+			getMetrics(fqn.group).recordGet(foundObject, System.nanoTime() - start);
 		} catch (Exception e) {
 			foundObject=null;
 			handleError(e, fqn);
@@ -206,6 +198,7 @@ public class H22Cache extends CacheProvider {
 
 			// Invalidates from Cache a key from a given group
 			doDelete(fqn);
+			getMetrics(fqn.group).recordRemove();
 		} catch (Exception e) {
 			handleError(e, fqn);
 		}
@@ -476,15 +469,7 @@ public class H22Cache extends CacheProvider {
 			upsertStmt = c.prepareStatement(upsertSQL);
 			upsertStmt.setString(1, fqn.id);
 			upsertStmt.setString(2, fqn.group);
-			ObjectOutputStream output = null;
-			OutputStream bout;
-			ByteArrayOutputStream os = new ByteArrayOutputStream();
-			bout = new BufferedOutputStream(os, 8192);
-
-			output = new ObjectOutputStream(bout);
-			output.writeObject(obj);
-			output.flush();
-			byte[] data = os.toByteArray();
+			byte[] data = getSerializer().serialize(obj);
 			bytes = data.length;
 			upsertStmt.setBytes(3, data);
 
@@ -492,6 +477,7 @@ public class H22Cache extends CacheProvider {
 			stats.group(fqn.group).writes++;
 			stats.group(fqn.group).writeSize(bytes * 8);
 			stats.group(fqn.group).writeTime(System.nanoTime() - start);
+			getMetrics(fqn.group).recordPut(System.nanoTime() - start, bytes);
 		}
 		finally{
 			if(upsertStmt!=null)upsertStmt.close();
@@ -507,9 +493,6 @@ public class H22Cache extends CacheProvider {
 			return null;
 		}
 
-		ObjectInputStream input=null;
-		InputStream bin=null;
-		InputStream is=null;
 		Optional<Connection> opt = createConnection(true, db(fqn));
 		if (!opt.isPresent()) {
 			return null;
@@ -525,38 +508,12 @@ public class H22Cache extends CacheProvider {
 			if (!rs.next()) {
 				return null;
 			}
-			is = new ByteArrayInputStream(rs.getBytes(1));
-			bin = new BufferedInputStream(is, 8192);
-
-			input = new ObjectInputStream(bin);
-			return input.readObject();
+			return getSerializer().deserialize(rs.getBytes(1));
 
 		} finally {
 
 			if (stmt != null) stmt.close();
 			c.close();
-			if (input != null){
-				try {
-					input.close();
-				} catch (IOException e) {
-					Logger.warn(getClass(), "should not be here:" + e.getMessage(),e);
-				}
-			}
-			if (bin != null){
-				try {
-					bin.close();
-				} catch (IOException e) {
-					Logger.warn(getClass(), "should not be here:" + e.getMessage(),e);
-				}
-			}
-			
-			if (is != null){
-				try {
-					is.close();
-				} catch (IOException e) {
-					Logger.warn(getClass(), "should not be here:" + e.getMessage(),e);
-				}
-			}
 		}
 	}
 
@@ -6,15 +6,7 @@ import com.dotmarketing.business.cache.provider.CacheStats;
 import com.dotmarketing.util.Config;
 import com.dotmarketing.util.Logger;
 import com.dotmarketing.util.UtilMethods;
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
 import java.io.NotSerializableException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.io.OutputStream;
 import java.io.StringWriter;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
@@ -149,26 +141,18 @@ public class RedisProvider extends CacheProvider {
             return;
         }
 
-        ObjectOutputStream output = null;
-        OutputStream outputStream;
-
+        final long start = System.nanoTime();
         try ( Jedis jedis = writePool.getResource() ) {
 
             //Prepare the object to be store
-            ByteArrayOutputStream arrayOutputStream = new ByteArrayOutputStream();
-            outputStream = new BufferedOutputStream(arrayOutputStream, 8192);
-
-            output = new ObjectOutputStream(outputStream);
-            output.writeObject(content);
-            output.flush();
-
-            byte[] data = arrayOutputStream.toByteArray();
+            byte[] data = getSerializer().serialize(content);
             if ( data == null || data.length == 0 ) {
                 return;
             }
 
             //Add the object to redis master
             jedis.set(compoundKey.toString().getBytes(), data);
+            getMetrics(group).recordPut(System.nanoTime() - start, data.length);
 
         } catch ( NotSerializableException ex ) {
             remove(group, key);
@@ -176,14 +160,6 @@ public class RedisProvider extends CacheProvider {
             Logger.error(this, "Error Adding to Redis [NotSerializableException]: group [" + group + "] - key [" + key + "].", ex);
         } catch ( Exception e ) {
             Logger.error(this, "Error Adding to Redis: group [" + group + "] - key [" + key + "].", e);
-        } finally {
-            try {
-                if ( output != null ) {
-                    output.close();
-                }
-            } catch ( Exception e ) {
-                Logger.error(this, "Error trying to close Stream.", e);
-            }
         }
     }
 
@@ -201,6 +177,7 @@ public class RedisProvider extends CacheProvider {
         compoundKey.append(key.toLowerCase());
 
         //Reading the record from the Redis slave
+        final long start = System.nanoTime();
         byte[] data = null;
         try ( Jedis jedis = readPool.getResource() ) {
             data = jedis.get(compoundKey.toString().getBytes());
@@ -209,46 +186,20 @@ public class RedisProvider extends CacheProvider {
         }
 
         if ( data == null ) {
+            getMetrics(group).recordGet(null, System.nanoTime() - start);
             return null;
         }
 
         //Reconstructing the object to send it back
-        ObjectInputStream input = null;
-        InputStream bin = null;
-        InputStream is = null;
-
+        Object value = null;
         try {
-            is = new ByteArrayInputStream(data);
-            bin = new BufferedInputStream(is, 8192);
-            input = new ObjectInputStream(bin);
-            return input.readObject();
+            value = getSerializer().deserialize(data);
         } catch ( Exception e ) {
             Logger.error(this, "Error retrieving from Redis: group [" + group + "] - key [" + key + "].", e);
-        } finally {
-            try {
-                if ( input != null ) {
-                    input.close();
-                }
-            } catch ( Exception e ) {
-                Logger.error(this, "Error trying to close Stream.", e);
-            }
-            try {
-                if ( bin != null ) {
-                    bin.close();
-                }
-            } catch ( Exception e ) {
-                Logger.error(this, "Error trying to close Stream.", e);
-            }
-            try {
-                if ( is != null ) {
-                    is.close();
-                }
-            } catch ( Exception e ) {
-                Logger.error(this, "Error trying to close Stream.", e);
-            }
         }
 
-        return null;
+        getMetrics(group).recordGet(value, System.nanoTime() - start);
+        return value;
     }
 
     @Override
@@ -267,6 +218,7 @@ public class RedisProvider extends CacheProvider {
         //Deleting the record from the Redis master
         try ( Jedis jedis = writePool.getResource() ) {
             jedis.del(compoundKey.toString());
+            getMetrics(group).recordRemove();
         } catch ( Exception e ) {
             Logger.error(this, "Error removing from Redis: group [" + group + "] - key [" + key + "].", e);
         }
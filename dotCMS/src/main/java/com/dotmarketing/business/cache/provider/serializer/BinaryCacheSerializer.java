@@ -0,0 +1,504 @@
+package com.dotmarketing.business.cache.provider.serializer;
+
+import com.dotmarketing.beans.Identifier;
+import com.dotmarketing.beans.VersionInfo;
+import com.dotmarketing.portlets.contentlet.model.Contentlet;
+import com.dotmarketing.portlets.contentlet.model.ContentletVersionInfo;
+import com.dotmarketing.util.Config;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact {@link CacheSerializer} for the objects we usually keep in the disk and network caches.
+ * <p/>
+ * The hot cached types ({@link Contentlet}, {@link Identifier}, {@link VersionInfo},
+ * {@link ContentletVersionInfo}) and the values found in their maps are registered by class and
+ * written as a tagged binary stream, without class descriptors. Any other object (or a registered
+ * object holding a value we do not know how to write) falls back to Java serialization.
+ * <p/>
+ * Payloads bigger than <strong>cache.serializer.compress.threshold</strong> bytes are deflated.
+ * Entries written with plain Java serialization (e.g. before this serializer was configured) can
+ * still be read.
+ */
+public class BinaryCacheSerializer implements CacheSerializer {
+
+    static final byte FORMAT_JAVA = 0x01;
+    static final byte FORMAT_BINARY = 0x02;
+    static final byte COMPRESSED = 0x10;
+
+    // First byte of any stream written by an ObjectOutputStream
+    private static final byte JAVA_STREAM_MAGIC = (byte) 0xAC;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte SHORT = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte FLOAT = 6;
+    private static final byte BOOLEAN = 7;
+    private static final byte DATE = 8;
+    private static final byte TIMESTAMP = 9;
+    private static final byte FILE = 10;
+    private static final byte ARRAY_LIST = 11;
+    private static final byte HASH_SET = 12;
+    private static final byte KEY_SET = 13;
+    private static final byte HASH_MAP = 14;
+    private static final byte LINKED_HASH_MAP = 15;
+    private static final byte CONCURRENT_HASH_MAP = 16;
+    private static final byte IDENTIFIER = 20;
+    private static final byte VERSION_INFO = 21;
+    private static final byte CONTENTLET_VERSION_INFO = 22;
+    private static final byte CONTENTLET = 23;
+
+    private static final Map<Class<?>, Byte> TYPES;
+
+    static {
+        final Map<Class<?>, Byte> types = new IdentityHashMap<>();
+        types.put(String.class, STRING);
+        types.put(Integer.class, INTEGER);
+        types.put(Long.class, LONG);
+        types.put(Short.class, SHORT);
+        types.put(Double.class, DOUBLE);
+        types.put(Float.class, FLOAT);
+        types.put(Boolean.class, BOOLEAN);
+        types.put(Date.class, DATE);
+        types.put(Timestamp.class, TIMESTAMP);
+        types.put(File.class, FILE);
+        types.put(ArrayList.class, ARRAY_LIST);
+        types.put(HashSet.class, HASH_SET);
+        types.put(ConcurrentHashMap.newKeySet().getClass(), KEY_SET);
+        types.put(HashMap.class, HASH_MAP);
+        types.put(LinkedHashMap.class, LINKED_HASH_MAP);
+        types.put(ConcurrentHashMap.class, CONCURRENT_HASH_MAP);
+        types.put(Identifier.class, IDENTIFIER);
+        types.put(VersionInfo.class, VERSION_INFO);
+        types.put(ContentletVersionInfo.class, CONTENTLET_VERSION_INFO);
+        types.put(Contentlet.class, CONTENTLET);
+        TYPES = Collections.unmodifiableMap(types);
+    }
+
+    private final JavaCacheSerializer javaSerializer = new JavaCacheSerializer();
+    private final int compressThreshold;
+
+    public BinaryCacheSerializer() {
+        this(Config.getIntProperty("cache.serializer.compress.threshold", 8192));
+    }
+
+    /**
+     * @param compressThreshold payloads of this size or bigger are compressed, 0 or less disables compression
+     */
+    public BinaryCacheSerializer(final int compressThreshold) {
+        this.compressThreshold = compressThreshold;
+    }
+
+    @Override
+    public byte[] serialize(final Object object) throws IOException {
+
+        byte format = FORMAT_BINARY;
+        byte[] payload;
+        try {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            final DataOutputStream output = new DataOutputStream(bytes);
+            writeValue(output, object);
+            output.flush();
+            payload = bytes.toByteArray();
+        } catch (UnsupportedTypeException e) {
+            format = FORMAT_JAVA;
+            payload = javaSerializer.serialize(object);
+        }
+
+        if (compressThreshold > 0 && payload.length >= compressThreshold) {
+            final byte[] compressed = compress(payload);
+            if (compressed.length < payload.length) {
+                return frame((byte) (format | COMPRESSED), payload.length, compressed);
+            }
+        }
+
+        return frame(format, -1, payload);
+    }
+
+    @Override
+    public Object deserialize(final byte[] data) throws IOException, ClassNotFoundException {
+
+        if (data == null || data.length == 0) {
+            return null;
+        }
+
+        if (data[0] == JAVA_STREAM_MAGIC) {
+            return javaSerializer.deserialize(data);
+        }
+
+        final byte header = data[0];
+        final byte format = (byte) (header & ~COMPRESSED);
+        byte[] payload = data;
+        int offset = 1;
+        if ((header & COMPRESSED) != 0) {
+            final int length = ((data[1] & 0xFF) << 24) | ((data[2] & 0xFF) << 16)
+                    | ((data[3] & 0xFF) << 8) | (data[4] & 0xFF);
+            payload = decompress(data, 5, length);
+            offset = 0;
+        }
+
+        if (format == FORMAT_JAVA) {
+            return javaSerializer.deserialize(
+                    offset == 0 ? payload : Arrays.copyOfRange(payload, offset, payload.length));
+        } else if (format == FORMAT_BINARY) {
+            return readValue(new DataInputStream(
+                    new ByteArrayInputStream(payload, offset, payload.length - offset)));
+        }
+
+        throw new StreamCorruptedException("Unknown cache serialization format: " + header);
+    }
+
+    private byte[] frame(final byte header, final int uncompressedLength, final byte[] payload) {
+
+        final int offset = (uncompressedLength < 0) ? 1 : 5;
+        final byte[] framed = new byte[payload.length + offset];
+        framed[0] = header;
+        if (uncompressedLength >= 0) {
+            framed[1] = (byte) (uncompressedLength >>> 24);
+            framed[2] = (byte) (uncompressedLength >>> 16);
+            framed[3] = (byte) (uncompressedLength >>> 8);
+            framed[4] = (byte) uncompressedLength;
+        }
+        System.arraycopy(payload, 0, framed, offset, payload.length);
+        return framed;
+    }
+
+    private byte[] compress(final byte[] payload) {
+
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+            final ByteArrayOutputStream compressed = new ByteArrayOutputStream(payload.length / 2);
+            final byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                compressed.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return compressed.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private byte[] decompress(final byte[] data, final int offset, final int length) throws IOException {
+
+        final Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, offset, data.length - offset);
+            final byte[] payload = new byte[length];
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                final int inflated = inflater.inflate(payload, read, length - read);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += inflated;
+            }
+            if (read != length) {
+                throw new StreamCorruptedException("Truncated compressed cache entry");
+            }
+            return payload;
+        } catch (DataFormatException e) {
+            throw new StreamCorruptedException(e.getMessage());
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private void writeValue(final DataOutputStream output, final Object value) throws IOException {
+
+        if (value == null) {
+            output.writeByte(NULL);
+            return;
+        }
+
+        final Byte type = TYPES.get(value.getClass());
+        if (type == null) {
+            throw new UnsupportedTypeException();
+        }
+
+        output.writeByte(type);
+        switch (type) {
+            case STRING:
+                writeString(output, (String) value);
+                break;
+            case INTEGER:
+                output.writeInt((Integer) value);
+                break;
+            case LONG:
+                output.writeLong((Long) value);
+                break;
+            case SHORT:
+                output.writeShort((Short) value);
+                break;
+            case DOUBLE:
+                output.writeDouble((Double) value);
+                break;
+            case FLOAT:
+                output.writeFloat((Float) value);
+                break;
+            case BOOLEAN:
+                output.writeBoolean((Boolean) value);
+                break;
+            case DATE:
+                output.writeLong(((Date) value).getTime());
+                break;
+            case TIMESTAMP:
+                output.writeLong(((Timestamp) value).getTime());
+                output.writeInt(((Timestamp) value).getNanos());
+                break;
+            case FILE:
+                writeString(output, ((File) value).getPath());
+                break;
+            case ARRAY_LIST:
+            case HASH_SET:
+            case KEY_SET:
+                writeCollection(output, (Collection<?>) value);
+                break;
+            case HASH_MAP:
+            case LINKED_HASH_MAP:
+            case CONCURRENT_HASH_MAP:
+                writeMap(output, (Map<?, ?>) value);
+                break;
+            case IDENTIFIER:
+                writeIdentifier(output, (Identifier) value);
+                break;
+            case VERSION_INFO:
+                writeVersionInfo(output, (VersionInfo) value);
+                break;
+            case CONTENTLET_VERSION_INFO:
+                writeVersionInfo(output, (VersionInfo) value);
+                output.writeLong(((ContentletVersionInfo) value).getLang());
+                break;
+            case CONTENTLET:
+                output.writeBoolean(((Contentlet) value).isLowIndexPriority());
+                writeMap(output, ((Contentlet) value).getMap());
+                break;
+            default:
+                throw new UnsupportedTypeException();
+        }
+    }
+
+    private Object readValue(final DataInputStream input) throws IOException {
+
+        final byte type = input.readByte();
+        switch (type) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(input);
+            case INTEGER:
+                return input.readInt();
+            case LONG:
+                return input.readLong();
+            case SHORT:
+                return input.readShort();
+            case DOUBLE:
+                return input.readDouble();
+            case FLOAT:
+                return input.readFloat();
+            case BOOLEAN:
+                return input.readBoolean();
+            case DATE:
+                return new Date(input.readLong());
+            case TIMESTAMP:
+                final Timestamp timestamp = new Timestamp(input.readLong());
+                timestamp.setNanos(input.readInt());
+                return timestamp;
+            case FILE:
+                return new File(readString(input));
+            case ARRAY_LIST:
+                return readCollection(input, new ArrayList<>());
+            case HASH_SET:
+                return readCollection(input, new HashSet<>());
+            case KEY_SET:
+                return readCollection(input, ConcurrentHashMap.newKeySet());
+            case HASH_MAP:
+                return readMap(input, new HashMap<>());
+            case LINKED_HASH_MAP:
+                return readMap(input, new LinkedHashMap<>());
+            case CONCURRENT_HASH_MAP:
+                return readMap(input, new ConcurrentHashMap<>());
+            case IDENTIFIER:
+                return readIdentifier(input);
+            case VERSION_INFO:
+                return readVersionInfo(input, new VersionInfo());
+            case CONTENTLET_VERSION_INFO:
+                final ContentletVersionInfo contentletVersionInfo =
+                        (ContentletVersionInfo) readVersionInfo(input, new ContentletVersionInfo());
+                contentletVersionInfo.setLang(input.readLong());
+                return contentletVersionInfo;
+            case CONTENTLET:
+                final boolean lowIndexPriority = input.readBoolean();
+                final Contentlet contentlet = new Contentlet(readMap(input, new HashMap<>()));
+                contentlet.setLowIndexPriority(lowIndexPriority);
+                return contentlet;
+            default:
+                throw new StreamCorruptedException("Unknown cache serialization type: " + type);
+        }
+    }
+
+    private void writeString(final DataOutputStream output, final String value) throws IOException {
+
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private String readString(final DataInputStream input) throws IOException {
+
+        final int length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+
+        final byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void writeDate(final DataOutputStream output, final Date value) throws IOException {
+        output.writeLong(value == null ? Long.MIN_VALUE : value.getTime());
+    }
+
+    private Date readDate(final DataInputStream input) throws IOException {
+        final long time = input.readLong();
+        return time == Long.MIN_VALUE ? null : new Date(time);
+    }
+
+    private void writeCollection(final DataOutputStream output, final Collection<?> collection) throws IOException {
+
+        output.writeInt(collection.size());
+        for (final Object element : collection) {
+            writeValue(output, element);
+        }
+    }
+
+    private <T extends Collection<Object>> T readCollection(final DataInputStream input, final T collection)
+            throws IOException {
+
+        final int size = input.readInt();
+        for (int i = 0; i < size; i++) {
+            collection.add(readValue(input));
+        }
+        return collection;
+    }
+
+    private void writeMap(final DataOutputStream output, final Map<?, ?> map) throws IOException {
+
+        output.writeInt(map.size());
+        for (final Map.Entry<?, ?> entry : map.entrySet()) {
+            writeValue(output, entry.getKey());
+            writeValue(output, entry.getValue());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <K, V, T extends Map<K, V>> T readMap(final DataInputStream input, final T map) throws IOException {
+
+        final int size = input.readInt();
+        for (int i = 0; i < size; i++) {
+            map.put((K) readValue(input), (V) readValue(input));
+        }
+        return map;
+    }
+
+    private void writeIdentifier(final DataOutputStream output, final Identifier identifier) throws IOException {
+
+        writeString(output, identifier.exists() ? identifier.getId() : null);
+        writeString(output, identifier.getAssetName());
+        writeString(output, identifier.getAssetType());
+        writeString(output, identifier.getParentPath());
+        writeString(output, identifier.getHostId());
+        writeDate(output, identifier.getSysPublishDate());
+        writeDate(output, identifier.getSysExpireDate());
+    }
+
+    private Identifier readIdentifier(final DataInputStream input) throws IOException {
+
+        final Identifier identifier = new Identifier();
+        final String id = readString(input);
+        if (id != null) {
+            identifier.setId(id);
+        }
+        identifier.setAssetName(readString(input));
+        identifier.setAssetType(readString(input));
+        identifier.setParentPath(readString(input));
+        identifier.setHostId(readString(input));
+        identifier.setSysPublishDate(readDate(input));
+        identifier.setSysExpireDate(readDate(input));
+        return identifier;
+    }
+
+    private void writeVersionInfo(final DataOutputStream output, final VersionInfo versionInfo) throws IOException {
+
+        writeString(output, versionInfo.getIdentifier());
+        writeString(output, versionInfo.getLiveInode());
+        writeString(output, versionInfo.getWorkingInode());
+        writeString(output, versionInfo.getLockedBy());
+        writeDate(output, versionInfo.getLockedOn());
+        output.writeBoolean(versionInfo.isDeleted());
+        writeDate(output, versionInfo.getVersionTs());
+    }
+
+    private VersionInfo readVersionInfo(final DataInputStream input, final VersionInfo versionInfo) throws IOException {
+
+        versionInfo.setIdentifier(readString(input));
+        versionInfo.setLiveInode(readString(input));
+        versionInfo.setWorkingInode(readString(input));
+        versionInfo.setLockedBy(readString(input));
+        versionInfo.setLockedOn(readDate(input));
+        versionInfo.setDeleted(input.readBoolean());
+        versionInfo.setVersionTs(readDate(input));
+        return versionInfo;
+    }
+
+    /**
+     * Thrown when the object graph holds a type that is not registered, the whole object is then
+     * written using Java serialization.
+     */
+    private static class UnsupportedTypeException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        UnsupportedTypeException() {
+            super(null, null);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+}
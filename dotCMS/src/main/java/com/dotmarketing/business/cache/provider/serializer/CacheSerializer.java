@@ -0,0 +1,36 @@
+package com.dotmarketing.business.cache.provider.serializer;
+
+import java.io.IOException;
+
+/**
+ * Converts the objects handled by the {@link com.dotmarketing.business.cache.provider.CacheProvider}s that
+ * keep their data outside the heap (disk, network) to and from bytes.
+ * <p/>
+ * The serializer to use can be specified with the <strong>cache.serializer</strong> property or for a
+ * specific provider with <strong>cache.myproviderkey.serializer</strong> in the
+ * <strong>dotmarketing-config.properties</strong> file.
+ *
+ * @see CacheSerializerFactory
+ */
+public interface CacheSerializer {
+
+    /**
+     * Returns the bytes representing the given object
+     *
+     * @param object
+     * @return
+     * @throws IOException if the object can not be serialized, e.g. {@link java.io.NotSerializableException}
+     */
+    byte[] serialize(Object object) throws IOException;
+
+    /**
+     * Rebuilds an object from the bytes created by {@link #serialize(Object)}
+     *
+     * @param data
+     * @return
+     * @throws IOException
+     * @throws ClassNotFoundException
+     */
+    Object deserialize(byte[] data) throws IOException, ClassNotFoundException;
+
+}
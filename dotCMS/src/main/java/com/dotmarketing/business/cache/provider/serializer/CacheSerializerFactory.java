@@ -0,0 +1,44 @@
+package com.dotmarketing.business.cache.provider.serializer;
+
+import com.dotmarketing.util.Config;
+import com.dotmarketing.util.Logger;
+import com.dotmarketing.util.UtilMethods;
+
+/**
+ * Builds the {@link CacheSerializer} a given provider must use, looking first for
+ * <strong>cache.myproviderkey.serializer</strong>, then for <strong>cache.serializer</strong> and
+ * defaulting to the {@link BinaryCacheSerializer}.
+ */
+public class CacheSerializerFactory {
+
+    public static final String SERIALIZER_PROPERTY = "cache.serializer";
+
+    private CacheSerializerFactory() {
+    }
+
+    /**
+     * Returns a new instance of the serializer configured for the given provider key
+     *
+     * @param providerKey
+     * @return
+     */
+    public static CacheSerializer getSerializer(final String providerKey) {
+
+        String className = (providerKey != null)
+                ? Config.getStringProperty("cache." + providerKey.toLowerCase() + ".serializer", null)
+                : null;
+        if (!UtilMethods.isSet(className)) {
+            className = Config.getStringProperty(SERIALIZER_PROPERTY, BinaryCacheSerializer.class.getName());
+        }
+
+        try {
+            return (CacheSerializer) Class.forName(className.trim()).newInstance();
+        } catch (Exception e) {
+            Logger.error(CacheSerializerFactory.class,
+                    "Unable to create cache serializer [" + className + "] for [" + providerKey
+                            + "], using " + BinaryCacheSerializer.class.getSimpleName(), e);
+            return new BinaryCacheSerializer();
+        }
+    }
+
+}
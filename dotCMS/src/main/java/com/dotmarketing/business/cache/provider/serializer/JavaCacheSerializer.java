@@ -0,0 +1,37 @@
+package com.dotmarketing.business.cache.provider.serializer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * {@link CacheSerializer} based on the default Java serialization, it handles any
+ * {@link java.io.Serializable} object.
+ */
+public class JavaCacheSerializer implements CacheSerializer {
+
+    @Override
+    public byte[] serialize(final Object object) throws IOException {
+
+        final ByteArrayOutputStream arrayOutputStream = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(new BufferedOutputStream(arrayOutputStream, 8192))) {
+            output.writeObject(object);
+            output.flush();
+        }
+
+        return arrayOutputStream.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(final byte[] data) throws IOException, ClassNotFoundException {
+
+        try (ObjectInputStream input = new ObjectInputStream(new BufferedInputStream(new ByteArrayInputStream(data), 8192))) {
+            return input.readObject();
+        }
+    }
+
+}
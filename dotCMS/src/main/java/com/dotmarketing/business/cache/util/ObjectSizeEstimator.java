@@ -0,0 +1,176 @@
+package com.dotmarketing.business.cache.util;
+
+import com.dotmarketing.beans.Identifier;
+import com.dotmarketing.business.BlockDirectiveCacheObject;
+import com.dotmarketing.business.BlockPageCacheEntry;
+import com.dotmarketing.portlets.contentlet.model.Contentlet;
+import com.dotmarketing.util.Config;
+
+import java.io.File;
+import java.lang.reflect.Array;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+
+import org.apache.velocity.runtime.parser.node.Node;
+import org.apache.velocity.runtime.resource.Resource;
+
+/**
+ * Cheap estimation of the heap retained by the objects we keep in cache. This is
+ * not meant to be exact (we do not walk the object graph with reflection) but to be close enough
+ * for the cache providers to bound their regions by bytes instead of by number of entries.
+ * <p/>
+ * The hot cached types ({@link Contentlet}, {@link Identifier}, Velocity {@link Resource}s and
+ * the rendered pages kept in {@link BlockDirectiveCacheObject} and {@link BlockPageCacheEntry})
+ * get a specific estimation, any other object falls back to
+ * <strong>cache.weigher.default.object.size</strong> bytes.
+ */
+public class ObjectSizeEstimator {
+
+    static final int OBJECT_HEADER = 16;
+    static final int REFERENCE = 8;
+    static final int MAP_ENTRY = 32;
+    static final int AST_NODE = 96;
+
+    private static final int MAX_DEPTH = 6;
+
+    private static ObjectSizeEstimator instance = new ObjectSizeEstimator();
+
+    private final long defaultObjectSize;
+
+    public ObjectSizeEstimator() {
+        this(Config.getLongProperty("cache.weigher.default.object.size", 256));
+    }
+
+    public ObjectSizeEstimator(final long defaultObjectSize) {
+        this.defaultObjectSize = defaultObjectSize;
+    }
+
+    public static ObjectSizeEstimator getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns the estimated amount of bytes retained by the given object
+     *
+     * @param object
+     * @return
+     */
+    public long estimate(final Object object) {
+        return estimate(object, 0);
+    }
+
+    private long estimate(final Object object, final int depth) {
+
+        if (object == null) {
+            return 0;
+        }
+        if (depth > MAX_DEPTH) {
+            return REFERENCE;
+        }
+
+        if (object instanceof String) {
+            return estimateString((String) object);
+        } else if (object instanceof Number || object instanceof Boolean
+                || object instanceof Character || object instanceof Enum) {
+            return OBJECT_HEADER + REFERENCE;
+        } else if (object instanceof Date) {
+            return OBJECT_HEADER + REFERENCE + REFERENCE;
+        } else if (object instanceof Contentlet) {
+            return OBJECT_HEADER + REFERENCE * 4 + estimate(((Contentlet) object).getMap(), depth + 1);
+        } else if (object instanceof Identifier) {
+            return estimateIdentifier((Identifier) object);
+        } else if (object instanceof BlockDirectiveCacheObject) {
+            return OBJECT_HEADER + REFERENCE * 2
+                    + estimateString(((BlockDirectiveCacheObject) object).getValue());
+        } else if (object instanceof BlockPageCacheEntry) {
+            final BlockPageCacheEntry entry = (BlockPageCacheEntry) object;
+            return OBJECT_HEADER + REFERENCE * 3 + OBJECT_HEADER + entry.getBytes().length
+                    + (entry.hasGzip() ? OBJECT_HEADER + entry.getGzipBytes().length : 0)
+                    + estimateString(entry.getETag(false));
+        } else if (object instanceof Resource) {
+            final Resource resource = (Resource) object;
+            return OBJECT_HEADER + REFERENCE * 8 + estimateString(resource.getName())
+                    + estimate(resource.getData(), depth + 1);
+        } else if (object instanceof Node) {
+            return estimateNode((Node) object);
+        } else if (object instanceof File) {
+            return OBJECT_HEADER + REFERENCE + estimateString(((File) object).getPath());
+        } else if (object instanceof Map) {
+            long size = OBJECT_HEADER * 3;
+            for (final Map.Entry<?, ?> entry : ((Map<?, ?>) object).entrySet()) {
+                size += MAP_ENTRY + estimate(entry.getKey(), depth + 1)
+                        + estimate(entry.getValue(), depth + 1);
+            }
+            return size;
+        } else if (object instanceof Collection) {
+            long size = OBJECT_HEADER * 2;
+            for (final Object element : (Collection<?>) object) {
+                size += REFERENCE + estimate(element, depth + 1);
+            }
+            return size;
+        } else if (object.getClass().isArray()) {
+            return estimateArray(object, depth);
+        }
+
+        return defaultObjectSize;
+    }
+
+    private long estimateString(final String value) {
+        return (value == null) ? 0 : OBJECT_HEADER * 2 + REFERENCE + 2L * value.length();
+    }
+
+    private long estimateIdentifier(final Identifier identifier) {
+        return OBJECT_HEADER + REFERENCE * 8
+                + estimateString(identifier.getId())
+                + estimateString(identifier.getAssetName())
+                + estimateString(identifier.getAssetType())
+                + estimateString(identifier.getParentPath())
+                + estimateString(identifier.getHostId())
+                + (identifier.getSysPublishDate() != null ? OBJECT_HEADER + REFERENCE * 2 : 0)
+                + (identifier.getSysExpireDate() != null ? OBJECT_HEADER + REFERENCE * 2 : 0);
+    }
+
+    /**
+     * A parsed Velocity template can be deep, so instead of recursing we count its nodes using an
+     * explicit stack and charge a flat amount per node plus the size of the literal text it holds.
+     */
+    private long estimateNode(final Node root) {
+        long size = 0;
+        final ArrayDeque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            final Node node = stack.pop();
+            size += AST_NODE;
+            if (node.jjtGetNumChildren() == 0) {
+                size += estimateString(node.getFirstTokenImage());
+            }
+            for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+                stack.push(node.jjtGetChild(i));
+            }
+        }
+        return size;
+    }
+
+    private long estimateArray(final Object array, final int depth) {
+        final int length = Array.getLength(array);
+        final Class<?> type = array.getClass().getComponentType();
+        if (type == byte.class || type == boolean.class) {
+            return OBJECT_HEADER + length;
+        } else if (type == char.class || type == short.class) {
+            return OBJECT_HEADER + 2L * length;
+        } else if (type == int.class || type == float.class) {
+            return OBJECT_HEADER + 4L * length;
+        } else if (type.isPrimitive()) {
+            return OBJECT_HEADER + 8L * length;
+        }
+
+        long size = OBJECT_HEADER + (long) REFERENCE * length;
+        for (int i = 0; i < length; i++) {
+            size += estimate(Array.get(array, i), depth + 1);
+        }
+        return size;
+    }
+
+}
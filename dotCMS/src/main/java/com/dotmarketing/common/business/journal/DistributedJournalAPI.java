@@ -57,6 +57,40 @@ public interface DistributedJournalAPI<T> {
 	 *             An error occurred when interacting with the database.
 	 */
 	public List<IndexJournal<T>> findContentReindexEntriesToReindex(boolean includeFailedRecords) throws DotDataException;
+
+	/**
+	 * Same as {@link #findContentReindexEntriesToReindex(boolean)} but fetching
+	 * up to the given number of records instead of the configured
+	 * {@code REINDEX_RECORDS_TO_FETCH}.
+	 * 
+	 * @param includeFailedRecords
+	 *            - If {@code true}, this method will only retrieve records that
+	 *            tried to be re-indexed at least once and failed.
+	 * @param recordsToFetch
+	 *            - The max number of records to return.
+	 * @return The list of records that will be re-indexed.
+	 * @throws DotDataException
+	 *             An error occurred when interacting with the database.
+	 */
+	public List<IndexJournal<T>> findContentReindexEntriesToReindex(boolean includeFailedRecords, int recordsToFetch) throws DotDataException;
+
+	/**
+	 * Claims for this server up to the given number of records added by a full
+	 * reindex ({@code REINDEX_JOURNAL_PRIORITY_NEWINDEX}) whose identifier is in
+	 * the range [{@code fromIdentifier}, {@code toIdentifier}), ordered by
+	 * identifier. Records already claimed by any server are skipped.
+	 * 
+	 * @param fromIdentifier
+	 *            - Lower bound (inclusive), {@code null} for no lower bound.
+	 * @param toIdentifier
+	 *            - Upper bound (exclusive), {@code null} for no upper bound.
+	 * @param recordsToFetch
+	 *            - The max number of records to claim.
+	 * @return The list of records claimed.
+	 * @throws DotDataException
+	 *             An error occurred when interacting with the database.
+	 */
+	public List<IndexJournal<T>> claimNewIndexEntries(String fromIdentifier, String toIdentifier, int recordsToFetch) throws DotDataException;
 	
 	/**
 	 * Moves/process records from the dist_process table to the dist_journal table for all servers
@@ -8,6 +8,7 @@ import com.dotcms.business.WrapInTransaction;
 import com.dotmarketing.beans.Host;
 import com.dotmarketing.beans.Identifier;
 import com.dotmarketing.business.FactoryLocator;
+import com.dotmarketing.common.reindex.ReindexSignal;
 import com.dotmarketing.db.DbConnectionFactory;
 import com.dotmarketing.exception.DotDataException;
 import com.dotmarketing.portlets.contentlet.model.Contentlet;
@@ -49,11 +50,13 @@ public class DistributedJournalAPIImpl<T> implements DistributedJournalAPI<T> {
 	@WrapInTransaction
 	public void addStructureReindexEntries(T structureInode) throws DotDataException {
 		distributedJournalFactory.addStructureReindexEntries(structureInode);
+		ReindexSignal.getInstance().signalOnCommit();
 	}
 
 	@WrapInTransaction
 	public synchronized void addBuildNewIndexEntries() throws DotDataException {
 		distributedJournalFactory.addBuildNewIndexEntries();
+		ReindexSignal.getInstance().signalOnCommit();
 	}
 
 	@CloseDBIfOpened
@@ -66,6 +69,16 @@ public class DistributedJournalAPIImpl<T> implements DistributedJournalAPI<T> {
 		return distributedJournalFactory.findContentReindexEntriesToReindex(includeFailedRecords);
 	}
 
+	@CloseDBIfOpened
+	public List<IndexJournal<T>> findContentReindexEntriesToReindex(boolean includeFailedRecords, int recordsToFetch) throws DotDataException {
+		return distributedJournalFactory.findContentReindexEntriesToReindex(includeFailedRecords, recordsToFetch);
+	}
+
+	@WrapInTransaction
+	public List<IndexJournal<T>> claimNewIndexEntries(String fromIdentifier, String toIdentifier, int recordsToFetch) throws DotDataException {
+		return distributedJournalFactory.claimNewIndexEntries(fromIdentifier, toIdentifier, recordsToFetch);
+	}
+
 	@CloseDBIfOpened
 	public void processJournalEntries() throws DotDataException {
 		distributedJournalFactory.processJournalEntries();
@@ -128,16 +141,19 @@ public class DistributedJournalAPIImpl<T> implements DistributedJournalAPI<T> {
 	@WrapInTransaction
 	public void refreshContentUnderHost(Host host) throws DotDataException {
 		distributedJournalFactory.refreshContentUnderHost(host);
+		ReindexSignal.getInstance().signalOnCommit();
 	}	
 
 	@WrapInTransaction
 	public void refreshContentUnderFolder(Folder folder) throws DotDataException {
 		distributedJournalFactory.refreshContentUnderFolder(folder);
+		ReindexSignal.getInstance().signalOnCommit();
 	}
 
 	@WrapInTransaction
 	public void refreshContentUnderFolderPath ( String hostId, String folderPath ) throws DotDataException {
 		distributedJournalFactory.refreshContentUnderFolderPath(hostId, folderPath);
+		ReindexSignal.getInstance().signalOnCommit();
 	}
 
 	@WrapInTransaction
@@ -145,6 +161,7 @@ public class DistributedJournalAPIImpl<T> implements DistributedJournalAPI<T> {
 	public void addIdentifierReindex(final String id) throws DotDataException {
 
 		this.distributedJournalFactory.addIdentifierReindex(id);
+		ReindexSignal.getInstance().signalOnCommit();
 	}
 
 	@WrapInTransaction
@@ -152,20 +169,25 @@ public class DistributedJournalAPIImpl<T> implements DistributedJournalAPI<T> {
 	public void addReindexHighPriority(final String identifier) throws DotDataException {
 
 		this.distributedJournalFactory.addReindexHighPriority(identifier);
+		ReindexSignal.getInstance().signalOnCommit();
 	}
 
 	@WrapInTransaction
 	@Override
 	public int addIdentifierReindex(final Set<String> ids) throws DotDataException {
 
-		return this.distributedJournalFactory.addIdentifierReindex(ids);
+		final int added = this.distributedJournalFactory.addIdentifierReindex(ids);
+		ReindexSignal.getInstance().signalOnCommit();
+		return added;
 	}
 
 	@WrapInTransaction
 	@Override
 	public int addReindexHighPriority(final Set<String> ids) throws DotDataException {
 
-		return this.distributedJournalFactory.addReindexHighPriority(ids);
+		final int added = this.distributedJournalFactory.addReindexHighPriority(ids);
+		ReindexSignal.getInstance().signalOnCommit();
+		return added;
 	}
 
 	@WrapInTransaction
@@ -173,6 +195,7 @@ public class DistributedJournalAPIImpl<T> implements DistributedJournalAPI<T> {
 	public void addContentletReindex(final Contentlet contentlet) throws DotDataException {
 
 		this.distributedJournalFactory.addIdentifierReindex(contentlet.getIdentifier());
+		ReindexSignal.getInstance().signalOnCommit();
 	}
 
 	@WrapInTransaction
@@ -180,6 +203,7 @@ public class DistributedJournalAPIImpl<T> implements DistributedJournalAPI<T> {
 	public void addIdentifierReindex(final Identifier identifier) throws DotDataException {
 
 		this.distributedJournalFactory.addIdentifierReindex(identifier.getId());
+		ReindexSignal.getInstance().signalOnCommit();
 	}
 
 	@WrapInTransaction
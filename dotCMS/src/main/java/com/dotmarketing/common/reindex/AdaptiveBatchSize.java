@@ -0,0 +1,62 @@
+package com.dotmarketing.common.reindex;
+
+import com.dotmarketing.util.Config;
+
+/**
+ * Adjusts the number of journal records the {@link ReindexThread} fetches per bulk request based on
+ * how long Elasticsearch takes to process them: the size doubles while full batches are processed
+ * under half of <strong>reindex.batch.target.millis</strong>, and halves when a bulk request takes
+ * longer than that or fails. It always stays between <strong>reindex.batch.min</strong> and
+ * <strong>reindex.batch.max</strong>, starting at <strong>REINDEX_RECORDS_TO_FETCH</strong>.
+ */
+public class AdaptiveBatchSize {
+
+    private final int min;
+    private final int max;
+    private final long targetMillis;
+    private volatile int size;
+
+    public AdaptiveBatchSize() {
+        this(Config.getIntProperty("reindex.batch.min", 10),
+                Config.getIntProperty("reindex.batch.max", 1000),
+                Config.getLongProperty("reindex.batch.target.millis", 1000),
+                Config.getIntProperty("REINDEX_RECORDS_TO_FETCH", 50));
+    }
+
+    public AdaptiveBatchSize(final int min, final int max, final long targetMillis, final int initial) {
+        this.min = Math.max(1, min);
+        this.max = Math.max(this.min, max);
+        this.targetMillis = targetMillis;
+        this.size = clamp(initial);
+    }
+
+    /**
+     * Number of records to fetch for the next bulk request
+     */
+    public int get() {
+        return size;
+    }
+
+    /**
+     * Records how a bulk request went
+     *
+     * @param records   number of journal records in the request
+     * @param tookMillis time it took to get the response
+     * @param failed     true if the request, or some of its items, failed
+     */
+    public void record(final int records, final long tookMillis, final boolean failed) {
+
+        final int current = size;
+        if (failed || tookMillis > targetMillis) {
+            size = clamp(current / 2);
+        } else if (records >= current && tookMillis < targetMillis / 2) {
+            // only a full batch tells us we could have sent more
+            size = clamp(current * 2);
+        }
+    }
+
+    private int clamp(final int value) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+}
@@ -0,0 +1,554 @@
+package com.dotmarketing.common.reindex;
+
+import com.dotcms.content.elasticsearch.business.ContentletIndexAPI;
+import com.dotcms.content.elasticsearch.business.IndiciesAPI.IndiciesInfo;
+import com.dotcms.content.elasticsearch.util.ESClient;
+import com.dotmarketing.business.APILocator;
+import com.dotmarketing.common.business.journal.DistributedJournalAPI;
+import com.dotmarketing.common.business.journal.IndexJournal;
+import com.dotmarketing.common.db.DotConnect;
+import com.dotmarketing.db.DbConnectionFactory;
+import com.dotmarketing.exception.DotDataException;
+import com.dotmarketing.portlets.contentlet.model.Contentlet;
+import com.dotmarketing.portlets.languagesmanager.model.Language;
+import com.dotmarketing.util.Config;
+import com.dotmarketing.util.Logger;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.rest.RestStatus;
+
+/**
+ * Runs a full reindex with several workers instead of leaving the whole {@code dist_reindex_journal}
+ * to the single {@link ReindexThread}. The identifier space is split in
+ * <strong>reindex.full.parallel.workers</strong> ranges and each worker claims the journal records
+ * of its range in batches of <strong>reindex.full.parallel.batch</strong>, loads their contentlets
+ * at once, maps them into a bulk request and sends it.
+ * <p/>
+ * At most <strong>reindex.full.parallel.bulk.concurrency</strong> bulk requests are in flight, a
+ * worker blocks until one finishes before sending another. Items rejected by Elasticsearch because
+ * its queues are full are sent again after an exponential backoff starting at
+ * <strong>reindex.full.parallel.backoff.millis</strong>, up to
+ * <strong>reindex.full.parallel.max.retries</strong> times, keeping their slot meanwhile so the
+ * workers slow down with Elasticsearch.
+ * <p/>
+ * The journal is still the source of truth: records are only deleted once indexed, the ones that
+ * fail are released for the {@link ReindexThread} to retry, which also does the switchover when
+ * the journal is empty. The other nodes of the cluster keep helping through their own
+ * {@link ReindexThread}.
+ */
+public class ParallelFullReindex {
+
+    private static final ParallelFullReindex INSTANCE = new ParallelFullReindex();
+
+    private static final long MAX_BACKOFF_MILLIS = 30000;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private final LongAdder recordsIndexed = new LongAdder();
+    private final LongAdder recordsFailed = new LongAdder();
+    private final LongAdder bulkRequests = new LongAdder();
+    private final LongAdder bulkRejections = new LongAdder();
+
+    private volatile ExecutorService workerPool;
+    private volatile ScheduledExecutorService bulkScheduler;
+    private volatile Semaphore inFlightBulks;
+    private volatile int workers;
+    private volatile int bulkConcurrency;
+    private volatile long startedAt;
+
+    private ParallelFullReindex() {
+        // singleton
+    }
+
+    public static ParallelFullReindex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * True if full reindexes should be run by this class, <strong>reindex.full.parallel.enabled</strong>
+     */
+    public static boolean isEnabled() {
+        return Config.getBooleanProperty("reindex.full.parallel.enabled", false);
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Starts the workers, the records of the full reindex must already be in the journal
+     */
+    public void start() {
+
+        if (!running.compareAndSet(false, true)) {
+            Logger.info(this, "Parallel full reindex already running");
+            return;
+        }
+
+        workers = Math.max(1, Math.min(256, Config.getIntProperty("reindex.full.parallel.workers",
+                Math.max(2, Runtime.getRuntime().availableProcessors() / 2))));
+        bulkConcurrency = Math.max(1, Config.getIntProperty("reindex.full.parallel.bulk.concurrency", workers));
+        final int batchSize = Math.max(1, Math.min(500, Config.getIntProperty("reindex.full.parallel.batch", 200)));
+
+        recordsIndexed.reset();
+        recordsFailed.reset();
+        bulkRequests.reset();
+        bulkRejections.reset();
+        startedAt = System.currentTimeMillis();
+
+        inFlightBulks = new Semaphore(bulkConcurrency);
+        workerPool = Executors.newFixedThreadPool(workers, threadFactory("parallel_reindex_worker"));
+        bulkScheduler = Executors.newSingleThreadScheduledExecutor(threadFactory("parallel_reindex_bulk"));
+
+        Logger.info(this, "Starting parallel full reindex with " + workers + " workers, batches of "
+                + batchSize + " and up to " + bulkConcurrency + " bulk requests in flight");
+
+        final List<String[]> partitions = partitions(workers);
+        activeWorkers.set(partitions.size());
+        for (final String[] partition : partitions) {
+            workerPool.execute(new Worker(partition[0], partition[1], batchSize));
+        }
+    }
+
+    /**
+     * Stops the workers, the records they did not get to stay in the journal
+     */
+    public void stop() {
+
+        if (running.compareAndSet(true, false)) {
+            Logger.info(this, "Stopping parallel full reindex");
+            shutdown();
+        }
+    }
+
+    /**
+     * Progress of the running full reindex: records indexed and failed, throughput and the estimated
+     * seconds to go given the records left in the journal
+     *
+     * @param recordsLeft records left in the journal
+     * @return
+     */
+    public Map<String, Object> getProgress(final long recordsLeft) {
+
+        final Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("parallelReindex", running.get());
+        progress.put("reindexWorkers", workers);
+        progress.put("recordsIndexed", recordsIndexed.sum());
+        progress.put("recordsFailed", recordsFailed.sum());
+        progress.put("bulkRequests", bulkRequests.sum());
+        progress.put("bulkRejections", bulkRejections.sum());
+
+        final long elapsedMillis = System.currentTimeMillis() - startedAt;
+        final double recordsPerSecond = elapsedMillis > 0 ? recordsIndexed.sum() * 1000d / elapsedMillis : 0;
+        progress.put("recordsPerSecond", Math.round(recordsPerSecond));
+        progress.put("estimatedSecondsLeft", recordsPerSecond > 0 ? Math.round(recordsLeft / recordsPerSecond) : -1);
+        return progress;
+    }
+
+    /**
+     * Splits the identifier space in the given number of ranges [from, to), the first one has no
+     * lower bound and the last one no upper bound so every identifier falls in exactly one. The
+     * bounds are two hex digits since identifiers are UUIDs.
+     *
+     * @param count number of ranges, between 1 and 256
+     * @return
+     */
+    static List<String[]> partitions(final int count) {
+
+        final int n = Math.max(1, Math.min(256, count));
+        final List<String[]> partitions = new ArrayList<>(n);
+        String from = null;
+        for (int i = 1; i < n; i++) {
+            final String to = String.format("%02x", i * 256 / n);
+            partitions.add(new String[]{from, to});
+            from = to;
+        }
+        partitions.add(new String[]{from, null});
+        return partitions;
+    }
+
+    private void workerFinished() {
+
+        if (activeWorkers.decrementAndGet() > 0) {
+            return;
+        }
+        try {
+            // wait for the bulk requests still in flight
+            inFlightBulks.acquire(bulkConcurrency);
+            inFlightBulks.release(bulkConcurrency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (running.compareAndSet(true, false)) {
+            Logger.info(this, "Parallel full reindex finished in " + (System.currentTimeMillis() - startedAt)
+                    + " ms: " + recordsIndexed.sum() + " records indexed, " + recordsFailed.sum()
+                    + " left for the reindex thread");
+            shutdown();
+        }
+        // let the reindex thread retry the failed records and do the switchover
+        ReindexSignal.getInstance().wakeUp();
+    }
+
+    private void shutdown() {
+
+        final ExecutorService pool = workerPool;
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+        final ScheduledExecutorService scheduler = bulkScheduler;
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    private static ThreadFactory threadFactory(final String name) {
+
+        final AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+            thread.setName(name + "_" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Indexes the journal records of one range of identifiers
+     */
+    private class Worker implements Runnable {
+
+        private final String fromIdentifier;
+        private final String toIdentifier;
+        private final int batchSize;
+        private final DistributedJournalAPI<String> jAPI = APILocator.getDistributedJournalAPI();
+        private final ContentletIndexAPI indexAPI = APILocator.getContentletIndexAPI();
+
+        Worker(final String fromIdentifier, final String toIdentifier, final int batchSize) {
+            this.fromIdentifier = fromIdentifier;
+            this.toIdentifier = toIdentifier;
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        public void run() {
+
+            try {
+                while (running.get() && nextBatch()) {
+                    // keep going until the range is done
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                Logger.error(ParallelFullReindex.class, "Reindex worker for identifiers [" + fromIdentifier
+                        + ", " + toIdentifier + ") failed, its records are left to the reindex thread", e);
+            } finally {
+                DbConnectionFactory.closeSilently();
+                workerFinished();
+            }
+        }
+
+        /**
+         * Claims, loads and sends the next batch of records, returns false when the range is done
+         */
+        private boolean nextBatch() throws DotDataException, InterruptedException {
+
+            final List<IndexJournal<String>> records;
+            try {
+                records = jAPI.claimNewIndexEntries(fromIdentifier, toIdentifier, batchSize);
+            } finally {
+                DbConnectionFactory.closeSilently();
+            }
+            if (records.isEmpty()) {
+                return false;
+            }
+
+            final Map<String, IndexJournal<String>> byIdentifier = new LinkedHashMap<>();
+            records.forEach(record -> byIdentifier.put(record.getIdentToIndex(), record));
+            final Set<String> failed = new HashSet<>();
+            // the slots of this run, a restart replaces them while the bulks of the old run finish
+            final Semaphore slots = inFlightBulks;
+            boolean acquired = false;
+            try {
+                final BulkRequestBuilder bulk = new ESClient().getClient().prepareBulk();
+                appendToBulk(bulk, byIdentifier.keySet(), failed);
+
+                // backpressure: wait for a free slot before sending another bulk request
+                slots.acquire();
+                acquired = true;
+                final BulkJob job = new BulkJob(byIdentifier, failed, slots);
+                if (bulk.numberOfActions() > 0) {
+                    job.send(bulk.request(), 0);
+                } else {
+                    job.complete();
+                }
+            } catch (Exception e) {
+                if (acquired) {
+                    slots.release();
+                }
+                // do not keep the records claimed, the reindex thread will take them
+                jAPI.resetServerForReindexEntry(records);
+                throw e;
+            } finally {
+                DbConnectionFactory.closeSilently();
+            }
+            return true;
+        }
+
+        /**
+         * Loads the contentlets of all the identifiers at once and maps them into the bulk request,
+         * the identifiers that can not be mapped are added to failed
+         */
+        private void appendToBulk(final BulkRequestBuilder bulk, final Set<String> identifiers,
+                final Set<String> failed) {
+
+            final Map<String, List<Contentlet>> contentlets;
+            try {
+                contentlets = loadContentlets(identifiers);
+            } catch (Exception e) {
+                Logger.error(ParallelFullReindex.class, "Unable to load a batch of " + identifiers.size()
+                        + " contentlets to reindex", e);
+                failed.addAll(identifiers);
+                return;
+            }
+
+            // identifiers without contentlets were deleted: remove their documents as the reindex
+            // thread does, instead of dropping their records with the documents still in the index
+            final Set<String> removed = new HashSet<>(identifiers);
+            removed.removeAll(contentlets.keySet());
+            if (!removed.isEmpty()) {
+                try {
+                    appendDeletes(bulk, removed);
+                } catch (Exception e) {
+                    Logger.error(ParallelFullReindex.class, "Unable to remove " + removed.size()
+                            + " deleted identifiers from the index", e);
+                    failed.addAll(removed);
+                }
+            }
+
+            try {
+                // the whole batch is mapped before anything is added to the bulk request, so its data
+                // is prefetched at once and a failure leaves the request untouched
+                indexAPI.appendToBulkRequest(contentlets.values().stream().flatMap(List::stream)
+                        .collect(Collectors.toList()), bulk, true);
+                return;
+            } catch (Exception e) {
+                Logger.warn(ParallelFullReindex.class, "Unable to index a batch of " + contentlets.size()
+                        + " contentlets at once, indexing them one by one: " + e.getMessage());
+            }
+
+            for (final Map.Entry<String, List<Contentlet>> entry : contentlets.entrySet()) {
+                try {
+                    indexAPI.appendToBulkRequest(entry.getValue(), bulk, true);
+                } catch (Exception e) {
+                    Logger.error(ParallelFullReindex.class, "Unable to index record with id [" + entry.getKey() + "]", e);
+                    failed.add(entry.getKey());
+                }
+            }
+        }
+
+        /**
+         * Deletes the documents of the identifiers, in all the languages, from all the indices
+         */
+        private void appendDeletes(final BulkRequestBuilder bulk, final Set<String> identifiers)
+                throws DotDataException {
+
+            final IndiciesInfo info = APILocator.getIndiciesAPI().loadIndicies();
+            final List<String> indices = new ArrayList<>();
+            for (final String index : new String[]{info.working, info.live, info.reindex_working, info.reindex_live}) {
+                if (index != null) {
+                    indices.add(index);
+                }
+            }
+
+            final ESClient client = new ESClient();
+            for (final String identifier : identifiers) {
+                for (final Language language : APILocator.getLanguageAPI().getLanguages()) {
+                    for (final String index : indices) {
+                        bulk.add(client.getClient().prepareDelete(index, "content",
+                                identifier + "_" + language.getId()));
+                    }
+                }
+            }
+        }
+
+        private Map<String, List<Contentlet>> loadContentlets(final Set<String> identifiers) throws Exception {
+
+            final List<String> params = new ArrayList<>(identifiers);
+            final DotConnect dc = new DotConnect();
+            dc.setSQL("select working_inode, live_inode from contentlet_version_info where identifier in ("
+                    + params.stream().map(id -> "?").collect(Collectors.joining(",")) + ")");
+            params.forEach(dc::addParam);
+
+            final List<Map<String, String>> versions = dc.loadResults();
+            final Set<String> inodes = new HashSet<>();
+            for (final Map<String, String> row : versions) {
+                inodes.add(row.get("working_inode"));
+                if (row.get("live_inode") != null) {
+                    inodes.add(row.get("live_inode"));
+                }
+            }
+
+            final Map<String, List<Contentlet>> byIdentifier = new LinkedHashMap<>();
+            if (!inodes.isEmpty()) {
+                for (final Contentlet contentlet : APILocator.getContentletAPI().findContentlets(new ArrayList<>(inodes))) {
+                    byIdentifier.computeIfAbsent(contentlet.getIdentifier(), id -> new ArrayList<>()).add(contentlet);
+                }
+            }
+            return byIdentifier;
+        }
+    }
+
+    /**
+     * One bulk request and its retries, once done it removes the indexed records from the journal,
+     * releases the failed ones and frees its slot
+     */
+    private class BulkJob {
+
+        private final Map<String, IndexJournal<String>> records;
+        private final Set<String> failed;
+        private final Semaphore slots;
+
+        /**
+         * @param slots the in flight bulks of the run that sends it, released when the job completes
+         */
+        BulkJob(final Map<String, IndexJournal<String>> records,
+                final Set<String> failed, final Semaphore slots) {
+            this.records = records;
+            this.failed = failed;
+            this.slots = slots;
+        }
+
+        void send(final BulkRequest request, final int attempt) {
+
+            bulkRequests.increment();
+            new ESClient().getClient().bulk(request, new ActionListener<BulkResponse>() {
+
+                @Override
+                public void onResponse(final BulkResponse response) {
+
+                    final BulkRequest rejected = new BulkRequest();
+                    if (response.hasFailures()) {
+                        final List<DocWriteRequest> requests = request.requests();
+                        for (final BulkItemResponse item : response.getItems()) {
+                            if (!item.isFailed()) {
+                                continue;
+                            }
+                            if (item.getFailure().getStatus() == RestStatus.TOO_MANY_REQUESTS) {
+                                rejected.add(requests.get(item.getItemId()));
+                            } else {
+                                Logger.warn(ParallelFullReindex.class, "Error indexing [" + item.getId() + "]: "
+                                        + item.getFailureMessage());
+                                failed.add(identifier(item.getId()));
+                            }
+                        }
+                    }
+                    if (rejected.numberOfActions() > 0) {
+                        retry(rejected, attempt);
+                    } else {
+                        done();
+                    }
+                }
+
+                @Override
+                public void onFailure(final Exception e) {
+
+                    if (ExceptionsHelper.unwrapCause(e) instanceof EsRejectedExecutionException) {
+                        retry(request, attempt);
+                    } else {
+                        Logger.error(ParallelFullReindex.class, "Bulk request of the full reindex failed", e);
+                        failed.addAll(records.keySet());
+                        done();
+                    }
+                }
+            });
+        }
+
+        private void retry(final BulkRequest request, final int attempt) {
+
+            bulkRejections.increment();
+            if (attempt >= Config.getIntProperty("reindex.full.parallel.max.retries", 6) || !running.get()) {
+                for (final DocWriteRequest rejected : request.requests()) {
+                    failed.add(identifier(rejected.id()));
+                }
+                done();
+                return;
+            }
+
+            final long backoff = Math.min(MAX_BACKOFF_MILLIS,
+                    Config.getLongProperty("reindex.full.parallel.backoff.millis", 500) << attempt);
+            Logger.debug(ParallelFullReindex.class, "Elasticsearch rejected " + request.numberOfActions()
+                    + " requests, retrying in " + backoff + " ms");
+            try {
+                bulkScheduler.schedule(() -> send(request, attempt + 1), backoff, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                // the scheduler is gone, we were stopped
+                done();
+            }
+        }
+
+        private void done() {
+
+            try {
+                bulkScheduler.execute(this::complete);
+            } catch (Exception e) {
+                complete();
+            }
+        }
+
+        void complete() {
+
+            try {
+                final List<IndexJournal<String>> indexed = new ArrayList<>();
+                final List<IndexJournal<String>> toRetry = new ArrayList<>();
+                records.forEach((identifier, record) -> (failed.contains(identifier) ? toRetry : indexed).add(record));
+
+                final DistributedJournalAPI<String> jAPI = APILocator.getDistributedJournalAPI();
+                if (!indexed.isEmpty()) {
+                    jAPI.deleteReindexEntryForServer(indexed);
+                }
+                if (!toRetry.isEmpty()) {
+                    // released for the reindex thread, with the priority of a failed record
+                    jAPI.resetServerForReindexEntry(toRetry);
+                }
+                recordsIndexed.add(indexed.size());
+                recordsFailed.add(toRetry.size());
+            } catch (Exception e) {
+                Logger.error(ParallelFullReindex.class, "Unable to update the reindex journal after a bulk request", e);
+            } finally {
+                DbConnectionFactory.closeSilently();
+                slots.release();
+            }
+        }
+
+        private String identifier(final String documentId) {
+            // document ids are identifier_languageId
+            final int languageIndex = documentId.lastIndexOf('_');
+            return languageIndex != -1 ? documentId.substring(0, languageIndex) : documentId;
+        }
+    }
+
+}
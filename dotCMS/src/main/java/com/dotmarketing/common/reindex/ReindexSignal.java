@@ -0,0 +1,183 @@
+package com.dotmarketing.common.reindex;
+
+import com.dotmarketing.business.CacheLocator;
+import com.dotmarketing.business.cache.transport.CacheTransport;
+import com.dotmarketing.db.DbConnectionFactory;
+import com.dotmarketing.db.HibernateUtil;
+import com.dotmarketing.util.Config;
+import com.dotmarketing.util.Logger;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Wakes up the {@link ReindexThread} when new records are added to the {@code dist_reindex_journal}
+ * table, so it does not have to poll the table to find out.
+ * <p/>
+ * The journal API calls {@link #signalOnCommit()} when it adds records: once the transaction is
+ * committed the local thread is woken up and the rest of the cluster is told through the cache
+ * transport (coalesced to one message every <strong>reindex.signal.cluster.interval.millis</strong>).
+ * The thread still checks the table every <strong>reindex.thread.delay</strong> millis when idle,
+ * for records added without going through the API.
+ */
+public class ReindexSignal {
+
+    /**
+     * Message sent through the cache transport to wake up the reindex thread of the other nodes
+     */
+    public static final String CLUSTER_MESSAGE = "reindexSignal";
+
+    private static final String COMMIT_LISTENER_TAG = "reindexSignalCommitListener";
+
+    private static final ReindexSignal INSTANCE = new ReindexSignal();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition signalled = lock.newCondition();
+    private boolean pending = false;
+
+    // time of the oldest signal not yet consumed by the reindex thread, used to compute the index lag
+    private final AtomicLong oldestPendingSignal = new AtomicLong();
+
+    private final long clusterIntervalMillis =
+            Config.getLongProperty("reindex.signal.cluster.interval.millis", 250);
+    private final AtomicBoolean clusterNotificationScheduled = new AtomicBoolean(false);
+    private volatile ScheduledExecutorService clusterScheduler;
+
+    private ReindexSignal() {
+        // singleton
+    }
+
+    public static ReindexSignal getInstance() {
+        return INSTANCE;
+    }
+
+    public static boolean isSignal(final String message) {
+        return CLUSTER_MESSAGE.equals(message);
+    }
+
+    /**
+     * Signals the reindex thread once the current transaction is committed (right away if there is
+     * no transaction) and lets the rest of the cluster know
+     */
+    public void signalOnCommit() {
+
+        try {
+            if (DbConnectionFactory.inTransaction()) {
+                HibernateUtil.addCommitListener(COMMIT_LISTENER_TAG, this::signalAndNotifyCluster);
+                return;
+            }
+        } catch (Exception e) {
+            Logger.debug(this, "Unable to add the reindex commit listener: " + e.getMessage(), e);
+        }
+        signalAndNotifyCluster();
+    }
+
+    /**
+     * Wakes up the local reindex thread
+     */
+    public void signal() {
+
+        oldestPendingSignal.compareAndSet(0, System.currentTimeMillis());
+        wakeUp();
+    }
+
+    /**
+     * Wakes up the local reindex thread without flagging new records, e.g. to let it clean up the
+     * records of a bulk request that just finished
+     */
+    void wakeUp() {
+
+        lock.lock();
+        try {
+            pending = true;
+            signalled.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until {@link #signal()} is called or the given time elapses. A signal sent while
+     * nobody was waiting is not lost, the next call returns right away.
+     *
+     * @param maxWaitMillis
+     * @return true if it was signalled
+     * @throws InterruptedException
+     */
+    public boolean await(final long maxWaitMillis) throws InterruptedException {
+
+        lock.lock();
+        try {
+            long nanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+            while (!pending && nanos > 0) {
+                nanos = signalled.awaitNanos(nanos);
+            }
+            final boolean wasSignalled = pending;
+            pending = false;
+            return wasSignalled;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the time of the oldest signal not yet consumed and resets it, 0 if there is none
+     *
+     * @return
+     */
+    long consumeOldestPendingSignal() {
+        return oldestPendingSignal.getAndSet(0);
+    }
+
+    private void signalAndNotifyCluster() {
+        signal();
+        notifyCluster();
+    }
+
+    private void notifyCluster() {
+
+        if (!clusterNotificationScheduled.compareAndSet(false, true)) {
+            // there is already a notification waiting to be sent
+            return;
+        }
+        getClusterScheduler().schedule(() -> {
+            clusterNotificationScheduled.set(false);
+            sendClusterMessage();
+        }, clusterIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void sendClusterMessage() {
+
+        try {
+            final CacheTransport transport = CacheLocator.getCacheAdministrator().getTransport();
+            if (transport != null) {
+                transport.send(CLUSTER_MESSAGE);
+            }
+        } catch (Exception e) {
+            Logger.debug(this, "Unable to notify the cluster about new records to reindex: " + e.getMessage(), e);
+        }
+    }
+
+    private ScheduledExecutorService getClusterScheduler() {
+
+        if (clusterScheduler == null) {
+            synchronized (this) {
+                if (clusterScheduler == null) {
+                    clusterScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                        final Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+                        thread.setName("reindex_cluster_signal");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return clusterScheduler;
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.dotmarketing.common.reindex;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of the {@link ReindexThread}: queue depth, batch sizes, bulk request times and the index
+ * lag (time from a record being signalled to being indexed). Exposed over JMX as
+ * {@link #MBEAN_OBJECT_NAME}.
+ */
+public class ReindexStats implements ReindexStatsMBean {
+
+    public static final String MBEAN_OBJECT_NAME = "org.dotcms:type=Reindex";
+
+    private static final ReindexStats INSTANCE = new ReindexStats();
+
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final AtomicLong lastIndexLagMillis = new AtomicLong();
+    private final AtomicLong maxIndexLagMillis = new AtomicLong();
+    private final AtomicLong lastBulkMillis = new AtomicLong();
+    private final LongAdder recordsIndexed = new LongAdder();
+    private final LongAdder recordsFailed = new LongAdder();
+    private final LongAdder bulkRequests = new LongAdder();
+    private final LongAdder signalledWakeUps = new LongAdder();
+    private final LongAdder pollWakeUps = new LongAdder();
+    private volatile AdaptiveBatchSize batchSize;
+
+    private ReindexStats() {
+        // singleton
+    }
+
+    public static ReindexStats getInstance() {
+        return INSTANCE;
+    }
+
+    void setBatchSize(final AdaptiveBatchSize batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    void setQueueDepth(final long depth) {
+        queueDepth.set(depth);
+    }
+
+    void recordBulk(final int records, final int failed, final long tookMillis) {
+        bulkRequests.increment();
+        recordsIndexed.add(records - failed);
+        recordsFailed.add(failed);
+        lastBulkMillis.set(tookMillis);
+    }
+
+    void recordIndexLag(final long lagMillis) {
+        lastIndexLagMillis.set(lagMillis);
+        maxIndexLagMillis.accumulateAndGet(lagMillis, Math::max);
+    }
+
+    void recordWakeUp(final boolean signalled) {
+        if (signalled) {
+            signalledWakeUps.increment();
+        } else {
+            pollWakeUps.increment();
+        }
+    }
+
+    @Override
+    public long getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    @Override
+    public long getLastIndexLagMillis() {
+        return lastIndexLagMillis.get();
+    }
+
+    @Override
+    public int getBatchSize() {
+        final AdaptiveBatchSize current = batchSize;
+        return current != null ? current.get() : 0;
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+
+        final Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", queueDepth.get());
+        stats.put("batchSize", getBatchSize());
+        stats.put("lastBulkMillis", lastBulkMillis.get());
+        stats.put("lastIndexLagMillis", lastIndexLagMillis.get());
+        stats.put("maxIndexLagMillis", maxIndexLagMillis.get());
+        stats.put("bulkRequests", bulkRequests.sum());
+        stats.put("recordsIndexed", recordsIndexed.sum());
+        stats.put("recordsFailed", recordsFailed.sum());
+        stats.put("signalledWakeUps", signalledWakeUps.sum());
+        stats.put("pollWakeUps", pollWakeUps.sum());
+        return stats;
+    }
+
+    @Override
+    public String getObjectName() {
+        return MBEAN_OBJECT_NAME;
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.dotmarketing.common.reindex;
+
+import com.dotcms.jmx.DotMBean;
+
+import java.util.Map;
+
+/**
+ * Encapsulates the MBean interface for the {@link ReindexStats}
+ */
+public interface ReindexStatsMBean extends DotMBean {
+
+    /**
+     * Records left in the reindex journal for this server, as of the last check
+     * @return long
+     */
+    public long getQueueDepth();
+
+    /**
+     * Time in millis between a record being added to the journal and it being indexed, for the last batch
+     * @return long
+     */
+    public long getLastIndexLagMillis();
+
+    /**
+     * Number of records to fetch for the next bulk request
+     * @return int
+     */
+    public int getBatchSize();
+
+    /**
+     * Gets all the reindex stats
+     * @return Map
+     */
+    public Map<String, Object> getStats();
+
+}
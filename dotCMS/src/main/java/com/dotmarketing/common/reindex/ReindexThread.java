@@ -104,6 +104,11 @@ public class ReindexThread extends Thread {
 	private final NotificationAPI notificationAPI;
 	private final RoleAPI roleAPI;
 	private final UserAPI userAPI;
+	private final AdaptiveBatchSize batchSize = new AdaptiveBatchSize();
+	private final ReindexSignal signal = ReindexSignal.getInstance();
+	private final ReindexStats stats = ReindexStats.getInstance();
+	private final long queueDepthInterval = Config.getLongProperty("reindex.stats.queue.depth.interval.millis", 10000);
+	private long lastQueueDepthCheck = 0;
 
 	private static ReindexThread instance;
 
@@ -134,6 +139,7 @@ public class ReindexThread extends Thread {
 		this.notificationAPI = notificationAPI;
         this.userAPI = userAPI;
 		this.roleAPI = roleAPI;
+		this.stats.setBatchSize(this.batchSize);
 	}
 
 	private void finish() {
@@ -289,6 +295,8 @@ public class ReindexThread extends Thread {
 					}
 					else if(!remoteQ.isEmpty()) {
 					    wait=false;
+					    // time of the oldest signal this batch is answering, used to compute the index lag
+					    final long signalledAt=signal.consumeOldestPendingSignal();
 					    Client client=new ESClient().getClient();
 						BulkRequestBuilder bulk=client.prepareBulk();
 						final ArrayList<IndexJournal<String>> recordsToDelete= new ArrayList<>();
@@ -364,13 +372,31 @@ public class ReindexThread extends Thread {
 						HibernateUtil.closeSession();
 
 				        if(bulk.numberOfActions()>0) {
+				            final int batchRecords=recordsToDelete.size();
+				            final long bulkStart=System.currentTimeMillis();
 				            bulk.execute(new ActionListener<BulkResponse>() {
 
+								/**
+								 * Feeds the adaptive batch size and the stats with the result of the bulk request
+								 */
+								void recordBulk (final int failed, final boolean bulkFailed) {
+
+									final long now = System.currentTimeMillis();
+									batchSize.record(batchRecords, now - bulkStart, bulkFailed || failed > 0);
+									stats.recordBulk(batchRecords, failed, now - bulkStart);
+									if ( signalledAt > 0 ) {
+										stats.recordIndexLag(now - signalledAt);
+									}
+								}
+
 								void handleRecords (List<IndexJournal<String>> failedRecords) {
 
 									//List of records to delete from the reindex journal table
 									addRecordsToDelete(recordsToDelete);
 
+									//Wake up the thread so it removes them from the journal right away
+									signal.wakeUp();
+
 									try {
 										if ( failedRecords != null && !failedRecords.isEmpty() ) {
 											/*
@@ -388,6 +414,7 @@ public class ReindexThread extends Thread {
 
 									//Handle failures on the re-index process if any
 									List<IndexJournal<String>> failedRecords = failureHandler(resp);
+									recordBulk(failedRecords.size(), resp.hasFailures());
 
 									//Handle the processed records
 									handleRecords(failedRecords);
@@ -396,6 +423,7 @@ public class ReindexThread extends Thread {
 								public void onFailure ( Exception ex ) {
 
 									Logger.error(ReindexThread.class, "Indexing process failed", ex);
+									recordBulk(batchRecords, true);
 
 									//Handle the processed records
 									handleRecords(null);
@@ -524,11 +552,12 @@ public class ReindexThread extends Thread {
 					}
 				}
 				
-				// if we have no records and are just waiting to check if we
-				// are in a full reindex fired by another server
+				// if we have no records we wait until new ones are signalled, still checking every
+				// delay millis for records added by another server or a full reindex fired by
+				// another server
 				if (wait && remoteQ.isEmpty()) {
 					try {
-						Thread.sleep(delay);
+						stats.recordWakeUp(signal.await(delay));
 					} catch (InterruptedException e) {
 						Logger.error(this, e.getMessage(), e);
 					}
@@ -650,6 +679,7 @@ public class ReindexThread extends Thread {
 		if (instance!=null && instance.isAlive()) {
 			Logger.info(ReindexThread.class, "ReindexThread shutdown initiated");
 			instance.die=true;
+			ParallelFullReindex.getInstance().stop();
 		} else {
 			Logger.warn(ReindexThread.class, "ReindexThread not running (or already shutting down)");
 		}
@@ -673,8 +703,11 @@ public class ReindexThread extends Thread {
 	private void fillRemoteQ (boolean includeFailedRecords) throws DotDataException {
 	    try {
 	        HibernateUtil.startTransaction();
-	        remoteQ.addAll(jAPI.findContentReindexEntriesToReindex(includeFailedRecords));
+	        final int toFetch = batchSize.get();
+	        final List<IndexJournal<String>> records = jAPI.findContentReindexEntriesToReindex(includeFailedRecords, toFetch);
+	        remoteQ.addAll(records);
 	        HibernateUtil.closeAndCommitTransaction();
+	        updateQueueDepth(records.size(), toFetch);
 	    }
 	    catch(Exception ex) {
 	        HibernateUtil.rollbackTransaction();
@@ -685,6 +718,29 @@ public class ReindexThread extends Thread {
 	    }
 	}
 
+	/**
+	 * Updates the queue depth reported by {@link ReindexStats}. A batch that was not full means
+	 * we took everything that was left, otherwise the journal is counted at most every
+	 * <strong>reindex.stats.queue.depth.interval.millis</strong>
+	 */
+	private void updateQueueDepth (final int fetched, final int toFetch) {
+
+		if ( fetched < toFetch ) {
+			stats.setQueueDepth(fetched);
+			return;
+		}
+		final long now = System.currentTimeMillis();
+		if ( now - lastQueueDepthCheck < queueDepthInterval ) {
+			return;
+		}
+		lastQueueDepthCheck = now;
+		try {
+			stats.setQueueDepth(jAPI.recordsLeftToIndexForServer());
+		} catch ( DotDataException e ) {
+			Logger.debug(this, "Unable to count the records left to index: " + e.getMessage(), e);
+		}
+	}
+
 	@CloseDBIfOpened
 	private List<Map<String,String>> getContentletVersionInfoByIdentifier (final String id) throws DotDataException {
 
@@ -773,6 +829,7 @@ public class ReindexThread extends Thread {
 	public void stopFullReindexation() throws DotDataException {
         try {
             pause();
+            ParallelFullReindex.getInstance().stop();
             this.remoteQ.clear();
             this.notifiedFailingRecords.clear();
             this.jAPI.cleanDistReindexJournal();
@@ -801,6 +858,7 @@ public class ReindexThread extends Thread {
 	 *             The established pauses to switch to the new index failed.
 	 */
 	public void stopFullReindexationAndSwitchover() throws SQLException, DotDataException, InterruptedException {
+		ParallelFullReindex.getInstance().stop();
 		this.remoteQ.clear();
 		reindexSwitchover(true);
 	}
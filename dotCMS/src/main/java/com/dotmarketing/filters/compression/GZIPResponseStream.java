@@ -16,6 +16,7 @@ public class GZIPResponseStream extends ServletOutputStream {
   protected boolean closed = false;
   protected HttpServletResponse response = null;
   protected ServletOutputStream output = null;
+  protected boolean precompressed = false;
 
   public GZIPResponseStream(HttpServletResponse response) throws IOException {
     super();
@@ -38,6 +39,12 @@ public class GZIPResponseStream extends ServletOutputStream {
     if (closed) {
       throw new IOException("This output stream has already been closed");
     }
+    if (precompressed) {
+      output.flush();
+      output.close();
+      closed = true;
+      return;
+    }
     gzipstream.finish();
 
     byte[] bytes = baos.toByteArray();
@@ -78,6 +85,23 @@ public class GZIPResponseStream extends ServletOutputStream {
     gzipstream.write(b, off, len);
   }
 
+  /**
+   * Writes a body that is already gzipped straight to the response, skipping the compression done by
+   * this stream. Nothing must have been written to this stream before. A null body sends no body at all
+   * (e.g. for a 304 response).
+   */
+  public void writePrecompressed(byte gzipped[]) throws IOException {
+    if (closed) {
+      throw new IOException("Cannot write to a closed output stream");
+    }
+    precompressed = true;
+    if (gzipped != null) {
+      response.addHeader("Content-Length", Integer.toString(gzipped.length));
+      response.addHeader("Content-Encoding", "gzip");
+      output.write(gzipped);
+    }
+  }
+
   public boolean closed() {
     return (this.closed);
   }
@@ -40,20 +40,10 @@ public class CropImageFilter extends ImageFilter {
 		BufferedImage src;
 		try {
 			src = ImageIO.read(file);
-			if(x > src.getWidth() || y > src.getHeight()){
+			BufferedImage out = filter(src, parameters);
+			if(out == src){
 				return file;
-				
 			}
-			
-			if(x + w > src.getWidth()){
-				w = src.getWidth()-x -1;
-			}
-			if(y + h > src.getHeight()){
-				h = src.getHeight()-y-1;
-			}
-			
-			
-			BufferedImage out = src.getSubimage(x, y, w, h);
 			ImageIO.write(out, FILE_EXT, resultFile);
 			
 		} catch (IOException e) {
@@ -64,4 +54,24 @@ public class CropImageFilter extends ImageFilter {
 		return resultFile;
 	}
 
+	@Override
+	public BufferedImage filter(BufferedImage src, Map<String, String[]> parameters) {
+		int x = parameters.get(getPrefix() + "x") != null ? Integer.parseInt(parameters.get(getPrefix() + "x")[0]) : 0;
+		int y = parameters.get(getPrefix() + "y") != null ? Integer.parseInt(parameters.get(getPrefix() + "y")[0]) : 0;
+		int w = parameters.get(getPrefix() + "w") != null ? Integer.parseInt(parameters.get(getPrefix() + "w")[0]) : 0;
+		int h = parameters.get(getPrefix() + "h") != null ? Integer.parseInt(parameters.get(getPrefix() + "h")[0]) : 0;
+		if (w == 0 || h == 0 || x > src.getWidth() || y > src.getHeight()) {
+			return src;
+		}
+
+		if(x + w > src.getWidth()){
+			w = src.getWidth()-x -1;
+		}
+		if(y + h > src.getHeight()){
+			h = src.getHeight()-y-1;
+		}
+
+		return src.getSubimage(x, y, w, h);
+	}
+
 }
@@ -18,19 +18,8 @@ public class ExposureImageFilter extends ImageFilter {
 
 	public File runFilter(File file,  Map<String, String[]> parameters) {
 
-		double exp = parameters.get(getPrefix() + "exp") != null ? Double.parseDouble(parameters.get(getPrefix()
-				+ "exp")[0]) : 0.0;
-		float f = new Double(exp).floatValue();
-
-		
-		
 		File resultFile = getResultsFile(file, parameters);
 
-
-
-		ExposureFilter ef = new ExposureFilter();
-		ef.setExposure(f);
-
 		if (!overwrite(resultFile, parameters)) {
 			return resultFile;
 		}
@@ -38,7 +27,7 @@ public class ExposureImageFilter extends ImageFilter {
 		try {
 			BufferedImage src = ImageIO.read(file);
 
-			BufferedImage dst = ef.filter(src, null);
+			BufferedImage dst = filter(src, parameters);
 			ImageIO.write(dst, "png", resultFile);
 		} catch (IOException e) {
 			Logger.error(this.getClass(), e.getMessage());
@@ -47,4 +36,15 @@ public class ExposureImageFilter extends ImageFilter {
 		return resultFile;
 	}
 
+	@Override
+	public BufferedImage filter(BufferedImage src, Map<String, String[]> parameters) {
+		double exp = parameters.get(getPrefix() + "exp") != null ? Double.parseDouble(parameters.get(getPrefix()
+				+ "exp")[0]) : 0.0;
+		float f = new Double(exp).floatValue();
+
+		ExposureFilter ef = new ExposureFilter();
+		ef.setExposure(f);
+		return ef.filter(src, null);
+	}
+
 }
@@ -19,27 +19,15 @@ public class FlipImageFilter extends ImageFilter {
 
 	public File runFilter(File file,  Map<String, String[]> parameters) {
 
-		boolean flip = false;
-		try {
-			flip = parameters.get(getPrefix() + "flip") != null ? true : false;
-		} catch (Exception e) {
-		}
-	
-
 		File resultFile = getResultsFile(file, parameters);
 
-		FlipFilter filter = new FlipFilter();
-
 		if (!overwrite(resultFile, parameters)) {
 			return resultFile;
 		}
 
 		try {
-			if (flip) {
-				filter.setOperation(FlipFilter.FLIP_H);
-			} 
 			BufferedImage src = ImageIO.read(file);
-			BufferedImage dst = filter.filter(src, null);
+			BufferedImage dst = filter(src, parameters);
 			ImageIO.write(dst, "png", resultFile);
 		} catch (IOException e) {
 			Logger.error(this.getClass(), e.getMessage());
@@ -48,4 +36,19 @@ public class FlipImageFilter extends ImageFilter {
 		return resultFile;
 	}
 
+	@Override
+	public BufferedImage filter(BufferedImage src, Map<String, String[]> parameters) {
+		boolean flip = false;
+		try {
+			flip = parameters.get(getPrefix() + "flip") != null ? true : false;
+		} catch (Exception e) {
+		}
+
+		FlipFilter filter = new FlipFilter();
+		if (flip) {
+			filter.setOperation(FlipFilter.FLIP_H);
+		}
+		return filter.filter(src, null);
+	}
+
 }
@@ -16,16 +16,7 @@ public class GammaImageFilter extends ImageFilter {
 	}
 
 	public File runFilter(File file,   Map<String, String[]> parameters) {
-		double g = parameters.get(getPrefix() + "g") != null ? Double.parseDouble(parameters.get(getPrefix() + "g")[0])
-				: 0.0;
-		float f = new Double(g).floatValue();
-		
-		
 		File resultFile = getResultsFile(file, parameters);
-		
-
-		GammaFilter filter = new GammaFilter();
-		filter.setGamma(f);
 
 		if (!overwrite(resultFile, parameters)) {
 			return resultFile;
@@ -34,7 +25,7 @@ public class GammaImageFilter extends ImageFilter {
 		try {
 			BufferedImage src = ImageIO.read(file);
 
-			BufferedImage dst = filter.filter(src, null);
+			BufferedImage dst = filter(src, parameters);
 			ImageIO.write(dst, "png", resultFile);
 		} catch (IOException e) {
 			Logger.error(this.getClass(), e.getMessage());
@@ -43,4 +34,15 @@ public class GammaImageFilter extends ImageFilter {
 		return resultFile;
 	}
 
+	@Override
+	public BufferedImage filter(BufferedImage src, Map<String, String[]> parameters) {
+		double g = parameters.get(getPrefix() + "g") != null ? Double.parseDouble(parameters.get(getPrefix() + "g")[0])
+				: 0.0;
+		float f = new Double(g).floatValue();
+
+		GammaFilter filter = new GammaFilter();
+		filter.setGamma(f);
+		return filter.filter(src, null);
+	}
+
 }
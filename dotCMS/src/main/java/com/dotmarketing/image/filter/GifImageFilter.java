@@ -36,30 +36,8 @@ public class GifImageFilter extends ImageFilter {
 		resultFile.delete();
 
 		try {
-			Iterator<ImageWriter> iter = ImageIO.getImageWritersByFormatName("gif");
-			ImageWriter writer = iter.next();
-			ImageWriteParam iwp = writer.getDefaultWriteParam();
-
 			BufferedImage src = ImageIO.read(file);
-			BufferedImage dst = new BufferedImage(src.getWidth(), src.getHeight(), BufferedImage.TYPE_4BYTE_ABGR);
-			Graphics2D graphics = dst.createGraphics();  
-
-			graphics.setPaint ( new Color ( 255, 255, 255 ) );
-
-			graphics.fillRect(0, 0, src.getWidth(), src.getHeight());
-			graphics.drawImage(src, 0, 0, src.getWidth(), src.getHeight(),null);
-			ImageOutputStream ios = ImageIO.createImageOutputStream(resultFile);
-			writer.setOutput(ios);
-			writer.write(null,new IIOImage(dst,null,null),iwp);
-			ios.flush();
-			writer.dispose();
-			ios.close();
-			//writer.setOutput(output);
-
-		//	IIOImage image = new IIOImage(src, null, null);
-		//	writer.write(null, image, iwp);
-		//	writer.dispose();
-			
+			write(filter(src, parameters), resultFile, parameters);
 
 		} catch (FileNotFoundException e) {
 			Logger.error(this.getClass(), e.getMessage());
@@ -67,12 +45,42 @@ public class GifImageFilter extends ImageFilter {
 			Logger.error(this.getClass(), e.getMessage());
 		}
 		
-		
-		
-		
-		
 		return resultFile;
 	}
-	
+
+	@Override
+	public BufferedImage filter(BufferedImage src, Map<String, String[]> parameters) {
+		BufferedImage dst = new BufferedImage(src.getWidth(), src.getHeight(), BufferedImage.TYPE_4BYTE_ABGR);
+		Graphics2D graphics = dst.createGraphics();  
+
+		graphics.setPaint ( new Color ( 255, 255, 255 ) );
+
+		graphics.fillRect(0, 0, src.getWidth(), src.getHeight());
+		graphics.drawImage(src, 0, 0, src.getWidth(), src.getHeight(),null);
+		graphics.dispose();
+		return dst;
+	}
+
+	@Override
+	public void write(BufferedImage image, File resultFile, Map<String, String[]> parameters) throws IOException {
+		Iterator<ImageWriter> iter = ImageIO.getImageWritersByFormatName("gif");
+		ImageWriter writer = iter.next();
+		ImageWriteParam iwp = writer.getDefaultWriteParam();
+
+		ImageOutputStream ios = ImageIO.createImageOutputStream(resultFile);
+		try {
+			writer.setOutput(ios);
+			writer.write(null,new IIOImage(image,null,null),iwp);
+			ios.flush();
+		} finally {
+			writer.dispose();
+			ios.close();
+		}
+	}
+
+	@Override
+	public String getFileExtension() {
+		return "gif";
+	}
 
 }
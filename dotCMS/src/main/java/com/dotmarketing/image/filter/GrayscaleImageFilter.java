@@ -19,7 +19,6 @@ public class GrayscaleImageFilter extends ImageFilter {
 	public File runFilter(File file,  Map<String, String[]> parameters) {
 
 		File resultFile = getResultsFile(file, parameters);
-		GrayscaleFilter filter = new GrayscaleFilter();
 
 		if (!overwrite(resultFile, parameters)) {
 			return resultFile;
@@ -28,7 +27,7 @@ public class GrayscaleImageFilter extends ImageFilter {
 		try {
 			BufferedImage src = ImageIO.read(file);
 
-			BufferedImage dst = filter.filter(src, null);
+			BufferedImage dst = filter(src, parameters);
 			ImageIO.write(dst, "png", resultFile);
 		} catch (IOException e) {
 			Logger.error(this.getClass(), e.getMessage());
@@ -37,4 +36,9 @@ public class GrayscaleImageFilter extends ImageFilter {
 		return resultFile;
 	}
 
+	@Override
+	public BufferedImage filter(BufferedImage src, Map<String, String[]> parameters) {
+		return new GrayscaleFilter().filter(src, null);
+	}
+
 }
@@ -1,7 +1,9 @@
 package com.dotmarketing.image.filter;
 
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
@@ -10,6 +12,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import javax.imageio.ImageIO;
+
 import com.dotmarketing.business.APILocator;
 import com.dotmarketing.business.DotStateException;
 import com.dotmarketing.exception.DotRuntimeException;
@@ -95,7 +99,7 @@ public abstract class ImageFilter implements ImageFilterIf {
 
 	}
 
-	private static String convertToHex(byte[] data) {
+	static String convertToHex(byte[] data) {
 		StringBuffer buf = new StringBuffer();
 		for (int i = 0; i < data.length; i++) {
 			int halfbyte = (data[i] >>> 4) & 0x0F;
@@ -111,6 +115,79 @@ public abstract class ImageFilter implements ImageFilterIf {
 		return buf.toString();
 	}
 
+	/**
+	 * Applies this filter to an image that is already decoded, this is what the
+	 * {@link ImageFilterPipeline} calls to run a chain of filters without writing intermediate
+	 * files. Returns the same image when the filter has nothing to do with the given parameters.
+	 * <p/>
+	 * Filters that only work on files do not override it: the image is written to a temporary
+	 * file, filtered through {@link #runFilter(File, Map)} and read back, so they keep working in
+	 * the pipeline, only without its savings.
+	 *
+	 * @param src
+	 * @param parameters
+	 * @return
+	 * @throws IOException
+	 */
+	public BufferedImage filter(BufferedImage src, Map<String, String[]> parameters) throws IOException {
+
+		// a generated file name keeps the results of runFilter next to it, away from dotGenerated
+		final File source = Files.createTempFile(WebKeys.GENERATED_FILE + "filter_", "." + FILE_EXT).toFile();
+		File result = null;
+		try {
+			ImageIO.write(src, FILE_EXT, source);
+			result = runFilter(source, parameters);
+			if (result == null || result.equals(source)) {
+				return src;
+			}
+			final BufferedImage image = ImageIO.read(result);
+			if (image == null) {
+				throw new IOException("Unable to read the image written by " + this.getClass().getSimpleName());
+			}
+			return image;
+		} finally {
+			Files.deleteIfExists(source.toPath());
+			if (result != null && source.getParentFile().equals(result.getParentFile())) {
+				Files.deleteIfExists(result.toPath());
+			}
+		}
+	}
+
+	/**
+	 * Decodes the file this filter receives as the first filter of a chain
+	 *
+	 * @param file
+	 * @param parameters
+	 * @return
+	 * @throws IOException
+	 */
+	public BufferedImage read(File file, Map<String, String[]> parameters) throws IOException {
+		final BufferedImage image = ImageIO.read(file);
+		if (image == null) {
+			throw new IOException("Unable to read the image " + file.getName());
+		}
+		return image;
+	}
+
+	/**
+	 * Encodes an image the way this filter writes its results
+	 *
+	 * @param image
+	 * @param resultFile
+	 * @param parameters
+	 * @throws IOException
+	 */
+	public void write(BufferedImage image, File resultFile, Map<String, String[]> parameters) throws IOException {
+		ImageIO.write(image, FILE_EXT, resultFile);
+	}
+
+	/**
+	 * @return the extension of the files written by {@link #write(BufferedImage, File, Map)}
+	 */
+	public String getFileExtension() {
+		return FILE_EXT;
+	}
+
 	protected String getFilterName() {
 		return this.getClass().getSimpleName().replaceAll("ImageFilter", "").toLowerCase();
 	}
@@ -157,38 +234,54 @@ public abstract class ImageFilter implements ImageFilterIf {
 	 * @throws DotRuntimeException
 	 */
 	protected File getResultsFile(File file, Map<String, String[]> parameters, String fileExt) throws DotRuntimeException{
-		String fileFolderPath = file.getParent();
-
-		String inode =null;
-
 		try{
-			if(file.getName().startsWith(WebKeys.GENERATED_FILE)){
-				inode = file.getName();
-				String fileNameNoExt = this.getUniqueFileName(file, parameters, inode);
-				String resultFilePath =fileFolderPath+ File.separator + fileNameNoExt + "." + fileExt;
-				return  new File(resultFilePath);
-			}
-			else{
-				try{
-					inode = RegEX.find(file.getCanonicalPath(), "[\\w]{8}(-[\\w]{4}){3}-[\\w]{12}").get(0).getMatch();
-				}
-				catch (Exception e){
-					inode = parameters.get("assetInodeOrIdentifier")[0];
-				}
-				String realAssetPath = APILocator.getFileAssetAPI().getRealAssetsRootPath();
-				File dirs = new File(realAssetPath + File.separator + "dotGenerated" + File.separator + inode.charAt(0) + File.separator + inode.charAt(1));
-				dirs.mkdirs();
-				String fileNameNoExt = this.getUniqueFileName(file, parameters, inode);
-				String resultFilePath = dirs.getCanonicalPath() + File.separator + fileNameNoExt + "." + fileExt;
-				return  new File(resultFilePath);
-			}
-
-
-
+			String inode = getSourceInode(file, parameters);
+			String fileNameNoExt = this.getUniqueFileName(file, parameters, inode);
+			return new File(getResultsFolder(file, inode), fileNameNoExt + "." + fileExt);
 		}
 		catch(Exception e){
 			throw new DotRuntimeException("Cannot find the inode of the file : " + e.getMessage(),e);
 		}
 	}
 
+	/**
+	 * The inode the generated files of the given file belong to: the name of the file when it
+	 * was generated by another filter, otherwise the inode in its path or the requested asset
+	 *
+	 * @param file
+	 * @param parameters
+	 * @return
+	 * @throws IOException
+	 */
+	static String getSourceInode(File file, Map<String, String[]> parameters) throws IOException {
+		if(file.getName().startsWith(WebKeys.GENERATED_FILE)){
+			return file.getName();
+		}
+		try{
+			return RegEX.find(file.getCanonicalPath(), "[\\w]{8}(-[\\w]{4}){3}-[\\w]{12}").get(0).getMatch();
+		}
+		catch (Exception e){
+			return parameters.get("assetInodeOrIdentifier")[0];
+		}
+	}
+
+	/**
+	 * The folder the generated files of the given file go to: next to the file when it was
+	 * generated by another filter, otherwise under dotGenerated in the assets folder
+	 *
+	 * @param file
+	 * @param inode
+	 * @return
+	 * @throws IOException
+	 */
+	static File getResultsFolder(File file, String inode) throws IOException {
+		if(file.getName().startsWith(WebKeys.GENERATED_FILE)){
+			return file.getParentFile();
+		}
+		String realAssetPath = APILocator.getFileAssetAPI().getRealAssetsRootPath();
+		File dirs = new File(realAssetPath + File.separator + "dotGenerated" + File.separator + inode.charAt(0) + File.separator + inode.charAt(1));
+		dirs.mkdirs();
+		return dirs.getCanonicalFile();
+	}
+
 }
@@ -0,0 +1,150 @@
+package com.dotmarketing.image.filter;
+
+import com.dotmarketing.util.Config;
+import com.dotmarketing.util.Logger;
+import java.io.File;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the image transformations of the image exporter on a small pool of its own instead of on the
+ * servlet threads, so a burst of requests for new image variants can not take every request thread.
+ * <ul>
+ *     <li>The pool has <strong>IMAGE_FILTER_THREADS</strong> threads (default: number of cores) and
+ *     a queue of <strong>IMAGE_FILTER_QUEUE_SIZE</strong> transformations (default 50). When the queue
+ *     is full the request is rejected with an {@link ImageFilterOverloadedException}.</li>
+ *     <li>Concurrent requests for the same transformation (same source, filter chain and parameters)
+ *     share one run instead of each one queueing its own.</li>
+ *     <li>Requests wait for their transformation up to <strong>IMAGE_FILTER_WAIT_MILLIS</strong>
+ *     (default 30000), then get an {@link ImageFilterOverloadedException}. The transformation keeps
+ *     running and its result is cached for the next request.</li>
+ * </ul>
+ * Metrics are kept in {@link ImageFilterStats}.
+ */
+public class ImageFilterExecutor {
+
+    private static class SingletonHolder {
+        private static final ImageFilterExecutor INSTANCE = new ImageFilterExecutor(
+                Config.getIntProperty("IMAGE_FILTER_THREADS", Runtime.getRuntime().availableProcessors()),
+                Config.getIntProperty("IMAGE_FILTER_QUEUE_SIZE", 50),
+                Config.getLongProperty("IMAGE_FILTER_WAIT_MILLIS", 30000));
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentHashMap<String, CompletableFuture<File>> inFlight = new ConcurrentHashMap<>();
+    private final long waitMillis;
+
+    ImageFilterExecutor(final int threads, final int queueSize, final long waitMillis) {
+
+        final int poolSize = Math.max(1, threads);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)), threadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.waitMillis = waitMillis;
+        ImageFilterStats.getInstance().setExecutor(this.executor);
+    }
+
+    public static ImageFilterExecutor getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Runs the transformation on the image filter pool and waits for it. If an identical
+     * transformation is already running its result is returned instead.
+     *
+     * @param key identifies the transformation: source, filter chain and parameters
+     * @param transformation returns the transformed file
+     * @return the transformed file
+     * @throws ImageFilterOverloadedException when the queue is full or the wait expires
+     * @throws Exception thrown by the transformation
+     */
+    public File execute(final String key, final Callable<File> transformation) throws Exception {
+
+        final CompletableFuture<File> flight = new CompletableFuture<>();
+        final CompletableFuture<File> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            ImageFilterStats.getInstance().recordDeduplicated();
+            return await(key, running);
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    flight.complete(transformation.call());
+                } catch (Throwable e) {
+                    flight.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(key, flight);
+                }
+            });
+            ImageFilterStats.getInstance().recordSubmitted();
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, flight);
+            ImageFilterStats.getInstance().recordRejected();
+            final ImageFilterOverloadedException overloaded = new ImageFilterOverloadedException(
+                    "Too many image transformations queued (" + executor.getQueue().size() + ")", e);
+            flight.completeExceptionally(overloaded);
+            throw overloaded;
+        }
+
+        return await(key, flight);
+    }
+
+    /**
+     * Number of different transformations being run or queued right now
+     *
+     * @return
+     */
+    public int size() {
+        return inFlight.size();
+    }
+
+    /**
+     * Stops the pool, transformations already queued are finished
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private File await(final String key, final CompletableFuture<File> flight) throws Exception {
+
+        try {
+            return flight.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            ImageFilterStats.getInstance().recordTimedOut();
+            Logger.debug(ImageFilterExecutor.class, "Timed out waiting for the image transformation: " + key);
+            throw new ImageFilterOverloadedException("Timed out waiting for the image transformation", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ImageFilterOverloadedException("Interrupted waiting for the image transformation", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static ThreadFactory threadFactory() {
+
+        final AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+            thread.setName("image_filter_" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.dotmarketing.image.filter;
+
+import com.dotmarketing.portlets.contentlet.business.BinaryContentExporterException;
+
+/**
+ * Thrown when an image transformation can not be run because the {@link ImageFilterExecutor} is
+ * saturated, or did not finish in time. The request should be answered with a 503 so the client
+ * comes back later instead of piling more work on the server.
+ */
+public class ImageFilterOverloadedException extends BinaryContentExporterException {
+
+	private static final long serialVersionUID = 1L;
+
+	public ImageFilterOverloadedException(String message) {
+		super(message);
+	}
+
+	public ImageFilterOverloadedException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+}
@@ -0,0 +1,197 @@
+package com.dotmarketing.image.filter;
+
+import com.dotmarketing.business.DotStateException;
+import com.dotmarketing.util.Logger;
+import com.dotmarketing.util.WebKeys;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs a chain of {@link ImageFilter}s in memory: the source is decoded once, every filter works
+ * on the image returned by the previous one and only the result of the last filter is encoded, in
+ * the format of that filter. No intermediate file is written.
+ * <p/>
+ * The result is stored in dotGenerated under a name computed from the source and the whole chain
+ * with its parameters, so a chain is generated once and served from that file afterwards.
+ */
+public class ImageFilterPipeline {
+
+    private static final String PIPELINE_PREFIX = "pipeline_";
+
+    private final List<ImageFilter> filters;
+
+    /**
+     * @param filters the chain, in the order the filters are applied
+     */
+    public ImageFilterPipeline(final List<ImageFilter> filters) {
+        this.filters = new ArrayList<>(filters);
+    }
+
+    /**
+     * Runs the chain over the given file
+     *
+     * @param file the source image
+     * @param parameters the request parameters of the filters
+     * @return the generated file, or the source file when the chain does not change the image
+     * @throws IOException
+     */
+    public File runFilters(final File file, final Map<String, String[]> parameters) throws IOException {
+
+        if (filters.isEmpty()) {
+            return file;
+        }
+
+        final ImageFilter last = filters.get(filters.size() - 1);
+        final File resultFile = getResultFile(file, parameters);
+
+        if (!last.overwrite(resultFile, parameters)) {
+            return resultFile;
+        }
+
+        long start = System.nanoTime();
+        final BufferedImage src = filters.get(0).read(file, parameters);
+        ImageFilterStats.getInstance().recordTransform("decode", start);
+
+        final BufferedImage image = filter(src, parameters);
+        if (image == src) {
+            return file;
+        }
+
+        start = System.nanoTime();
+        write(image, resultFile, parameters);
+        ImageFilterStats.getInstance().recordTransform("encode", start);
+        return resultFile;
+    }
+
+    /**
+     * Returns the result of the chain when it was already generated, without decoding anything
+     *
+     * @param file the source image
+     * @param parameters the request parameters of the filters
+     * @return the generated file, null when the chain has to be run
+     * @throws IOException
+     */
+    public File getCachedResult(final File file, final Map<String, String[]> parameters) throws IOException {
+
+        if (filters.isEmpty()) {
+            return file;
+        }
+        final File resultFile = getResultFile(file, parameters);
+        return filters.get(filters.size() - 1).overwrite(resultFile, parameters) ? null : resultFile;
+    }
+
+    /**
+     * Identifies the result of running the chain over the given file: the same key means the same
+     * source, filters and parameters
+     *
+     * @param file
+     * @param parameters
+     * @return
+     */
+    public String getKey(final File file, final Map<String, String[]> parameters) {
+
+        String inode;
+        try {
+            inode = ImageFilter.getSourceInode(file, parameters);
+        } catch (Exception e) {
+            inode = file.getAbsolutePath();
+        }
+        return getUniqueFileName(inode, parameters);
+    }
+
+    /**
+     * Applies every filter of the chain to the image
+     *
+     * @param src
+     * @param parameters
+     * @return the resulting image, the same src when no filter changed it
+     * @throws IOException
+     */
+    public BufferedImage filter(final BufferedImage src, final Map<String, String[]> parameters) throws IOException {
+
+        BufferedImage image = src;
+        for (final ImageFilter filter : filters) {
+            final long start = System.nanoTime();
+            image = filter.filter(image, parameters);
+            ImageFilterStats.getInstance().recordTransform(filter, start);
+        }
+        return image;
+    }
+
+    private File getResultFile(final File file, final Map<String, String[]> parameters) throws IOException {
+
+        final String inode = ImageFilter.getSourceInode(file, parameters);
+        return new File(ImageFilter.getResultsFolder(file, inode),
+                getUniqueFileName(inode, parameters) + "." + filters.get(filters.size() - 1).getFileExtension());
+    }
+
+    /**
+     * Encodes the image with the last filter of the chain into a temporary file that is then moved
+     * over the result, so a concurrent request never serves a half written image
+     */
+    private void write(final BufferedImage image, final File resultFile, final Map<String, String[]> parameters)
+            throws IOException {
+
+        final ImageFilter last = filters.get(filters.size() - 1);
+        final File tempFile = new File(resultFile.getParentFile(),
+                resultFile.getName() + "." + Thread.currentThread().getId() + ".tmp");
+        try {
+            last.write(image, tempFile, parameters);
+            Files.move(tempFile.toPath(), resultFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    /**
+     * Name of the result of the chain: the source, every filter of the chain in order and the
+     * parameters of those filters
+     */
+    private String getUniqueFileName(final String inode, final Map<String, String[]> parameters) {
+
+        final StringBuilder key = new StringBuilder(inode);
+        for (final ImageFilter filter : filters) {
+            key.append(':').append(filter.getFilterName());
+        }
+
+        for (final Map.Entry<String, String[]> entry : new TreeMap<>(parameters).entrySet()) {
+            if (entry.getValue() != null && isChainParameter(entry.getKey())) {
+                key.append(':').append(entry.getKey()).append('=').append(String.join(",", entry.getValue()));
+            }
+        }
+
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("MD5");
+            final String uniqueName = WebKeys.GENERATED_FILE + PIPELINE_PREFIX
+                    + ImageFilter.convertToHex(digest.digest(key.toString().getBytes(StandardCharsets.UTF_8)));
+            Logger.debug(this.getClass(), "pipeline " + key + " unique key: " + uniqueName);
+            return uniqueName;
+        } catch (NoSuchAlgorithmException e) {
+            throw new DotStateException(this.getClass() + ":" + e, e);
+        }
+    }
+
+    private boolean isChainParameter(final String key) {
+
+        if (key.equalsIgnoreCase("fieldVarName")) {
+            return true;
+        }
+        for (final ImageFilter filter : filters) {
+            if (key.startsWith(filter.getPrefix())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,136 @@
+package com.dotmarketing.image.filter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of the image transformations: queue depth and counters of the {@link ImageFilterExecutor}
+ * (submitted, shared with an identical request in flight, rejected, timed out) and the time spent
+ * per filter, decoding and encoding. Exposed over JMX as {@link #MBEAN_OBJECT_NAME}.
+ */
+public class ImageFilterStats implements ImageFilterStatsMBean {
+
+    public static final String MBEAN_OBJECT_NAME = "org.dotcms:type=ImageFilter";
+
+    private static final ImageFilterStats INSTANCE = new ImageFilterStats();
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private volatile ThreadPoolExecutor executor;
+
+    private ImageFilterStats() {
+        // singleton
+    }
+
+    public static ImageFilterStats getInstance() {
+        return INSTANCE;
+    }
+
+    void setExecutor(final ThreadPoolExecutor executor) {
+        this.executor = executor;
+    }
+
+    void recordSubmitted() {
+        submitted.increment();
+    }
+
+    void recordDeduplicated() {
+        deduplicated.increment();
+    }
+
+    void recordRejected() {
+        rejected.increment();
+    }
+
+    void recordTimedOut() {
+        timedOut.increment();
+    }
+
+    /**
+     * Records the time a filter, or the decode/encode step, took for one image
+     *
+     * @param name name of the filter
+     * @param startNanos {@link System#nanoTime()} when the filter started
+     */
+    public void recordTransform(final String name, final long startNanos) {
+        timers.computeIfAbsent(name, key -> new Timer())
+                .record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    /**
+     * Records the time a filter took for one image
+     *
+     * @param filter the filter
+     * @param startNanos {@link System#nanoTime()} when the filter started
+     */
+    public void recordTransform(final ImageFilter filter, final long startNanos) {
+        recordTransform(filter.getFilterName(), startNanos);
+    }
+
+    @Override
+    public int getQueueDepth() {
+        final ThreadPoolExecutor current = executor;
+        return current != null ? current.getQueue().size() : 0;
+    }
+
+    @Override
+    public int getActiveCount() {
+        final ThreadPoolExecutor current = executor;
+        return current != null ? current.getActiveCount() : 0;
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+
+        final Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", getQueueDepth());
+        stats.put("activeCount", getActiveCount());
+        stats.put("submitted", submitted.sum());
+        stats.put("deduplicated", deduplicated.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("timedOut", timedOut.sum());
+
+        final Map<String, Object> filters = new TreeMap<>();
+        timers.forEach((name, timer) -> filters.put(name, timer.toMap()));
+        stats.put("filters", filters);
+        return stats;
+    }
+
+    @Override
+    public String getObjectName() {
+        return MBEAN_OBJECT_NAME;
+    }
+
+    private static class Timer {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalMillis = new LongAdder();
+        private final AtomicLong maxMillis = new AtomicLong();
+
+        void record(final long millis) {
+            count.increment();
+            totalMillis.add(millis);
+            maxMillis.accumulateAndGet(millis, Math::max);
+        }
+
+        Map<String, Object> toMap() {
+            final long times = count.sum();
+            final Map<String, Object> map = new LinkedHashMap<>();
+            map.put("count", times);
+            map.put("totalMillis", totalMillis.sum());
+            map.put("avgMillis", times > 0 ? totalMillis.sum() / times : 0);
+            map.put("maxMillis", maxMillis.get());
+            return map;
+        }
+    }
+
+}
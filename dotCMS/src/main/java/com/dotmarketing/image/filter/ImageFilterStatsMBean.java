@@ -0,0 +1,30 @@
+package com.dotmarketing.image.filter;
+
+import com.dotcms.jmx.DotMBean;
+
+import java.util.Map;
+
+/**
+ * Encapsulates the MBean interface for the {@link ImageFilterStats}
+ */
+public interface ImageFilterStatsMBean extends DotMBean {
+
+    /**
+     * Image transformations waiting for a thread of the {@link ImageFilterExecutor}
+     * @return int
+     */
+    public int getQueueDepth();
+
+    /**
+     * Image transformations being run right now
+     * @return int
+     */
+    public int getActiveCount();
+
+    /**
+     * Gets the executor counters and the transform times per filter
+     * @return Map
+     */
+    public Map<String, Object> getStats();
+
+}
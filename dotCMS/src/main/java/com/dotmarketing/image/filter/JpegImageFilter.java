@@ -25,14 +25,6 @@ public class JpegImageFilter extends ImageFilter {
 		};
 	}
 	public File runFilter(File file,   Map<String, String[]> parameters) {
-		int quality = parameters.get(getPrefix() +"q") != null?Integer.parseInt(parameters.get(getPrefix() +"q")[0]):85;
-        boolean progressive = (parameters.get(getPrefix() +"p") != null);
-
-
-		
-		Double q = new Double(quality);
-		q = q/100;
-		
 		File resultFile = getResultsFile(file, parameters, "jpg");
 
 		if(!overwrite(resultFile,parameters)){
@@ -42,35 +34,8 @@ public class JpegImageFilter extends ImageFilter {
 		resultFile.delete();
 
 		try {
-			Iterator<ImageWriter> iter = ImageIO.getImageWritersByFormatName("jpeg");
-			ImageWriter writer = iter.next();
-			ImageWriteParam iwp = writer.getDefaultWriteParam();
-			iwp.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
-			
-			iwp.setCompressionQuality(q.floatValue());   
-			if(progressive){
-			  iwp.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
-			}
 			BufferedImage src = ImageIO.read(file);
-			BufferedImage dst = new BufferedImage(src.getWidth(), src.getHeight(), BufferedImage.TYPE_3BYTE_BGR);
-			Graphics2D graphics = dst.createGraphics();  
-
-			graphics.setPaint ( new Color ( 255, 255, 255 ) );
-
-			graphics.fillRect(0, 0, src.getWidth(), src.getHeight());
-			graphics.drawImage(src, 0, 0, src.getWidth(), src.getHeight(),null);
-			ImageOutputStream ios = ImageIO.createImageOutputStream(resultFile);
-			writer.setOutput(ios);
-			writer.write(null,new IIOImage(dst,null,null),iwp);
-			ios.flush();
-			writer.dispose();
-			ios.close();
-			//writer.setOutput(output);
-
-		//	IIOImage image = new IIOImage(src, null, null);
-		//	writer.write(null, image, iwp);
-		//	writer.dispose();
-			
+			write(filter(src, parameters), resultFile, parameters);
 
 		} catch (FileNotFoundException e) {
 			Logger.error(this.getClass(), e.getMessage());
@@ -78,12 +43,56 @@ public class JpegImageFilter extends ImageFilter {
 			Logger.error(this.getClass(), e.getMessage());
 		}
 		
-		
-		
-		
-		
 		return resultFile;
 	}
-	
+
+	/**
+	 * Flattens the image over a white background, jpeg has no alpha channel
+	 */
+	@Override
+	public BufferedImage filter(BufferedImage src, Map<String, String[]> parameters) {
+		BufferedImage dst = new BufferedImage(src.getWidth(), src.getHeight(), BufferedImage.TYPE_3BYTE_BGR);
+		Graphics2D graphics = dst.createGraphics();  
+
+		graphics.setPaint ( new Color ( 255, 255, 255 ) );
+
+		graphics.fillRect(0, 0, src.getWidth(), src.getHeight());
+		graphics.drawImage(src, 0, 0, src.getWidth(), src.getHeight(),null);
+		graphics.dispose();
+		return dst;
+	}
+
+	@Override
+	public void write(BufferedImage image, File resultFile, Map<String, String[]> parameters) throws IOException {
+		int quality = parameters.get(getPrefix() +"q") != null?Integer.parseInt(parameters.get(getPrefix() +"q")[0]):85;
+        boolean progressive = (parameters.get(getPrefix() +"p") != null);
+
+		Double q = new Double(quality);
+		q = q/100;
+
+		Iterator<ImageWriter> iter = ImageIO.getImageWritersByFormatName("jpeg");
+		ImageWriter writer = iter.next();
+		ImageWriteParam iwp = writer.getDefaultWriteParam();
+		iwp.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+		
+		iwp.setCompressionQuality(q.floatValue());   
+		if(progressive){
+		  iwp.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+		}
+		ImageOutputStream ios = ImageIO.createImageOutputStream(resultFile);
+		try {
+			writer.setOutput(ios);
+			writer.write(null,new IIOImage(image,null,null),iwp);
+			ios.flush();
+		} finally {
+			writer.dispose();
+			ios.close();
+		}
+	}
+
+	@Override
+	public String getFileExtension() {
+		return "jpg";
+	}
 
 }
@@ -37,38 +37,11 @@ public class PDFImageFilter extends ImageFilter {
     if (!overwrite(resultFile, parameters)) {
       return resultFile;
     }
-    int page = parameters.get(getPrefix() + "page") != null ? Integer.parseInt(parameters.get(getPrefix() + "page")[0]) : 1;
-
-    int dpi = parameters.get(getPrefix() + "dpi") != null ? Integer.parseInt(parameters.get(getPrefix() + "dpi")[0]) : 72;
 
-        
-        
-        
     resultFile.delete();
     try {
-      
-      System.setProperty("sun.java2d.cmm", Config.getStringProperty("IMAGE_COLOR_MANAGEMENT_SYSTEM",  "sun.java2d.cmm.kcms.KcmsServiceProvider"));
-      PDDocument document = PDDocument.load(file);
-      PDFRenderer pdfRenderer = new PDFRenderer(document);
-
-      BufferedImage bim = pdfRenderer.renderImageWithDPI(--page, dpi, ImageType.RGB);
-      Iterator<ImageWriter> iter = ImageIO.getImageWritersByFormatName("png");
-      ImageWriter writer = iter.next();
-      ImageWriteParam iwp = writer.getDefaultWriteParam();
-      BufferedImage dst = new BufferedImage(bim.getWidth(), bim.getHeight(), BufferedImage.TYPE_4BYTE_ABGR);
-      Graphics2D graphics = dst.createGraphics();
-
-      // graphics.fillRect(0, 0, src.getWidth(), src.getHeight());
-      graphics.drawImage(bim, 0, 0, bim.getWidth(), bim.getHeight(), null);
-      ImageOutputStream ios = ImageIO.createImageOutputStream(resultFile);
-      writer.setOutput(ios);
-      writer.write(null, new IIOImage(dst, null, null), iwp);
-      ios.flush();
-      writer.dispose();
-      ios.close();
-
-      document.close();
 
+      write(filter(read(file, parameters), parameters), resultFile, parameters);
 
     } catch (FileNotFoundException e) {
       Logger.error(this.getClass(), e.getMessage());
@@ -81,5 +54,51 @@ public class PDFImageFilter extends ImageFilter {
     return resultFile;
   }
 
+  /**
+   * Renders the requested page of the pdf
+   */
+  @Override
+  public BufferedImage read(File file, Map<String, String[]> parameters) throws IOException {
+    int page = parameters.get(getPrefix() + "page") != null ? Integer.parseInt(parameters.get(getPrefix() + "page")[0]) : 1;
+
+    int dpi = parameters.get(getPrefix() + "dpi") != null ? Integer.parseInt(parameters.get(getPrefix() + "dpi")[0]) : 72;
+
+    System.setProperty("sun.java2d.cmm", Config.getStringProperty("IMAGE_COLOR_MANAGEMENT_SYSTEM",  "sun.java2d.cmm.kcms.KcmsServiceProvider"));
+    PDDocument document = PDDocument.load(file);
+    try {
+      PDFRenderer pdfRenderer = new PDFRenderer(document);
+      return pdfRenderer.renderImageWithDPI(--page, dpi, ImageType.RGB);
+    } finally {
+      document.close();
+    }
+  }
+
+  @Override
+  public BufferedImage filter(BufferedImage bim, Map<String, String[]> parameters) {
+    BufferedImage dst = new BufferedImage(bim.getWidth(), bim.getHeight(), BufferedImage.TYPE_4BYTE_ABGR);
+    Graphics2D graphics = dst.createGraphics();
+
+    // graphics.fillRect(0, 0, src.getWidth(), src.getHeight());
+    graphics.drawImage(bim, 0, 0, bim.getWidth(), bim.getHeight(), null);
+    graphics.dispose();
+    return dst;
+  }
+
+  @Override
+  public void write(BufferedImage image, File resultFile, Map<String, String[]> parameters) throws IOException {
+    Iterator<ImageWriter> iter = ImageIO.getImageWritersByFormatName("png");
+    ImageWriter writer = iter.next();
+    ImageWriteParam iwp = writer.getDefaultWriteParam();
+    ImageOutputStream ios = ImageIO.createImageOutputStream(resultFile);
+    try {
+      writer.setOutput(ios);
+      writer.write(null, new IIOImage(image, null, null), iwp);
+      ios.flush();
+    } finally {
+      writer.dispose();
+      ios.close();
+    }
+  }
+
 
 }
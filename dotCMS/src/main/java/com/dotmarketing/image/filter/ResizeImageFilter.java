@@ -30,25 +30,11 @@ public class ResizeImageFilter extends ImageFilter {
 		
 		try {
 			
-			BufferedImage src = ImageIO.read(file);
 			if(w ==0 && h ==0){
 				return file;
 			}
 
-			
-			if(w ==0 && h >0){
-				w = Math.round(h * src.getWidth() / src.getHeight());
-			}
-			if(w >0 && h ==0){
-				h = Math.round(w * src.getHeight() / src.getWidth());
-			}
-			
-			int width    =      (int) w;    
-			int hieght     =     (int) h;
-
-
-			BufferedImageOp resampler = new ResampleOp(width, hieght, ResampleOp.FILTER_LANCZOS); // A good default filter, see class documentation for more info
-			BufferedImage output = resampler.filter(ImageIO.read(file), null);
+			BufferedImage output = filter(ImageIO.read(file), parameters);
 			ImageIO.write(output, "png", resultFile);
 			return resultFile;
 
@@ -61,4 +47,26 @@ public class ResizeImageFilter extends ImageFilter {
 		return resultFile;
 	}
 
+	@Override
+	public BufferedImage filter(BufferedImage src, Map<String, String[]> parameters) {
+		double w = parameters.get(getPrefix() +"w") != null?Integer.parseInt(parameters.get(getPrefix() +"w")[0]):0;
+		double h = parameters.get(getPrefix() +"h") != null?Integer.parseInt(parameters.get(getPrefix() +"h")[0]):0;
+
+		if(w ==0 && h ==0){
+			return src;
+		}
+		if(w ==0 && h >0){
+			w = Math.round(h * src.getWidth() / src.getHeight());
+		}
+		if(w >0 && h ==0){
+			h = Math.round(w * src.getHeight() / src.getWidth());
+		}
+
+		int width    =      (int) w;
+		int hieght     =     (int) h;
+
+		BufferedImageOp resampler = new ResampleOp(width, hieght, ResampleOp.FILTER_LANCZOS); // A good default filter, see class documentation for more info
+		return resampler.filter(src, null);
+	}
+
 }
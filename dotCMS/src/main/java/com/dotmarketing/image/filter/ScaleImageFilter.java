@@ -35,29 +35,10 @@ public class ScaleImageFilter extends ImageFilter {
 		
 		try {
 			
-			BufferedImage src = ImageIO.read(file);
 			if(w ==0 && h ==0){
 				return file;
 			}
-			if(w ==0 && h >0){
-				w = h * src.getWidth() / src.getHeight();
-			}
-			if(w >0 && h ==0){
-				h =w * src.getHeight() / src.getWidth();
-			}
-			
-			
-			
-			
-			
-			
-			
-			ScaleFilter filter = new ScaleFilter(w,h);
-
-			BufferedImage dst = new BufferedImage(w, h,
-					BufferedImage.TYPE_INT_ARGB);
-
-			 dst = filter.filter(src, dst);
+			BufferedImage dst = filter(ImageIO.read(file), parameters);
 			ImageIO.write(dst, "png", resultFile);
 			return resultFile;
 
@@ -73,6 +54,28 @@ public class ScaleImageFilter extends ImageFilter {
 		
 		return resultFile;
 	}
-	
+
+	@Override
+	public BufferedImage filter(BufferedImage src, Map<String, String[]> parameters) {
+		int w = parameters.get(getPrefix() +"w") != null?Integer.parseInt(parameters.get(getPrefix() +"w")[0]):0;
+		int h = parameters.get(getPrefix() +"h") != null?Integer.parseInt(parameters.get(getPrefix() +"h")[0]):0;
+
+		if(w ==0 && h ==0){
+			return src;
+		}
+		if(w ==0 && h >0){
+			w = h * src.getWidth() / src.getHeight();
+		}
+		if(w >0 && h ==0){
+			h =w * src.getHeight() / src.getWidth();
+		}
+
+		ScaleFilter filter = new ScaleFilter(w,h);
+
+		BufferedImage dst = new BufferedImage(w, h,
+				BufferedImage.TYPE_INT_ARGB);
+
+		return filter.filter(src, dst);
+	}
 
 }
@@ -2,6 +2,7 @@ package com.dotmarketing.init;
 
 import static com.dotmarketing.util.WebKeys.DOTCMS_DISABLE_WEBSOCKET_PROTOCOL;
 
+import com.dotcms.api.system.event.SystemEventBus;
 import com.dotcms.enterprise.DashboardProxy;
 import com.dotcms.enterprise.linkchecker.LinkCheckerJob;
 import com.dotcms.job.system.event.DeleteOldSystemEventsJob;
@@ -777,8 +778,8 @@ public class DotInitScheduler {
                 }
             }
 
-			if ( !Config.getBooleanProperty(DOTCMS_DISABLE_WEBSOCKET_PROTOCOL, false) ) {
-				// Enabling the System Events Job
+			if ( !Config.getBooleanProperty(DOTCMS_DISABLE_WEBSOCKET_PROTOCOL, false) && !SystemEventBus.isEnabled() ) {
+				// Enabling the System Events Job, the bus delivers the events when it is enabled
 				addSystemEventsJob();
 			}
 
@@ -319,6 +319,24 @@ public interface ContentletAPI {
 	 */
 	public List<Contentlet> search(String luceneQuery, int limit, int offset, String sortBy, User user, boolean respectFrontendRoles, int requiredPermission) throws DotDataException, DotSecurityException;
 
+	/**
+	 * Same as {@link #search(String, int, int, String, User, boolean)} for read only front end queries. When
+	 * ELASTICSEARCH_HYDRATE_FROM_SOURCE is enabled, the contentlets that are not cached are built from the source
+	 * stored in the index with them, without going to the database. The contentlets indexed before it was enabled,
+	 * or before their content type last changed, are still loaded from the database.
+	 * The returned contentlets are not meant to be modified and saved.
+	 * @param luceneQuery
+	 * @param limit
+	 * @param offset
+	 * @param sortBy indexName(previously known as dbColumnName) to order by. Can be null or empty string
+	 * @param user
+	 * @param respectFrontendRoles
+	 * @return
+	 * @throws DotDataException
+	 * @throws DotSecurityException
+	 */
+	public List<Contentlet> searchFromIndex(String luceneQuery, int limit, int offset, String sortBy, User user, boolean respectFrontendRoles) throws DotDataException, DotSecurityException;
+
 	/**
 	 * Adds the permissions query fragment to the given query based on the given user and roles
 	 *
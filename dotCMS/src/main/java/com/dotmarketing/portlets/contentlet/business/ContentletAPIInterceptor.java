@@ -1542,6 +1542,22 @@ public class ContentletAPIInterceptor implements ContentletAPI, Interceptor {
 		return c;
 	}
 
+	@Override
+	public List<Contentlet> searchFromIndex(String luceneQuery, int limit, int offset, String sortBy, User user, boolean respectFrontendRoles) throws DotDataException, DotSecurityException {
+		for(ContentletAPIPreHook pre : preHooks){
+			boolean preResult = pre.searchFromIndex(luceneQuery, limit, offset, sortBy, user, respectFrontendRoles);
+			if(!preResult){
+				Logger.error(this, "The following prehook failed " + pre.getClass().getName());
+				throw new DotRuntimeException("The following prehook failed " + pre.getClass().getName());
+			}
+		}
+		List<Contentlet> c = conAPI.searchFromIndex(luceneQuery, limit, offset, sortBy, user, respectFrontendRoles);
+		for(ContentletAPIPostHook post : postHooks){
+			post.searchFromIndex(luceneQuery, limit, offset, sortBy, user, respectFrontendRoles,c);
+		}
+		return c;
+	}
+
 	@Override
 	public void addPermissionsToQuery ( StringBuffer buffy, User user, List<Role> roles, boolean respectFrontendRoles ) throws DotSecurityException, DotDataException {
 		for ( ContentletAPIPreHook pre : preHooks ) {
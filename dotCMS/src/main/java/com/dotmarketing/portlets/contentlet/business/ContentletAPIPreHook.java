@@ -272,6 +272,20 @@ public interface ContentletAPIPreHook {
       return true;
     }
 
+	/**
+	 * Same as the search, for read only front end queries that can build the contentlets from the index
+	 * @param luceneQuery
+	 * @param limit
+	 * @param offset
+	 * @param sortBy indexName(previously known as dbColumnName) to order by. Can be null or empty string
+	 * @param user
+	 * @param respectFrontendRoles
+	 * @return
+	 */
+	public default boolean searchFromIndex(String luceneQuery, int limit, int offset, String sortBy, User user, boolean respectFrontendRoles){
+      return true;
+    }
+
 	/**
 	 * The search here takes a lucene query and pulls LuceneHits for you.  You can pass sortBy as null if you do not 
 	 * have a field to sort by.  limit should be 0 if no limit and the offset should be -1 is you are not paginating.
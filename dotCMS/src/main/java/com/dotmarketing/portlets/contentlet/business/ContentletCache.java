@@ -2,7 +2,11 @@ package com.dotmarketing.portlets.contentlet.business;
 
 import com.dotcms.content.elasticsearch.business.ESContentFactoryImpl.TranslatedQuery;
 import com.dotmarketing.business.Cachable;
+import com.dotmarketing.common.model.ContentletSearch;
 import com.dotmarketing.portlets.contentlet.model.Contentlet;
+import com.dotmarketing.util.PaginatedArrayList;
+import java.util.Collection;
+import java.util.Map;
 
 //This interface should have default package access
 public abstract class ContentletCache implements Cachable {
@@ -22,6 +26,30 @@ public abstract class ContentletCache implements Cachable {
     public abstract void addTranslatedQuery(String key, TranslatedQuery translatedQuery);
 
     public abstract TranslatedQuery getTranslatedQuery(String key);
+
+    /**
+     * Versions of the dependencies of a query (see {@link ContentletQueryResult#getQueryDependencies(String)}),
+     * to be read before the query is run and passed to {@link #addQueryResult(String, Map, PaginatedArrayList)}
+     */
+    public abstract Map<String, Long> getQueryVersions(String query);
+
+    /**
+     * The cached hits of a content search, null if they are not cached or a contentlet the query depends on
+     * changed since they were read
+     */
+    public abstract PaginatedArrayList<ContentletSearch> getQueryResult(String key);
+
+    public abstract void addQueryResult(String key, Map<String, Long> versions, PaginatedArrayList<ContentletSearch> results);
+
+    /**
+     * Invalidates the cached hits of the queries that depend on the content types and sites of the contentlets
+     */
+    public abstract void invalidateQueryResults(Collection<Contentlet> contentlets);
+
+    /**
+     * Removes all the cached hits
+     */
+    public abstract void clearQueryResults();
     
     public abstract String getMetadata(String key);
 
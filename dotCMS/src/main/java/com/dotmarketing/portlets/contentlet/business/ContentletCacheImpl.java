@@ -12,6 +12,7 @@ import com.dotmarketing.business.CacheLocator;
 import com.dotmarketing.business.DotCacheAdministrator;
 import com.dotmarketing.business.DotCacheException;
 import com.dotmarketing.business.DotStateException;
+import com.dotmarketing.common.model.ContentletSearch;
 import com.dotmarketing.exception.DotDataException;
 import com.dotmarketing.exception.DotRuntimeException;
 import com.dotmarketing.exception.DotSecurityException;
@@ -19,9 +20,17 @@ import com.dotmarketing.portlets.contentlet.model.Contentlet;
 import com.dotmarketing.portlets.fileassets.business.FileAssetAPI;
 import com.dotmarketing.portlets.structure.model.Field;
 import com.dotmarketing.portlets.structure.model.Structure;
+import com.dotmarketing.util.Config;
 import com.dotmarketing.util.InodeUtils;
 import com.dotmarketing.util.Logger;
+import com.dotmarketing.util.PaginatedArrayList;
 import com.dotmarketing.util.UtilMethods;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author Jason Tesser
@@ -34,8 +43,16 @@ public class ContentletCacheImpl extends ContentletCache {
 	private String primaryGroup = "ContentletCache";
 	private String metadataGroup = "FileAssetMetadataCache";
 	private String translatedQueryGroup = "TranslatedQueryCache";
+	private String queryResultGroup = "ContentletQueryResultCache";
+	private String queryVersionGroup = "ContentletQueryVersionCache";
+	private String queryHostGroup = "ContentletQueryHostCache";
 	// region's name for the cache
-	private String[] groupNames = {primaryGroup, HostCache.PRIMARY_GROUP, metadataGroup,translatedQueryGroup};
+	private String[] groupNames = {primaryGroup, HostCache.PRIMARY_GROUP, metadataGroup,translatedQueryGroup,
+			queryResultGroup, queryVersionGroup, queryHostGroup};
+
+	// versions are only compared on the node that created them, they just need to be unique here
+	private final AtomicLong queryVersionClock = new AtomicLong();
+	private final ContentletQueryCacheStats queryStats = ContentletQueryCacheStats.getInstance();
 
 	public ContentletCacheImpl() {
 		cache = CacheLocator.getCacheAdministrator();
@@ -61,6 +78,122 @@ public class ContentletCacheImpl extends ContentletCache {
 		}
 	}
 
+	@Override
+	public Map<String, Long> getQueryVersions(final String query) {
+
+		final Map<String, Long> versions = new HashMap<>();
+		for (final String dependency : ContentletQueryResult.getQueryDependencies(query)) {
+			final Object version = cache.getNoThrow(dependency, queryVersionGroup);
+			if (version instanceof Long) {
+				versions.put(dependency, (Long) version);
+			} else {
+				// a removed version is created again, so the results read with the old one are stale
+				final long newVersion = queryVersionClock
+						.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis()));
+				cache.put(dependency, newVersion, queryVersionGroup);
+				versions.put(dependency, newVersion);
+			}
+		}
+		return versions;
+	}
+
+	@Override
+	public PaginatedArrayList<ContentletSearch> getQueryResult(final String key) {
+
+		final Object cached = cache.getNoThrow(key, queryResultGroup);
+		if (!(cached instanceof ContentletQueryResult)) {
+			queryStats.recordMiss();
+			return null;
+		}
+
+		final ContentletQueryResult result = (ContentletQueryResult) cached;
+		final long maxAgeMillis = Config.getLongProperty("CONTENT_QUERY_CACHE_MAX_AGE_SECONDS", 300) * 1000;
+		boolean stale = System.currentTimeMillis() - result.getCreated() > maxAgeMillis;
+		for (final Map.Entry<String, Long> version : result.getVersions().entrySet()) {
+			stale = stale || !version.getValue().equals(cache.getNoThrow(version.getKey(), queryVersionGroup));
+		}
+		if (stale) {
+			queryStats.recordStale();
+			return null;
+		}
+
+		queryStats.recordHit();
+		return result.getResults();
+	}
+
+	@Override
+	public void addQueryResult(final String key, final Map<String, Long> versions,
+			final PaginatedArrayList<ContentletSearch> results) {
+
+		if (results.size() > Config.getIntProperty("CONTENT_QUERY_CACHE_MAX_RESULTS", 1000)) {
+			return;
+		}
+
+		// the index shows a change up to a refresh interval after it is written, results read in the
+		// meantime could miss it
+		final long refreshWindow = Config.getLongProperty("CONTENT_QUERY_CACHE_REFRESH_WINDOW_MILLIS", 1000);
+		final long now = System.currentTimeMillis();
+		for (final Map.Entry<String, Long> version : versions.entrySet()) {
+			if (!version.getValue().equals(cache.getNoThrow(version.getKey(), queryVersionGroup))
+					|| now < version.getValue() + refreshWindow) {
+				queryStats.recordSkipped();
+				return;
+			}
+		}
+
+		cache.put(key, new ContentletQueryResult(results, versions), queryResultGroup);
+		queryStats.recordStored();
+	}
+
+	@Override
+	public void invalidateQueryResults(final Collection<Contentlet> contentlets) {
+
+		final Set<String> dependencies = new HashSet<>();
+		for (final Contentlet contentlet : contentlets) {
+			final Structure structure = null != contentlet ? contentlet.getStructure() : null;
+			if (null != structure) {
+				dependencies.addAll(ContentletQueryResult
+						.getChangeDependencies(structure.getVelocityVarName(), contentlet.getHost()));
+				addHostChangeDependencies(contentlet, structure, dependencies);
+			}
+		}
+
+		// removals reach the whole cluster
+		for (final String dependency : dependencies) {
+			cache.remove(dependency, queryVersionGroup);
+		}
+		if (!dependencies.isEmpty()) {
+			queryStats.recordInvalidation();
+		}
+	}
+
+	/**
+	 * The site a contentlet was indexed with is kept, when it changes the results of the queries on
+	 * the previous site are invalidated too, the ones of every site when it is not known
+	 */
+	private void addHostChangeDependencies(final Contentlet contentlet, final Structure structure,
+			final Set<String> dependencies) {
+
+		final String identifier = contentlet.getIdentifier();
+		final String host = contentlet.getHost();
+		if (!UtilMethods.isSet(identifier) || !UtilMethods.isSet(host)) {
+			return;
+		}
+
+		final Object previousHost = cache.getNoThrow(identifier, queryHostGroup);
+		if (!host.equals(previousHost)) {
+			dependencies.addAll(ContentletQueryResult.getHostChangeDependencies(structure.getVelocityVarName(),
+					previousHost instanceof String ? (String) previousHost : null));
+			cache.put(identifier, host, queryHostGroup);
+		}
+	}
+
+	@Override
+	public void clearQueryResults() {
+		cache.flushGroup(queryResultGroup);
+		queryStats.recordInvalidation();
+	}
+
 	@Override
 	public void addMetadata(String key, String metadata) {
 		key = metadataGroup + key;
@@ -5,14 +5,17 @@ import com.dotmarketing.beans.Identifier;
 import com.dotmarketing.business.DotStateException;
 import com.dotmarketing.business.query.GenericQueryFactory.Query;
 import com.dotmarketing.business.query.ValidationException;
+import com.dotmarketing.common.model.ContentletSearch;
 import com.dotmarketing.exception.DotDataException;
 import com.dotmarketing.exception.DotSecurityException;
 import com.dotmarketing.portlets.contentlet.model.Contentlet;
 import com.dotmarketing.portlets.folders.model.Folder;
 import com.dotmarketing.portlets.links.model.Link;
 import com.dotmarketing.portlets.structure.model.Field;
+import com.dotmarketing.util.PaginatedArrayList;
 import com.liferay.portal.model.User;
 import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.search.SearchHits;
 
 import java.io.Serializable;
@@ -106,6 +109,17 @@ public abstract class ContentletFactory {
 	 */
 	protected abstract List<Contentlet> findContentlets(List<String> inodes) throws DotDataException, DotSecurityException;
 
+	/**
+	 * Gets the Contentlets of the hits of an index search, in the order of the hits. The contentlets that are not
+	 * cached are built from the source stored in the index, see {@link #indexSearch(String, QueryBuilder, int, int, String, boolean)},
+	 * and only the ones without a usable source are loaded from the database.
+	 * @param hits
+	 * @return
+	 * @throws DotDataException
+	 * @throws DotSecurityException
+	 */
+	protected abstract List<Contentlet> findContentletsFromIndex(SearchHits hits) throws DotDataException, DotSecurityException;
+
 	/**
 	 * Returns all Contentlets for a specific structure
 	 * @param structureInode
@@ -150,6 +164,44 @@ public abstract class ContentletFactory {
 	 * @return
 	 */
 	protected abstract SearchHits indexSearch(String luceneQuery, int limit, int offset, String sortBy);
+
+	/**
+	 * Same as {@link #indexSearch(String, int, int, String)}, with a filter that is applied to the lucene query
+	 * without scoring, like the permissions of the user
+	 * @param luceneQuery
+	 * @param filter the filter, null for none
+	 * @param limit
+	 * @param offset
+	 * @param sortBy
+	 * @return
+	 */
+	protected abstract SearchHits indexSearch(String luceneQuery, QueryBuilder filter, int limit, int offset, String sortBy);
+
+	/**
+	 * Same as {@link #indexSearch(String, QueryBuilder, int, int, String)}, optionally fetching the contentlet source
+	 * stored in the index with the hits
+	 * @param luceneQuery
+	 * @param filter the filter, null for none
+	 * @param limit
+	 * @param offset
+	 * @param sortBy
+	 * @param fetchContentletSource whether to fetch the stored contentlet source
+	 * @return
+	 */
+	protected abstract SearchHits indexSearch(String luceneQuery, QueryBuilder filter, int limit, int offset, String sortBy, boolean fetchContentletSource);
+
+	/**
+	 * Same as {@link #indexSearch(String, QueryBuilder, int, int, String)}, returning the inodes and identifiers of
+	 * the hits. The results are cached by the {@link ContentletCache} until a contentlet of a content type or site
+	 * the query depends on is indexed.
+	 * @param luceneQuery
+	 * @param filter the filter, null for none
+	 * @param limit
+	 * @param offset
+	 * @param sortBy
+	 * @return
+	 */
+	protected abstract PaginatedArrayList<ContentletSearch> indexSearchResults(String luceneQuery, QueryBuilder filter, int limit, int offset, String sortBy);
 	
 	/**
 	 * Returns the contentlets on a given page.  You can pass -1 for languageId if you don't want to query to pull based
@@ -368,6 +420,13 @@ public abstract class ContentletFactory {
     
     protected abstract long indexCount(String query);
 
+	/**
+	 * Counts the results of the query with a filter applied, like the permissions of the user
+	 * @param query
+	 * @param filter the filter, null for none
+	 */
+	protected abstract long indexCount(String query, QueryBuilder filter);
+
 	/**
 	 * This indexCount will use the thirdparty mechanism to async known when the query is returning something.
 	 * @param query          {@link String} query to test if get results
@@ -0,0 +1,84 @@
+package com.dotmarketing.portlets.contentlet.business;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the content search results kept by the {@link ContentletCache}: searches answered
+ * from the cache, not found, found but invalidated (stale), results stored or not stored because
+ * the index may not show a change yet, and invalidations. Exposed over JMX as
+ * {@link #MBEAN_OBJECT_NAME}.
+ */
+public class ContentletQueryCacheStats implements ContentletQueryCacheStatsMBean {
+
+    public static final String MBEAN_OBJECT_NAME = "org.dotcms:type=ContentletQueryCache";
+
+    private static final ContentletQueryCacheStats INSTANCE = new ContentletQueryCacheStats();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+    private final LongAdder stored = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    private ContentletQueryCacheStats() {
+        // singleton
+    }
+
+    public static ContentletQueryCacheStats getInstance() {
+        return INSTANCE;
+    }
+
+    void recordHit() {
+        hits.increment();
+    }
+
+    void recordMiss() {
+        misses.increment();
+    }
+
+    void recordStale() {
+        stale.increment();
+    }
+
+    void recordStored() {
+        stored.increment();
+    }
+
+    void recordSkipped() {
+        skipped.increment();
+    }
+
+    void recordInvalidation() {
+        invalidations.increment();
+    }
+
+    @Override
+    public double getHitRate() {
+        final long hitCount = hits.sum();
+        final long lookups = hitCount + misses.sum() + stale.sum();
+        return lookups > 0 ? (double) hitCount / lookups : 0;
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+
+        final Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("stale", stale.sum());
+        stats.put("hitRate", getHitRate());
+        stats.put("stored", stored.sum());
+        stats.put("skipped", skipped.sum());
+        stats.put("invalidations", invalidations.sum());
+        return stats;
+    }
+
+    @Override
+    public String getObjectName() {
+        return MBEAN_OBJECT_NAME;
+    }
+
+}
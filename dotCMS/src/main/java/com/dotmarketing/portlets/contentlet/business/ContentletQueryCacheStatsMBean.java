@@ -0,0 +1,24 @@
+package com.dotmarketing.portlets.contentlet.business;
+
+import com.dotcms.jmx.DotMBean;
+
+import java.util.Map;
+
+/**
+ * Encapsulates the MBean interface for the {@link ContentletQueryCacheStats}
+ */
+public interface ContentletQueryCacheStatsMBean extends DotMBean {
+
+    /**
+     * Fraction of the cacheable searches answered from the cache
+     * @return double
+     */
+    public double getHitRate();
+
+    /**
+     * Gets the counters of the content search result cache
+     * @return Map
+     */
+    public Map<String, Object> getStats();
+
+}
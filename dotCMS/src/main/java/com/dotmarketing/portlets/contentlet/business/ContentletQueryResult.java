@@ -0,0 +1,237 @@
+package com.dotmarketing.portlets.contentlet.business;
+
+import com.dotmarketing.common.model.ContentletSearch;
+import com.dotmarketing.util.PaginatedArrayList;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * The hits (inode, identifier and score) of a content search, as kept by the {@link ContentletCache},
+ * with the versions of the dependencies of the query they were read with.
+ * <p/>
+ * A query depends on the content types and sites it requires at its top level
+ * (<code>+contentType:news +conhost:abc</code>), or on any content change when it does not require
+ * one. A change of a contentlet invalidates the dependencies of its content type and site (see
+ * {@link #getChangeDependencies(String, String)}), so only the results of the queries that could
+ * have matched it are read again.
+ * <p/>
+ * The queries that require a site also depend on every site (<code>host:*</code>, or
+ * <code>type:news|host:*</code> with a content type), invalidated when a contentlet leaves a site
+ * that is not known (see {@link #getHostChangeDependencies(String, String)}).
+ */
+public class ContentletQueryResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Dependency of the queries that do not require a content type or site
+     */
+    public static final String ANY_CHANGE = "*";
+
+    private static final String TYPE_PREFIX = "type:";
+    private static final String HOST_PREFIX = "host:";
+    private static final String ANY_HOST = HOST_PREFIX + ANY_CHANGE;
+    private static final String[] TYPE_FIELDS = {"+structurename:", "+contenttype:"};
+    private static final String HOST_FIELD = "+conhost:";
+    private static final Pattern TERM = Pattern.compile("[a-z0-9_\\-]+");
+
+    private final String[] inodes;
+    private final String[] identifiers;
+    private final float[] scores;
+    private final long totalResults;
+    private final long created;
+    private final Map<String, Long> versions;
+
+    /**
+     * @param results the hits of the query
+     * @param versions the versions of the dependencies of the query, read before it was run
+     */
+    public ContentletQueryResult(final PaginatedArrayList<ContentletSearch> results,
+            final Map<String, Long> versions) {
+
+        final int size = results.size();
+        this.inodes = new String[size];
+        this.identifiers = new String[size];
+        this.scores = new float[size];
+        for (int i = 0; i < size; i++) {
+            final ContentletSearch hit = results.get(i);
+            this.inodes[i] = hit.getInode();
+            this.identifiers[i] = hit.getIdentifier();
+            this.scores[i] = hit.getScore();
+        }
+        this.totalResults = results.getTotalResults();
+        this.created = System.currentTimeMillis();
+        this.versions = new HashMap<>(versions);
+    }
+
+    /**
+     * A new list with the hits, the callers are free to change it
+     *
+     * @return
+     */
+    public PaginatedArrayList<ContentletSearch> getResults() {
+
+        final PaginatedArrayList<ContentletSearch> results = new PaginatedArrayList<>();
+        results.setTotalResults(this.totalResults);
+        for (int i = 0; i < this.inodes.length; i++) {
+            final ContentletSearch hit = new ContentletSearch();
+            hit.setInode(this.inodes[i]);
+            hit.setIdentifier(this.identifiers[i]);
+            hit.setScore(this.scores[i]);
+            results.add(hit);
+        }
+        return results;
+    }
+
+    public Map<String, Long> getVersions() {
+        return Collections.unmodifiableMap(this.versions);
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public int size() {
+        return this.inodes.length;
+    }
+
+    /**
+     * The dependencies of a lucene query: the pairs of content type and site when it requires
+     * both, else the content types or sites it requires, else {@link #ANY_CHANGE}, plus the
+     * dependency on every site when it requires one. Only the required clauses at the top level
+     * count, the ones inside a group can be negated or optional.
+     *
+     * @param query
+     * @return
+     */
+    public static Set<String> getQueryDependencies(final String query) {
+
+        final Set<String> types = new LinkedHashSet<>();
+        final Set<String> hosts = new LinkedHashSet<>();
+        for (final String clause : getTopLevelClauses(query.toLowerCase(Locale.ROOT))) {
+            for (final String typeField : TYPE_FIELDS) {
+                addTerm(clause, typeField, types);
+            }
+            addTerm(clause, HOST_FIELD, hosts);
+        }
+
+        final Set<String> dependencies = new LinkedHashSet<>();
+        if (!types.isEmpty() && !hosts.isEmpty()) {
+            for (final String type : types) {
+                for (final String host : hosts) {
+                    dependencies.add(TYPE_PREFIX + type + "|" + HOST_PREFIX + host);
+                }
+                dependencies.add(TYPE_PREFIX + type + "|" + ANY_HOST);
+            }
+        } else if (!types.isEmpty()) {
+            types.forEach(type -> dependencies.add(TYPE_PREFIX + type));
+        } else if (!hosts.isEmpty()) {
+            hosts.forEach(host -> dependencies.add(HOST_PREFIX + host));
+            dependencies.add(ANY_HOST);
+        } else {
+            dependencies.add(ANY_CHANGE);
+        }
+        return dependencies;
+    }
+
+    /**
+     * The dependencies a change of a contentlet of the given content type and site invalidates
+     *
+     * @param contentType velocity var name of the content type
+     * @param hostId identifier of the site
+     * @return
+     */
+    public static Set<String> getChangeDependencies(final String contentType, final String hostId) {
+
+        final Set<String> dependencies = new LinkedHashSet<>();
+        dependencies.add(ANY_CHANGE);
+        final String type = null == contentType ? null : contentType.toLowerCase(Locale.ROOT);
+        final String host = null == hostId ? null : hostId.toLowerCase(Locale.ROOT);
+        if (null != type) {
+            dependencies.add(TYPE_PREFIX + type);
+        }
+        if (null != host) {
+            dependencies.add(HOST_PREFIX + host);
+        }
+        if (null != type && null != host) {
+            dependencies.add(TYPE_PREFIX + type + "|" + HOST_PREFIX + host);
+        }
+        return dependencies;
+    }
+
+    /**
+     * The dependencies a contentlet of the given content type invalidates when it moves from a site
+     * to another: the ones of the previous site, or of every site when the previous one is not known
+     *
+     * @param contentType velocity var name of the content type
+     * @param previousHostId identifier of the site the contentlet was on, null if not known
+     * @return
+     */
+    public static Set<String> getHostChangeDependencies(final String contentType, final String previousHostId) {
+
+        if (null != previousHostId) {
+            return getChangeDependencies(contentType, previousHostId);
+        }
+        final Set<String> dependencies = getChangeDependencies(contentType, null);
+        dependencies.add(ANY_HOST);
+        if (null != contentType) {
+            dependencies.add(TYPE_PREFIX + contentType.toLowerCase(Locale.ROOT) + "|" + ANY_HOST);
+        }
+        return dependencies;
+    }
+
+    private static void addTerm(final String clause, final String field, final Set<String> terms) {
+
+        if (clause.startsWith(field)) {
+            final String term = clause.substring(field.length());
+            if (TERM.matcher(term).matches()) {
+                terms.add(term);
+            }
+        }
+    }
+
+    /**
+     * Splits the query by the white space outside of groups and quotes
+     */
+    private static List<String> getTopLevelClauses(final String query) {
+
+        final List<String> clauses = new ArrayList<>();
+        final StringBuilder clause = new StringBuilder();
+        int depth = 0;
+        boolean quoted = false;
+        for (int i = 0; i < query.length(); i++) {
+            final char character = query.charAt(i);
+            if (character == '\\' && i + 1 < query.length()) {
+                clause.append(character).append(query.charAt(++i));
+                continue;
+            }
+            if (character == '"') {
+                quoted = !quoted;
+            } else if (!quoted && character == '(') {
+                depth++;
+            } else if (!quoted && character == ')') {
+                depth = Math.max(0, depth - 1);
+            } else if (!quoted && depth == 0 && Character.isWhitespace(character)) {
+                if (clause.length() > 0) {
+                    clauses.add(clause.toString());
+                    clause.setLength(0);
+                }
+                continue;
+            }
+            clause.append(character);
+        }
+        if (clause.length() > 0) {
+            clauses.add(clause.toString());
+        }
+        return clauses;
+    }
+
+}
@@ -9,10 +9,15 @@ import java.util.Map;
 import com.dotmarketing.business.APILocator;
 import com.dotmarketing.business.UserAPI;
 import com.dotmarketing.image.filter.ImageFilter;
+import com.dotmarketing.image.filter.ImageFilterExecutor;
+import com.dotmarketing.image.filter.ImageFilterOverloadedException;
+import com.dotmarketing.image.filter.ImageFilterPipeline;
+import com.dotmarketing.image.filter.ImageFilterStats;
 import com.dotmarketing.image.filter.PDFImageFilter;
 import com.dotmarketing.portlets.contentlet.business.BinaryContentExporter;
 import com.dotmarketing.portlets.contentlet.business.BinaryContentExporterException;
 import com.dotmarketing.portlets.contentlet.business.ContentletAPI;
+import com.dotmarketing.util.Config;
 import com.dotmarketing.util.Logger;
 
 /**
@@ -23,6 +28,12 @@ import com.dotmarketing.util.Logger;
  * You can chain filters so that you resize then crop to 
  * produce the resulting image
  * 
+ * By default the chain runs in memory through an {@link ImageFilterPipeline}: the image is
+ * decoded once and only the final result is written. Set IMAGE_FILTER_PIPELINE_ENABLED=false
+ * to run every filter on the file written by the previous one instead.
+ * 
+ * Images that were not generated yet are transformed on the {@link ImageFilterExecutor},
+ * not on the request thread, unless IMAGE_FILTER_EXECUTOR_ENABLED=false.
  * 
  */
 
@@ -62,13 +73,13 @@ public class ImageFilterExporter implements BinaryContentExporter {
 
            parameters.put("filter", filters.toArray(new String[filters.size()]));
            parameters.put("filters", filters.toArray(new String[filters.size()]));
+			List<ImageFilter> imageFilters = new ArrayList<>();
 			for(String s : filters){
 				String clazz =null;
 				try {
 					clazz ="com.dotmarketing.image.filter." + s + "ImageFilter";
 					Class<ImageFilter> iFilter = (Class<ImageFilter>) Class.forName( clazz );
-					ImageFilter i=	iFilter.newInstance();
-					file = i.runFilter(file,   parameters);
+					imageFilters.add(iFilter.newInstance());
 				} catch (ClassNotFoundException e) {
 					Logger.error(ImageFilterExporter.class, "Unable to instanciate : " +  clazz );
 				} catch (InstantiationException e) {
@@ -76,14 +87,37 @@ public class ImageFilterExporter implements BinaryContentExporter {
 				} catch (IllegalAccessException e) {
 					Logger.error(ImageFilterExporter.class, "IllegalAccessException : " +  clazz );
 				}
-				catch (Exception e) {
-					Logger.error(ImageFilterExporter.class, "Exception in " +  clazz + " :" + e.getMessage() + e.getStackTrace()[0] );
+			}
+
+			final File source = file;
+			final ImageFilterPipeline pipeline = new ImageFilterPipeline(imageFilters);
+			final boolean inMemory = Config.getBooleanProperty("IMAGE_FILTER_PIPELINE_ENABLED", true);
+
+			File cached = null;
+			if(inMemory){
+				try {
+					cached = pipeline.getCachedResult(source, parameters);
+				} catch (Exception e) {
+					Logger.debug(ImageFilterExporter.class, "Unable to find the generated image for " + filters + ": " + e.getMessage());
 				}
 			}
 
+			if(cached != null){
+				file = cached;
+			}
+			else if(Config.getBooleanProperty("IMAGE_FILTER_EXECUTOR_ENABLED", true)){
+				file = ImageFilterExecutor.getInstance().execute(pipeline.getKey(source, parameters),
+						() -> transform(pipeline, imageFilters, source, parameters, inMemory));
+			}
+			else{
+				file = transform(pipeline, imageFilters, source, parameters, inMemory);
+			}
+
 
 			data = new BinaryContentExporterData(file);
 			
+		} catch (ImageFilterOverloadedException e) {
+			throw e;
 		} catch (Exception e) {
 			Logger.error(ImageFilterExporter.class, e.getMessage(), e);
 			throw new BinaryContentExporterException(e.getMessage(), e);
@@ -92,6 +126,35 @@ public class ImageFilterExporter implements BinaryContentExporter {
 		return data;
 	}
 
+	private File transform(ImageFilterPipeline pipeline, List<ImageFilter> imageFilters, File file,
+			Map<String, String[]> parameters, boolean inMemory) {
+		if(inMemory){
+			try {
+				return pipeline.runFilters(file, parameters);
+			} catch (Exception e) {
+				Logger.warn(ImageFilterExporter.class, "Unable to run the filters " + Arrays.toString(parameters.get("filter")) + " in memory, running them one by one: " + e.getMessage());
+			}
+		}
+		return runFilters(imageFilters, file, parameters);
+	}
+
+	/**
+	 * Runs every filter on the file written by the previous one
+	 */
+	private File runFilters(List<ImageFilter> imageFilters, File file, Map<String, String[]> parameters) {
+		for(ImageFilter i : imageFilters){
+			try {
+				long start = System.nanoTime();
+				file = i.runFilter(file,   parameters);
+				ImageFilterStats.getInstance().recordTransform(i, start);
+			}
+			catch (Exception e) {
+				Logger.error(ImageFilterExporter.class, "Exception in " +  i.getClass().getName() + " :" + e.getMessage() + e.getStackTrace()[0] );
+			}
+		}
+		return file;
+	}
+
 	public String getName() {
 		return "Image Filter Exporter";
 	}
@@ -19,6 +19,7 @@ import com.dotmarketing.db.DbConnectionFactory;
 import com.dotmarketing.exception.DotDataException;
 import com.dotmarketing.exception.DotRuntimeException;
 import com.dotmarketing.exception.DotSecurityException;
+import com.dotmarketing.image.filter.ImageFilterOverloadedException;
 import com.dotmarketing.portlets.contentlet.business.BinaryContentExporter;
 import com.dotmarketing.portlets.contentlet.business.BinaryContentExporterException;
 import com.dotmarketing.portlets.contentlet.business.ContentletAPI;
@@ -38,7 +39,6 @@ import com.liferay.portal.model.User;
 import com.liferay.util.FileUtil;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.RandomAccessFile;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -196,7 +196,6 @@ public class BinaryExporterServlet extends HttpServlet {
         
 		ServletOutputStream out = null;
 		RandomAccessFile input = null;
-		InputStream is = null;
         
 		try {
 			User user = userWebAPI.getLoggedInUser(req);
@@ -472,16 +471,14 @@ public class BinaryExporterServlet extends HttpServlet {
 						SpeedyAssetServletUtil.ByteRange full = new SpeedyAssetServletUtil.ByteRange(0, data.getDataFile().length() - 1, data.getDataFile().length());
 						if (ranges.isEmpty() || ranges.get(0).equals(full)) {
 							// Return full file.
-							input = new RandomAccessFile(data.getDataFile(), "r");
 							SpeedyAssetServletUtil.ByteRange r = full;
 							resp.setContentType(fileAssetAPI.getMimeType(data.getDataFile().getName()));
 							resp.setHeader("Content-Range", "bytes " + r.start + "-" + r.end + "/" + r.total);
 							resp.setHeader("Content-Length", String.valueOf(r.length));
 							// Copy full range.
-							SpeedyAssetServletUtil.copy(input, out, r.start, r.length);
+							SpeedyAssetServletUtil.serve(req, resp, data.getDataFile(), r.start, r.length);
 						} else if (ranges.size() == 1){
 							SpeedyAssetServletUtil.ByteRange range = ranges.get(0);
-							input = new RandomAccessFile(data.getDataFile(), "r");
 							// Check if Range is syntactically valid. If not, then return 416.
 							if (range.start > range.end) {
 								resp.setHeader("Content-Range", "bytes */" + fileLen); // Required in 416.
@@ -492,7 +489,7 @@ public class BinaryExporterServlet extends HttpServlet {
 							resp.setHeader("Content-Range", "bytes " + range.start + "-" + range.end + "/" + range.total);
 							resp.setHeader("Content-Length", String.valueOf(range.length));
 				            resp.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT); // 206.
-							SpeedyAssetServletUtil.copy(input, out, range.start, range.length);
+							SpeedyAssetServletUtil.serve(req, resp, data.getDataFile(), range.start, range.length);
 						}else{
 							resp.setContentType("multipart/byteranges; boundary=" + SpeedyAssetServletUtil.MULTIPART_BOUNDARY);
 							resp.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
@@ -524,15 +521,8 @@ public class BinaryExporterServlet extends HttpServlet {
 
 				}
 			}else{
-				is = java.nio.file.Files.newInputStream(data.getDataFile().toPath());
-	            int count = 0;
-	            byte[] buffer = new byte[4096];
 	            out = resp.getOutputStream();
-	            
-	            while((count = is.read(buffer)) > 0) {
-	            	out.write(buffer, 0, count);
-	            }
-	            
+	            SpeedyAssetServletUtil.serve(req, resp, data.getDataFile(), 0, _fileLength);
 			}
             
 		} catch (DotContentletStateException e) {
@@ -580,6 +570,12 @@ public class BinaryExporterServlet extends HttpServlet {
 	              resp.sendError(HttpServletResponse.SC_NOT_FOUND);
 	            }
 			}
+		} catch (ImageFilterOverloadedException e) {
+			Logger.debug(BinaryExporterServlet.class, e.getMessage(),e);
+			if(!resp.isCommitted()){
+			  resp.setHeader("Retry-After", "10");
+			  resp.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+			}
 		} catch (BinaryContentExporterException e) {
 			Logger.debug(BinaryExporterServlet.class, e.getMessage(),e);
 			Logger.error(BinaryExporterServlet.class, e.getMessage());
@@ -605,15 +601,6 @@ public class BinaryExporterServlet extends HttpServlet {
 				}
 			}
 			
-			if(is!=null){
-				try{
-					is.close();
-				}
-				catch(Exception e){
-					Logger.debug(BinaryExporterServlet.class, e.getMessage());
-				}
-			}
-			
 			if(out!=null){
 				try{
 					out.close();
@@ -0,0 +1,91 @@
+package com.dotmarketing.servlets;
+
+import com.dotmarketing.util.Config;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+
+/**
+ * Keeps the bytes of the small files served by the {@link BinaryExporterServlet} in memory, so hot
+ * assets like icons, thumbnails and css are written to the response without touching the disk.
+ * <p/>
+ * Entries are keyed by the path of the file (which contains the asset inode), its last modified
+ * date and its length, so a file that changes or is generated again is read again and the old
+ * entry just ages out.
+ * <ul>
+ *     <li><strong>ASSET_BYTE_CACHE_MAX_BYTES</strong>: total bytes kept, 0 disables the cache
+ *     (default 32MB)</li>
+ *     <li><strong>ASSET_BYTE_CACHE_MAX_FILE_BYTES</strong>: bigger files are never cached
+ *     (default 128KB)</li>
+ * </ul>
+ */
+class SmallFileCache {
+
+    private static class SingletonHolder {
+        private static final SmallFileCache INSTANCE = new SmallFileCache(
+                Config.getLongProperty("ASSET_BYTE_CACHE_MAX_BYTES", 32 * 1024 * 1024),
+                Config.getLongProperty("ASSET_BYTE_CACHE_MAX_FILE_BYTES", 128 * 1024));
+    }
+
+    private final Cache<String, byte[]> cache;
+    private final long maxFileBytes;
+
+    SmallFileCache(final long maxBytes, final long maxFileBytes) {
+
+        this.maxFileBytes = Math.min(maxFileBytes, Integer.MAX_VALUE);
+        this.cache = maxBytes > 0 && maxFileBytes > 0
+                ? Caffeine.newBuilder().maximumWeight(maxBytes)
+                        .weigher((String key, byte[] bytes) -> bytes.length + key.length()).build()
+                : null;
+    }
+
+    static SmallFileCache getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Returns the content of the file when it is small enough to be cached, reading it if it is
+     * not in memory yet
+     *
+     * @param file
+     * @return the content of the file, null if the file is not cached
+     * @throws IOException
+     */
+    byte[] get(final File file) throws IOException {
+
+        final long length = file.length();
+        if (cache == null || length == 0 || length > maxFileBytes) {
+            return null;
+        }
+
+        final String key = file.getPath() + ":" + file.lastModified() + ":" + length;
+        try {
+            final byte[] bytes = cache.get(key, k -> read(file));
+            // changed while being read, do not trust it
+            return bytes.length == length ? bytes : null;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Number of files in memory
+     *
+     * @return
+     */
+    long size() {
+        return cache != null ? cache.estimatedSize() : 0;
+    }
+
+    private static byte[] read(final File file) {
+        try {
+            return Files.readAllBytes(file.toPath());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
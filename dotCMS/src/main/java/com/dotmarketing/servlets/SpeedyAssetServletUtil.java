@@ -1,9 +1,17 @@
 package com.dotmarketing.servlets;
 
+import com.dotmarketing.util.Config;
+import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 /**
  * @see {@link http://programmaremobile.blogspot.com/2009/01/iphone-file-download-eng-ver.html}
@@ -14,6 +22,14 @@ public class SpeedyAssetServletUtil {
 	
 	protected static final String MULTIPART_BOUNDARY = "MULTIPART_BYTERANGES";
 	protected static final int DEFAULT_BUFFER_SIZE = 10240; // ..bytes = 10KB.
+	protected static final int COPY_BUFFER_SIZE = 65536;
+
+	// request attributes of the Tomcat sendfile support, see org.apache.catalina.Globals
+	private static final String SENDFILE_SUPPORTED_ATTR = "org.apache.tomcat.sendfile.support";
+	private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+	private static final String SENDFILE_FILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+	private static final String SENDFILE_FILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+	private static final String RESPONSE_FACADE = "org.apache.catalina.connector.ResponseFacade";
 	
 	/**
      * Returns a substring of the given string value from the given begin index to the given end
@@ -68,30 +84,103 @@ public class SpeedyAssetServletUtil {
      * @throws IOException If something fails at I/O level.
      */
 	protected static void copy(RandomAccessFile input, OutputStream output, long start, long length)throws IOException{
-		byte[] buffer = new byte[DEFAULT_BUFFER_SIZE];
-		int read;
+		copy(input.getChannel(), output, start, length);
+	}
 
-		if (input.length() == length) {
-			// Write full range.
-			while ((read = input.read(buffer)) > 0) {
-				output.write(buffer, 0, read);
-			}
-		} else {
-			// Write partial range.
-			input.seek(start);
-			long toRead = length;
-
-			while ((read = input.read(buffer)) > 0) {
-				if ((toRead -= read) > 0) {
-					output.write(buffer, 0, read);
-				} else {
-					output.write(buffer, 0, (int) toRead + read);
+	/**
+	 * Copy the given byte range of the given channel to the given output, reading at the given
+	 * position so the channel can be shared. When the output is a channel itself the bytes are
+	 * transferred by the OS without going through the heap.
+	 * @param input The channel to copy the range from.
+	 * @param output The output to copy the range to.
+	 * @param start Start of the byte range.
+	 * @param length Length of the byte range.
+	 * @throws IOException If something fails at I/O level.
+	 */
+	protected static void copy(FileChannel input, OutputStream output, long start, long length)throws IOException{
+		long position = start;
+		long remaining = Math.min(length, input.size() - start);
+
+		if (output instanceof WritableByteChannel) {
+			while (remaining > 0) {
+				long transferred = input.transferTo(position, remaining, (WritableByteChannel) output);
+				if (transferred <= 0) {
 					break;
 				}
+				position += transferred;
+				remaining -= transferred;
 			}
+			return;
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate((int) Math.max(1, Math.min(COPY_BUFFER_SIZE, remaining)));
+		while (remaining > 0) {
+			buffer.clear();
+			buffer.limit((int) Math.min(buffer.capacity(), remaining));
+			int read = input.read(buffer, position);
+			if (read <= 0) {
+				break;
+			}
+			output.write(buffer.array(), 0, read);
+			position += read;
+			remaining -= read;
+		}
+	}
+
+	/**
+	 * Writes the given byte range of the file as the body of the response, headers must be set.
+	 * <ul>
+	 *     <li>Small files are written from memory, see {@link SmallFileCache}.</li>
+	 *     <li>Bigger files are handed to Tomcat's sendfile, which sends them with
+	 *     {@link FileChannel#transferTo} straight to the socket once the servlet returns. This is
+	 *     only done for files over <strong>ASSET_SENDFILE_MIN_BYTES</strong> (default 48KB, -1
+	 *     disables it), when the connector supports it and the response is not wrapped by a filter
+	 *     that needs to see the body.</li>
+	 *     <li>Otherwise the range is copied from the file channel.</li>
+	 * </ul>
+	 * @param request The request.
+	 * @param response The response.
+	 * @param file The file to serve.
+	 * @param start Start of the byte range.
+	 * @param length Length of the byte range.
+	 * @throws IOException If something fails at I/O level.
+	 */
+	protected static void serve(HttpServletRequest request, HttpServletResponse response, File file, long start, long length)throws IOException{
+		byte[] bytes = SmallFileCache.getInstance().get(file);
+		if (bytes != null) {
+			response.getOutputStream().write(bytes, (int) start, (int) Math.min(length, bytes.length - start));
+			return;
+		}
+
+		if (sendfile(request, response, file, start, length)) {
+			return;
+		}
+
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			copy(channel, response.getOutputStream(), start, length);
 		}
 	}
 
+	/**
+	 * Asks Tomcat to send the given range of the file after the servlet returns, if it can.
+	 * @return true if Tomcat will send the file, nothing must be written to the response then
+	 */
+	private static boolean sendfile(HttpServletRequest request, HttpServletResponse response, File file, long start, long length)throws IOException{
+		long minBytes = Config.getLongProperty("ASSET_SENDFILE_MIN_BYTES", 48 * 1024);
+		if (minBytes < 0 || length < minBytes
+				|| !Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTR))
+				|| !RESPONSE_FACADE.equals(response.getClass().getName())
+				|| request.getAttribute("javax.servlet.include.request_uri") != null
+				|| response.isCommitted()) {
+			return false;
+		}
+
+		request.setAttribute(SENDFILE_FILENAME_ATTR, file.getCanonicalPath());
+		request.setAttribute(SENDFILE_FILE_START_ATTR, start);
+		request.setAttribute(SENDFILE_FILE_END_ATTR, start + length);
+		return true;
+	}
+
     
    protected static class ByteRange {
 	   long start;
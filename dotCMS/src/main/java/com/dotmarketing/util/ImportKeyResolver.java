@@ -0,0 +1,179 @@
+package com.dotmarketing.util;
+
+import com.dotmarketing.business.APILocator;
+import com.dotmarketing.common.model.ContentletSearch;
+import com.dotmarketing.exception.DotDataException;
+import com.dotmarketing.exception.DotSecurityException;
+import com.dotmarketing.portlets.contentlet.business.ContentletAPI;
+import com.dotmarketing.portlets.contentlet.model.Contentlet;
+import com.dotmarketing.portlets.structure.model.Field;
+import com.dotmarketing.portlets.structure.model.Structure;
+import com.liferay.portal.model.User;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The existing contentlets for the key fields of a batch of CSV lines. {@link ImportUtil} uses it
+ * to look them up with a single search instead of one search per line.
+ * <p/>
+ * The batch is searched by the values of one key field, the first one that is not a site or
+ * folder, and the contentlets found are loaded at once. A line gets the contentlets whose key
+ * field values all equal its own, ignoring case. Those are the same contentlets
+ * {@link ImportUtil} keeps from the hits of the search of the line, which is narrower than the
+ * search of the batch. So finding none means there are none. Lines are left to their own search
+ * when:
+ * <ul>
+ *     <li>their value was changed while reading it (cut or escaped)</li>
+ *     <li>a previous line of the file used the same key, as its contentlet may not be indexed yet</li>
+ * </ul>
+ */
+final class ImportKeyResolver {
+
+    private static final ContentletAPI conAPI = APILocator.getContentletAPI();
+
+    private final Map<Integer, Field> keyFields;
+    private final int searchColumn;
+    private final Set<String> searchedValues;
+    private final Map<String, List<Contentlet>> contentletsByValue;
+
+    private ImportKeyResolver(final Map<Integer, Field> keyFields, final int searchColumn,
+            final Set<String> searchedValues, final Map<String, List<Contentlet>> contentletsByValue) {
+        this.keyFields = keyFields;
+        this.searchColumn = searchColumn;
+        this.searchedValues = searchedValues;
+        this.contentletsByValue = contentletsByValue;
+    }
+
+    /**
+     * Searches the contentlets of the key field values of the lines
+     *
+     * @param contentType
+     * @param keyFields the key fields by column
+     * @param user
+     * @param lines
+     * @return the resolver, null if the keys of the lines can not be looked up at once: a date key
+     *         field, too many hits or contentlets without a value for a key field
+     * @throws DotDataException
+     * @throws DotSecurityException
+     */
+    static ImportKeyResolver resolve(final Structure contentType, final Map<Integer, Field> keyFields,
+            final User user, final List<String[]> lines) throws DotDataException, DotSecurityException {
+
+        // dates are compared by their format, not by their text
+        int searchColumn = -1;
+        final Map<Integer, Field> sortedKeyFields = new TreeMap<>(keyFields);
+        for (final Map.Entry<Integer, Field> keyField : sortedKeyFields.entrySet()) {
+            final String fieldType = keyField.getValue().getFieldType();
+            if (Field.FieldType.DATE.toString().equals(fieldType)
+                    || Field.FieldType.DATE_TIME.toString().equals(fieldType)
+                    || Field.FieldType.TIME.toString().equals(fieldType)) {
+                return null;
+            }
+            if (searchColumn < 0 && !Field.FieldType.HOST_OR_FOLDER.toString().equals(fieldType)) {
+                searchColumn = keyField.getKey();
+            }
+        }
+        if (searchColumn < 0) {
+            return null;
+        }
+
+        final Set<String> searchedValues = new LinkedHashSet<>();
+        for (final String[] line : lines) {
+            if (line.length > searchColumn && UtilMethods.isSet(line[searchColumn])) {
+                searchedValues.add(line[searchColumn]);
+            }
+        }
+        if (searchedValues.isEmpty()) {
+            return null;
+        }
+
+        final Field searchField = sortedKeyFields.get(searchColumn);
+        final StringBuilder query = new StringBuilder("+structureName:").append(contentType.getVelocityVarName())
+                .append(" +working:true +deleted:false +(");
+        for (final String value : searchedValues) {
+            // the same term the search of a single line uses
+            final String escaped = ImportUtil.escapeLuceneSpecialCharacter(value);
+            query.append(contentType.getVelocityVarName()).append('.').append(searchField.getVelocityVarName())
+                    .append(':').append(escaped.contains(" ") ? "\"" + escaped + "\"" : escaped).append(' ');
+        }
+        query.append(')');
+
+        final List<ContentletSearch> hits = conAPI.searchIndex(query.toString(), 0, -1, null, user, true);
+        if (hits instanceof PaginatedArrayList
+                && ((PaginatedArrayList<ContentletSearch>) hits).getTotalResults() > hits.size()) {
+            return null;
+        }
+
+        final List<String> inodes = new ArrayList<>(hits.size());
+        hits.forEach(hit -> inodes.add(hit.getInode()));
+        final Map<String, List<Contentlet>> contentletsByValue = new HashMap<>();
+        for (final Contentlet contentlet : inodes.isEmpty() ? new ArrayList<Contentlet>()
+                : conAPI.findContentlets(inodes)) {
+            for (final Field keyField : sortedKeyFields.values()) {
+                if (null == conAPI.getFieldValue(contentlet, keyField)) {
+                    return null;
+                }
+            }
+            contentletsByValue.computeIfAbsent(
+                    conAPI.getFieldValue(contentlet, searchField).toString().toLowerCase(),
+                    value -> new ArrayList<>()).add(contentlet);
+        }
+
+        return new ImportKeyResolver(sortedKeyFields, searchColumn, new HashSet<>(searchedValues),
+                contentletsByValue);
+    }
+
+    /**
+     * The contentlets whose key field values are the ones of the line
+     *
+     * @param line the values read from the file
+     * @param values the values of the line as they are imported, by column
+     * @param languageId the language of the contentlets, -1 for any
+     * @param sameKeyBatchInsert if a previous line used the same keys
+     * @return the contentlets, null if the line has to be searched on its own
+     */
+    List<ContentletSearch> find(final String[] line, final Map<Integer, Object> values, final long languageId,
+            final boolean sameKeyBatchInsert) {
+
+        final String searched = line.length > searchColumn ? line[searchColumn] : null;
+        final Object value = values.get(searchColumn);
+        if (sameKeyBatchInsert || null == searched || null == value || !searched.equals(value.toString())
+                || !searchedValues.contains(searched)) {
+            return null;
+        }
+
+        final List<ContentletSearch> found = new ArrayList<>();
+        final List<Contentlet> candidates = contentletsByValue.get(searched.toLowerCase());
+        if (null == candidates) {
+            return found;
+        }
+        for (final Contentlet candidate : candidates) {
+            if ((languageId == -1 || candidate.getLanguageId() == languageId) && matches(candidate, values)) {
+                final ContentletSearch hit = new ContentletSearch();
+                hit.setInode(candidate.getInode());
+                hit.setIdentifier(candidate.getIdentifier());
+                found.add(hit);
+            }
+        }
+        return found;
+    }
+
+    private boolean matches(final Contentlet contentlet, final Map<Integer, Object> values) {
+
+        for (final Map.Entry<Integer, Field> keyField : keyFields.entrySet()) {
+            final Object value = values.get(keyField.getKey());
+            if (null == value || !conAPI.getFieldValue(contentlet, keyField.getValue()).toString()
+                    .equalsIgnoreCase(value.toString())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -48,7 +48,6 @@ import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -90,7 +89,9 @@ public class ImportUtil {
         "MM/dd/yy hh:mm aa", "MM/dd/yyyy hh:mm aa",	"MM/dd/yy HH:mm", "MM/dd/yyyy HH:mm", "MMMM dd, yyyy", "M/d/y", "M/d",
         "EEEE, MMMM dd, yyyy", "MM/dd/yyyy", "hh:mm:ss aa", "HH:mm:ss", "hh:mm aa", "yyyy-MM-dd" };
 
-    private static final SimpleDateFormat DATE_FIELD_FORMAT = new SimpleDateFormat("yyyyMMdd");
+    // lines can be imported by several threads, see ParallelContentImport
+    private static final ThreadLocal<SimpleDateFormat> DATE_FIELD_FORMAT =
+            ThreadLocal.withInitial(() -> new SimpleDateFormat("yyyyMMdd"));
 
 	/**
 	 * Imports the data contained in a CSV file into dotCMS. The data can be
@@ -166,17 +167,14 @@ public class ImportUtil {
 
         Structure contentType = CacheLocator.getContentTypeCache().getStructureByInode (contentTypeInode);
         List<Permission> contentTypePermissions = permissionAPI.getPermissions(contentType);
-        List<UniqueFieldBean> uniqueFieldBeans = new ArrayList<UniqueFieldBean>();
         List<Field> uniqueFields = new ArrayList<Field>();
 
         //Initializing variables
-        int lines = 0;
-        int errors = 0;
         int lineNumber = 0;
 
-        Counters counters = new Counters();
-        HashSet<String> keyContentUpdated = new HashSet<String>();
-        StringBuffer choosenKeyField = new StringBuffer();
+        final ImportState state = new ImportState(results);
+        final Counters counters = state.counters;
+        final StringBuffer choosenKeyField = state.choosenKeyField;
 
         HashMap<Integer, Field> headers = new HashMap<Integer, Field>();
         HashMap<Integer, Field> keyFields = new HashMap<Integer, Field>();
@@ -204,84 +202,45 @@ public class ImportUtil {
 
                 //Reading the whole file
                 if (headers.size() > 0) {
-                    if (!preview) {
-                        HibernateUtil.startTransaction();
-                    }
-                    String[] csvLine;
-                    while (csvreader.readRecord()) {
-                        if(ImportAuditUtil.cancelledImports.containsKey(importId)){
-                            break;
+                    final ImportSettings settings = new ImportSettings(currentSiteId, contentType, preview,
+                            isMultilingual, user, language, headers, keyFields, contentTypePermissions, uniqueFields,
+                            relationships, onlyChild, onlyParent, wfActionId, languageCodeHeaderColumn,
+                            countryCodeHeaderColumn);
+                    final int threads = preview ? 1 : Config.getIntProperty("CONTENT_IMPORT_THREADS", 1);
+                    if (threads > 1) {
+                        new ParallelContentImport(importId, settings, state, threads).run(csvreader, lineNumber);
+                    } else {
+                        if (!preview) {
+                            HibernateUtil.startTransaction();
                         }
-                        lineNumber++;
-                        csvLine = csvreader.getValues();
-                        try {
-                            lines++;
-                            Logger.debug(ImportUtil.class, "Line " + lines + ": (" + csvreader.getRawRecord() + ").");
-
-                            //Importing a line
-                            Long languageToImport = language;
-                            if ( language == -1 ) {
-                                if ( languageCodeHeaderColumn != -1 && countryCodeHeaderColumn != -1 ) {
-                                    Language dotCMSLanguage = langAPI.getLanguage( csvLine[languageCodeHeaderColumn], csvLine[countryCodeHeaderColumn] );
-                                    languageToImport = dotCMSLanguage.getId();
-                                }
+                        while (csvreader.readRecord()) {
+                            if(ImportAuditUtil.cancelledImports.containsKey(importId)){
+                                break;
                             }
+                            lineNumber++;
+                            state.lines++;
+                            Logger.debug(ImportUtil.class, "Line " + state.lines + ": (" + csvreader.getRawRecord() + ").");
 
-                            if ( languageToImport != -1 ) {
-                                /*
-                                Verifies if there was already imported a record with the same keys.
-                                Useful to know if we have batch uploads with the same keys, mostly visible for batch content uploads with multiple languages
-                                 */
-                                boolean sameKeyBatchInsert = true;
-                                if ( keyFields != null && !keyFields.isEmpty() ) {
-                                    for ( Integer column : keyFields.keySet() ) {
-                                        Field keyField = keyFields.get( column );
-										if (!counters.matchKey(keyField.getVelocityVarName(), csvLine[column])) {
-                                            sameKeyBatchInsert = false;
-                                            break;
-                                        }
-                                    }
-                                }
-
-                                //Importing content record...
-                                importLine( csvLine, currentSiteId, contentType, preview, isMultilingual, user, results, lineNumber, languageToImport, headers, keyFields, choosenKeyField,
-                                        counters, keyContentUpdated, contentTypePermissions, uniqueFieldBeans, uniqueFields, relationships, onlyChild, onlyParent, sameKeyBatchInsert, wfActionId );
-
-                                //Storing the record keys we just imported for a later reference...
-                                if ( keyFields != null && !keyFields.isEmpty() ) {
-                                    for ( Integer column : keyFields.keySet() ) {
-                                        Field keyField = keyFields.get( column );
-										counters.addKey(keyField.getVelocityVarName(), csvLine[column]);
-                                    }
-                                }
-                            } else {
-                                results.get( "errors" ).add( LanguageUtil.get( user, "Line--" ) + lineNumber + LanguageUtil.get( user, "Locale-not-found-for-languageCode" ) + " ='" + csvLine[languageCodeHeaderColumn] + "' countryCode='" + csvLine[countryCodeHeaderColumn] + "'" );
-                                errors++;
-                            }
+                            importRecord(csvreader.getValues(), csvreader.getRawRecord(), lineNumber, settings, state, null);
 
                             if ( !preview && (lineNumber % commitGranularity == 0) ) {
                                 HibernateUtil.closeAndCommitTransaction();
                                 Thread.sleep( sleepTime );
                                 HibernateUtil.startTransaction();
                             }
-                        } catch ( DotRuntimeException ex ) {
-                            String errorMessage = LanguageUtil.get(user, ex.getMessage());
-                            if(errorMessage.indexOf("Line #") == -1){
-                                errorMessage = "Line #"+lineNumber+" "+errorMessage;
-                            }
-                            results.get("errors").add(errorMessage);
-                            errors++;
-                            Logger.info(ImportUtil.class, "Error line: " + lines + " (" + csvreader.getRawRecord()
-                                    + "). Line Ignored.");
+                        }
+                        if (!preview) {
+                            HibernateUtil.closeAndCommitTransaction();
                         }
                     }
+                    final int lines = state.lines;
+                    final int errors = state.errors;
 
                     if(!preview){
                         results.get("counters").add("linesread="+lines);
                         results.get("counters").add("errors="+errors);
                         results.get("counters").add("newContent="+counters.getNewContentCounter());
                         results.get("counters").add("contentToUpdate="+counters.getContentToUpdateCounter());
-                        HibernateUtil.closeAndCommitTransaction();
                     }
 
                     results.get("messages").add(lines + " "+LanguageUtil.get(user, "lines-of-data-were-read" ));
@@ -320,10 +279,92 @@ public class ImportUtil {
                 }
             }
         }
-        Logger.info(ImportUtil.class, lines + " lines read correctly. " + errors + " errors found.");
+        Logger.info(ImportUtil.class, state.lines + " lines read correctly. " + state.errors + " errors found.");
         return results;
     }
 
+    /**
+     * Imports a record of the CSV file. The errors of the record are added to the results of the
+     * state and do not stop the import.
+     *
+     * @param csvLine
+     *            - The values of the record.
+     * @param rawRecord
+     *            - The record as read from the file, for the logs.
+     * @param lineNumber
+     *            - The line number in the CSV file for this record.
+     * @param settings
+     *            - The settings of the import.
+     * @param state
+     *            - The results and counters the record is added to.
+     * @param keyResolver
+     *            - The contentlets already found for the key fields of the
+     *            record, null to search them in the index.
+     * @throws LanguageException
+     *             The error message could not be translated.
+     */
+    static void importRecord(final String[] csvLine, final String rawRecord, final int lineNumber,
+            final ImportSettings settings, final ImportState state, final ImportKeyResolver keyResolver)
+            throws LanguageException {
+
+        final User user = settings.user;
+        final HashMap<Integer, Field> keyFields = settings.keyFields;
+        try {
+            //Importing a line
+            Long languageToImport = settings.language;
+            if ( settings.language == -1 ) {
+                if ( settings.languageCodeHeaderColumn != -1 && settings.countryCodeHeaderColumn != -1 ) {
+                    Language dotCMSLanguage = langAPI.getLanguage( csvLine[settings.languageCodeHeaderColumn], csvLine[settings.countryCodeHeaderColumn] );
+                    languageToImport = dotCMSLanguage.getId();
+                }
+            }
+
+            if ( languageToImport != -1 ) {
+                /*
+                Verifies if there was already imported a record with the same keys.
+                Useful to know if we have batch uploads with the same keys, mostly visible for batch content uploads with multiple languages
+                 */
+                boolean sameKeyBatchInsert = true;
+                if ( keyFields != null && !keyFields.isEmpty() ) {
+                    for ( Integer column : keyFields.keySet() ) {
+                        Field keyField = keyFields.get( column );
+                        if (!state.counters.matchKey(keyField.getVelocityVarName(), csvLine[column])) {
+                            sameKeyBatchInsert = false;
+                            break;
+                        }
+                    }
+                }
+
+                //Importing content record...
+                importLine( csvLine, settings.currentSiteId, settings.contentType, settings.preview, settings.isMultilingual, user, state.results, lineNumber, languageToImport, settings.headers, keyFields, state.choosenKeyField,
+                        state.counters, state.keyContentUpdated, settings.contentTypePermissions, state.uniqueFieldBeans, state.uniqueValues, settings.uniqueFields, settings.relationships, settings.onlyChild, settings.onlyParent, sameKeyBatchInsert, settings.wfActionId, keyResolver );
+
+                // the values of the line are in uniqueValues now
+                state.uniqueFieldBeans.clear();
+
+                //Storing the record keys we just imported for a later reference...
+                if ( keyFields != null && !keyFields.isEmpty() ) {
+                    for ( Integer column : keyFields.keySet() ) {
+                        Field keyField = keyFields.get( column );
+                        state.counters.addKey(keyField.getVelocityVarName(), csvLine[column]);
+                    }
+                }
+            } else {
+                state.results.get( "errors" ).add( LanguageUtil.get( user, "Line--" ) + lineNumber + LanguageUtil.get( user, "Locale-not-found-for-languageCode" ) + " ='" + csvLine[settings.languageCodeHeaderColumn] + "' countryCode='" + csvLine[settings.countryCodeHeaderColumn] + "'" );
+                state.errors++;
+            }
+        } catch ( DotRuntimeException ex ) {
+            String errorMessage = LanguageUtil.get(user, ex.getMessage());
+            if(errorMessage.indexOf("Line #") == -1){
+                errorMessage = "Line #"+lineNumber+" "+errorMessage;
+            }
+            state.results.get("errors").add(errorMessage);
+            state.errors++;
+            Logger.info(ImportUtil.class, "Error line: " + lineNumber + " (" + rawRecord
+                    + "). Line Ignored.");
+        }
+    }
+
 	/**
 	 * Reads the CSV file headers in order to find inconsistencies or errors.
 	 * Such situations will be saved in the {@code results} list.
@@ -596,14 +637,17 @@ public class ImportUtil {
 	 *            content with multiple languages.
      * @param wfActionId
      *            - represent the Workflow Action Id to execute
+     * @param keyResolver
+     *            - The contentlets already found for the key fields of this
+     *            line, null to search them in the index.
 	 * @throws DotRuntimeException
 	 *             An error was detected when importing a line from the CSV
 	 *             file.
 	 */
     private static void importLine ( String[] line, String currentHostId, Structure contentType, boolean preview, boolean isMultilingual, User user, HashMap<String, List<String>> results, int lineNumber, long language,
             HashMap<Integer, Field> headers, HashMap<Integer, Field> keyFields, StringBuffer choosenKeyField, Counters counters,
-            HashSet<String> keyContentUpdated, List<Permission> contentTypePermissions, List<UniqueFieldBean> uniqueFieldBeans, List<Field> uniqueFields, HashMap<Integer, Relationship> relationships, HashMap<Integer, Boolean> onlyChild, HashMap<Integer, Boolean> onlyParent,
-            boolean sameKeyBatchInsert, String wfActionId ) throws DotRuntimeException {
+            HashSet<String> keyContentUpdated, List<Permission> contentTypePermissions, List<UniqueFieldBean> uniqueFieldBeans, Set<String> uniqueValues, List<Field> uniqueFields, HashMap<Integer, Relationship> relationships, HashMap<Integer, Boolean> onlyChild, HashMap<Integer, Boolean> onlyParent,
+            boolean sameKeyBatchInsert, String wfActionId, ImportKeyResolver keyResolver ) throws DotRuntimeException {
 
         try {
             //Building a values HashMap based on the headers/columns position
@@ -866,7 +910,7 @@ public class ImportUtil {
                     if (value instanceof Date || value instanceof Timestamp) {
                         SimpleDateFormat formatter;
                         if(field.getFieldType().equals(Field.FieldType.DATE.toString())){
-                            text = DATE_FIELD_FORMAT.format((Date)value);
+                            text = DATE_FIELD_FORMAT.get().format((Date)value);
                         }else if(field.getFieldType().equals(Field.FieldType.DATE_TIME.toString())){
                             DateFormat df = new SimpleDateFormat("MM/dd/yyyy");
                             text = df.format((Date)value);
@@ -922,7 +966,11 @@ public class ImportUtil {
                 }
 
                 Logger.info(ImportUtil.class, "buffy: " + buffy.toString());
-                List<ContentletSearch> cons = conAPI.searchIndex( buffy.toString(), 0, -1, null, user, true );
+                //The key values could have been looked up already along with the ones of other lines
+                final List<ContentletSearch> resolved = keyResolver == null ? null
+                        : keyResolver.find( line, values, isMultilingual ? -1 : language, sameKeyBatchInsert );
+                List<ContentletSearch> cons = resolved != null ? resolved
+                        : conAPI.searchIndex( buffy.toString(), 0, -1, null, user, true );
                 Logger.info(ImportUtil.class,"Cons: " + cons.size());
                 /*
                 We need to handle the case when keys are used, we could have a contentlet already saved with the same keys but different language
@@ -930,7 +978,8 @@ public class ImportUtil {
                  */
                 if ( cons == null || cons.isEmpty() ) {
                     if ( choosenKeyField.length() > 1 ) {
-                        cons = conAPI.searchIndex( noLanguageQuery, 0, -1, null, user, true );
+                        cons = resolved != null ? keyResolver.find( line, values, -1, sameKeyBatchInsert )
+                                : conAPI.searchIndex( noLanguageQuery, 0, -1, null, user, true );
                         if (cons != null && !cons.isEmpty()) {
                             isMultilingual = true;
                         }
@@ -954,8 +1003,8 @@ public class ImportUtil {
                                     conValue = df.format((Date)conValue);
                                     value = df.format((Date)value);
                                 }else if(field.getFieldType().equals(Field.FieldType.DATE.toString())){
-                                    value = DATE_FIELD_FORMAT.format((Date)value);
-                                    conValue = DATE_FIELD_FORMAT.format((Date)conValue);
+                                    value = DATE_FIELD_FORMAT.get().format((Date)value);
+                                    conValue = DATE_FIELD_FORMAT.get().format((Date)conValue);
                                 }else{
                                     if(conValue instanceof java.sql.Timestamp){
                                         value = new java.sql.Timestamp(((Date)value).getTime());
@@ -1235,7 +1284,7 @@ public class ImportUtil {
                 if(!uniqueFieldBeans.isEmpty()){
                     ignoreLine =
                             validateUniqueFields(user, results, lineNumber, language, counters,
-                                    uniqueFieldBeans,
+                                    uniqueFieldBeans, uniqueValues,
                                     uniqueFields);
                 }
 
@@ -1498,6 +1547,8 @@ public class ImportUtil {
     }
 
     /**
+     * Checks the values of the line for the unique fields against the ones of the lines imported
+     * before it in the same language, in any order and by any worker of a parallel import
      *
      * @param user
      * @param results
@@ -1505,32 +1556,28 @@ public class ImportUtil {
      * @param language
      * @param counters
      * @param uniqueFieldBeans
+     * @param uniqueValues the values used so far, as <code>field|language|value</code>
      * @param uniqueFields
-     * @return
+     * @return true if the line repeats a value and has to be ignored
      * @throws LanguageException
      */
     private static boolean validateUniqueFields(User user, HashMap<String, List<String>> results, int lineNumber,
                                                 long language, Counters counters,
                                                 List<UniqueFieldBean> uniqueFieldBeans,
+                                                Set<String> uniqueValues,
                                                 List<Field> uniqueFields) throws LanguageException {
         boolean ignoreLine = false;
         for (Field f : uniqueFields) {
-            Object value = null;
-            int count = 0;
             for (UniqueFieldBean bean : uniqueFieldBeans) {
-                if (bean.getField().equals(f) && language == bean.getLanguageId()) {
-                    if (count > 0 && value != null && value.equals(bean.getValue()) && lineNumber == bean
-                        .getLineNumber()) {
-                        counters.setNewContentCounter(counters.getNewContentCounter() - 1);
-                        ignoreLine = true;
-                        results.get("warnings").add(
-                            LanguageUtil.get(user, "Line--") + " " + lineNumber + " " + LanguageUtil
-                                .get(user, "contains-duplicate-values-for-structure-unique-field") + " " + f
-                                .getVelocityVarName() + " " + LanguageUtil.get(user, "and-will-be-ignored"));
-                    }
-                    value = bean.getValue();
-                    count++;
-
+                if (bean.getField().equals(f) && language == bean.getLanguageId()
+                        && lineNumber == bean.getLineNumber() && bean.getValue() != null
+                        && !uniqueValues.add(f.getVelocityVarName() + "|" + language + "|" + bean.getValue())) {
+                    counters.setNewContentCounter(counters.getNewContentCounter() - 1);
+                    ignoreLine = true;
+                    results.get("warnings").add(
+                        LanguageUtil.get(user, "Line--") + " " + lineNumber + " " + LanguageUtil
+                            .get(user, "contains-duplicate-values-for-structure-unique-field") + " " + f
+                            .getVelocityVarName() + " " + LanguageUtil.get(user, "and-will-be-ignored"));
                 }
             }
         }
@@ -1556,7 +1603,7 @@ public class ImportUtil {
 	 * @param text
 	 * @return String
 	 */
-    private static String escapeLuceneSpecialCharacter(String text){
+    static String escapeLuceneSpecialCharacter(String text){
         text = text.replaceAll("\\[","\\\\[").replaceAll("\\]","\\\\]");
         text = text.replaceAll("\\{","\\\\{").replaceAll("\\}","\\\\}");
         text = text.replaceAll("\\+","\\\\+").replaceAll(":","\\\\:");
@@ -1585,7 +1632,9 @@ public class ImportUtil {
         public int contentUpdated = 0;
         public int contentUpdatedDuplicated = 0;
 
-        private Collection<Map<String, String>> keys = new ArrayList<Map<String, String>>();
+        // values used by each key, looked up for every line
+        private Map<String, Set<String>> keys = new HashMap<String, Set<String>>();
+        private int keysCount = 0;
 
         /**
          * @return the newContentCounter
@@ -1659,12 +1708,8 @@ public class ImportUtil {
          */
         public void addKey ( String key, String value ) {
 
-            if ( !matchKey( key, value ) ) {
-
-                Map<String, String> keyMap = new HashMap<String, String>();
-                keyMap.put( key, value );
-
-                keys.add( keyMap );
+            if ( value != null && keys.computeIfAbsent( key, k -> new HashSet<String>() ).add( value ) ) {
+                keysCount++;
             }
         }
 
@@ -1677,19 +1722,25 @@ public class ImportUtil {
          */
         public boolean matchKey ( String key, String value ) {
 
-            for ( Map<String, String> keyMap : keys ) {
-
-                String match = keyMap.get( key );
-                if ( match != null && match.equals( value ) ) {
-                    return true;
-                }
-            }
-
-            return false;
+            Set<String> values = keys.get( key );
+            return values != null && values.contains( value );
         }
 
         public int uniqueKeysCount () {
-            return keys.size();
+            return keysCount;
+        }
+
+        /**
+         * Adds the counts of the lines imported by another thread
+         *
+         * @param counters
+         */
+        void add ( Counters counters ) {
+            newContentCounter += counters.newContentCounter;
+            contentToUpdateCounter += counters.contentToUpdateCounter;
+            contentCreated += counters.contentCreated;
+            contentUpdated += counters.contentUpdated;
+            contentUpdatedDuplicated += counters.contentUpdatedDuplicated;
         }
 
     }
@@ -1725,6 +1776,80 @@ public class ImportUtil {
      * @since Mar 22, 2012
      *
      */
+    /**
+     * The parameters of an import, shared by all the lines of the file
+     */
+    static class ImportSettings {
+
+        final String currentSiteId;
+        final Structure contentType;
+        final boolean preview;
+        final boolean isMultilingual;
+        final User user;
+        final long language;
+        final HashMap<Integer, Field> headers;
+        final HashMap<Integer, Field> keyFields;
+        final List<Permission> contentTypePermissions;
+        final List<Field> uniqueFields;
+        final HashMap<Integer, Relationship> relationships;
+        final HashMap<Integer, Boolean> onlyChild;
+        final HashMap<Integer, Boolean> onlyParent;
+        final String wfActionId;
+        final int languageCodeHeaderColumn;
+        final int countryCodeHeaderColumn;
+
+        ImportSettings(final String currentSiteId, final Structure contentType, final boolean preview,
+                final boolean isMultilingual, final User user, final long language,
+                final HashMap<Integer, Field> headers, final HashMap<Integer, Field> keyFields,
+                final List<Permission> contentTypePermissions, final List<Field> uniqueFields,
+                final HashMap<Integer, Relationship> relationships, final HashMap<Integer, Boolean> onlyChild,
+                final HashMap<Integer, Boolean> onlyParent, final String wfActionId,
+                final int languageCodeHeaderColumn, final int countryCodeHeaderColumn) {
+            this.currentSiteId = currentSiteId;
+            this.contentType = contentType;
+            this.preview = preview;
+            this.isMultilingual = isMultilingual;
+            this.user = user;
+            this.language = language;
+            this.headers = headers;
+            this.keyFields = keyFields;
+            this.contentTypePermissions = contentTypePermissions;
+            this.uniqueFields = uniqueFields;
+            this.relationships = relationships;
+            this.onlyChild = onlyChild;
+            this.onlyParent = onlyParent;
+            this.wfActionId = wfActionId;
+            this.languageCodeHeaderColumn = languageCodeHeaderColumn;
+            this.countryCodeHeaderColumn = countryCodeHeaderColumn;
+        }
+    }
+
+    /**
+     * What the lines imported so far left: the results shown to the user, the counters and the
+     * keys already used. It is only used by one thread at a time, but for the values of the
+     * unique fields, shared by the workers of a parallel import.
+     */
+    static class ImportState {
+
+        final HashMap<String, List<String>> results;
+        final Counters counters = new Counters();
+        final HashSet<String> keyContentUpdated = new HashSet<String>();
+        final StringBuffer choosenKeyField = new StringBuffer();
+        final List<UniqueFieldBean> uniqueFieldBeans = new ArrayList<UniqueFieldBean>();
+        final Set<String> uniqueValues;
+        int lines = 0;
+        int errors = 0;
+
+        ImportState(final HashMap<String, List<String>> results) {
+            this(results, new HashSet<String>());
+        }
+
+        ImportState(final HashMap<String, List<String>> results, final Set<String> uniqueValues) {
+            this.results = results;
+            this.uniqueValues = uniqueValues;
+        }
+    }
+
     private static class UniqueFieldBean {
 
         private Field field;
@@ -0,0 +1,346 @@
+package com.dotmarketing.util;
+
+import com.dotcms.repackage.com.csvreader.CsvReader;
+import com.dotmarketing.db.DbConnectionFactory;
+import com.dotmarketing.db.HibernateUtil;
+import com.dotmarketing.exception.DotHibernateException;
+import com.dotmarketing.portlets.contentlet.action.ImportAuditUtil;
+import com.dotmarketing.portlets.structure.model.Field;
+import com.dotmarketing.util.ImportUtil.ImportSettings;
+import com.dotmarketing.util.ImportUtil.ImportState;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Imports the lines of a CSV file with <strong>CONTENT_IMPORT_THREADS</strong> workers instead of
+ * one line after the other. {@link ImportUtil#importFile} uses it when the import is not a
+ * preview, so previews always read the file the same way.
+ * <p/>
+ * The lines are read in batches of <strong>CONTENT_IMPORT_BATCH_SIZE</strong>. The existing
+ * contentlets for the key fields of a batch are looked up at once (see
+ * {@link ImportKeyResolver}). Lines are handed to the workers by identifier or key, so the lines
+ * of one contentlet, such as its languages, are imported by the same worker in file order. Each
+ * worker runs its own transaction and commits every
+ * <strong>CONTENT_IMPORT_COMMIT_GRANULARITY</strong> lines. The contentlets of a transaction go to
+ * the index together when it commits. The number of lines imported and the errors are written to
+ * the import audit record while the import runs.
+ * <p/>
+ * An unexpected error in a worker stops the whole import, as it does for a sequential import.
+ * The lines committed so far are kept.
+ */
+final class ParallelContentImport {
+
+    private static final Line END = new Line(null, null, 0);
+
+    private final Long importId;
+    private final ImportSettings settings;
+    private final ImportState state;
+    private final int threads;
+    private final int batchSize;
+    private final int commitGranularity;
+    private final long progressIntervalMillis;
+    private final int identifierColumn;
+    private final List<Integer> partitionColumns = new ArrayList<>();
+    private final Map<String, Integer> initialSizes = new HashMap<>();
+    private final List<Worker> workers = new ArrayList<>();
+    private final AtomicBoolean failed = new AtomicBoolean(false);
+    private final AtomicInteger imported = new AtomicInteger();
+    private final ConcurrentLinkedQueue<String> errors = new ConcurrentLinkedQueue<>();
+    // the values of the unique fields used by all the workers
+    private final Set<String> uniqueValues = ConcurrentHashMap.newKeySet();
+    private volatile String lastInode;
+
+    ParallelContentImport(final Long importId, final ImportSettings settings, final ImportState state,
+            final int threads) {
+
+        this.importId = importId;
+        this.settings = settings;
+        this.state = state;
+        this.threads = threads;
+        this.batchSize = Math.max(1, Math.min(1000, Config.getIntProperty("CONTENT_IMPORT_BATCH_SIZE", 500)));
+        this.commitGranularity = Math.max(1, Config.getIntProperty("CONTENT_IMPORT_COMMIT_GRANULARITY", 100));
+        this.progressIntervalMillis = Config.getLongProperty("CONTENT_IMPORT_PROGRESS_INTERVAL_MILLIS", 5000);
+
+        int identifierColumn = -1;
+        final List<String> identifiers = state.results.get("identifiers");
+        if (!identifiers.isEmpty()) {
+            identifierColumn = Integer.parseInt(identifiers.get(0));
+        }
+        this.identifierColumn = identifierColumn;
+
+        // the lines of a contentlet share the keys, or the unique values when there are no keys, the
+        // duplicated unique values across partitions are found through uniqueValues
+        partitionColumns.addAll(new TreeMap<>(settings.keyFields).keySet());
+        if (partitionColumns.isEmpty()) {
+            for (final Map.Entry<Integer, Field> header : new TreeMap<>(settings.headers).entrySet()) {
+                if (header.getValue().isUnique()) {
+                    partitionColumns.add(header.getKey());
+                }
+            }
+        }
+        state.results.forEach((key, list) -> initialSizes.put(key, list.size()));
+        uniqueValues.addAll(state.uniqueValues);
+    }
+
+    /**
+     * Imports the lines left in the reader and adds their results to the state
+     *
+     * @param csvreader
+     * @param lineNumber the number of the last line read
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    void run(final CsvReader csvreader, int lineNumber) throws IOException, InterruptedException {
+
+        Logger.info(this, "Importing content with " + threads + " threads, batches of " + batchSize
+                + " lines and a commit every " + commitGranularity + " lines");
+
+        final ExecutorService pool = Executors.newFixedThreadPool(threads, threadFactory("content_import_worker"));
+        for (int i = 0; i < threads; i++) {
+            final Worker worker = new Worker();
+            workers.add(worker);
+            pool.execute(worker);
+        }
+
+        long lastProgress = System.currentTimeMillis();
+        try {
+            List<Line> batch = new ArrayList<>(batchSize);
+            while (!failed.get() && csvreader.readRecord()) {
+                if (ImportAuditUtil.cancelledImports.containsKey(importId)) {
+                    break;
+                }
+                lineNumber++;
+                batch.add(new Line(csvreader.getValues(), csvreader.getRawRecord(), lineNumber));
+                if (batch.size() >= batchSize) {
+                    dispatch(batch);
+                    batch = new ArrayList<>(batchSize);
+                    if (System.currentTimeMillis() - lastProgress >= progressIntervalMillis) {
+                        reportProgress();
+                        lastProgress = System.currentTimeMillis();
+                    }
+                }
+            }
+            dispatch(batch);
+        } finally {
+            for (final Worker worker : workers) {
+                worker.add(END);
+            }
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        }
+
+        merge();
+    }
+
+    /**
+     * Looks up the keys of the batch and queues its lines
+     */
+    private void dispatch(final List<Line> batch) throws InterruptedException {
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        ImportKeyResolver keyResolver = null;
+        if (!settings.keyFields.isEmpty()) {
+            final List<String[]> values = new ArrayList<>(batch.size());
+            batch.forEach(line -> values.add(line.values));
+            try {
+                keyResolver = ImportKeyResolver.resolve(settings.contentType, settings.keyFields, settings.user, values);
+            } catch (Exception e) {
+                Logger.warn(this, "Unable to look up the keys of lines " + batch.get(0).lineNumber + " to "
+                        + batch.get(batch.size() - 1).lineNumber + ", searching them line by line: " + e.getMessage());
+            } finally {
+                DbConnectionFactory.closeSilently();
+            }
+        }
+
+        for (final Line line : batch) {
+            line.keyResolver = keyResolver;
+            workers.get(partition(line)).add(line);
+        }
+    }
+
+    private int partition(final Line line) {
+
+        final StringBuilder key = new StringBuilder();
+        if (identifierColumn >= 0 && line.values.length > identifierColumn
+                && UtilMethods.isSet(line.values[identifierColumn])) {
+            key.append(line.values[identifierColumn]);
+        } else {
+            for (final int column : partitionColumns) {
+                if (line.values.length > column) {
+                    key.append(line.values[column].toLowerCase()).append('|');
+                }
+            }
+        }
+        return key.length() == 0 ? line.lineNumber % threads : Math.floorMod(key.toString().hashCode(), threads);
+    }
+
+    private void reportProgress() {
+
+        if (null == importId) {
+            return;
+        }
+        final HashMap<String, List<String>> progress = new HashMap<>();
+        progress.put("messages", new ArrayList<>());
+        progress.put("warnings", new ArrayList<>());
+        progress.put("results", new ArrayList<>());
+        progress.put("errors", new ArrayList<>(errors));
+        progress.get("messages").add(imported.get() + " lines imported");
+        ImportAuditUtil.updateAuditRecord(lastInode, imported.get(), importId, progress);
+    }
+
+    /**
+     * Adds what the workers left to the state, in the order of the workers
+     */
+    private void merge() {
+
+        for (final Worker worker : workers) {
+            final ImportState workerState = worker.state;
+            state.lines += workerState.lines;
+            state.errors += workerState.errors;
+            state.counters.add(workerState.counters);
+            state.uniqueValues.addAll(workerState.uniqueValues);
+            for (final Map.Entry<String, List<String>> result : workerState.results.entrySet()) {
+                final String key = result.getKey();
+                final List<String> values = result.getValue();
+                if ("lastInode".equals(key)) {
+                    if (!values.isEmpty()) {
+                        state.results.get(key).clear();
+                        state.results.get(key).addAll(values);
+                    }
+                } else if (!"identifiers".equals(key)) {
+                    final int initialSize = initialSizes.getOrDefault(key, 0);
+                    state.results.computeIfAbsent(key, k -> new ArrayList<>())
+                            .addAll(values.subList(Math.min(initialSize, values.size()), values.size()));
+                }
+            }
+        }
+    }
+
+    private static ThreadFactory threadFactory(final String name) {
+
+        final AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+            thread.setName(name + "_" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Line {
+
+        private final String[] values;
+        private final String rawRecord;
+        private final int lineNumber;
+        // set before the line is queued
+        private ImportKeyResolver keyResolver;
+
+        Line(final String[] values, final String rawRecord, final int lineNumber) {
+            this.values = values;
+            this.rawRecord = rawRecord;
+            this.lineNumber = lineNumber;
+        }
+    }
+
+    /**
+     * Imports the lines queued for it in its own transactions
+     */
+    private final class Worker implements Runnable {
+
+        private final BlockingQueue<Line> queue = new LinkedBlockingQueue<>(batchSize);
+        private final ImportState state;
+        private volatile boolean done = false;
+
+        Worker() {
+            final HashMap<String, List<String>> results = new HashMap<>();
+            ParallelContentImport.this.state.results.forEach((key, list) -> results.put(key, new ArrayList<>(list)));
+            this.state = new ImportState(results, uniqueValues);
+        }
+
+        /**
+         * Queues the line, waiting while the queue is full
+         */
+        void add(final Line line) throws InterruptedException {
+            while (!done && !queue.offer(line, 100, TimeUnit.MILLISECONDS)) {
+                // a worker that stopped does not take its lines anymore
+            }
+        }
+
+        @Override
+        public void run() {
+
+            int uncommitted = 0;
+            try {
+                HibernateUtil.startTransaction();
+                Line line;
+                while ((line = queue.take()) != END) {
+                    // keep taking the lines so the reader is never blocked
+                    if (failed.get()) {
+                        continue;
+                    }
+                    try {
+                        importLine(line);
+                        if (++uncommitted >= commitGranularity) {
+                            HibernateUtil.closeAndCommitTransaction();
+                            HibernateUtil.startTransaction();
+                            uncommitted = 0;
+                        }
+                    } catch (Exception e) {
+                        failed.set(true);
+                        Logger.error(ParallelContentImport.class, "Error importing line " + line.lineNumber
+                                + ", the import is stopped: " + e.getMessage(), e);
+                    }
+                }
+
+                if (failed.get()) {
+                    HibernateUtil.rollbackTransaction();
+                } else {
+                    HibernateUtil.closeAndCommitTransaction();
+                }
+            } catch (InterruptedException e) {
+                failed.set(true);
+                Thread.currentThread().interrupt();
+            } catch (DotHibernateException e) {
+                failed.set(true);
+                Logger.error(ParallelContentImport.class, "Unable to commit the imported lines: " + e.getMessage(), e);
+            } finally {
+                done = true;
+                DbConnectionFactory.closeSilently();
+            }
+        }
+
+        private void importLine(final Line line) throws Exception {
+
+            final int errorsBefore = state.results.get("errors").size();
+            state.lines++;
+            ImportUtil.importRecord(line.values, line.rawRecord, line.lineNumber, settings, state, line.keyResolver);
+            imported.incrementAndGet();
+
+            final List<String> lineErrors = state.results.get("errors");
+            errors.addAll(lineErrors.subList(errorsBefore, lineErrors.size()));
+            final List<String> lastInodes = state.results.get("lastInode");
+            if (!lastInodes.isEmpty()) {
+                lastInode = lastInodes.get(0);
+            }
+        }
+    }
+
+}
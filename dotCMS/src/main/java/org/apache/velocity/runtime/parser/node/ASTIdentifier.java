@@ -30,6 +30,7 @@ import org.apache.velocity.runtime.RuntimeConstants;
 import org.apache.velocity.runtime.RuntimeServices;
 import org.apache.velocity.runtime.parser.Parser;
 import org.apache.velocity.util.introspection.Info;
+import org.apache.velocity.util.introspection.InlineCache;
 import org.apache.velocity.util.introspection.IntrospectionCacheData;
 import org.apache.velocity.util.introspection.VelPropertyGet;
 
@@ -66,6 +67,12 @@ public class ASTIdentifier extends SimpleNode implements TokenImageSaver
      */
     protected boolean strictRef = false;
 
+    /**
+     *  the getters resolved for the classes this node was executed with, when
+     *  the uberspector allows it
+     */
+    private volatile InlineCache inlineCache;
+
     /**
      * @param id
      */
@@ -110,6 +117,7 @@ public class ASTIdentifier extends SimpleNode implements TokenImageSaver
         uberInfo = new Info(getTemplateName(), getLine(), getColumn());
         RuntimeServices rsvc=VelocityUtil.getEngine().getRuntimeServices();
         strictRef = rsvc.getBoolean(RuntimeConstants.RUNTIME_REFERENCES_STRICT, false);
+        inlineCache = InlineCache.isEnabled(rsvc) ? InlineCache.EMPTY : null;
         
         return data;
     }
@@ -122,41 +130,59 @@ public class ASTIdentifier extends SimpleNode implements TokenImageSaver
     {
 
         VelPropertyGet vg = null;
+        final InlineCache inline = inlineCache;
 
         try
         {
             /*
-             *  first, see if we have this information cached.
+             *  first, see if this node already resolved the getter
              */
 
-            IntrospectionCacheData icd = context.icacheGet(this);
-
-            /*
-             * if we have the cache data and the class of the object we are
-             * invoked with is the same as that in the cache, then we must
-             * be allright.  The last 'variable' is the method name, and
-             * that is fixed in the template :)
-             */
-
-            if ( icd != null && (o != null) && (icd.contextData == o.getClass()) )
+            if (inline != null && o != null)
             {
-                vg = (VelPropertyGet) icd.thingy;
+                vg = (VelPropertyGet) inline.get(o.getClass(), null);
             }
-            else
+
+            if (vg == null)
             {
                 /*
-                 *  otherwise, do the introspection, and cache it.  Use the
-                 *  uberspector
+                 *  then, see if we have this information cached.
                  */
-                RuntimeServices rsvc=VelocityUtil.getEngine().getRuntimeServices();
-                vg = rsvc.getUberspect().getPropertyGet(o,identifier, uberInfo);
 
-                if (vg != null && vg.isCacheable() && (o != null))
+                IntrospectionCacheData icd = context.icacheGet(this);
+
+                /*
+                 * if we have the cache data and the class of the object we are
+                 * invoked with is the same as that in the cache, then we must
+                 * be allright.  The last 'variable' is the method name, and
+                 * that is fixed in the template :)
+                 */
+
+                if ( icd != null && (o != null) && (icd.contextData == o.getClass()) )
                 {
-                    icd = new IntrospectionCacheData();
-                    icd.contextData = o.getClass();
-                    icd.thingy = vg;
-                    context.icachePut(this,icd);
+                    vg = (VelPropertyGet) icd.thingy;
+                }
+                else
+                {
+                    /*
+                     *  otherwise, do the introspection, and cache it.  Use the
+                     *  uberspector
+                     */
+                    RuntimeServices rsvc=VelocityUtil.getEngine().getRuntimeServices();
+                    vg = rsvc.getUberspect().getPropertyGet(o,identifier, uberInfo);
+
+                    if (vg != null && vg.isCacheable() && (o != null))
+                    {
+                        icd = new IntrospectionCacheData();
+                        icd.contextData = o.getClass();
+                        icd.thingy = vg;
+                        context.icachePut(this,icd);
+
+                        if (inline != null)
+                        {
+                            inlineCache = inline.with(o.getClass(), null, vg);
+                        }
+                    }
                 }
             }
         }
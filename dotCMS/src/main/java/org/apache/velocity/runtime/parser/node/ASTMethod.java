@@ -35,6 +35,7 @@ import org.apache.velocity.runtime.directive.StopCommand;
 import org.apache.velocity.runtime.parser.Parser;
 import org.apache.velocity.util.ClassUtils;
 import org.apache.velocity.util.introspection.Info;
+import org.apache.velocity.util.introspection.InlineCache;
 import org.apache.velocity.util.introspection.VelMethod;
 
 /**
@@ -65,6 +66,12 @@ public class ASTMethod extends SimpleNode
      */
     protected boolean strictRef = false;
 
+    /**
+     *  the methods resolved for the classes of the object and the arguments
+     *  this node was executed with, when the uberspector allows it
+     */
+    private volatile InlineCache inlineCache;
+
     /**
      * @param id
      */
@@ -118,6 +125,7 @@ public class ASTMethod extends SimpleNode
         
         RuntimeServices rsvc=VelocityUtil.getEngine().getRuntimeServices();
         strictRef = rsvc.getBoolean(RuntimeConstants.RUNTIME_REFERENCES_STRICT, false);
+        inlineCache = InlineCache.isEnabled(rsvc) ? InlineCache.EMPTY : null;
         
         return data;
     }
@@ -158,9 +166,21 @@ public class ASTMethod extends SimpleNode
             }
         }
             
-        VelMethod method = ClassUtils.getMethod(methodName, params, paramClasses, 
-            o, context, this, strictRef);
-        if (method == null) return null;
+        // the static methods called on a class depend on the class, not on its class
+        final InlineCache inline = (o == null || o instanceof Class) ? null : inlineCache;
+        VelMethod method = inline != null
+            ? (VelMethod) inline.get(o.getClass(), paramClasses) : null;
+        if (method == null)
+        {
+            method = ClassUtils.getMethod(methodName, params, paramClasses, 
+                o, context, this, strictRef);
+            if (method == null) return null;
+
+            if (inline != null && method.isCacheable())
+            {
+                inlineCache = inline.with(o.getClass(), paramClasses, method);
+            }
+        }
 
         try
         {
@@ -0,0 +1,110 @@
+package org.apache.velocity.util.introspection;
+
+import org.apache.velocity.runtime.RuntimeServices;
+
+/**
+ * The methods and getters resolved by a reference of a template (an AST node) for the classes of the
+ * objects it was executed with, kept in the node so the next renders of the template do not
+ * introspect again. Unlike the introspection cache of the context, it lives as long as the parsed
+ * template.
+ * <p/>
+ * The cache is immutable: nodes are shared by the threads rendering the template, they keep it in a
+ * volatile field and replace it with {@link #with(Class, Class[], Object)}. It holds up to
+ * {@link #MAX_ENTRIES} classes, a reference that sees more classes introspects the others every time
+ * as it did before.
+ * <p/>
+ * Only used with the {@link MethodHandleUberspector}, see {@link #isEnabled(RuntimeServices)}.
+ */
+public final class InlineCache {
+
+    public static final int MAX_ENTRIES = 4;
+
+    public static final InlineCache EMPTY = new InlineCache(new Class[0], new Class[0][], new Object[0]);
+
+    private final Class[] receivers;
+    private final Class[][] parameters;
+    private final Object[] targets;
+
+    private InlineCache(final Class[] receivers, final Class[][] parameters, final Object[] targets) {
+        this.receivers  = receivers;
+        this.parameters = parameters;
+        this.targets    = targets;
+    }
+
+    /**
+     * True if the references of the templates can keep what the uberspector resolves: the
+     * {@link MethodHandleUberspector} always resolves the same method or getter for the same
+     * classes
+     *
+     * @param rsvc
+     * @return
+     */
+    public static boolean isEnabled(final RuntimeServices rsvc) {
+        return rsvc.getUberspect() instanceof MethodHandleUberspector;
+    }
+
+    /**
+     * The method or getter resolved for the class of the object and of the arguments
+     *
+     * @param receiver the class of the object
+     * @param parameterClasses the classes of the arguments, null for getters
+     * @return the {@link VelMethod} or {@link VelPropertyGet}, null if not cached
+     */
+    public Object get(final Class receiver, final Class[] parameterClasses) {
+
+        for (int i = 0; i < this.receivers.length; i++) {
+            if (this.receivers[i] == receiver && sameClasses(this.parameters[i], parameterClasses)) {
+                return this.targets[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A cache with the given method or getter too
+     *
+     * @param receiver
+     * @param parameterClasses
+     * @param target
+     * @return the new cache, or this one when it is full
+     */
+    public InlineCache with(final Class receiver, final Class[] parameterClasses, final Object target) {
+
+        final int size = this.receivers.length;
+        if (size >= MAX_ENTRIES) {
+            return this;
+        }
+
+        final Class[] receivers = new Class[size + 1];
+        final Class[][] parameters = new Class[size + 1][];
+        final Object[] targets = new Object[size + 1];
+        System.arraycopy(this.receivers, 0, receivers, 0, size);
+        System.arraycopy(this.parameters, 0, parameters, 0, size);
+        System.arraycopy(this.targets, 0, targets, 0, size);
+        receivers[size]  = receiver;
+        parameters[size] = null != parameterClasses ? parameterClasses.clone() : null;
+        targets[size]    = target;
+        return new InlineCache(receivers, parameters, targets);
+    }
+
+    public int size() {
+        return this.receivers.length;
+    }
+
+    private static boolean sameClasses(final Class[] cached, final Class[] classes) {
+
+        if (cached == classes) {
+            return true;
+        }
+        if (null == cached || null == classes || cached.length != classes.length) {
+            return false;
+        }
+        for (int i = 0; i < cached.length; i++) {
+            if (cached[i] != classes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,221 @@
+package org.apache.velocity.util.introspection;
+
+import com.dotcms.rendering.velocity.viewtools.content.ContentMap;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import org.apache.velocity.runtime.parser.node.AbstractExecutor;
+import org.apache.velocity.runtime.parser.node.GetExecutor;
+import org.apache.velocity.runtime.parser.node.PropertyExecutor;
+
+/**
+ * A {@link SecureUberspector} that calls the methods and getters it resolves through
+ * {@link MethodHandle}s instead of {@link Method#invoke(Object, Object...)}, and lets the references
+ * of the templates keep what it resolves (see {@link InlineCache}), so a <code>$content.title</code>
+ * inside a loop introspects once per template instead of once per render.
+ * <p/>
+ * <code>$content.field</code> on a {@link ContentMap} calls {@link ContentMap#get(String)} directly.
+ * <p/>
+ * The methods are resolved, and the security restrictions applied, as the {@link SecureUberspector}
+ * does. Calls whose arguments would need a conversion the handle does not do the way reflection
+ * does (e.g. an Integer to a long) fall back to reflection. To use it set:
+ * <pre>
+ * runtime.introspector.uberspect = org.apache.velocity.util.introspection.MethodHandleUberspector
+ * </pre>
+ */
+public class MethodHandleUberspector extends SecureUberspector {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    @Override
+    public VelMethod getMethod(final Object obj, final String methodName, final Object[] args, final Info i)
+            throws Exception {
+
+        final VelMethod method = super.getMethod(obj, methodName, args, i);
+        if (method instanceof VelMethodImpl) {
+            final VelMethodImpl impl = (VelMethodImpl) method;
+            final MethodHandle handle = spreadHandle(impl.method);
+            if (null != handle) {
+                return new HandleMethod(impl.method, impl.wrapArray, handle);
+            }
+        }
+        return method;
+    }
+
+    @Override
+    public VelPropertyGet getPropertyGet(final Object obj, final String identifier, final Info i)
+            throws Exception {
+
+        final VelPropertyGet getter = super.getPropertyGet(obj, identifier, i);
+        if (!(getter instanceof VelGetterImpl)) {
+            return getter;
+        }
+
+        final AbstractExecutor executor = ((VelGetterImpl) getter).getExecutor;
+        final Method method = executor.getMethod();
+        if (executor instanceof PropertyExecutor) {
+            // getFoo() and isFoo()
+            final MethodHandle handle = handle(method);
+            return null != handle ? new HandleGetter(executor, handle.asType(GETTER_TYPE)) : getter;
+        }
+        if (executor instanceof GetExecutor) {
+            if (obj instanceof ContentMap && method.getDeclaringClass() == ContentMap.class) {
+                return new ContentMapGetter(executor, identifier);
+            }
+            final MethodHandle handle = handle(method);
+            return null != handle
+                    ? new HandleGetter(executor, MethodHandles.insertArguments(handle, 1, identifier).asType(GETTER_TYPE))
+                    : getter;
+        }
+        // Map.get is already called without reflection
+        return getter;
+    }
+
+    /**
+     * The handle of a public instance method, null if it can not be called through a handle
+     */
+    private static MethodHandle handle(final Method method) {
+
+        if (null == method || Modifier.isStatic(method.getModifiers())) {
+            return null;
+        }
+        try {
+            return MethodHandles.publicLookup().unreflect(method);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The handle of the method as <code>(Object, Object[])Object</code>
+     */
+    private static MethodHandle spreadHandle(final Method method) {
+
+        final MethodHandle handle = handle(method);
+        if (null == handle) {
+            return null;
+        }
+        final int parameters = method.getParameterTypes().length;
+        return handle.asType(MethodType.genericMethodType(parameters + 1))
+                .asSpreader(Object[].class, parameters);
+    }
+
+    /**
+     * Calls the method through its handle when the arguments are of the exact types the handle
+     * takes: the wrappers for the primitive parameters, instances of the parameter classes for the
+     * others. Otherwise calls it through reflection, which converts or rejects them.
+     */
+    static final class HandleMethod extends VelMethodImpl {
+
+        private final MethodHandle handle;
+        private final Class[] parameterClasses;
+        private final boolean[] primitives;
+
+        HandleMethod(final Method method, final boolean wrapArray, final MethodHandle handle) {
+
+            super(method, wrapArray);
+            this.handle = handle;
+            final Class[] formal = method.getParameterTypes();
+            this.parameterClasses = new Class[formal.length];
+            this.primitives = new boolean[formal.length];
+            for (int i = 0; i < formal.length; i++) {
+                this.primitives[i] = formal[i].isPrimitive();
+                this.parameterClasses[i] = this.primitives[i]
+                        ? MethodType.methodType(formal[i]).wrap().returnType()
+                        : formal[i];
+            }
+        }
+
+        @Override
+        protected Object doInvoke(final Object o, final Object[] actual) throws Exception {
+
+            if (!this.accepts(o, actual)) {
+                return super.doInvoke(o, actual);
+            }
+            try {
+                return this.handle.invokeExact(o, actual);
+            } catch (Throwable t) {
+                throw new InvocationTargetException(t);
+            }
+        }
+
+        private boolean accepts(final Object o, final Object[] actual) {
+
+            if (!this.method.getDeclaringClass().isInstance(o)
+                    || (null == actual ? 0 : actual.length) != this.parameterClasses.length) {
+                return false;
+            }
+            for (int i = 0; i < this.parameterClasses.length; i++) {
+                final Object arg = actual[i];
+                if (this.primitives[i]
+                        ? null == arg || arg.getClass() != this.parameterClasses[i]
+                        : null != arg && !this.parameterClasses[i].isInstance(arg)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Calls a getter, or <code>get("identifier")</code>, through its handle
+     */
+    static final class HandleGetter extends VelGetterImpl {
+
+        private final MethodHandle handle;
+        private final Class declaringClass;
+
+        HandleGetter(final AbstractExecutor executor, final MethodHandle handle) {
+
+            super(executor);
+            this.handle = handle;
+            this.declaringClass = executor.getMethod().getDeclaringClass();
+        }
+
+        @Override
+        public Object invoke(final Object o) throws Exception {
+
+            if (!this.declaringClass.isInstance(o)) {
+                return super.invoke(o);
+            }
+            try {
+                return this.handle.invokeExact(o);
+            } catch (Throwable t) {
+                throw new InvocationTargetException(t);
+            }
+        }
+    }
+
+    /**
+     * <code>$content.field</code>: calls {@link ContentMap#get(String)}
+     */
+    static final class ContentMapGetter extends VelGetterImpl {
+
+        private final String identifier;
+
+        ContentMapGetter(final AbstractExecutor executor, final String identifier) {
+
+            super(executor);
+            this.identifier = identifier;
+        }
+
+        @Override
+        public Object invoke(final Object o) throws Exception {
+
+            if (!(o instanceof ContentMap)) {
+                return super.invoke(o);
+            }
+            try {
+                return ((ContentMap) o).get(this.identifier);
+            } catch (Throwable t) {
+                throw new InvocationTargetException(t);
+            }
+        }
+    }
+
+}
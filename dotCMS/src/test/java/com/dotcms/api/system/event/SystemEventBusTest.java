@@ -0,0 +1,94 @@
+package com.dotcms.api.system.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.dotcms.UnitTestBase;
+import com.dotcms.util.marshal.MarshalUtils;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import org.junit.Test;
+
+public class SystemEventBusTest extends UnitTestBase {
+
+    private final List<SystemEvent> delivered = new ArrayList<>();
+    private final List<String> sent = new ArrayList<>();
+    private final MarshalUtils marshalUtils = mock(MarshalUtils.class);
+
+    @Test
+    public void testPublishDeliversLocallyAndToTheCluster() {
+
+        final SystemEventBus bus = bus(10);
+        final SystemEvent event = event("1", "server1", System.currentTimeMillis());
+        when(marshalUtils.marshal(event)).thenReturn("{json}");
+
+        bus.publish(event);
+
+        assertEquals(1, delivered.size());
+        assertEquals(event, delivered.get(0));
+        assertEquals(1, sent.size());
+        assertEquals(SystemEventBus.CLUSTER_MESSAGE_PREFIX + "{json}", sent.get(0));
+        assertTrue(SystemEventBus.isClusterMessage(sent.get(0)));
+    }
+
+    @Test
+    public void testReceiveSkipsTheEventsOfThisServer() {
+
+        final SystemEventBus bus = bus(10);
+        final long now = System.currentTimeMillis();
+        final SystemEvent own = event("1", "server1", now);
+        final SystemEvent other = event("2", "server2", now);
+        when(marshalUtils.unmarshal("own", SystemEvent.class)).thenReturn(own);
+        when(marshalUtils.unmarshal("other", SystemEvent.class)).thenReturn(other);
+
+        bus.receive(SystemEventBus.CLUSTER_MESSAGE_PREFIX + "own");
+        bus.receive(SystemEventBus.CLUSTER_MESSAGE_PREFIX + "other");
+
+        assertEquals(1, delivered.size());
+        assertEquals(other, delivered.get(0));
+        assertTrue(sent.isEmpty());
+        assertEquals(1, bus.getEventsSince(now).size());
+    }
+
+    @Test
+    public void testEventsSinceUntilTheBufferDropsThem() {
+
+        final SystemEventBus bus = bus(3);
+        final long now = System.currentTimeMillis() + 1000;
+        for (int i = 0; i < 3; i++) {
+            bus.publish(event(String.valueOf(i), "server1", now + i));
+        }
+
+        assertTrue(bus.hasEventsSince(now));
+        assertEquals(3, bus.getEventsSince(now).size());
+        assertEquals(1, bus.getEventsSince(now + 2).size());
+
+        bus.publish(event("3", "server1", now + 3));
+
+        assertFalse(bus.hasEventsSince(now));
+        assertTrue(bus.hasEventsSince(now + 1));
+        final List<SystemEvent> events = bus.getEventsSince(now);
+        assertEquals(3, events.size());
+        assertEquals("1", events.get(0).getId());
+        assertEquals("3", events.get(2).getId());
+    }
+
+    @Test
+    public void testEventsBeforeTheBusStartedMayBeMissing() {
+
+        assertFalse(bus(10).hasEventsSince(System.currentTimeMillis() - 60000));
+    }
+
+    private SystemEventBus bus(final int bufferSize) {
+        return new SystemEventBus(bufferSize, "server1", delivered::add, sent::add, marshalUtils);
+    }
+
+    private static SystemEvent event(final String id, final String serverId, final long created) {
+        return new SystemEvent(id, SystemEventType.NOTIFICATION, new Payload("data"), new Date(created), serverId);
+    }
+
+}
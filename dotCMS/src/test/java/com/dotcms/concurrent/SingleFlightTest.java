@@ -0,0 +1,115 @@
+package com.dotcms.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.dotcms.UnitTestBase;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class SingleFlightTest extends UnitTestBase {
+
+    @Test
+    public void testConcurrentLoadsRunTheLoaderOnce() throws Exception {
+
+        final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch leaderStarted = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            final Future<String> leader = executor.submit(() -> singleFlight.load("page", () -> {
+                loads.incrementAndGet();
+                leaderStarted.countDown();
+                release.await();
+                return "rendered";
+            }, 10000));
+            leaderStarted.await();
+            assertTrue(singleFlight.isInFlight("page"));
+
+            final List<Future<String>> followers = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                followers.add(executor.submit(() -> singleFlight.load("page", () -> {
+                    loads.incrementAndGet();
+                    return "follower";
+                }, 10000)));
+            }
+            release.countDown();
+
+            assertEquals("rendered", leader.get());
+            for (final Future<String> follower : followers) {
+                assertEquals("rendered", follower.get());
+            }
+            assertEquals(1, loads.get());
+            assertFalse(singleFlight.isInFlight("page"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFollowerLoadsItselfWhenTheWaitExpires() throws Exception {
+
+        final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        final CountDownLatch leaderStarted = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            executor.submit(() -> singleFlight.load("page", () -> {
+                leaderStarted.countDown();
+                release.await(10, TimeUnit.SECONDS);
+                return "rendered";
+            }, 10000));
+            leaderStarted.await();
+
+            assertEquals("follower", singleFlight.load("page", () -> "follower", 10));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFollowerLoadsItselfWhenTheLeaderFails() throws Exception {
+
+        final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        final CountDownLatch leaderStarted = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            executor.submit(() -> singleFlight.load("page", () -> {
+                leaderStarted.countDown();
+                release.await();
+                throw new IllegalStateException("render failed");
+            }, 10000));
+            leaderStarted.await();
+
+            final ExecutorService followerExecutor = Executors.newSingleThreadExecutor();
+            try {
+                final Future<String> follower = followerExecutor.submit(
+                        () -> singleFlight.load("page", () -> "follower", 10000));
+                // give the follower time to join the flight before the leader fails
+                Thread.sleep(50);
+                release.countDown();
+                assertEquals("follower", follower.get());
+            } finally {
+                followerExecutor.shutdownNow();
+            }
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.dotcms.publisher.pusher;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.dotcms.UnitTestBase;
+import com.dotcms.repackage.org.apache.commons.io.IOUtils;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+public class ParallelGzipOutputStreamTest extends UnitTestBase {
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterClass
+    public static void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testTextIsReadByGzip() throws IOException {
+
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; text.length() < 1024 * 1024; i++) {
+            text.append("<content identifier=\"").append(i).append("\">Push publishing bundle</content>\n");
+        }
+        final byte[] data = text.toString().getBytes("UTF-8");
+        final byte[] compressed = compress(data, 64 * 1024, 3);
+
+        assertArrayEquals(data, decompress(compressed));
+        // close to what a single thread does
+        assertTrue(compressed.length < gzip(data).length * 1.1);
+    }
+
+    @Test
+    public void testRandomDataIsReadByGzip() throws IOException {
+
+        final byte[] data = new byte[300 * 1024 + 17];
+        new Random(42).nextBytes(data);
+
+        assertArrayEquals(data, decompress(compress(data, 32 * 1024, 2)));
+    }
+
+    @Test
+    public void testSmallWrites() throws IOException {
+
+        final byte[] data = new byte[100 * 1024];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 31);
+        }
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ParallelGzipOutputStream gzip = new ParallelGzipOutputStream(out, executor, 32 * 1024, 2,
+                Deflater.DEFAULT_COMPRESSION)) {
+            for (final byte b : data) {
+                gzip.write(b);
+            }
+        }
+
+        assertArrayEquals(data, decompress(out.toByteArray()));
+    }
+
+    @Test
+    public void testEmptyStream() throws IOException {
+
+        assertArrayEquals(new byte[0], decompress(compress(new byte[0], 32 * 1024, 1)));
+    }
+
+    private static byte[] compress(final byte[] data, final int blockSize, final int pending) throws IOException {
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ParallelGzipOutputStream gzip = new ParallelGzipOutputStream(out, executor, blockSize, pending,
+                Deflater.DEFAULT_COMPRESSION)) {
+            // writes not aligned with the blocks
+            for (int offset = 0; offset < data.length; offset += 10000) {
+                gzip.write(data, offset, Math.min(10000, data.length - offset));
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gzip(final byte[] data) throws IOException {
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] decompress(final byte[] compressed) throws IOException {
+
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return IOUtils.toByteArray(gzip);
+        }
+    }
+
+}
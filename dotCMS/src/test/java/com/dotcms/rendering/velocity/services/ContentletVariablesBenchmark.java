@@ -0,0 +1,138 @@
+package com.dotcms.rendering.velocity.services;
+
+import com.dotcms.rendering.velocity.util.VelocityUtil;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.context.InternalContextAdapterImpl;
+import org.apache.velocity.runtime.RuntimeServices;
+import org.apache.velocity.runtime.parser.node.SimpleNode;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.GenerateMicroBenchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JMH comparison of rendering a container of 20 contentlets with the generated VTL of the
+ * contentlets, parsed on every include (a VelocityCache miss) or already parsed (a hit), and with
+ * their {@link ContentletVariables} bound into the context. Each contentlet sets the variables of a
+ * content type with 12 text fields, a date field, a select field and an empty category field, the
+ * container prints a few of them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ContentletVariablesBenchmark {
+
+    private static final int CONTENTLETS = 20;
+
+    private final List<String> velocity = new ArrayList<>();
+    private final List<SimpleNode> parsed = new ArrayList<>();
+    private final List<ContentletVariables> variables = new ArrayList<>();
+    private RuntimeServices rsvc;
+    private SimpleNode container;
+
+    @Setup
+    public void setup() throws Exception {
+
+        rsvc = VelocityUtil.getEngine().getRuntimeServices();
+        for (int i = 0; i < CONTENTLETS; i++) {
+            final ContentletVariables.Builder builder = contentlet(i);
+            velocity.add(builder.toVelocity());
+            parsed.add(parse(builder.toVelocity()));
+            variables.add(builder.build("/LIVE/content" + i + "_1.content"));
+        }
+        container = parse("<h2>$title</h2><p>$!summary</p><span>$publishDateShortFormat $ContentIdentifier</span>");
+    }
+
+    @GenerateMicroBenchmark
+    public String parsedVelocity() throws Exception {
+
+        final InternalContextAdapterImpl context = new InternalContextAdapterImpl(new VelocityContext());
+        final StringWriter writer = new StringWriter();
+        for (final String vtl : velocity) {
+            parse(vtl).render(context, writer);
+            container.render(context, writer);
+        }
+        return writer.toString();
+    }
+
+    @GenerateMicroBenchmark
+    public String cachedVelocity() throws Exception {
+
+        final InternalContextAdapterImpl context = new InternalContextAdapterImpl(new VelocityContext());
+        final StringWriter writer = new StringWriter();
+        for (final SimpleNode node : parsed) {
+            node.render(context, writer);
+            container.render(context, writer);
+        }
+        return writer.toString();
+    }
+
+    @GenerateMicroBenchmark
+    public String boundVariables() throws Exception {
+
+        final InternalContextAdapterImpl context = new InternalContextAdapterImpl(new VelocityContext());
+        final StringWriter writer = new StringWriter();
+        for (final ContentletVariables contentlet : variables) {
+            contentlet.bind(context, writer);
+            container.render(context, writer);
+        }
+        return writer.toString();
+    }
+
+    private SimpleNode parse(final String vtl) throws Exception {
+
+        final SimpleNode node = rsvc.parse(new StringReader(vtl), "benchmark");
+        final InternalContextAdapterImpl ica = new InternalContextAdapterImpl(new VelocityContext());
+        ica.pushCurrentTemplateName("benchmark");
+        node.init(ica, rsvc);
+        return node;
+    }
+
+    private static ContentletVariables.Builder contentlet(final int i) {
+
+        final String identifier = "identifier-" + i;
+        final ContentletVariables.Builder builder = new ContentletVariables.Builder()
+                .vtl("#if($EDIT_MODE)#set( $EDIT_CONTENT_PERMISSION=$EDIT_CONTENT_PERMISSION" + identifier + ")#end")
+                .literal("CONTENT_INODE", "inode-" + i)
+                .literal("IDENTIFIER_INODE", identifier)
+                .literal("CONTENT_TYPE", "news")
+                .literal("CONTENT_BASE_TYPE", "CONTENT")
+                .literal("CONTENT_TYPE_ID", "type-id")
+                .literal("CONTENT_LANGUAGE", "1")
+                .literal("ContentInode", "inode-" + i)
+                .literal("ContentIdentifier", identifier)
+                .quoted("ContentletTitle", "A news title " + i)
+                .date("ContentLastModDate", "yyyy-MM-dd H:mm:ss", "2018-03-01 10:15:00")
+                .quoted("ContentLastModUserId", "dotcms.org.1")
+                .literal("structureName", "News");
+        builder.quoted("title", "A news title " + i);
+        for (int field = 0; field < 11; field++) {
+            builder.quoted("text" + field, "Some text of the field " + field + " of the contentlet " + i);
+        }
+        builder.date("publishDate", "yyyy-MM-dd", "2018-03-01")
+                .quoted("publishDateShortFormat", "03/01/2018")
+                .quoted("publishDateDBFormat", "2018-03-01")
+                .quoted("typeSelectLabelsValues", "News|news Blog|blog")
+                .vtl("#set( $topicFilteredCategories=$contents.getEmptyList())#set( $topicCategories=$contents.getEmptyList())")
+                .vtl("#set($ContentletFilteredCategories=$contents.getEmptyList())")
+                .quoted("isForm", "false")
+                .quoted("CONTENT_INODE", "inode-" + i)
+                .quoted("IDENTIFIER_INODE", identifier)
+                .quoted("ContentInode", "inode-" + i)
+                .quoted("ContentIdentifier", identifier)
+                .quoted("ContentletTitle", "A news title " + i)
+                .quoted("ContentletStructure", "type-id")
+                .quoted("ContentletContentType", "type-id")
+                .quoted("isWidget", "false");
+        return builder;
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.dotcms.rendering.velocity.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import com.dotcms.UnitTestBase;
+import java.io.StringWriter;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.context.InternalContextAdapterImpl;
+import org.junit.Test;
+
+public class ContentletVariablesTest extends UnitTestBase {
+
+    @Test
+    public void testVelocity() {
+
+        final ContentletVariables.Builder builder = new ContentletVariables.Builder()
+                .literal("ContentIdentifier", "abc")
+                .quoted("title", "A title")
+                .date("publishDate", "yyyy-MM-dd", "2018-03-01")
+                .quoted("summary", "Costs ${esc.q}5${esc.q}")
+                .vtl("#set($fileObject= $filetool.getNewFile())")
+                .vtl("");
+
+        assertEquals("#set($ContentIdentifier='abc' )"
+                + "#set($title=\"A title\")"
+                + "#set($publishDate=$date.toDate(\"yyyy-MM-dd\", \"2018-03-01\"))"
+                + "#set($summary=\"Costs ${esc.q}5${esc.q}\")"
+                + "#set($fileObject= $filetool.getNewFile())", builder.toVelocity());
+    }
+
+    @Test
+    public void testConstantsAreBound() throws Exception {
+
+        final ContentletVariables variables = new ContentletVariables.Builder()
+                .literal("ContentIdentifier", "abc")
+                .quoted("title", "A title")
+                .date("publishDate", "yyyy-MM-dd", "2018-03-01")
+                .date("expireDate", "yyyy-MM-dd", "")
+                .quoted("title", "Another title")
+                .build("/LIVE/abc_1.content");
+
+        final VelocityContext velocityContext = new VelocityContext();
+        final InternalContextAdapterImpl context = new InternalContextAdapterImpl(velocityContext);
+        final StringWriter writer = new StringWriter();
+        variables.bind(context, writer);
+
+        assertEquals("abc", context.get("ContentIdentifier"));
+        assertEquals("Another title", context.get("title"));
+        assertEquals(new SimpleDateFormat("yyyy-MM-dd").parse("2018-03-01"), context.get("publishDate"));
+        assertFalse(context.containsKey("expireDate"));
+        assertEquals("", writer.toString());
+
+        // every render gets its own date
+        final Date publishDate = (Date) context.get("publishDate");
+        variables.bind(context, writer);
+        assertNotSame(publishDate, context.get("publishDate"));
+        assertTrue(publishDate.equals(context.get("publishDate")));
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.dotcms.rendering.velocity.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.dotcms.UnitTestBase;
+import java.io.StringWriter;
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.runtime.RuntimeInstance;
+import org.junit.Test;
+
+public class VelocityEvalCacheTest extends UnitTestBase {
+
+    private final RuntimeInstance rsvc = VelocityUtil.getEngine().getRuntimeServices();
+
+    @Test
+    public void testSourceIsParsedOnce() {
+
+        final VelocityEvalCache cache = new VelocityEvalCache(1024 * 1024, 1024, 60);
+        final long parses = VelocityProfiler.getEvalParseCount();
+        final long hits = VelocityProfiler.getEvalCacheHitCount();
+
+        assertEquals("Hello World", eval(cache, "Hello $name", "World"));
+        assertEquals("Hello dotCMS", eval(cache, "Hello $name", "dotCMS"));
+        assertEquals("Bye dotCMS", eval(cache, "Bye $name", "dotCMS"));
+
+        assertEquals(2, cache.size());
+        assertEquals(parses + 2, VelocityProfiler.getEvalParseCount());
+        assertTrue(VelocityProfiler.getEvalCacheHitCount() >= hits + 1);
+    }
+
+    @Test
+    public void testMacrosAndLongSourcesAreNotCached() {
+
+        final VelocityEvalCache cache = new VelocityEvalCache(1024 * 1024, 32, 60);
+
+        assertEquals("Hi World", eval(cache, "#macro(evalCacheHi $n)Hi $n#end#evalCacheHi($name)", "World"));
+        assertEquals("A longer source than the cache keeps: World",
+                eval(cache, "A longer source than the cache keeps: $name", "World"));
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testDisabledCacheStillEvaluates() {
+
+        final VelocityEvalCache cache = new VelocityEvalCache(0, 1024, 60);
+
+        assertEquals("Hello World", eval(cache, "Hello $name", "World"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testClear() {
+
+        final VelocityEvalCache cache = new VelocityEvalCache(1024 * 1024, 1024, 60);
+        eval(cache, "Hello $name", "World");
+
+        cache.clear();
+
+        assertEquals(0, cache.size());
+    }
+
+    private String eval(final VelocityEvalCache cache, final String vtl, final String name) {
+
+        final VelocityContext context = new VelocityContext();
+        context.put("name", name);
+        final StringWriter writer = new StringWriter();
+        assertTrue(cache.evaluate(rsvc, context, writer, "test", vtl));
+        return writer.toString();
+    }
+
+}
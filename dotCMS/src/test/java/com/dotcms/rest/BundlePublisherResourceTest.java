@@ -0,0 +1,135 @@
+package com.dotcms.rest;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.dotcms.UnitTestBase;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Receiving a bundle: an interrupted transfer leaves the bytes received in the part file, and the
+ * sender resumes it from there
+ */
+public class BundlePublisherResourceTest extends UnitTestBase {
+
+    private final byte[] data = new byte[100 * 1024 + 7];
+
+    private File bundle;
+    private File part;
+
+    @Before
+    public void setup() throws IOException {
+
+        new Random(42).nextBytes(data);
+        final File folder = Files.createTempDirectory("bundle-publisher").toFile();
+        folder.deleteOnExit();
+        bundle = new File(folder, "bundle.tar.gz");
+        part = new File(bundle.getPath() + BundlePublisherResource.PART_SUFFIX);
+    }
+
+    @Test
+    public void testTruncatedTransferIsResumed() throws IOException {
+
+        final int received = 40 * 1024;
+        try {
+            BundlePublisherResource.receiveBundle(new TruncatedInputStream(data, received), bundle.getPath(),
+                    0, data.length);
+            fail("The interrupted transfer should fail");
+        } catch (IOException e) {
+            // expected
+        }
+        assertFalse(bundle.exists());
+        assertEquals(received, part.length());
+
+        final InputStream rest = new ByteArrayInputStream(data, received, data.length - received);
+        assertTrue(BundlePublisherResource.receiveBundle(rest, bundle.getPath(), received, data.length));
+
+        assertFalse(part.exists());
+        assertArrayEquals(data, Files.readAllBytes(bundle.toPath()));
+    }
+
+    @Test
+    public void testOffsetThatDoesNotMatchThePartIsRejected() throws IOException {
+
+        final byte[] received = Arrays.copyOf(data, 1000);
+        Files.write(part.toPath(), received);
+
+        final InputStream rest = new ByteArrayInputStream(data, 2000, data.length - 2000);
+        assertFalse(BundlePublisherResource.receiveBundle(rest, bundle.getPath(), 2000, data.length));
+
+        // the resource answers 409 and the part is kept for the sender to ask for its size
+        assertFalse(bundle.exists());
+        assertArrayEquals(received, Files.readAllBytes(part.toPath()));
+    }
+
+    @Test
+    public void testResumeWithoutPartIsRejected() throws IOException {
+
+        final InputStream rest = new ByteArrayInputStream(data, 1000, data.length - 1000);
+        assertFalse(BundlePublisherResource.receiveBundle(rest, bundle.getPath(), 1000, data.length));
+        assertFalse(bundle.exists());
+        assertFalse(part.exists());
+    }
+
+    @Test
+    public void testBundleSizeMismatchIsNotPublished() throws IOException {
+
+        try {
+            BundlePublisherResource.receiveBundle(new ByteArrayInputStream(data), bundle.getPath(), 0,
+                    data.length + 10);
+            fail("A bundle smaller than its size should fail");
+        } catch (IOException e) {
+            // expected
+        }
+        assertFalse(bundle.exists());
+        assertEquals(data.length, part.length());
+    }
+
+    @Test
+    public void testBundleWithoutSizeIsReceived() throws IOException {
+
+        assertTrue(BundlePublisherResource.receiveBundle(new ByteArrayInputStream(data), bundle.getPath(), 0, 0));
+        assertFalse(part.exists());
+        assertArrayEquals(data, Files.readAllBytes(bundle.toPath()));
+    }
+
+    /**
+     * Fails after the given bytes, as a connection that is closed in the middle of the transfer
+     */
+    private static class TruncatedInputStream extends FilterInputStream {
+
+        TruncatedInputStream(final byte[] data, final int length) {
+            super(new ByteArrayInputStream(data, 0, length));
+        }
+
+        @Override
+        public int read() throws IOException {
+            return check(super.read());
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+            return check(super.read(bytes, offset, length));
+        }
+
+        private static int check(final int read) throws IOException {
+            if (read == -1) {
+                throw new IOException("Connection reset");
+            }
+            return read;
+        }
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.dotcms.vanityurl.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.GenerateMicroBenchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JMH comparison of finding the vanity URL of a request by evaluating the pattern of every cached
+ * vanity URL of the site, the way the VanityUrlAPIImpl used to, and through the candidates of the
+ * {@link VanityUrlMatcher}, over 10,000 vanity URLs: literal URIs, path prefixes and a few dynamic
+ * patterns. Half of the requested URIs do not match any vanity URL, the worst case of the scan.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VanityUrlMatcherBenchmark {
+
+    private static final int VANITY_URLS = 10000;
+
+    private final List<CachedVanityUrl> vanityUrls = new ArrayList<>();
+    private final List<String> uris = new ArrayList<>();
+    private VanityUrlMatcher matcher;
+    private int next;
+
+    @Setup
+    public void setup() {
+
+        final Random random = new Random(42);
+        for (int i = 0; i < VANITY_URLS; i++) {
+            final String uri;
+            if (i % 100 == 0) {
+                uri = "(.*)/legacy-" + i;
+            } else if (i % 4 == 0) {
+                uri = "/section" + (i % 50) + "/campaign-" + i + "/(.*)";
+            } else {
+                uri = "/section" + (i % 50) + "/page-" + i;
+            }
+            vanityUrls.add(vanityUrl(uri));
+        }
+        matcher = new VanityUrlMatcher(vanityUrls);
+
+        for (int i = 0; i < 1000; i++) {
+            final int vanity = random.nextInt(VANITY_URLS);
+            uris.add(i % 2 == 0
+                    ? "/section" + (vanity % 50) + "/page-" + vanity
+                    : "/section" + (vanity % 50) + "/not-a-vanity-" + vanity);
+        }
+    }
+
+    @GenerateMicroBenchmark
+    public CachedVanityUrl linearScan() {
+
+        final String uri = nextUri();
+        for (final CachedVanityUrl vanityUrl : vanityUrls) {
+            if (vanityUrl.getPattern().matcher(uri).matches()) {
+                return vanityUrl;
+            }
+        }
+        return null;
+    }
+
+    @GenerateMicroBenchmark
+    public CachedVanityUrl matcher() {
+
+        final String uri = nextUri();
+        for (final CachedVanityUrl vanityUrl : matcher.getCandidates(uri)) {
+            if (vanityUrl.getPattern().matcher(uri).matches()) {
+                return vanityUrl;
+            }
+        }
+        return null;
+    }
+
+    @GenerateMicroBenchmark
+    public VanityUrlMatcher build() {
+        return new VanityUrlMatcher(vanityUrls);
+    }
+
+    private String nextUri() {
+        next = (next + 1) % uris.size();
+        return uris.get(next);
+    }
+
+    private static CachedVanityUrl vanityUrl(final String uri) {
+
+        final VanityUrl vanityUrl = new DefaultVanityUrl();
+        vanityUrl.setIdentifier(uri);
+        vanityUrl.setURI(uri);
+        vanityUrl.setForwardTo("/forward");
+        vanityUrl.setAction(200);
+        vanityUrl.setOrder(0);
+        vanityUrl.setLanguageId(1);
+        vanityUrl.setSite("SYSTEM_HOST");
+        return new CachedVanityUrl(vanityUrl);
+    }
+
+}
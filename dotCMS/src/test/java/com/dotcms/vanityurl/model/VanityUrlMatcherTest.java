@@ -0,0 +1,95 @@
+package com.dotcms.vanityurl.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.dotcms.UnitTestBase;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+public class VanityUrlMatcherTest extends UnitTestBase {
+
+    @Test
+    public void testLiteralPrefix() {
+
+        assertNull(VanityUrlMatcher.getLiteralPrefix("/about-us"));
+        assertNull(VanityUrlMatcher.getLiteralPrefix("^/about-us$"));
+        assertEquals("/blog/", VanityUrlMatcher.getLiteralPrefix("/blog/(.*)"));
+        assertEquals("/news/2017", VanityUrlMatcher.getLiteralPrefix("^/news/2017.*"));
+        assertEquals("/colo", VanityUrlMatcher.getLiteralPrefix("/colou?r"));
+        assertEquals("/ab", VanityUrlMatcher.getLiteralPrefix("/ab+c"));
+        assertEquals("/index", VanityUrlMatcher.getLiteralPrefix("/index\\.html"));
+        assertEquals("", VanityUrlMatcher.getLiteralPrefix("(.*)/index"));
+        assertEquals("", VanityUrlMatcher.getLiteralPrefix("/a|/b"));
+    }
+
+    @Test
+    public void testCandidatesKeepTheOrderOfTheList() {
+
+        final CachedVanityUrl blog = vanityUrl("/blog/(.*)", 0);
+        final CachedVanityUrl about = vanityUrl("/about", 1);
+        final CachedVanityUrl any = vanityUrl("(.*)", 2);
+        final CachedVanityUrl post = vanityUrl("/blog/post-[0-9]+", 3);
+        final VanityUrlMatcher matcher = new VanityUrlMatcher(Arrays.asList(blog, about, any, post));
+
+        assertEquals(Arrays.asList(blog, any, post), matcher.getCandidates("/BLOG/post-1"));
+        assertEquals(Arrays.asList(about, any), matcher.getCandidates("/About"));
+        assertEquals(Arrays.asList(any), matcher.getCandidates("/contact"));
+
+        // added vanity URLs go before the ones with their same order
+        final CachedVanityUrl added = new CachedVanityUrl(blog, "/blog/post-1");
+        matcher.add(added);
+        assertEquals(Arrays.asList(added, blog, any, post), matcher.getCandidates("/blog/post-1"));
+        assertEquals(5, matcher.size());
+    }
+
+    @Test
+    public void testFindsTheSameVanityUrlsAsTheLinearScan() {
+
+        final Random random = new Random(42);
+        final String[] patterns = {"/%s", "/%s/(.*)", "/%s/.*\\.html", "^/%s-[0-9]+$", "(.*)/%s",
+                "/%s/pa?ge", "/%s|/other", "/%s.dot"};
+        final List<CachedVanityUrl> vanityUrls = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            final String pattern = patterns[random.nextInt(patterns.length)];
+            vanityUrls.add(vanityUrl(String.format(pattern, "Path" + random.nextInt(50)), random.nextInt(5)));
+        }
+        vanityUrls.sort(Comparator.comparing(CachedVanityUrl::getOrder));
+        final VanityUrlMatcher matcher = new VanityUrlMatcher(vanityUrls);
+
+        final String[] uris = {"/%s", "/%s/", "/%s/a/b", "/%s/index.html", "/%s-12", "/x/y/%s", "/%s/pge",
+                "/%s/page", "/other", "/%sxdot", "/%s.dot", "/nothing"};
+        for (int i = 0; i < 2000; i++) {
+            final String uri = String.format(uris[random.nextInt(uris.length)], "path" + random.nextInt(50));
+            final List<CachedVanityUrl> expected = vanityUrls.stream()
+                    .filter(vanityUrl -> vanityUrl.getPattern().matcher(uri).matches())
+                    .collect(Collectors.toList());
+            final List<CachedVanityUrl> candidates = matcher.getCandidates(uri);
+
+            assertEquals(uri, expected, candidates.stream()
+                    .filter(vanityUrl -> vanityUrl.getPattern().matcher(uri).matches())
+                    .collect(Collectors.toList()));
+            assertTrue(uri, candidates.size() <= vanityUrls.size());
+        }
+    }
+
+    private static CachedVanityUrl vanityUrl(final String uri, final int order) {
+
+        final VanityUrl vanityUrl = new DefaultVanityUrl();
+        vanityUrl.setIdentifier(uri);
+        vanityUrl.setURI(uri);
+        vanityUrl.setForwardTo("/forward");
+        vanityUrl.setAction(200);
+        vanityUrl.setOrder(order);
+        vanityUrl.setLanguageId(1);
+        vanityUrl.setSite("SYSTEM_HOST");
+        return new CachedVanityUrl(vanityUrl);
+    }
+
+}
@@ -0,0 +1,132 @@
+package com.dotcms.xmlsitemap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.dotcms.UnitTestBase;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.junit.Test;
+
+public class XMLSitemapWriterTest extends UnitTestBase {
+
+    @Test
+    public void testSplitsEveryMaxUrls() throws Exception {
+
+        final File directory = Files.createTempDirectory("sitemaps").toFile();
+        final List<String> files = new ArrayList<>();
+        final List<String> contents = new ArrayList<>();
+
+        try (XMLSitemapWriter writer = new XMLSitemapWriter(directory, "sitemap", "2018-01-01", 2,
+                XMLSitemapWriter.DEFAULT_MAX_BYTES, file -> {
+                    files.add(file.getName());
+                    contents.add(gunzip(file));
+                })) {
+            for (int i = 0; i < 5; i++) {
+                writer.writeUrl("http://demo.dotcms.com/news?id=" + i);
+            }
+            assertEquals(5, writer.getUrlCount());
+            assertEquals(3, writer.getFileCount());
+        }
+
+        assertEquals(3, files.size());
+        assertEquals("sitemap-1.xml.gz", files.get(0));
+        assertEquals("sitemap-3.xml.gz", files.get(2));
+        assertEquals(2, count(contents.get(0), "<url>"));
+        assertEquals(1, count(contents.get(2), "<url>"));
+        assertTrue(contents.get(0).startsWith("<?xml"));
+        assertTrue(contents.get(0).endsWith("</urlset>"));
+        assertTrue(contents.get(2).contains("<loc>http://demo.dotcms.com/news?id=4</loc><lastmod>2018-01-01</lastmod>"));
+        // handed files are deleted
+        assertEquals(0, directory.listFiles().length);
+    }
+
+    @Test
+    public void testSplitsBeforeGoingOverMaxBytes() throws Exception {
+
+        final File directory = Files.createTempDirectory("sitemaps").toFile();
+        final List<String> contents = new ArrayList<>();
+
+        try (XMLSitemapWriter writer = new XMLSitemapWriter(directory, "sitemap", "2018-01-01",
+                XMLSitemapWriter.DEFAULT_MAX_URLS, 700, file -> contents.add(gunzip(file)))) {
+            for (int i = 0; i < 4; i++) {
+                writer.writeUrl("http://demo.dotcms.com/page-" + i);
+            }
+        }
+
+        assertTrue(contents.size() > 1);
+        int urls = 0;
+        for (final String content : contents) {
+            assertTrue(content.getBytes(StandardCharsets.UTF_8).length <= 700);
+            urls += count(content, "<url>");
+        }
+        assertEquals(4, urls);
+    }
+
+    @Test
+    public void testEscapesUrlsAndWritesNothingWhenEmpty() throws Exception {
+
+        final File directory = Files.createTempDirectory("sitemaps").toFile();
+        final List<String> contents = new ArrayList<>();
+
+        try (XMLSitemapWriter writer = new XMLSitemapWriter(directory, "sitemap", "2018-01-01",
+                XMLSitemapWriter.DEFAULT_MAX_URLS, XMLSitemapWriter.DEFAULT_MAX_BYTES, file -> contents.add(gunzip(file)))) {
+            writer.writeUrl("http://demo.dotcms.com/search?a=1&b=2");
+        }
+        assertTrue(contents.get(0).contains("<loc>http://demo.dotcms.com/search?a=1&amp;b=2</loc>"));
+
+        contents.clear();
+        new XMLSitemapWriter(directory, "empty", "2018-01-01", 10, 1000, file -> contents.add(file.getName())).close();
+        assertTrue(contents.isEmpty());
+    }
+
+    @Test
+    public void testAbortDiscardsTheFileBeingWritten() throws Exception {
+
+        final File directory = Files.createTempDirectory("sitemaps").toFile();
+        final List<String> files = new ArrayList<>();
+
+        final XMLSitemapWriter writer = new XMLSitemapWriter(directory, "sitemap", "2018-01-01", 2,
+                XMLSitemapWriter.DEFAULT_MAX_BYTES, file -> files.add(file.getName()));
+        for (int i = 0; i < 3; i++) {
+            writer.writeUrl("http://demo.dotcms.com/news?id=" + i);
+        }
+        writer.abort();
+        writer.close();
+
+        // the first file was complete, the second one is not handed
+        assertEquals(1, files.size());
+        assertEquals("sitemap-1.xml.gz", files.get(0));
+        assertEquals(0, directory.listFiles().length);
+    }
+
+    private static int count(final String text, final String token) {
+        int count = 0;
+        for (int i = text.indexOf(token); i >= 0; i = text.indexOf(token, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    private static String gunzip(final File file) {
+
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file.toPath()))) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+}
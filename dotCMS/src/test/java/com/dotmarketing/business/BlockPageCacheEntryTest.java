@@ -0,0 +1,76 @@
+package com.dotmarketing.business;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.dotcms.UnitTestBase;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import org.junit.Test;
+
+public class BlockPageCacheEntryTest extends UnitTestBase {
+
+    @Test
+    public void testPageIsKeptEncodedAndGzipped() throws Exception {
+
+        final StringBuilder page = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            page.append("<p>Niño número ").append(i).append("</p>");
+        }
+        final BlockPageCacheEntry entry = new BlockPageCacheEntry(page.toString(), 60);
+
+        assertArrayEquals(page.toString().getBytes(StandardCharsets.UTF_8), entry.getBytes());
+        assertEquals(page.toString(), entry.getValue());
+        assertEquals(60, entry.getTtl());
+        assertTrue(entry.hasGzip());
+        assertTrue(entry.getGzipBytes().length < entry.getBytes().length);
+        assertArrayEquals(entry.getBytes(), gunzip(entry.getGzipBytes()));
+    }
+
+    @Test
+    public void testSmallPagesAreNotGzipped() {
+
+        final BlockPageCacheEntry entry = new BlockPageCacheEntry("<p>hi</p>", 60);
+        assertFalse(entry.hasGzip());
+    }
+
+    @Test
+    public void testETags() {
+
+        final BlockPageCacheEntry entry = new BlockPageCacheEntry("<p>page</p>", 60);
+        final BlockPageCacheEntry same = new BlockPageCacheEntry("<p>page</p>", 60);
+        final BlockPageCacheEntry other = new BlockPageCacheEntry("<p>other page</p>", 60);
+
+        assertEquals(entry.getETag(false), same.getETag(false));
+        assertNotEquals(entry.getETag(false), other.getETag(false));
+        assertNotEquals(entry.getETag(false), entry.getETag(true));
+        assertTrue(entry.getETag(false).startsWith("\""));
+
+        assertTrue(entry.matches(same.getETag(false)));
+        assertTrue(entry.matches(same.getETag(true)));
+        assertTrue(entry.matches("W/" + same.getETag(false)));
+        assertTrue(entry.matches(other.getETag(false) + ", " + same.getETag(false)));
+        assertTrue(entry.matches("*"));
+        assertFalse(entry.matches(other.getETag(false)));
+        assertFalse(entry.matches(null));
+    }
+
+    private byte[] gunzip(final byte[] gzipped) throws Exception {
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            final byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+        return out.toByteArray();
+    }
+
+}
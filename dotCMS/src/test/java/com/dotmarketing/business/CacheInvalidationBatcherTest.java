@@ -0,0 +1,86 @@
+package com.dotmarketing.business;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.dotcms.UnitTestBase;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Test;
+
+public class CacheInvalidationBatcherTest extends UnitTestBase {
+
+    @Test
+    public void testRemovalsAreCoalescedInOneMessage() {
+
+        final List<String> sent = new ArrayList<>();
+        final CacheInvalidationBatcher batcher = new CacheInvalidationBatcher(sent::add, 60000, 1000, 5000);
+        try {
+            batcher.add("key1", "contentletcache");
+            batcher.add("key1", "contentletcache");
+            batcher.add("/some:path/with:colons", "velocitycache");
+            batcher.add("key2", "contentletcache");
+            batcher.flush();
+
+            assertEquals(1, sent.size());
+            assertTrue(CacheInvalidationBatcher.isBatch(sent.get(0)));
+
+            final Map<String, Set<String>> decoded = CacheInvalidationBatcher.decode(sent.get(0));
+            assertEquals(2, decoded.get("contentletcache").size());
+            assertTrue(decoded.get("contentletcache").contains("key2"));
+            assertTrue(decoded.get("velocitycache").contains("/some:path/with:colons"));
+
+            assertEquals(4, batcher.getInvalidationsRequested());
+            assertEquals(3, batcher.getInvalidationsSent());
+            assertEquals(3, batcher.getMessagesSaved());
+        } finally {
+            batcher.shutdown();
+        }
+    }
+
+    @Test
+    public void testBigGroupsCollapseToGroupFlush() {
+
+        final List<String> sent = new ArrayList<>();
+        final CacheInvalidationBatcher batcher = new CacheInvalidationBatcher(sent::add, 60000, 10, 5000);
+        try {
+            for (int i = 0; i < 50; i++) {
+                batcher.add("key" + i, "identifiercache");
+            }
+            batcher.add("other", "versioncache");
+            batcher.flush();
+
+            final Map<String, Set<String>> decoded = CacheInvalidationBatcher.decode(sent.get(0));
+            assertTrue(decoded.get("identifiercache").isEmpty());
+            assertEquals(1, decoded.get("versioncache").size());
+            assertEquals(1, batcher.getGroupsCollapsed());
+        } finally {
+            batcher.shutdown();
+        }
+    }
+
+    @Test
+    public void testMessagesAreSplitByMaxKeys() {
+
+        final Map<String, Set<String>> invalidations = new HashMap<>();
+        final Set<String> keys = new LinkedHashSet<>();
+        for (int i = 0; i < 25; i++) {
+            keys.add("key" + i);
+        }
+        invalidations.put("contentletcache", keys);
+
+        final List<String> messages = CacheInvalidationBatcher.encode(invalidations, 10);
+        assertEquals(3, messages.size());
+
+        int decodedKeys = 0;
+        for (final String message : messages) {
+            decodedKeys += CacheInvalidationBatcher.decode(message).get("contentletcache").size();
+        }
+        assertEquals(25, decodedKeys);
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.dotmarketing.business.cache.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.dotcms.UnitTestBase;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class CacheMetricsTest extends UnitTestBase {
+
+    @Test
+    public void testHitsMissesAndPuts() {
+
+        final CacheMetrics metrics = new CacheMetrics();
+        metrics.recordGet("value", 1000);
+        metrics.recordGet("value", 1000);
+        metrics.recordGet("value", 1000);
+        metrics.recordGet(null, TimeUnit.MILLISECONDS.toNanos(2));
+        metrics.recordPut(1000, 100);
+        metrics.recordPut(1000, 300);
+        metrics.recordEviction();
+
+        assertEquals(3, metrics.getHits());
+        assertEquals(1, metrics.getMisses());
+        assertEquals(0.75, metrics.getHitRate(), 0.0001);
+        assertEquals(2, metrics.getPuts());
+        assertEquals(1, metrics.getEvictions());
+
+        final Map<String, Object> map = metrics.toMap();
+        assertEquals(200L, map.get("avgSerializedBytes"));
+        assertEquals(2000L, map.get("avgMissLookupMicros"));
+
+        metrics.reset();
+        assertEquals(0, metrics.getHits());
+        assertEquals(0, metrics.getGetLatency().getCount());
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(3));
+        }
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(5));
+
+        assertEquals(100, histogram.getCount());
+        // 3 micros falls in the [2, 4) bucket
+        assertEquals(4, histogram.getPercentileMicros(0.5));
+        assertEquals(4, histogram.getPercentileMicros(0.99));
+        // 5000 micros falls in the [4096, 8192) bucket
+        assertEquals(8192, histogram.getPercentileMicros(1));
+        assertTrue(histogram.getAverageMicros() > 3);
+    }
+
+    @Test
+    public void testHistogramOverflowBucket() {
+
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(TimeUnit.SECONDS.toNanos(30));
+        histogram.record(-1);
+
+        assertEquals(2, histogram.getCount());
+        // the overflow bucket reports the slowest value, not a bound below the previous bucket's one
+        assertEquals(TimeUnit.SECONDS.toMicros(30), histogram.getPercentileMicros(1));
+        assertEquals(1, histogram.getPercentileMicros(0.5));
+    }
+
+    @Test
+    public void testHistogramPercentilesAreMonotonic() {
+
+        final LatencyHistogram histogram = new LatencyHistogram();
+        // the last regular bucket, [2^19, 2^20) micros, and the overflow one
+        histogram.record(TimeUnit.MICROSECONDS.toNanos((1L << 20) - 1));
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(1L << 20));
+
+        assertEquals(1L << 20, histogram.getPercentileMicros(0.5));
+        assertTrue(histogram.getPercentileMicros(1) >= histogram.getPercentileMicros(0.5));
+
+        histogram.reset();
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(1L << 20));
+        assertEquals(1L << 21, histogram.getPercentileMicros(1));
+    }
+
+}
@@ -0,0 +1,134 @@
+package com.dotmarketing.business.cache.provider.serializer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.dotcms.UnitTestBase;
+import com.dotmarketing.beans.Identifier;
+import com.dotmarketing.portlets.contentlet.model.ContentletVersionInfo;
+import java.io.Serializable;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.lang.RandomStringUtils;
+import org.junit.Test;
+
+public class BinaryCacheSerializerTest extends UnitTestBase {
+
+    private final BinaryCacheSerializer serializer = new BinaryCacheSerializer(1024);
+
+    @Test
+    public void testMapRoundTrip() throws Exception {
+
+        final List<String> list = new ArrayList<>();
+        list.add("one");
+        list.add(null);
+
+        final Timestamp timestamp = new Timestamp(System.currentTimeMillis());
+        timestamp.setNanos(123456789);
+
+        final Map<String, Object> map = new HashMap<>();
+        map.put("string", "some text ñü");
+        map.put("long", 42L);
+        map.put("int", 7);
+        map.put("double", 1.5d);
+        map.put("boolean", true);
+        map.put("date", new Date());
+        map.put("timestamp", timestamp);
+        map.put("list", list);
+
+        final byte[] data = serializer.serialize(map);
+        assertEquals(BinaryCacheSerializer.FORMAT_BINARY, data[0]);
+        assertEquals(map, serializer.deserialize(data));
+    }
+
+    @Test
+    public void testIdentifierAndVersionInfoRoundTrip() throws Exception {
+
+        final Identifier identifier = new Identifier();
+        identifier.setId("8a7c1c9b-0a38-4f5b-a6b1-0b3e0c1a4f2d");
+        identifier.setAssetName("index");
+        identifier.setAssetType(Identifier.ASSET_TYPE_CONTENTLET);
+        identifier.setParentPath("/about-us/");
+        identifier.setHostId("48190c8c-42c4-46af-8d1a-0cd5db894797");
+        identifier.setSysPublishDate(new Date());
+
+        final Identifier copy = (Identifier) serializer.deserialize(serializer.serialize(identifier));
+        assertEquals(identifier.getId(), copy.getId());
+        assertEquals(identifier.getURI(), copy.getURI());
+        assertEquals(identifier.getHostId(), copy.getHostId());
+        assertEquals(identifier.getSysPublishDate(), copy.getSysPublishDate());
+        assertEquals(null, copy.getSysExpireDate());
+
+        final ContentletVersionInfo versionInfo = new ContentletVersionInfo();
+        versionInfo.setIdentifier(identifier.getId());
+        versionInfo.setWorkingInode("a3b9e9e4-2b0b-4e6f-9a1a-4c3b0b6c1d2e");
+        versionInfo.setLiveInode("a3b9e9e4-2b0b-4e6f-9a1a-4c3b0b6c1d2e");
+        versionInfo.setLang(1);
+        versionInfo.setVersionTs(new Date());
+
+        final ContentletVersionInfo versionInfoCopy =
+                (ContentletVersionInfo) serializer.deserialize(serializer.serialize(versionInfo));
+        assertEquals(versionInfo, versionInfoCopy);
+        assertEquals(versionInfo.getWorkingInode(), versionInfoCopy.getWorkingInode());
+        assertEquals(versionInfo.getLiveInode(), versionInfoCopy.getLiveInode());
+        assertEquals(versionInfo.getVersionTs(), versionInfoCopy.getVersionTs());
+    }
+
+    @Test
+    public void testFallbackToJavaSerialization() throws Exception {
+
+        final Map<String, Object> map = new HashMap<>();
+        map.put("custom", new CustomValue("value"));
+
+        final byte[] data = serializer.serialize(map);
+        assertEquals(BinaryCacheSerializer.FORMAT_JAVA, data[0]);
+        assertEquals(map, serializer.deserialize(data));
+    }
+
+    @Test
+    public void testLargePayloadsAreCompressed() throws Exception {
+
+        final StringBuilder page = new StringBuilder();
+        final String block = RandomStringUtils.randomAlphanumeric(100);
+        for (int i = 0; i < 100; i++) {
+            page.append("<div>").append(block).append("</div>");
+        }
+
+        final byte[] data = serializer.serialize(page.toString());
+        assertTrue((data[0] & BinaryCacheSerializer.COMPRESSED) != 0);
+        assertTrue(data.length < page.length());
+        assertEquals(page.toString(), serializer.deserialize(data));
+    }
+
+    @Test
+    public void testReadsEntriesWrittenWithJavaSerialization() throws Exception {
+
+        final byte[] legacy = new JavaCacheSerializer().serialize("stored before the upgrade");
+        assertEquals("stored before the upgrade", serializer.deserialize(legacy));
+    }
+
+    private static class CustomValue implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+        private final String value;
+
+        CustomValue(final String value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof CustomValue && ((CustomValue) obj).value.equals(value);
+        }
+
+        @Override
+        public int hashCode() {
+            return value.hashCode();
+        }
+    }
+
+}
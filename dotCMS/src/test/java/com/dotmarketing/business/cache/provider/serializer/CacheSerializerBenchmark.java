@@ -0,0 +1,124 @@
+package com.dotmarketing.business.cache.provider.serializer;
+
+import com.dotmarketing.beans.Identifier;
+import com.dotmarketing.util.Logger;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.GenerateMicroBenchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JMH comparison of the {@link JavaCacheSerializer} and the {@link BinaryCacheSerializer} over the
+ * kind of objects the H22 and Redis providers store: a contentlet like map and an {@link Identifier}.
+ * Payload sizes are logged on setup so speed and size can be compared together.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CacheSerializerBenchmark {
+
+    private final CacheSerializer java = new JavaCacheSerializer();
+    private final CacheSerializer binary = new BinaryCacheSerializer(8192);
+
+    private Map<String, Object> contentMap;
+    private Identifier identifier;
+
+    private byte[] javaContentMap;
+    private byte[] binaryContentMap;
+    private byte[] javaIdentifier;
+    private byte[] binaryIdentifier;
+
+    @Setup
+    public void setup() throws IOException {
+
+        contentMap = new HashMap<>();
+        contentMap.put("inode", UUID.randomUUID().toString());
+        contentMap.put("identifier", UUID.randomUUID().toString());
+        contentMap.put("stInode", UUID.randomUUID().toString());
+        contentMap.put("host", UUID.randomUUID().toString());
+        contentMap.put("folder", "SYSTEM_FOLDER");
+        contentMap.put("languageId", 1L);
+        contentMap.put("sortOrder", 0L);
+        contentMap.put("modDate", new Date());
+        contentMap.put("modUser", "dotcms.org.1");
+        contentMap.put("owner", "dotcms.org.1");
+        contentMap.put("title", "A news item with a reasonably long title");
+        contentMap.put("urlTitle", "a-news-item-with-a-reasonably-long-title");
+        contentMap.put("sysPublishDate", new Date());
+        final StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            body.append("<p>Lorem ipsum dolor sit amet, consectetur adipiscing elit ").append(i).append("</p>");
+        }
+        contentMap.put("body", body.toString());
+        final List<String> disabledWysiwyg = new ArrayList<>();
+        disabledWysiwyg.add("body");
+        contentMap.put("disabledWYSIWYG", disabledWysiwyg);
+
+        identifier = new Identifier();
+        identifier.setId(UUID.randomUUID().toString());
+        identifier.setAssetName("a-news-item-with-a-reasonably-long-title");
+        identifier.setAssetType(Identifier.ASSET_TYPE_CONTENTLET);
+        identifier.setParentPath("/news/");
+        identifier.setHostId(UUID.randomUUID().toString());
+
+        javaContentMap = java.serialize(contentMap);
+        binaryContentMap = binary.serialize(contentMap);
+        javaIdentifier = java.serialize(identifier);
+        binaryIdentifier = binary.serialize(identifier);
+
+        Logger.info(this, "content map bytes java: " + javaContentMap.length + ", binary: " + binaryContentMap.length);
+        Logger.info(this, "identifier bytes java: " + javaIdentifier.length + ", binary: " + binaryIdentifier.length);
+    }
+
+    @GenerateMicroBenchmark
+    public byte[] javaSerializeContentMap() throws IOException {
+        return java.serialize(contentMap);
+    }
+
+    @GenerateMicroBenchmark
+    public byte[] binarySerializeContentMap() throws IOException {
+        return binary.serialize(contentMap);
+    }
+
+    @GenerateMicroBenchmark
+    public Object javaDeserializeContentMap() throws Exception {
+        return java.deserialize(javaContentMap);
+    }
+
+    @GenerateMicroBenchmark
+    public Object binaryDeserializeContentMap() throws Exception {
+        return binary.deserialize(binaryContentMap);
+    }
+
+    @GenerateMicroBenchmark
+    public byte[] javaSerializeIdentifier() throws IOException {
+        return java.serialize(identifier);
+    }
+
+    @GenerateMicroBenchmark
+    public byte[] binarySerializeIdentifier() throws IOException {
+        return binary.serialize(identifier);
+    }
+
+    @GenerateMicroBenchmark
+    public Object javaDeserializeIdentifier() throws Exception {
+        return java.deserialize(javaIdentifier);
+    }
+
+    @GenerateMicroBenchmark
+    public Object binaryDeserializeIdentifier() throws Exception {
+        return binary.deserialize(binaryIdentifier);
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.dotmarketing.business.cache.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.dotcms.UnitTestBase;
+import com.dotmarketing.beans.Identifier;
+import com.dotmarketing.business.BlockDirectiveCacheObject;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.lang.RandomStringUtils;
+import org.junit.Test;
+
+public class ObjectSizeEstimatorTest extends UnitTestBase {
+
+    private final ObjectSizeEstimator estimator = new ObjectSizeEstimator(100);
+
+    @Test
+    public void testNullAndUnknownObjects() {
+        assertEquals(0, estimator.estimate(null));
+        assertEquals(100, estimator.estimate(new Object()));
+    }
+
+    @Test
+    public void testStringsGrowWithLength() {
+        final long small = estimator.estimate("a");
+        final long big = estimator.estimate(RandomStringUtils.randomAlphanumeric(10001));
+
+        assertEquals(20000, big - small);
+    }
+
+    @Test
+    public void testPrimitiveArrays() {
+        assertEquals(ObjectSizeEstimator.OBJECT_HEADER + 1024, estimator.estimate(new byte[1024]));
+        assertEquals(ObjectSizeEstimator.OBJECT_HEADER + 8 * 10, estimator.estimate(new long[10]));
+    }
+
+    @Test
+    public void testCollectionsAddTheirElements() {
+        final String value = RandomStringUtils.randomAlphanumeric(500);
+
+        final List<String> list = new ArrayList<>();
+        final Map<String, Object> map = new HashMap<>();
+        for (int i = 0; i < 10; i++) {
+            list.add(value);
+            map.put("key" + i, value);
+        }
+
+        assertTrue(estimator.estimate(list) > 10 * estimator.estimate(value));
+        assertTrue(estimator.estimate(map) > 10 * estimator.estimate(value));
+    }
+
+    @Test
+    public void testIdentifierAndPages() {
+        final Identifier identifier = new Identifier();
+        identifier.setId("8a7c1c9b-0a38-4f5b-a6b1-0b3e0c1a4f2d");
+        identifier.setAssetName("index");
+        identifier.setParentPath("/about-us/");
+
+        assertTrue(estimator.estimate(identifier) > estimator.estimate(identifier.getId())
+                + estimator.estimate(identifier.getParentPath()));
+
+        final String html = RandomStringUtils.randomAlphanumeric(50000);
+        assertTrue(estimator.estimate(new BlockDirectiveCacheObject(html, 60)) > estimator.estimate(html));
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.dotmarketing.common.reindex;
+
+import static org.junit.Assert.assertEquals;
+
+import com.dotcms.UnitTestBase;
+import org.junit.Test;
+
+public class AdaptiveBatchSizeTest extends UnitTestBase {
+
+    @Test
+    public void testGrowsWhileFullBatchesAreFast() {
+
+        final AdaptiveBatchSize batchSize = new AdaptiveBatchSize(10, 100, 1000, 25);
+
+        batchSize.record(25, 100, false);
+        assertEquals(50, batchSize.get());
+        batchSize.record(50, 100, false);
+        assertEquals(100, batchSize.get());
+        batchSize.record(100, 100, false);
+        assertEquals(100, batchSize.get());
+    }
+
+    @Test
+    public void testDoesNotGrowWithPartialBatches() {
+
+        final AdaptiveBatchSize batchSize = new AdaptiveBatchSize(10, 100, 1000, 25);
+
+        batchSize.record(3, 10, false);
+        assertEquals(25, batchSize.get());
+    }
+
+    @Test
+    public void testShrinksWhenSlowOrFailing() {
+
+        final AdaptiveBatchSize batchSize = new AdaptiveBatchSize(10, 100, 1000, 80);
+
+        batchSize.record(80, 2000, false);
+        assertEquals(40, batchSize.get());
+        batchSize.record(40, 10, true);
+        assertEquals(20, batchSize.get());
+        batchSize.record(20, 10, true);
+        assertEquals(10, batchSize.get());
+        batchSize.record(10, 10, true);
+        assertEquals(10, batchSize.get());
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.dotmarketing.common.reindex;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.dotcms.UnitTestBase;
+import java.util.List;
+import org.junit.Test;
+
+public class ParallelFullReindexTest extends UnitTestBase {
+
+    @Test
+    public void testPartitionsCoverTheWholeIdentifierSpace() {
+
+        for (final int count : new int[]{1, 2, 3, 4, 7, 16, 255, 256}) {
+
+            final List<String[]> partitions = ParallelFullReindex.partitions(count);
+            assertEquals(count, partitions.size());
+            assertNull(partitions.get(0)[0]);
+            assertNull(partitions.get(count - 1)[1]);
+            for (int i = 1; i < count; i++) {
+                // contiguous and growing
+                assertEquals(partitions.get(i - 1)[1], partitions.get(i)[0]);
+                assertTrue(partitions.get(i)[0].compareTo(partitions.get(i - 1)[0] == null ? "" : partitions.get(i - 1)[0]) > 0);
+            }
+        }
+    }
+
+    @Test
+    public void testPartitionBounds() {
+
+        final List<String[]> partitions = ParallelFullReindex.partitions(4);
+        assertEquals("40", partitions.get(0)[1]);
+        assertEquals("80", partitions.get(1)[1]);
+        assertEquals("c0", partitions.get(2)[1]);
+        assertEquals(1, ParallelFullReindex.partitions(0).size());
+        assertEquals(256, ParallelFullReindex.partitions(1000).size());
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.dotmarketing.common.reindex;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.dotcms.UnitTestBase;
+import org.junit.Test;
+
+public class ReindexSignalTest extends UnitTestBase {
+
+    @Test
+    public void testSignalIsNotLostWhenNobodyIsWaiting() throws Exception {
+
+        final ReindexSignal signal = ReindexSignal.getInstance();
+        signal.await(0);
+        signal.consumeOldestPendingSignal();
+
+        signal.signal();
+        assertTrue(signal.await(5000));
+        assertTrue(signal.consumeOldestPendingSignal() > 0);
+        assertFalse(signal.await(10));
+        assertEquals(0, signal.consumeOldestPendingSignal());
+    }
+
+}
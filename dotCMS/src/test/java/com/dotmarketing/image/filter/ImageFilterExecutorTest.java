@@ -0,0 +1,134 @@
+package com.dotmarketing.image.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.dotcms.UnitTestBase;
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class ImageFilterExecutorTest extends UnitTestBase {
+
+    @Test
+    public void testConcurrentRequestsForTheSameKeyShareOneRun() throws Exception {
+
+        final ImageFilterExecutor imageFilterExecutor = new ImageFilterExecutor(2, 10, 5000);
+        final ExecutorService requests = Executors.newFixedThreadPool(4);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger runs = new AtomicInteger();
+        final File result = new File("result.png");
+
+        try {
+            final Future<File> first = requests.submit(() -> imageFilterExecutor.execute("key", () -> {
+                runs.incrementAndGet();
+                release.await(5, TimeUnit.SECONDS);
+                return result;
+            }));
+            waitForInFlight(imageFilterExecutor, 1);
+
+            final Future<File> second = requests.submit(() -> imageFilterExecutor.execute("key", () -> {
+                runs.incrementAndGet();
+                return new File("other.png");
+            }));
+            final Future<File> third = requests.submit(() -> imageFilterExecutor.execute("key", () -> {
+                runs.incrementAndGet();
+                return new File("other.png");
+            }));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertSame(result, first.get(5, TimeUnit.SECONDS));
+            assertSame(result, second.get(5, TimeUnit.SECONDS));
+            assertSame(result, third.get(5, TimeUnit.SECONDS));
+            assertEquals(1, runs.get());
+            assertEquals(0, imageFilterExecutor.size());
+        } finally {
+            requests.shutdownNow();
+            imageFilterExecutor.shutdown();
+        }
+    }
+
+    @Test
+    public void testRejectsWhenTheQueueIsFull() throws Exception {
+
+        final ImageFilterExecutor imageFilterExecutor = new ImageFilterExecutor(1, 1, 5000);
+        final ExecutorService requests = Executors.newFixedThreadPool(2);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            // one running, one queued
+            final Future<File> running = requests.submit(() -> imageFilterExecutor.execute("running", () -> {
+                release.await(5, TimeUnit.SECONDS);
+                return new File("running.png");
+            }));
+            waitForInFlight(imageFilterExecutor, 1);
+            final Future<File> queued = requests.submit(() -> imageFilterExecutor.execute("queued",
+                    () -> new File("queued.png")));
+            waitForInFlight(imageFilterExecutor, 2);
+
+            try {
+                imageFilterExecutor.execute("rejected", () -> new File("rejected.png"));
+                fail("the transformation should have been rejected");
+            } catch (ImageFilterOverloadedException e) {
+                // expected
+            }
+            assertEquals(2, imageFilterExecutor.size());
+
+            release.countDown();
+            assertEquals("running.png", running.get(5, TimeUnit.SECONDS).getName());
+            assertEquals("queued.png", queued.get(5, TimeUnit.SECONDS).getName());
+        } finally {
+            requests.shutdownNow();
+            imageFilterExecutor.shutdown();
+        }
+    }
+
+    @Test
+    public void testTimesOutAndPropagatesFailures() throws Exception {
+
+        final ImageFilterExecutor imageFilterExecutor = new ImageFilterExecutor(1, 10, 50);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            try {
+                imageFilterExecutor.execute("slow", () -> {
+                    release.await(5, TimeUnit.SECONDS);
+                    return new File("slow.png");
+                });
+                fail("the wait should have timed out");
+            } catch (ImageFilterOverloadedException e) {
+                assertTrue(e.getMessage().contains("Timed out"));
+            }
+            release.countDown();
+
+            try {
+                imageFilterExecutor.execute("failing", () -> {
+                    throw new IllegalStateException("broken image");
+                });
+                fail("the failure should have been propagated");
+            } catch (IllegalStateException e) {
+                assertEquals("broken image", e.getMessage());
+            }
+        } finally {
+            imageFilterExecutor.shutdown();
+        }
+    }
+
+    private static void waitForInFlight(final ImageFilterExecutor imageFilterExecutor, final int size)
+            throws InterruptedException {
+
+        for (int i = 0; i < 500 && imageFilterExecutor.size() < size; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(size, imageFilterExecutor.size());
+    }
+
+}
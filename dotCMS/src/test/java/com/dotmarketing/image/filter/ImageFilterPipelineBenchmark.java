@@ -0,0 +1,130 @@
+package com.dotmarketing.image.filter;
+
+import com.dotmarketing.util.WebKeys;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.GenerateMicroBenchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JMH comparison of a crop, resize, grayscale, jpeg chain run filter by filter over files, the way
+ * the {@link com.dotmarketing.portlets.contentlet.business.exporter.ImageFilterExporter} used to,
+ * and through the {@link ImageFilterPipeline}, plus the in memory cost of every filter on its own.
+ * The source is named like a generated file so the results are written next to it, in a temp
+ * folder, and the overwrite parameter forces every invocation to generate them again.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ImageFilterPipelineBenchmark {
+
+    private final List<ImageFilter> chain = Arrays.asList(new CropImageFilter(), new ResizeImageFilter(),
+            new GrayscaleImageFilter(), new JpegImageFilter());
+
+    private final Map<String, String[]> parameters = new HashMap<>();
+
+    private File source;
+    private BufferedImage image;
+
+    @Setup
+    public void setup() throws IOException {
+
+        image = new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < image.getWidth(); x++) {
+            for (int y = 0; y < image.getHeight(); y++) {
+                image.setRGB(x, y, (x * 31 + y * 17) & 0xffffff);
+            }
+        }
+        final File folder = Files.createTempDirectory("image-filter-benchmark").toFile();
+        source = new File(folder, WebKeys.GENERATED_FILE + "source.png");
+        ImageIO.write(image, "png", source);
+
+        parameters.put("filter", new String[]{"Crop", "Resize", "Grayscale", "Jpeg"});
+        parameters.put("crop_x", new String[]{"100"});
+        parameters.put("crop_y", new String[]{"100"});
+        parameters.put("crop_w", new String[]{"1200"});
+        parameters.put("crop_h", new String[]{"900"});
+        parameters.put("resize_w", new String[]{"400"});
+        parameters.put("jpeg_q", new String[]{"80"});
+        parameters.put("thumbnail_w", new String[]{"200"});
+        parameters.put("thumbnail_h", new String[]{"200"});
+        parameters.put("scale_w", new String[]{"400"});
+        parameters.put("rotate_a", new String[]{"15"});
+        parameters.put("hsb_h", new String[]{"0.2"});
+        parameters.put("overwrite", new String[]{"true"});
+    }
+
+    @GenerateMicroBenchmark
+    public File chainOverFiles() {
+
+        File file = source;
+        for (final ImageFilter filter : chain) {
+            file = filter.runFilter(file, parameters);
+        }
+        return file;
+    }
+
+    @GenerateMicroBenchmark
+    public File chainInPipeline() throws IOException {
+        return new ImageFilterPipeline(chain).runFilters(source, parameters);
+    }
+
+    @GenerateMicroBenchmark
+    public BufferedImage chainInMemory() throws IOException {
+        return new ImageFilterPipeline(chain).filter(image, parameters);
+    }
+
+    @GenerateMicroBenchmark
+    public BufferedImage crop() throws IOException {
+        return new CropImageFilter().filter(image, parameters);
+    }
+
+    @GenerateMicroBenchmark
+    public BufferedImage resize() throws IOException {
+        return new ResizeImageFilter().filter(image, parameters);
+    }
+
+    @GenerateMicroBenchmark
+    public BufferedImage scale() throws IOException {
+        return new ScaleImageFilter().filter(image, parameters);
+    }
+
+    @GenerateMicroBenchmark
+    public BufferedImage thumbnail() throws IOException {
+        return new ThumbnailImageFilter().filter(image, parameters);
+    }
+
+    @GenerateMicroBenchmark
+    public BufferedImage grayscale() throws IOException {
+        return new GrayscaleImageFilter().filter(image, parameters);
+    }
+
+    @GenerateMicroBenchmark
+    public BufferedImage rotate() throws IOException {
+        return new RotateImageFilter().filter(image, parameters);
+    }
+
+    @GenerateMicroBenchmark
+    public BufferedImage hsb() throws IOException {
+        return new HsbImageFilter().filter(image, parameters);
+    }
+
+    @GenerateMicroBenchmark
+    public BufferedImage jpeg() throws IOException {
+        return new JpegImageFilter().filter(image, parameters);
+    }
+
+}
@@ -0,0 +1,144 @@
+package com.dotmarketing.image.filter;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+import com.dotcms.UnitTestBase;
+import com.dotmarketing.util.WebKeys;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.imageio.ImageIO;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * The {@link ImageFilterPipeline} has to generate the same image as running the filters one by one
+ * over files. The source is named like a generated file so every result is written next to it.
+ */
+public class ImageFilterPipelineTest extends UnitTestBase {
+
+    private File source;
+    private Map<String, String[]> parameters;
+
+    @Before
+    public void setup() throws IOException {
+
+        final BufferedImage image = new BufferedImage(320, 240, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < image.getWidth(); x++) {
+            for (int y = 0; y < image.getHeight(); y++) {
+                image.setRGB(x, y, (x * 31 + y * 17) & 0xffffff);
+            }
+        }
+        final File folder = Files.createTempDirectory("image-filter-pipeline").toFile();
+        folder.deleteOnExit();
+        source = new File(folder, WebKeys.GENERATED_FILE + "source.png");
+        ImageIO.write(image, "png", source);
+
+        parameters = new HashMap<>();
+        parameters.put("crop_x", new String[]{"20"});
+        parameters.put("crop_y", new String[]{"10"});
+        parameters.put("crop_w", new String[]{"200"});
+        parameters.put("crop_h", new String[]{"150"});
+        parameters.put("resize_w", new String[]{"100"});
+        parameters.put("overwrite", new String[]{"true"});
+    }
+
+    @Test
+    public void testPipelineGeneratesTheSameImageAsTheChainOverFiles() throws IOException {
+
+        parameters.put("filter", new String[]{"Crop", "Resize", "Grayscale"});
+        final List<ImageFilter> chain = Arrays.asList(new CropImageFilter(), new ResizeImageFilter(),
+                new GrayscaleImageFilter());
+
+        final BufferedImage expected = ImageIO.read(chainOverFiles(chain));
+        final BufferedImage result = ImageIO.read(new ImageFilterPipeline(chain).runFilters(source, parameters));
+
+        assertEquals(100, result.getWidth());
+        assertEquals(75, result.getHeight());
+        assertSamePixels(expected, result);
+    }
+
+    @Test
+    public void testFiltersThatOnlyWorkOnFilesRunInThePipeline() throws IOException {
+
+        parameters.put("filter", new String[]{"Crop", "Invert", "Resize"});
+        final List<ImageFilter> chain = Arrays.asList(new CropImageFilter(), new InvertImageFilter(),
+                new ResizeImageFilter());
+
+        final BufferedImage expected = ImageIO.read(chainOverFiles(chain));
+        final File resultFile = new ImageFilterPipeline(chain).runFilters(source, parameters);
+
+        assertNotEquals(source, resultFile);
+        assertSamePixels(expected, ImageIO.read(resultFile));
+    }
+
+    @Test
+    public void testFileFilterThatDoesNotChangeTheImageReturnsTheSameImage() throws IOException {
+
+        final BufferedImage image = ImageIO.read(source);
+        final ImageFilter unchanged = new InvertImageFilter() {
+            @Override
+            public File runFilter(final File file, final Map<String, String[]> parameters) {
+                return file;
+            }
+        };
+
+        assertSame(image, unchanged.filter(image, parameters));
+    }
+
+    private File chainOverFiles(final List<ImageFilter> chain) {
+
+        File file = source;
+        for (final ImageFilter filter : chain) {
+            file = filter.runFilter(file, parameters);
+        }
+        return file;
+    }
+
+    private static void assertSamePixels(final BufferedImage expected, final BufferedImage result) {
+
+        assertEquals(expected.getWidth(), result.getWidth());
+        assertEquals(expected.getHeight(), result.getHeight());
+        assertArrayEquals(
+                expected.getRGB(0, 0, expected.getWidth(), expected.getHeight(), null, 0, expected.getWidth()),
+                result.getRGB(0, 0, result.getWidth(), result.getHeight(), null, 0, result.getWidth()));
+    }
+
+    /**
+     * A filter that only works on files, as the ones written before the pipeline
+     */
+    private static class InvertImageFilter extends ImageFilter {
+
+        @Override
+        public String[] getAcceptedParameters() {
+            return new String[]{"none"};
+        }
+
+        @Override
+        public File runFilter(final File file, final Map<String, String[]> parameters) {
+
+            final File resultFile = getResultsFile(file, parameters);
+            try {
+                final BufferedImage image = ImageIO.read(file);
+                for (int x = 0; x < image.getWidth(); x++) {
+                    for (int y = 0; y < image.getHeight(); y++) {
+                        image.setRGB(x, y, ~image.getRGB(x, y) & 0xffffff | 0xff000000);
+                    }
+                }
+                ImageIO.write(image, FILE_EXT, resultFile);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return resultFile;
+        }
+    }
+
+}
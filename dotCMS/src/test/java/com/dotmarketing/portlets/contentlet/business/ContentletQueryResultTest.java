@@ -0,0 +1,98 @@
+package com.dotmarketing.portlets.contentlet.business;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.dotcms.UnitTestBase;
+import com.dotmarketing.common.model.ContentletSearch;
+import com.dotmarketing.util.PaginatedArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+public class ContentletQueryResultTest extends UnitTestBase {
+
+    @Test
+    public void testQueryDependencies() {
+
+        assertEquals(set("type:news|host:abc-123", "type:news|host:*"), ContentletQueryResult
+                .getQueryDependencies("+contentType:News +conHost:abc-123 +languageId:1 +live:true"));
+        assertEquals(set("type:news"), ContentletQueryResult
+                .getQueryDependencies("+structureName:News +title:\"some +conhost:abc\""));
+        assertEquals(set("host:abc", "host:*"),
+                ContentletQueryResult.getQueryDependencies("+conhost:abc +deleted:false"));
+        assertEquals(set("type:news|host:abc", "type:blog|host:abc", "type:news|host:*", "type:blog|host:*"), ContentletQueryResult
+                .getQueryDependencies("+contentType:news +contentType:blog +conhost:abc"));
+    }
+
+    @Test
+    public void testOptionalAndGroupedClausesDependOnAnyChange() {
+
+        assertEquals(set(ContentletQueryResult.ANY_CHANGE),
+                ContentletQueryResult.getQueryDependencies("contentType:news conhost:abc"));
+        assertEquals(set(ContentletQueryResult.ANY_CHANGE),
+                ContentletQueryResult.getQueryDependencies("+(contentType:news contentType:blog)"));
+        assertEquals(set(ContentletQueryResult.ANY_CHANGE),
+                ContentletQueryResult.getQueryDependencies("-contentType:news +contentType:news*"));
+    }
+
+    @Test
+    public void testChangeInvalidatesTheQueriesThatCanMatchIt() {
+
+        final Set<String> change = ContentletQueryResult.getChangeDependencies("News", "ABC");
+        assertTrue(change.containsAll(ContentletQueryResult.getQueryDependencies("+contentType:news")));
+        assertTrue(change.contains("host:abc"));
+        assertTrue(change.contains("type:news|host:abc"));
+        assertTrue(change.containsAll(ContentletQueryResult.getQueryDependencies("+live:true")));
+        assertTrue(Collections.disjoint(change,
+                ContentletQueryResult.getQueryDependencies("+contentType:blog +conhost:abc")));
+    }
+
+    @Test
+    public void testHostChangeInvalidatesTheQueriesOfThePreviousSite() {
+
+        final Set<String> moved = ContentletQueryResult.getHostChangeDependencies("News", "ABC");
+        assertTrue(moved.contains("host:abc"));
+        assertTrue(moved.contains("type:news|host:abc"));
+        assertFalse(moved.contains("host:*"));
+
+        // not knowing the previous site invalidates the queries of every site
+        final Set<String> unknown = ContentletQueryResult.getHostChangeDependencies("News", null);
+        assertFalse(Collections.disjoint(unknown,
+                ContentletQueryResult.getQueryDependencies("+conhost:abc")));
+        assertFalse(Collections.disjoint(unknown,
+                ContentletQueryResult.getQueryDependencies("+contentType:news +conhost:abc")));
+        assertTrue(Collections.disjoint(unknown,
+                ContentletQueryResult.getQueryDependencies("+contentType:blog +conhost:abc")));
+    }
+
+    @Test
+    public void testResultsAreCopied() {
+
+        final PaginatedArrayList<ContentletSearch> hits = new PaginatedArrayList<>();
+        hits.setTotalResults(42);
+        final ContentletSearch hit = new ContentletSearch();
+        hit.setInode("inode");
+        hit.setIdentifier("identifier");
+        hit.setScore(1.5f);
+        hits.add(hit);
+
+        final ContentletQueryResult result = new ContentletQueryResult(hits, Collections.singletonMap("*", 1L));
+        result.getResults().clear();
+
+        final PaginatedArrayList<ContentletSearch> results = result.getResults();
+        assertEquals(42, results.getTotalResults());
+        assertEquals(1, results.size());
+        assertEquals("inode", results.get(0).getInode());
+        assertEquals("identifier", results.get(0).getIdentifier());
+        assertEquals(1.5f, results.get(0).getScore(), 0f);
+    }
+
+    private static Set<String> set(final String... values) {
+        return new HashSet<>(Arrays.asList(values));
+    }
+
+}
@@ -0,0 +1,139 @@
+package com.dotmarketing.servlets;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.GenerateMicroBenchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * JMH comparison of the ways the {@link BinaryExporterServlet} can write a file to the response:
+ * the old 10KB {@link RandomAccessFile} copy loop, the positional {@link FileChannel} copy,
+ * {@link FileChannel#transferTo} to a file channel (what Tomcat's sendfile does with the socket)
+ * and the {@link SmallFileCache}, over a small (16KB) and a big (4MB) file.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FileServingBenchmark {
+
+    private static final int LEGACY_BUFFER_SIZE = 10240;
+
+    private final SmallFileCache smallFileCache = new SmallFileCache(1024 * 1024, 128 * 1024);
+
+    private final OutputStream discard = new OutputStream() {
+        @Override
+        public void write(final int b) {
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+        }
+    };
+
+    private File small;
+    private File big;
+    private File target;
+    private FileChannel targetChannel;
+
+    @Setup
+    public void setup() throws IOException {
+
+        small = createFile(16 * 1024);
+        big = createFile(4 * 1024 * 1024);
+        target = File.createTempFile("file-serving-benchmark", ".out");
+        targetChannel = FileChannel.open(target.toPath(), StandardOpenOption.WRITE);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+
+        targetChannel.close();
+        small.delete();
+        big.delete();
+        target.delete();
+    }
+
+    @GenerateMicroBenchmark
+    public void smallLegacyCopy() throws IOException {
+        legacyCopy(small);
+    }
+
+    @GenerateMicroBenchmark
+    public void smallChannelCopy() throws IOException {
+        channelCopy(small);
+    }
+
+    @GenerateMicroBenchmark
+    public void smallCached() throws IOException {
+        final byte[] bytes = smallFileCache.get(small);
+        discard.write(bytes, 0, bytes.length);
+    }
+
+    @GenerateMicroBenchmark
+    public void bigLegacyCopy() throws IOException {
+        legacyCopy(big);
+    }
+
+    @GenerateMicroBenchmark
+    public void bigChannelCopy() throws IOException {
+        channelCopy(big);
+    }
+
+    @GenerateMicroBenchmark
+    public long bigTransferTo() throws IOException {
+
+        try (FileChannel channel = FileChannel.open(big.toPath(), StandardOpenOption.READ)) {
+            targetChannel.position(0);
+            long position = 0;
+            while (position < channel.size()) {
+                position += channel.transferTo(position, channel.size() - position, targetChannel);
+            }
+            return position;
+        }
+    }
+
+    /**
+     * The copy loop {@link SpeedyAssetServletUtil} used before
+     */
+    private void legacyCopy(final File file) throws IOException {
+
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            final byte[] buffer = new byte[LEGACY_BUFFER_SIZE];
+            int read;
+            while ((read = input.read(buffer)) > 0) {
+                discard.write(buffer, 0, read);
+            }
+        }
+    }
+
+    private void channelCopy(final File file) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            SpeedyAssetServletUtil.copy(channel, discard, 0, channel.size());
+        }
+    }
+
+    private static File createFile(final int length) throws IOException {
+
+        final byte[] content = new byte[length];
+        for (int i = 0; i < length; i++) {
+            content[i] = (byte) i;
+        }
+        final File file = File.createTempFile("file-serving-benchmark", ".bin");
+        Files.write(file.toPath(), content);
+        return file;
+    }
+
+}
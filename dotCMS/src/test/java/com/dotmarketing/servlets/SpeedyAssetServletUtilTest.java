@@ -0,0 +1,130 @@
+package com.dotmarketing.servlets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.dotcms.UnitTestBase;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import org.junit.Test;
+
+public class SpeedyAssetServletUtilTest extends UnitTestBase {
+
+    @Test
+    public void testCopiesFullAndPartialRanges() throws Exception {
+
+        final byte[] content = content(200000);
+        final File file = File.createTempFile("speedy", ".bin");
+        file.deleteOnExit();
+        Files.write(file.toPath(), content);
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            assertArrayEquals(content, copy(channel, 0, content.length));
+            assertArrayEquals(Arrays.copyOfRange(content, 70000, 70100), copy(channel, 70000, 100));
+            assertArrayEquals(Arrays.copyOfRange(content, 150000, 200000), copy(channel, 150000, 50000));
+            // never past the end of the file
+            assertArrayEquals(Arrays.copyOfRange(content, 199990, 200000), copy(channel, 199990, 100));
+        }
+
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            SpeedyAssetServletUtil.copy(input, out, 10, 20);
+            assertArrayEquals(Arrays.copyOfRange(content, 10, 30), out.toByteArray());
+        }
+    }
+
+    @Test
+    public void testTransfersToChannels() throws Exception {
+
+        final byte[] content = content(100000);
+        final File source = File.createTempFile("speedy", ".bin");
+        final File target = File.createTempFile("speedy", ".out");
+        source.deleteOnExit();
+        target.deleteOnExit();
+        Files.write(source.toPath(), content);
+
+        try (FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ);
+                FileOutputStream out = new FileOutputStream(target)) {
+            SpeedyAssetServletUtil.copy(channel, new ChannelOutputStream(out.getChannel()), 1000, 90000);
+        }
+        assertArrayEquals(Arrays.copyOfRange(content, 1000, 91000), Files.readAllBytes(target.toPath()));
+    }
+
+    @Test
+    public void testSmallFileCacheIsKeyedByModificationAndSize() throws Exception {
+
+        final File file = File.createTempFile("speedy", ".css");
+        file.deleteOnExit();
+        Files.write(file.toPath(), content(1000));
+
+        final SmallFileCache cache = new SmallFileCache(10000, 2000);
+        final byte[] first = cache.get(file);
+        assertArrayEquals(content(1000), first);
+        assertSame(first, cache.get(file));
+
+        Files.write(file.toPath(), content(1500));
+        file.setLastModified(file.lastModified() + 2000);
+        final byte[] changed = cache.get(file);
+        assertNotSame(first, changed);
+        assertEquals(1500, changed.length);
+
+        Files.write(file.toPath(), content(3000));
+        assertNull(cache.get(file));
+        assertNull(new SmallFileCache(0, 2000).get(file));
+    }
+
+    private static byte[] copy(final FileChannel channel, final long start, final long length) throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SpeedyAssetServletUtil.copy(channel, out, start, length);
+        return out.toByteArray();
+    }
+
+    private static byte[] content(final int length) {
+        final byte[] content = new byte[length];
+        for (int i = 0; i < length; i++) {
+            content[i] = (byte) (i % 251);
+        }
+        return content;
+    }
+
+    /**
+     * An output stream that is also a channel, like the ones of a socket
+     */
+    private static class ChannelOutputStream extends OutputStream implements WritableByteChannel {
+
+        private final FileChannel channel;
+
+        ChannelOutputStream(final FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public int write(final ByteBuffer src) throws IOException {
+            return channel.write(src);
+        }
+
+        @Override
+        public void write(final int b) {
+            throw new IllegalStateException("the bytes should have been transferred to the channel");
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+    }
+
+}
@@ -0,0 +1,144 @@
+package org.apache.velocity.util.introspection;
+
+import com.dotmarketing.util.VelocityUtil;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.context.InternalContextAdapterImpl;
+import org.apache.velocity.runtime.RuntimeServices;
+import org.apache.velocity.runtime.parser.node.SimpleNode;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.GenerateMicroBenchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JMH comparison of the {@link SecureUberspector} and the {@link MethodHandleUberspector} over what a
+ * container listing 20 contentlets does on every render: each reference of the template resolves
+ * its getter once per render (the introspection cache lives in the context) and calls it for every
+ * contentlet through reflection, or it calls the getter it already resolved through its handle.
+ * The contentlets are {@code get(String)} objects like the ContentMap, with a couple of bean
+ * properties.
+ * <p/>
+ * {@link #renderTemplate()} renders the same loop with the engine, using the uberspector set in
+ * <code>runtime.introspector.uberspect</code>: run it once with each to compare the whole render.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MethodHandleUberspectorBenchmark {
+
+    private static final int CONTENTLETS = 20;
+    private static final String[] FIELDS = {"title", "summary", "author", "publishDate", "identifier", "urlTitle"};
+    private static final Info INFO = new Info("benchmark", 1, 1);
+
+    private final List<Content> contents = new ArrayList<>();
+    private final VelPropertyGet[] handleGetters = new VelPropertyGet[FIELDS.length];
+    private SecureUberspector secureUberspector;
+    private RuntimeServices rsvc;
+    private SimpleNode template;
+
+    @Setup
+    public void setup() throws Exception {
+
+        rsvc = VelocityUtil.getEngine().getRuntimeServices();
+        secureUberspector = new SecureUberspector();
+        secureUberspector.setRuntimeServices(rsvc);
+        secureUberspector.init();
+        final MethodHandleUberspector handleUberspector = new MethodHandleUberspector();
+        handleUberspector.setRuntimeServices(rsvc);
+        handleUberspector.init();
+
+        for (int i = 0; i < CONTENTLETS; i++) {
+            final Map<String, Object> fields = new HashMap<>();
+            fields.put("title", "A news title " + i);
+            fields.put("summary", "The summary of the news " + i);
+            fields.put("author", "Author " + (i % 3));
+            fields.put("publishDate", "2018-03-" + (i + 1));
+            contents.add(new Content("identifier-" + i, "a-news-title-" + i, fields));
+        }
+        for (int i = 0; i < FIELDS.length; i++) {
+            handleGetters[i] = handleUberspector.getPropertyGet(contents.get(0), FIELDS[i], INFO);
+        }
+
+        template = rsvc.parse(new StringReader("#foreach($content in $contents)"
+                + "<article id=\"$content.identifier\"><h2><a href=\"/news/$content.urlTitle\">$content.title</a></h2>"
+                + "<p>$!content.summary</p><span>$content.author $content.publishDate</span></article>#end"), "benchmark");
+        final InternalContextAdapterImpl ica = new InternalContextAdapterImpl(new VelocityContext());
+        ica.pushCurrentTemplateName("benchmark");
+        template.init(ica, rsvc);
+    }
+
+    @GenerateMicroBenchmark
+    public int reflectionGetters() throws Exception {
+
+        int length = 0;
+        final VelPropertyGet[] getters = new VelPropertyGet[FIELDS.length];
+        for (final Content content : contents) {
+            for (int i = 0; i < FIELDS.length; i++) {
+                if (null == getters[i]) {
+                    getters[i] = secureUberspector.getPropertyGet(content, FIELDS[i], INFO);
+                }
+                length += getters[i].invoke(content).toString().length();
+            }
+        }
+        return length;
+    }
+
+    @GenerateMicroBenchmark
+    public int handleGetters() throws Exception {
+
+        int length = 0;
+        for (final Content content : contents) {
+            for (int i = 0; i < FIELDS.length; i++) {
+                length += handleGetters[i].invoke(content).toString().length();
+            }
+        }
+        return length;
+    }
+
+    @GenerateMicroBenchmark
+    public String renderTemplate() throws Exception {
+
+        final VelocityContext context = new VelocityContext();
+        context.put("contents", contents);
+        final InternalContextAdapterImpl ica = new InternalContextAdapterImpl(context);
+        final StringWriter writer = new StringWriter();
+        template.render(ica, writer);
+        return writer.toString();
+    }
+
+    public static class Content {
+
+        private final String identifier;
+        private final String urlTitle;
+        private final Map<String, Object> fields;
+
+        public Content(final String identifier, final String urlTitle, final Map<String, Object> fields) {
+            this.identifier = identifier;
+            this.urlTitle = urlTitle;
+            this.fields = fields;
+        }
+
+        public String getIdentifier() {
+            return identifier;
+        }
+
+        public String getUrlTitle() {
+            return urlTitle;
+        }
+
+        public Object get(final String field) {
+            return fields.get(field);
+        }
+    }
+
+}
@@ -0,0 +1,139 @@
+package org.apache.velocity.util.introspection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.dotcms.UnitTestBase;
+import com.dotmarketing.util.VelocityUtil;
+import java.lang.reflect.InvocationTargetException;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class MethodHandleUberspectorTest extends UnitTestBase {
+
+    private static final Info INFO = new Info("test", 1, 1);
+
+    private static MethodHandleUberspector uberspector;
+
+    @BeforeClass
+    public static void init() {
+        uberspector = new MethodHandleUberspector();
+        uberspector.setRuntimeServices(VelocityUtil.getEngine().getRuntimeServices());
+        uberspector.init();
+    }
+
+    @Test
+    public void testGetters() throws Exception {
+
+        final Article article = new Article("A title");
+
+        final VelPropertyGet title = uberspector.getPropertyGet(article, "title", INFO);
+        final VelPropertyGet published = uberspector.getPropertyGet(article, "published", INFO);
+        final VelPropertyGet field = uberspector.getPropertyGet(article, "summary", INFO);
+
+        assertTrue(title instanceof MethodHandleUberspector.HandleGetter);
+        assertEquals("A title", title.invoke(article));
+        assertEquals("getTitle", title.getMethodName());
+        assertEquals(Boolean.TRUE, published.invoke(article));
+        assertEquals("field:summary", field.invoke(article));
+        assertNull(uberspector.getPropertyGet(new Object(), "title", INFO));
+    }
+
+    @Test
+    public void testMethods() throws Exception {
+
+        final Article article = new Article("A title");
+
+        final VelMethod repeat = uberspector.getMethod(article, "repeat", new Object[]{"ab", 3}, INFO);
+        final VelMethod add = uberspector.getMethod(article, "add", new Object[]{1, 2}, INFO);
+        final VelMethod touch = uberspector.getMethod(article, "touch", new Object[0], INFO);
+
+        assertTrue(repeat instanceof MethodHandleUberspector.HandleMethod);
+        assertEquals("ababab", repeat.invoke(article, new Object[]{"ab", 3}));
+        // Integers to longs are converted by reflection
+        assertEquals(3L, add.invoke(article, new Object[]{1, 2}));
+        assertNull(touch.invoke(article, new Object[0]));
+        assertEquals(1, article.touched);
+    }
+
+    @Test
+    public void testExceptionsAreWrappedAsByReflection() throws Exception {
+
+        final Article article = new Article("A title");
+        final VelMethod failing = uberspector.getMethod(article, "fail", new Object[0], INFO);
+
+        try {
+            failing.invoke(article, new Object[0]);
+            fail("the exception of the method should be thrown");
+        } catch (InvocationTargetException e) {
+            assertTrue(e.getTargetException() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void testInlineCache() {
+
+        final Object getter = new Object();
+        final Class[] strings = {String.class};
+
+        InlineCache cache = InlineCache.EMPTY.with(Article.class, null, getter);
+        cache = cache.with(Article.class, strings, "method");
+
+        assertSame(getter, cache.get(Article.class, null));
+        assertEquals("method", cache.get(Article.class, new Class[]{String.class}));
+        assertNull(cache.get(Article.class, new Class[]{Integer.class}));
+        assertNull(cache.get(Object.class, null));
+
+        for (int i = 0; i < InlineCache.MAX_ENTRIES; i++) {
+            cache = cache.with(Integer.class, new Class[i], "other");
+        }
+        assertEquals(InlineCache.MAX_ENTRIES, cache.size());
+        assertSame(getter, cache.get(Article.class, null));
+    }
+
+    public static class Article {
+
+        private final String title;
+        private int touched = 0;
+
+        public Article(final String title) {
+            this.title = title;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public boolean isPublished() {
+            return true;
+        }
+
+        public Object get(final String field) {
+            return "field:" + field;
+        }
+
+        public String repeat(final String text, final int times) {
+            final StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < times; i++) {
+                builder.append(text);
+            }
+            return builder.toString();
+        }
+
+        public long add(final long a, final long b) {
+            return a + b;
+        }
+
+        public void touch() {
+            touched++;
+        }
+
+        public void fail() {
+            throw new IllegalStateException("fail");
+        }
+    }
+
+}